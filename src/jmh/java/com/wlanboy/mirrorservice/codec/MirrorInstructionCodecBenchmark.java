@@ -0,0 +1,90 @@
+package com.wlanboy.mirrorservice.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Deserialisierung und Validierung einer {@link MirrorInstruction}: Jackson plus
+ * Bean Validation gegen den Lesepfad der Converter ({@link MirrorInstructionDecoder},
+ * Jackson nur als Rückfall) mit derselben Bean Validation. {@code flat} deckt der Decoder ab, {@code latency}
+ * geht in beiden Fällen durch Jackson. Mit {@code -prof gc} auch Bytes pro Operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MirrorInstructionCodecBenchmark {
+
+    @Param({"flat", "latency"})
+    String shape;
+
+    private byte[] body;
+    private JsonMapper jsonMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        String json = switch (shape) {
+            case "flat" -> """
+                {"statusCode":201,"waitMs":25,"responseBody":"Hello World",\
+                "responseHeaders":{"X-Test":"bench","Cache-Control":"no-store"}}""";
+            case "latency" -> """
+                {"statusCode":200,"responseBody":"ok",\
+                "latency":{"type":"LOG_NORMAL","medianMs":50,"sigma":0.8}}""";
+            default -> throw new IllegalArgumentException(shape);
+        };
+        body = json.getBytes(StandardCharsets.UTF_8);
+        jsonMapper = JsonMapper.builder().build();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public MirrorInstruction jacksonAndValidator() {
+        return validate(jsonMapper.readValue(body, MirrorInstruction.class));
+    }
+
+    @Benchmark
+    public MirrorInstruction decoder() {
+        MirrorInstruction instruction = MirrorInstructionDecoder.decode(body, 0, body.length);
+        return validate(instruction != null ? instruction : jsonMapper.readValue(body, MirrorInstruction.class));
+    }
+
+    private MirrorInstruction validate(MirrorInstruction instruction) {
+        Set<ConstraintViolation<MirrorInstruction>> violations = validator.validate(instruction);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.iterator().next().getMessage());
+        }
+        return instruction;
+    }
+}
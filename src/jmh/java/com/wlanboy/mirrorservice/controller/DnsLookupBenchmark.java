@@ -0,0 +1,107 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.wlanboy.mirrorservice.dns.DnsCacheProperties;
+import com.wlanboy.mirrorservice.dns.NioDnsProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Abbildung von Auflösungsergebnissen auf die Antworten von {@code /resolve}
+ * gegen einen {@link DnsResolver} mit festen Adressen, einmal direkt und einmal
+ * über den Controller inklusive Wechsel auf den virtuellen Lookup-Thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DnsLookupBenchmark {
+
+    private static final String UNKNOWN_HOST = "unbekannt.invalid";
+
+    @Param({"1", "4", "16"})
+    int addressCount;
+
+    private StubDnsResolver resolver;
+    private DnsLookupOperations operations;
+    private DnsLookupController controller;
+
+    @Setup
+    public void setUp() throws UnknownHostException {
+        InetAddress[] addresses = new InetAddress[addressCount];
+        for (int i = 0; i < addressCount; i++) {
+            addresses[i] = InetAddress.getByAddress("bench.example", new byte[] {10, 0, (byte) (i >> 8), (byte) i});
+        }
+        resolver = new StubDnsResolver(addresses);
+        DnsBatchProperties batchProperties = new DnsBatchProperties(1000, 64, Duration.ofSeconds(10));
+        PingBatchProperties pingBatchProperties = new PingBatchProperties(1000, 256, Duration.ofSeconds(30));
+        operations = new DnsLookupOperations(resolver, batchProperties, pingBatchProperties);
+        controller = new DnsLookupController(resolver, batchProperties, pingBatchProperties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        operations.close();
+        controller.shutdown();
+        resolver.shutdown();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> resolveMapping() {
+        return operations.resolve("bench.example");
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> resolveNotFoundMapping() {
+        return operations.resolve(UNKNOWN_HOST);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> resolveEndpoint() {
+        return controller.resolveDns("bench.example").block();
+    }
+
+    /** Ohne Cache und NIO-Client; liefert feste Adressen bzw. eine vorab erzeugte Exception. */
+    static final class StubDnsResolver extends DnsResolver {
+
+        private static final UnknownHostException NOT_FOUND = new UnknownHostException(UNKNOWN_HOST);
+
+        private final InetAddress[] addresses;
+
+        StubDnsResolver(InetAddress[] addresses) {
+            super(new DnsCacheProperties(false, 0, Duration.ZERO, Duration.ZERO, false, 0),
+                new NioDnsProperties(false, null, null, 1, Duration.ofSeconds(2), 2, true, 128),
+                new SimpleMeterRegistry());
+            this.addresses = addresses;
+        }
+
+        @Override
+        public InetAddress[] getAllByName(String hostname) throws UnknownHostException {
+            if (UNKNOWN_HOST.equals(hostname)) {
+                throw NOT_FOUND;
+            }
+            return addresses.clone();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Aufbau der Mirror-Antwort ohne Verzögerung, abhängig von der Zahl der
+ * gespiegelten Header und der Body-Größe. Gemessen wird der Controller bis zur
+ * fertigen {@link ResponseEntity}, ohne HTTP-Stack und Serialisierung.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MirrorControllerBenchmark {
+
+    @Param({"0", "8", "32"})
+    int headerCount;
+
+    @Param({"0", "1024", "65536"})
+    int bodySize;
+
+    private MirrorDelayScheduler scheduler;
+    private MirrorController controller;
+    private MirrorInstruction instruction;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        scheduler = new MirrorDelayScheduler(new MirrorTimerProperties(Duration.ofMillis(10), 512), registry);
+        FixtureStore fixtures = new FixtureStore(
+            new FixtureProperties(Path.of("src/test/resources/fixtures"), Duration.ofSeconds(2)), registry);
+        controller = new MirrorController(new InjectedDelayMetrics(registry), scheduler,
+            new ThrottledStreams(scheduler, registry), fixtures,
+            new RateLimiter(new RateLimitProperties(100_000, Duration.ofSeconds(10)), registry),
+            new SequenceCursors(new SequenceProperties(100_000, Duration.ofSeconds(10)), registry));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("X-Bench-" + i, "value-" + i);
+        }
+        instruction = new MirrorInstruction(201, 0, "x".repeat(bodySize), headers, null, null, null, null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> executeMirror() {
+        return controller.mirror(instruction, null).block();
+    }
+}
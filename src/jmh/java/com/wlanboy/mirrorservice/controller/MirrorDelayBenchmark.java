@@ -0,0 +1,80 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+
+/**
+ * Reaktiver Verzögerungspfad: Kosten für das Anlegen und Abbrechen eines
+ * Timer-Eintrags (z.B. bei Verbindungsabbruch) sowie die tatsächliche
+ * Antwortzeit einer um 1 ms verzögerten Mirror-Antwort bei 1 ms Tick.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MirrorDelayBenchmark {
+
+    private MirrorDelayScheduler scheduler;
+    private MirrorController controller;
+    private MirrorInstruction delayed;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        scheduler = new MirrorDelayScheduler(new MirrorTimerProperties(Duration.ofMillis(1), 512), registry);
+        FixtureStore fixtures = new FixtureStore(
+            new FixtureProperties(Path.of("src/test/resources/fixtures"), Duration.ofSeconds(2)), registry);
+        controller = new MirrorController(new InjectedDelayMetrics(registry), scheduler,
+            new ThrottledStreams(scheduler, registry), fixtures,
+            new RateLimiter(new RateLimitProperties(100_000, Duration.ofSeconds(10)), registry),
+            new SequenceCursors(new SequenceProperties(100_000, Duration.ofSeconds(10)), registry));
+        delayed = new MirrorInstruction(200, 1, "OK", Map.of(), null, null, null, null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void scheduleAndCancel() {
+        Disposable pending = scheduler.delay(60_000).subscribe();
+        pending.dispose();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResponseEntity<Object> delayedMirror() {
+        return controller.mirror(delayed, null).block();
+    }
+}
@@ -0,0 +1,69 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wlanboy.mirrorservice.controller.RateLimitSpec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Token-Abfrage mit vier Threads: bei einem Schlüssel konkurrieren alle um
+ * denselben Bucket, bei vielen Schlüsseln verteilt sich die Last auf die Map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "1024", "1048576"})
+    int keyCount;
+
+    private RateLimiter limiter;
+    private RateLimitSpec spec;
+    private RateLimitClient[] clients;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(new RateLimitProperties(2 * keyCount, Duration.ofSeconds(10)), new SimpleMeterRegistry());
+        spec = new RateLimitSpec(RateLimitSpec.MAX_LIMIT, 1000L, RateLimitSpec.Key.HEADER, null, "bench");
+        clients = new RateLimitClient[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            String id = "client-" + i;
+            clients[i] = new RateLimitClient() {
+                @Override
+                public String address() {
+                    return "127.0.0.1";
+                }
+
+                @Override
+                public String header(String name) {
+                    return id;
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    public RateLimitDecision acquire() {
+        return limiter.acquire(spec, clients[ThreadLocalRandom.current().nextInt(keyCount)], null);
+    }
+}
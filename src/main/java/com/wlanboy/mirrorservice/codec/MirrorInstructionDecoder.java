@@ -0,0 +1,321 @@
+package com.wlanboy.mirrorservice.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+/**
+ * Schneller Decoder für den häufigen Fall einer flachen {@link MirrorInstruction}
+ * ({@code statusCode}, {@code waitMs}, {@code responseBody}, {@code responseHeaders},
+ * {@code fixture}). Liest das JSON in einem Durchlauf direkt aus dem Byte-Array,
+ * ohne Token-Objekte oder Zwischenbäume. Fehlende Felder gehen wie bei Jackson
+ * als {@code null} an den Record-Konstruktor, der die Defaults setzt. Er
+ * ersetzt nur das Databinding: die Wertebereiche prüft weiterhin Bean
+ * Validation über {@code @Valid} am Controller, mit denselben Fehlerantworten
+ * wie beim Jackson-Pfad.
+ * <p>
+ * Alles, was Jackson anders oder nachsichtiger behandeln könnte (verschachtelte
+ * Specs, unbekannte Felder, Zahlen als String oder mit Nachkommastellen,
+ * Nicht-ASCII-Strings, {@code null} für Zahlen, ungültiges JSON), liefert
+ * {@code null}; der Aufrufer fällt dann auf Jackson zurück. So bleibt das
+ * Verhalten in jedem Fall identisch zum generischen Pfad.
+ */
+public final class MirrorInstructionDecoder {
+
+    private static final byte[] STATUS_CODE = ascii("statusCode");
+    private static final byte[] WAIT_MS = ascii("waitMs");
+    private static final byte[] RESPONSE_BODY = ascii("responseBody");
+    private static final byte[] RESPONSE_HEADERS = ascii("responseHeaders");
+    private static final byte[] FIXTURE = ascii("fixture");
+    private static final byte[] LATENCY = ascii("latency");
+    private static final byte[] PAYLOAD = ascii("payload");
+    private static final byte[] THROTTLE = ascii("throttle");
+    private static final byte[] RATE_LIMIT = ascii("rateLimit");
+    private static final byte[] SEQUENCE = ascii("sequence");
+    private static final byte[] NULL = ascii("null");
+
+    /** Ohne Stacktrace vorab erzeugt: der Rückfall auf Jackson kostet keine Allokation. */
+    private static final RuntimeException FALLBACK = new RuntimeException("fallback", null, false, false) {
+    };
+
+    private final byte[] data;
+    private final int end;
+    private int pos;
+
+    private MirrorInstructionDecoder(byte[] data, int offset, int length) {
+        this.data = data;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * @return die Instruktion wie von Jackson gebunden, noch ohne Bean Validation,
+     *         oder {@code null}, wenn Jackson übernehmen muss
+     * @throws IllegalArgumentException aus dem Record-Konstruktor
+     */
+    public static MirrorInstruction decode(byte[] data, int offset, int length) {
+        try {
+            return new MirrorInstructionDecoder(data, offset, length).instruction();
+        } catch (RuntimeException e) {
+            if (e == FALLBACK) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private MirrorInstruction instruction() {
+        Integer statusCode = null;
+        Integer waitMs = null;
+        String responseBody = null;
+        Map<String, String> responseHeaders = null;
+        String fixture = null;
+
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+        } else {
+            while (true) {
+                int keyStart = pos + 1;
+                int keyEnd = skipAsciiKey();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (keyIs(keyStart, keyEnd, STATUS_CODE)) {
+                    statusCode = readInt();
+                } else if (keyIs(keyStart, keyEnd, WAIT_MS)) {
+                    waitMs = readInt();
+                } else if (keyIs(keyStart, keyEnd, RESPONSE_BODY)) {
+                    responseBody = readNullableString();
+                } else if (keyIs(keyStart, keyEnd, RESPONSE_HEADERS)) {
+                    responseHeaders = readNullableStringMap();
+                } else if (keyIs(keyStart, keyEnd, FIXTURE)) {
+                    fixture = readNullableString();
+                } else if (keyIs(keyStart, keyEnd, LATENCY) || keyIs(keyStart, keyEnd, PAYLOAD) || keyIs(keyStart, keyEnd, THROTTLE)
+                        || keyIs(keyStart, keyEnd, RATE_LIMIT) || keyIs(keyStart, keyEnd, SEQUENCE)) {
+                    readNull();
+                } else {
+                    throw FALLBACK;
+                }
+                skipWhitespace();
+                byte next = next();
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw FALLBACK;
+                }
+                skipWhitespace();
+            }
+        }
+        skipWhitespace();
+        if (pos != end) {
+            throw FALLBACK;
+        }
+        return new MirrorInstruction(statusCode, waitMs, responseBody, responseHeaders, null, null, null, fixture, null, null);
+    }
+
+    private int readInt() {
+        boolean negative = peek() == '-';
+        if (negative) {
+            pos++;
+        }
+        int start = pos;
+        long value = 0;
+        while (pos < end && data[pos] >= '0' && data[pos] <= '9') {
+            value = value * 10 + (data[pos++] - '0');
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw FALLBACK;
+            }
+        }
+        int digits = pos - start;
+        if (digits == 0 || (digits > 1 && data[start] == '0') || !atValueEnd()) {
+            throw FALLBACK;
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw FALLBACK;
+        }
+        return (int) value;
+    }
+
+    private String readNullableString() {
+        if (peek() == 'n') {
+            readNull();
+            return null;
+        }
+        return readString();
+    }
+
+    private Map<String, String> readNullableStringMap() {
+        if (peek() == 'n') {
+            readNull();
+            return null;
+        }
+        expect('{');
+        Map<String, String> map = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            map.put(key, readString());
+            skipWhitespace();
+            byte next = next();
+            if (next == '}') {
+                return map;
+            }
+            if (next != ',') {
+                throw FALLBACK;
+            }
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * ASCII-String ohne Kontrollzeichen; Escape-Sequenzen werden aufgelöst.
+     */
+    private String readString() {
+        expect('"');
+        int start = pos;
+        while (true) {
+            byte b = peek();
+            if (b == '"') {
+                String value = new String(data, start, pos - start, StandardCharsets.ISO_8859_1);
+                pos++;
+                return value;
+            }
+            if (b == '\\') {
+                return readEscapedString(start);
+            }
+            if (b < 0x20) {
+                throw FALLBACK;
+            }
+            pos++;
+        }
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder value = new StringBuilder(pos - start + 16);
+        for (int i = start; i < pos; i++) {
+            value.append((char) data[i]);
+        }
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                return value.toString();
+            }
+            if (b < 0x20) {
+                throw FALLBACK;
+            }
+            if (b != '\\') {
+                value.append((char) b);
+                continue;
+            }
+            byte escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append((char) escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> value.append(readHexChar());
+                default -> throw FALLBACK;
+            }
+        }
+    }
+
+    private char readHexChar() {
+        int c = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(next(), 16);
+            if (digit < 0) {
+                throw FALLBACK;
+            }
+            c = (c << 4) | digit;
+        }
+        return (char) c;
+    }
+
+    /** Feldname ohne Escapes; liefert die Endposition vor dem schließenden Anführungszeichen. */
+    private int skipAsciiKey() {
+        expect('"');
+        while (true) {
+            byte b = peek();
+            if (b == '"') {
+                return pos++;
+            }
+            if (b == '\\' || b < 0x20) {
+                throw FALLBACK;
+            }
+            pos++;
+        }
+    }
+
+    private boolean keyIs(int start, int keyEnd, byte[] name) {
+        return keyEnd - start == name.length && Arrays.equals(data, start, keyEnd, name, 0, name.length);
+    }
+
+    private void readNull() {
+        if (end - pos < NULL.length || !Arrays.equals(data, pos, pos + NULL.length, NULL, 0, NULL.length)) {
+            throw FALLBACK;
+        }
+        pos += NULL.length;
+        if (!atValueEnd()) {
+            throw FALLBACK;
+        }
+    }
+
+    private boolean atValueEnd() {
+        if (pos >= end) {
+            return false;
+        }
+        byte b = data[pos];
+        return b == ',' || b == '}' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            byte b = data[pos];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private byte peek() {
+        if (pos >= end) {
+            throw FALLBACK;
+        }
+        return data[pos];
+    }
+
+    private byte next() {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw FALLBACK;
+        }
+        pos++;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
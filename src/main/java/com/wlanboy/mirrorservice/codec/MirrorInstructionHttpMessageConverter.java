@@ -0,0 +1,74 @@
+package com.wlanboy.mirrorservice.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Liest {@link MirrorInstruction}-Bodys auf dem Servlet-Stack über den
+ * {@link MirrorInstructionDecoder}; nur was der Decoder nicht abdeckt, geht an
+ * Jackson. Validiert wird wie bisher per {@code @Valid} am Controller, sodass
+ * verletzte Wertebereiche in beiden Fällen dieselbe 400-Antwort ergeben.
+ */
+@Component
+public class MirrorInstructionHttpMessageConverter extends AbstractHttpMessageConverter<MirrorInstruction> {
+
+    /** Größere Bodys mit bekannter Länge werden nicht vorab alloziert. */
+    private static final int MAX_PREALLOCATED = 1024 * 1024;
+
+    private final JsonMapper jsonMapper;
+
+    public MirrorInstructionHttpMessageConverter(JsonMapper jsonMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MirrorInstruction.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected MirrorInstruction readInternal(Class<? extends MirrorInstruction> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        InputStream in = inputMessage.getBody();
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        byte[] body;
+        int length;
+        if (contentLength >= 0 && contentLength <= MAX_PREALLOCATED) {
+            body = new byte[(int) contentLength];
+            length = in.readNBytes(body, 0, body.length);
+        } else {
+            body = in.readAllBytes();
+            length = body.length;
+        }
+        try {
+            MirrorInstruction instruction = MirrorInstructionDecoder.decode(body, 0, length);
+            return instruction != null ? instruction : jsonMapper.readValue(body, 0, length, MirrorInstruction.class);
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new HttpMessageNotReadableException("Ungültige MirrorInstruction: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(MirrorInstruction instruction, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("MirrorInstruction wird nur gelesen");
+    }
+}
@@ -0,0 +1,50 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Verteilt blockierende Einzelaufgaben parallel auf einen Scheduler und liefert
+ * die Ergebnisse in Fertigstellungsreihenfolge. Nach Ablauf der Deadline werden
+ * die noch offenen Aufgaben abgebrochen und stattdessen mit {@code onTimeout}
+ * beantwortet, sodass jede Eingabe genau ein Ergebnis erhält.
+ */
+final class BatchFanOut {
+
+    private BatchFanOut() {
+    }
+
+    @FunctionalInterface
+    interface Task<T, R> {
+        R run(T item) throws Exception;
+    }
+
+    static <T, R> Flux<R> fanOut(List<T> items, Task<T, R> task, Function<T, R> onTimeout,
+            int concurrency, Duration deadline, Scheduler scheduler) {
+        AtomicIntegerArray emitted = new AtomicIntegerArray(items.size());
+
+        Flux<Indexed<R>> completed = Flux.range(0, items.size())
+            .flatMap(i -> {
+                T item = items.get(i);
+                Callable<Indexed<R>> call = () -> new Indexed<>(i, task.run(item));
+                return Mono.fromCallable(call).subscribeOn(scheduler);
+            }, Math.max(1, concurrency))
+            .take(deadline)
+            .doOnNext(result -> emitted.set(result.index(), 1));
+
+        Flux<Indexed<R>> timedOut = Flux.defer(() -> Flux.range(0, items.size())
+            .filter(i -> emitted.get(i) == 0)
+            .map(i -> new Indexed<>(i, onTimeout.apply(items.get(i)))));
+
+        return completed.concatWith(timedOut).map(Indexed::value);
+    }
+
+    private record Indexed<R>(int index, R value) {}
+}
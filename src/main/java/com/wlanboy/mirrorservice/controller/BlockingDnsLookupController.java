@@ -0,0 +1,101 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+
+/**
+ * Synchrone Variante von {@link DnsLookupController} für {@code mirror.execution-mode=virtual}.
+ * Ping und Einzelauflösung rufen den {@link DnsResolver} direkt auf dem
+ * Request-Thread auf; die Batch-Endpunkte streamen weiterhin über Reactor.
+ */
+@RestController
+@ConditionalOnProperty(name = "mirror.execution-mode", havingValue = "virtual")
+@Tag(name = "DNS Lookup", description = "Führt DNS-Auflösungen und Erreichbarkeitstests für Hostnamen durch.")
+public class BlockingDnsLookupController {
+
+    private final DnsLookupOperations operations;
+
+    public BlockingDnsLookupController(DnsResolver dnsResolver, DnsBatchProperties batchProperties,
+            PingBatchProperties pingBatchProperties) {
+        this.operations = new DnsLookupOperations(dnsResolver, batchProperties, pingBatchProperties);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        operations.close();
+    }
+
+    @Operation(summary = "Host anpingen", description = "Prüft die Erreichbarkeit eines Hosts (mode=icmp, tcp oder detailed).")
+    @GetMapping("/ping/{hostname}")
+    public ResponseEntity<PingResult> ping(
+            @PathVariable String hostname,
+            @Schema(description = "Timeout in Millisekunden", example = "1000")
+            @RequestParam(defaultValue = "1000") int timeoutMs,
+            @Schema(description = "Probe-Modus", allowableValues = {"icmp", "tcp", "detailed"}, defaultValue = "icmp")
+            @RequestParam(defaultValue = "icmp") String mode,
+            @Schema(description = "TCP-Ports für mode=tcp", example = "[80, 443]")
+            @RequestParam(required = false) List<Integer> ports,
+            @Schema(description = "TCP-Port für mode=detailed", example = "443", defaultValue = "443")
+            @RequestParam(defaultValue = "443") int port,
+            @Schema(description = "TLS-Handshake durchführen (mode=detailed), Standard: nur bei Port 443", example = "true")
+            @RequestParam(required = false) Boolean tls,
+            @Schema(description = "Pfad für eine HEAD-Anfrage zur Messung der Zeit bis zum ersten Byte (mode=detailed)", example = "/")
+            @RequestParam(required = false) String httpPath) {
+        try {
+            PingResult result = switch (mode) {
+                case "icmp" -> operations.pingIcmp(hostname, timeoutMs);
+                case "tcp" -> operations.pingTcp(hostname, timeoutMs, DnsLookupOperations.toPorts(ports));
+                case "detailed" -> operations.pingDetailed(
+                    DnsLookupOperations.toPhaseRequest(hostname, port, tls, httpPath, timeoutMs));
+                default -> throw DnsLookupOperations.unknownMode(mode);
+            };
+            return DnsLookupOperations.toResponse(result);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            return DnsLookupOperations.toErrorResponse(hostname, e);
+        }
+    }
+
+    @Operation(summary = "Batch-Ping", description = "Prüft eine Liste von Hosts parallel und streamt jedes PingResult als NDJSON.")
+    @PostMapping(value = "/ping", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PingResult> pingBatch(
+            @RequestBody List<String> hostnames,
+            @RequestParam(defaultValue = "1000") int timeoutMs,
+            @RequestParam(defaultValue = "icmp") String mode,
+            @RequestParam(required = false) List<Integer> ports,
+            @RequestParam(required = false) Integer concurrency) {
+        return operations.pingBatch(hostnames, timeoutMs, mode, ports, concurrency);
+    }
+
+    @Operation(summary = "DNS-Auflösung durchführen", description = "Führt eine lokale DNS-Auflösung für den angegebenen Hostnamen durch.")
+    @GetMapping("/resolve/{hostname}")
+    public ResponseEntity<List<String>> resolveDns(@PathVariable String hostname) {
+        return operations.resolve(hostname);
+    }
+
+    @Operation(summary = "Batch-DNS-Auflösung", description = "Löst eine Liste von Hostnamen parallel auf und streamt die Ergebnisse als NDJSON.")
+    @PostMapping(value = "/resolve", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DnsBatchResult> resolveDnsBatch(
+            @RequestBody List<String> hostnames,
+            @RequestParam(required = false) Integer concurrency,
+            @RequestParam(required = false) Long deadlineMs) {
+        return operations.resolveBatch(hostnames, concurrency, deadlineMs);
+    }
+}
@@ -0,0 +1,85 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitDecision;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * Synchrone Variante von {@link MirrorController} für {@code mirror.execution-mode=virtual}.
+ * Jeder Request läuft auf einem eigenen virtuellen Thread, die Verzögerung ist ein
+ * einfaches {@link Thread#sleep(long)}.
+ */
+@RestController
+@ConditionalOnProperty(name = "mirror.execution-mode", havingValue = "virtual")
+@RequestMapping("/mirror")
+@Tag(name = "Mirror", description = "Gibt HTTP-Antworten mit konfigurierbarem Statuscode, Headers, Body und optionaler Verzögerung zurück. Nützlich für Tests von Timeouts, Fehlerverhalten und Header-Verarbeitung.")
+public class BlockingMirrorController {
+
+    private final InjectedDelayMetrics delayMetrics;
+    private final ThrottledStreams throttledStreams;
+    private final FixtureStore fixtures;
+    private final RateLimiter rateLimiter;
+    private final SequenceCursors sequences;
+
+    public BlockingMirrorController(InjectedDelayMetrics delayMetrics, ThrottledStreams throttledStreams, FixtureStore fixtures,
+            RateLimiter rateLimiter, SequenceCursors sequences) {
+        this.delayMetrics = delayMetrics;
+        this.throttledStreams = throttledStreams;
+        this.fixtures = fixtures;
+        this.rateLimiter = rateLimiter;
+        this.sequences = sequences;
+    }
+
+    @Operation(summary = "Mirror GET/HEAD Request", description = "Spiegelt den GET/HEAD-Request basierend auf den Query-Parametern.")
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.HEAD})
+    public ResponseEntity<Object> mirrorGet(@ParameterObject MirrorInstruction instruction,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @Parameter(hidden = true) RateLimitClient client) throws InterruptedException {
+        return executeMirror(instruction, range, client);
+    }
+
+    @Operation(summary = "Mirror Request", description = "Spiegelt den Request basierend auf den Instruktionen im JSON-Body.")
+    @RequestMapping(method = {RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH})
+    public ResponseEntity<Object> mirror(@Valid @RequestBody MirrorInstruction instruction, @Parameter(hidden = true) RateLimitClient client)
+            throws InterruptedException {
+        return executeMirror(instruction, null, client);
+    }
+
+    private ResponseEntity<Object> executeMirror(MirrorInstruction requested, String range, RateLimitClient client)
+            throws InterruptedException {
+        RateLimitDecision rateLimit = requested.rateLimit() != null
+            ? rateLimiter.acquire(requested.rateLimit(), client, null)
+            : null;
+        if (rateLimit != null && !rateLimit.allowed()) {
+            return MirrorController.rejected(rateLimit);
+        }
+        MirrorInstruction instruction = requested.sequence() != null
+            ? requested.atStep(sequences.next(requested.sequence(), client, null))
+            : requested;
+        long delayMs = instruction.delayMs();
+        if (delayMs > 0 || instruction.latency() != null) {
+            long start = System.nanoTime();
+            Thread.sleep(delayMs);
+            delayMetrics.record(instruction, System.nanoTime() - start);
+        }
+        return MirrorController.toResponse(instruction, range, rateLimit, fixtures, throttledStreams);
+    }
+}
@@ -0,0 +1,13 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.dns.batch")
+public record DnsBatchProperties(
+    @DefaultValue("1000") int maxHosts,
+    @DefaultValue("64") int maxConcurrency,
+    @DefaultValue("10s") Duration deadline
+) {}
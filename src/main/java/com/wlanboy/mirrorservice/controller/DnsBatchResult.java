@@ -0,0 +1,22 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Ergebnis einer einzelnen DNS-Auflösung innerhalb einer Batch-Anfrage.")
+public record DnsBatchResult(
+    @Schema(description = "Angefragter Hostname", example = "example.com")
+    String hostname,
+
+    @Schema(description = "Status der Auflösung", example = "RESOLVED")
+    Status status,
+
+    @Schema(description = "Aufgelöste IP-Adressen", example = "[\"93.184.216.34\"]")
+    List<String> addresses,
+
+    @Schema(description = "Dauer der Auflösung in Millisekunden", example = "3")
+    long durationMs
+) {
+    public enum Status { RESOLVED, NOT_FOUND, FORBIDDEN, ERROR, TIMEOUT }
+}
@@ -1,11 +1,14 @@
 package com.wlanboy.mirrorservice.controller;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpStatus;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,32 +18,51 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Arrays;
+import jakarta.annotation.PreDestroy;
+
+import com.wlanboy.mirrorservice.net.PhaseProbe;
+
 import java.util.List;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @RestController
+@ConditionalOnProperty(name = "mirror.execution-mode", havingValue = "reactive", matchIfMissing = true)
 @Tag(name = "DNS Lookup", description = "Führt DNS-Auflösungen und Erreichbarkeitstests für Hostnamen durch.")
 public class DnsLookupController {
 
-    private final DnsResolver dnsResolver;
+    private final DnsLookupOperations operations;
+
+    public DnsLookupController(DnsResolver dnsResolver, DnsBatchProperties batchProperties,
+            PingBatchProperties pingBatchProperties) {
+        this.operations = new DnsLookupOperations(dnsResolver, batchProperties, pingBatchProperties);
+    }
 
-    public DnsLookupController(DnsResolver dnsResolver) {
-        this.dnsResolver = dnsResolver;
+    @PreDestroy
+    void shutdown() {
+        operations.close();
     }
 
     @Operation(
         summary = "Host anpingen",
-        description = "Prüft die Erreichbarkeit eines Hosts und gibt Antwortzeit sowie aufgelöste IP zurück."
+        description = "Prüft die Erreichbarkeit eines Hosts und gibt Antwortzeit sowie aufgelöste IP zurück. "
+            + "Mit mode=tcp wird statt InetAddress.isReachable ein nicht-blockierender TCP-Connect auf alle aufgelösten "
+            + "Adressen (IPv4 und IPv6) und alle angegebenen Ports parallel ausgeführt. "
+            + "Mit mode=detailed wird die Verbindung zu einem Port in DNS-Auflösung, TCP-Connect, TLS-Handshake und "
+            + "optional Zeit bis zum ersten HTTP-Antwortbyte aufgeteilt."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Host ist erreichbar",
             content = @Content(mediaType = "application/json", examples = {
-                @ExampleObject(name = "Erreichbar", value = "{\"hostname\": \"google.com\", \"resolvedIp\": \"142.250.185.46\", \"reachable\": true, \"responseTimeMs\": 12}")
+                @ExampleObject(name = "Erreichbar", value = "{\"hostname\": \"google.com\", \"resolvedIp\": \"142.250.185.46\", \"reachable\": true, \"responseTimeMs\": 12}"),
+                @ExampleObject(name = "TCP-Connect", summary = "mode=tcp&ports=80,443", value = "{\"hostname\": \"google.com\", \"resolvedIp\": \"142.250.185.46\", \"reachable\": true, \"responseTimeMs\": 11, "
+                    + "\"probes\": [{\"address\": \"142.250.185.46\", \"port\": 80, \"connected\": true, \"connectTimeUs\": 11873, \"error\": null}, "
+                    + "{\"address\": \"142.250.185.46\", \"port\": 443, \"connected\": true, \"connectTimeUs\": 12004, \"error\": null}, "
+                    + "{\"address\": \"2a00:1450:4001:82b::200e\", \"port\": 80, \"connected\": false, \"connectTimeUs\": 412, \"error\": \"Network is unreachable\"}, "
+                    + "{\"address\": \"2a00:1450:4001:82b::200e\", \"port\": 443, \"connected\": false, \"connectTimeUs\": 398, \"error\": \"Network is unreachable\"}]}"),
+                @ExampleObject(name = "Phasen", summary = "mode=detailed&port=443&httpPath=/", value = "{\"hostname\": \"google.com\", \"resolvedIp\": \"142.250.185.46\", \"reachable\": true, \"responseTimeMs\": 55, "
+                    + "\"phases\": {\"dnsUs\": 812, \"connectUs\": 11873, \"tlsUs\": 24310, \"firstByteUs\": 18240, \"totalUs\": 55235, \"tlsProtocol\": \"TLSv1.3\", \"httpStatus\": 301}}")
             })
         ),
         @ApiResponse(responseCode = "408", description = "Host nicht erreichbar (Timeout)",
@@ -48,6 +70,7 @@ public class DnsLookupController {
                 @ExampleObject(name = "Timeout", value = "{\"hostname\": \"192.0.2.1\", \"resolvedIp\": \"192.0.2.1\", \"reachable\": false, \"responseTimeMs\": 1000}")
             })
         ),
+        @ApiResponse(responseCode = "400", description = "Unbekannter Modus, fehlende/ungültige Ports für mode=tcp oder ungültiger Port/Pfad für mode=detailed"),
         @ApiResponse(responseCode = "404", description = "Hostname konnte nicht aufgelöst werden",
             content = @Content(mediaType = "application/json", examples = {
                 @ExampleObject(name = "Unbekannter Host", value = "{\"hostname\": \"unbekannt.local\", \"resolvedIp\": null, \"reachable\": false, \"responseTimeMs\": 0}")
@@ -63,26 +86,61 @@ public class DnsLookupController {
     public Mono<ResponseEntity<PingResult>> ping(
             @PathVariable String hostname,
             @Schema(description = "Timeout in Millisekunden", example = "1000")
-            @RequestParam(defaultValue = "1000") int timeoutMs) {
-        return Mono.fromCallable(() -> {
-            InetAddress address = dnsResolver.getByName(hostname);
-            long start = System.currentTimeMillis();
-            boolean reachable = dnsResolver.isReachable(address, timeoutMs);
-            long elapsed = System.currentTimeMillis() - start;
-            PingResult result = new PingResult(hostname, address.getHostAddress(), reachable, elapsed);
-            return reachable
-                ? ResponseEntity.ok(result)
-                : ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).body(result);
-        })
-        .subscribeOn(Schedulers.boundedElastic())
-        .onErrorResume(UnknownHostException.class, e ->
-            Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(new PingResult(hostname, null, false, 0)))
-        )
-        .onErrorResume(Exception.class, e ->
-            Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new PingResult(hostname, null, false, 0)))
-        );
+            @RequestParam(defaultValue = "1000") int timeoutMs,
+            @Schema(description = "Probe-Modus", allowableValues = {"icmp", "tcp", "detailed"}, defaultValue = "icmp")
+            @RequestParam(defaultValue = "icmp") String mode,
+            @Schema(description = "TCP-Ports für mode=tcp", example = "[80, 443]")
+            @RequestParam(required = false) List<Integer> ports,
+            @Schema(description = "TCP-Port für mode=detailed", example = "443", defaultValue = "443")
+            @RequestParam(defaultValue = "443") int port,
+            @Schema(description = "TLS-Handshake durchführen (mode=detailed), Standard: nur bei Port 443", example = "true")
+            @RequestParam(required = false) Boolean tls,
+            @Schema(description = "Pfad für eine HEAD-Anfrage zur Messung der Zeit bis zum ersten Byte (mode=detailed)", example = "/")
+            @RequestParam(required = false) String httpPath) {
+        Mono<PingResult> probe = switch (mode) {
+            case "icmp" -> Mono.fromCallable(() -> operations.pingIcmp(hostname, timeoutMs))
+                .subscribeOn(operations.scheduler());
+            case "tcp" -> operations.pingTcpAsync(hostname, timeoutMs, DnsLookupOperations.toPorts(ports));
+            case "detailed" -> {
+                PhaseProbe.Request request = DnsLookupOperations.toPhaseRequest(hostname, port, tls, httpPath, timeoutMs);
+                yield Mono.fromCallable(() -> operations.pingDetailed(request))
+                    .subscribeOn(operations.scheduler());
+            }
+            default -> throw DnsLookupOperations.unknownMode(mode);
+        };
+        return probe
+            .map(DnsLookupOperations::toResponse)
+            .onErrorResume(Exception.class, e -> Mono.just(DnsLookupOperations.toErrorResponse(hostname, e)));
+    }
+
+    @Operation(
+        summary = "Batch-Ping",
+        description = "Prüft eine Liste von Hosts parallel (mode=icmp oder mode=tcp) und streamt jedes PingResult als NDJSON, "
+            + "sobald es vorliegt. Die Gesamtdauer entspricht damit etwa der langsamsten Probe statt der Summe aller Proben. "
+            + "Hosts ohne Ergebnis bis zur Deadline werden als nicht erreichbar gemeldet."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ein PingResult pro Host, eine JSON-Zeile je Ergebnis",
+            content = @Content(mediaType = "application/x-ndjson", examples = {
+                @ExampleObject(name = "Teilergebnis", value = "{\"hostname\":\"gmk.lan\",\"resolvedIp\":\"192.168.100.101\",\"reachable\":true,\"responseTimeMs\":1}\n"
+                    + "{\"hostname\":\"unbekannt.local\",\"resolvedIp\":null,\"reachable\":false,\"responseTimeMs\":0}\n"
+                    + "{\"hostname\":\"192.0.2.1\",\"resolvedIp\":\"192.0.2.1\",\"reachable\":false,\"responseTimeMs\":1000}")
+            })
+        ),
+        @ApiResponse(responseCode = "400", description = "Leere Liste, zu viele Hosts, unbekannter Modus oder fehlende Ports für mode=tcp")
+    })
+    @PostMapping(value = "/ping", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PingResult> pingBatch(
+            @RequestBody List<String> hostnames,
+            @Schema(description = "Timeout pro Host in Millisekunden", example = "1000")
+            @RequestParam(defaultValue = "1000") int timeoutMs,
+            @Schema(description = "Probe-Modus", allowableValues = {"icmp", "tcp"}, defaultValue = "icmp")
+            @RequestParam(defaultValue = "icmp") String mode,
+            @Schema(description = "TCP-Ports für mode=tcp", example = "[80, 443]")
+            @RequestParam(required = false) List<Integer> ports,
+            @Schema(description = "Maximale Anzahl gleichzeitiger Proben (begrenzt durch mirror.ping.batch.max-concurrency)", example = "128")
+            @RequestParam(required = false) Integer concurrency) {
+        return operations.pingBatch(hostnames, timeoutMs, mode, ports, concurrency);
     }
 
     @Operation(
@@ -101,6 +159,11 @@ public class DnsLookupController {
                 @ExampleObject(name = "Unbekannter Host", value = "[\"Hostname 'unbekannt.local' konnte nicht aufgelöst werden.\"]")
             })
         ),
+        @ApiResponse(responseCode = "504", description = "Kein DNS-Server hat innerhalb aller Versuche geantwortet (nur NIO-Backend)",
+            content = @Content(mediaType = "application/json", examples = {
+                @ExampleObject(name = "DNS-Timeout", value = "[\"Kein DNS-Server hat für Hostname 'langsam.example' rechtzeitig geantwortet.\"]")
+            })
+        ),
         @ApiResponse(responseCode = "403", description = "DNS-Auflösung wegen Sicherheitseinschränkungen verweigert",
             content = @Content(mediaType = "application/json", examples = {
                 @ExampleObject(name = "SecurityManager", value = "[\"DNS-Auflösung aufgrund von Sicherheitseinschränkungen verweigert.\"]")
@@ -114,30 +177,32 @@ public class DnsLookupController {
     })
     @GetMapping("/resolve/{hostname}")
     public Mono<ResponseEntity<List<String>>> resolveDns(@PathVariable String hostname) {
-        return Mono.fromCallable(() -> {
-            InetAddress[] addresses = dnsResolver.getAllByName(hostname);
-            if (addresses.length > 0) {
-                List<String> ipAddresses = Arrays.stream(addresses)
-                    .map(InetAddress::getHostAddress)
-                    .toList();
-                return ResponseEntity.ok(ipAddresses);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(List.of("Keine IP-Adressen für Hostname '" + hostname + "' gefunden."));
-            }
-        })
-        .subscribeOn(Schedulers.boundedElastic())
-        .onErrorResume(UnknownHostException.class, e ->
-            Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(List.of("Hostname '" + hostname + "' konnte nicht aufgelöst werden.")))
-        )
-        .onErrorResume(SecurityException.class, e ->
-            Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN)
-                .body(List.of("DNS-Auflösung aufgrund von Sicherheitseinschränkungen verweigert.")))
-        )
-        .onErrorResume(Exception.class, e ->
-            Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(List.of("Ein unerwarteter Fehler ist aufgetreten.")))
-        );
+        return Mono.fromCallable(() -> operations.resolve(hostname))
+            .subscribeOn(operations.scheduler());
+    }
+
+    @Operation(
+        summary = "Batch-DNS-Auflösung",
+        description = "Löst eine Liste von Hostnamen parallel auf virtuellen Threads auf und streamt die Ergebnisse als NDJSON in "
+            + "Fertigstellungsreihenfolge. Hosts, die bis zur Deadline nicht aufgelöst sind, werden mit Status TIMEOUT gemeldet."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ein Ergebnis pro Hostname, eine JSON-Zeile je Ergebnis",
+            content = @Content(mediaType = "application/x-ndjson", examples = {
+                @ExampleObject(name = "Teilergebnis", value = "{\"hostname\":\"example.com\",\"status\":\"RESOLVED\",\"addresses\":[\"93.184.216.34\"],\"durationMs\":3}\n"
+                    + "{\"hostname\":\"unbekannt.local\",\"status\":\"NOT_FOUND\",\"addresses\":[],\"durationMs\":12}\n"
+                    + "{\"hostname\":\"langsam.example\",\"status\":\"TIMEOUT\",\"addresses\":[],\"durationMs\":10000}")
+            })
+        ),
+        @ApiResponse(responseCode = "400", description = "Leere Liste oder mehr Hostnamen als erlaubt")
+    })
+    @PostMapping(value = "/resolve", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DnsBatchResult> resolveDnsBatch(
+            @RequestBody List<String> hostnames,
+            @Schema(description = "Maximale Anzahl paralleler Auflösungen (begrenzt durch mirror.dns.batch.max-concurrency)", example = "32")
+            @RequestParam(required = false) Integer concurrency,
+            @Schema(description = "Gesamt-Deadline in Millisekunden (begrenzt durch mirror.dns.batch.deadline)", example = "5000")
+            @RequestParam(required = false) Long deadlineMs) {
+        return operations.resolveBatch(hostnames, concurrency, deadlineMs);
     }
 }
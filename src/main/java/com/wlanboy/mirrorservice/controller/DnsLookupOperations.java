@@ -0,0 +1,246 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.dns.DnsTimeoutException;
+import com.wlanboy.mirrorservice.net.PhaseProbe;
+import com.wlanboy.mirrorservice.net.TcpConnectProber;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Gemeinsame Logik der DNS- und Ping-Endpunkte für den reaktiven und den
+ * blockierenden Controller. Blockierende Methoden sind für virtuelle Threads
+ * gedacht; die Batch-Endpunkte streamen in beiden Modi über Reactor.
+ */
+final class DnsLookupOperations implements AutoCloseable {
+
+    private final DnsResolver dnsResolver;
+    private final DnsBatchProperties batchProperties;
+    private final PingBatchProperties pingBatchProperties;
+    private final Scheduler lookupScheduler =
+        Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "dns-lookup");
+
+    DnsLookupOperations(DnsResolver dnsResolver, DnsBatchProperties batchProperties, PingBatchProperties pingBatchProperties) {
+        this.dnsResolver = dnsResolver;
+        this.batchProperties = batchProperties;
+        this.pingBatchProperties = pingBatchProperties;
+    }
+
+    Scheduler scheduler() {
+        return lookupScheduler;
+    }
+
+    @Override
+    public void close() {
+        lookupScheduler.dispose();
+    }
+
+    // ---------------------------------------------------------
+    // Ping
+    // ---------------------------------------------------------
+
+    PingResult pingIcmp(String hostname, int timeoutMs) throws Exception {
+        InetAddress address = dnsResolver.getByName(hostname);
+        long start = System.currentTimeMillis();
+        boolean reachable = dnsResolver.isReachable(address, timeoutMs);
+        long elapsed = System.currentTimeMillis() - start;
+        return new PingResult(hostname, address.getHostAddress(), reachable, elapsed);
+    }
+
+    PingResult pingTcp(String hostname, int timeoutMs, int[] ports) throws Exception {
+        InetAddress[] addresses = dnsResolver.getAllByName(hostname);
+        return toPingResult(hostname, addresses, dnsResolver.probeTcp(addresses, ports, timeoutMs).join(), timeoutMs);
+    }
+
+    Mono<PingResult> pingTcpAsync(String hostname, int timeoutMs, int[] ports) {
+        return Mono.fromCallable(() -> dnsResolver.getAllByName(hostname))
+            .subscribeOn(lookupScheduler)
+            .flatMap(addresses -> Mono.fromFuture(() -> dnsResolver.probeTcp(addresses, ports, timeoutMs))
+                .map(results -> toPingResult(hostname, addresses, results, timeoutMs)));
+    }
+
+    PingResult pingDetailed(PhaseProbe.Request request) throws Exception {
+        return toPingResult(request.hostname(), dnsResolver.probePhases(request));
+    }
+
+    static ResponseEntity<PingResult> toResponse(PingResult result) {
+        return result.reachable()
+            ? ResponseEntity.ok(result)
+            : ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).body(result);
+    }
+
+    static ResponseEntity<PingResult> toErrorResponse(String hostname, Throwable error) {
+        HttpStatus status = error instanceof DnsTimeoutException ? HttpStatus.GATEWAY_TIMEOUT
+            : error instanceof UnknownHostException ? HttpStatus.NOT_FOUND
+            : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(new PingResult(hostname, null, false, 0));
+    }
+
+    static ResponseStatusException unknownMode(String mode) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unbekannter Modus '" + mode + "'.");
+    }
+
+    static int[] toPorts(List<Integer> ports) {
+        if (ports == null || ports.isEmpty() || ports.stream().anyMatch(p -> p == null || p < 1 || p > 65535)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode=tcp benötigt Ports zwischen 1 und 65535.");
+        }
+        return ports.stream().mapToInt(Integer::intValue).distinct().toArray();
+    }
+
+    static PhaseProbe.Request toPhaseRequest(String hostname, int port, Boolean tls, String httpPath, int timeoutMs) {
+        if (port < 1 || port > 65535) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode=detailed benötigt einen Port zwischen 1 und 65535.");
+        }
+        if (httpPath != null && (!httpPath.startsWith("/") || httpPath.chars().anyMatch(c -> c <= ' ' || c >= 0x7F))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "httpPath muss mit '/' beginnen und darf keine Leer- oder Steuerzeichen enthalten.");
+        }
+        return new PhaseProbe.Request(hostname, port, tls != null ? tls : port == 443, httpPath, timeoutMs);
+    }
+
+    private static PingResult toPingResult(String hostname, InetAddress[] addresses,
+            List<TcpConnectProber.ConnectResult> results, int timeoutMs) {
+        List<PortProbe> probes = results.stream()
+            .map(r -> new PortProbe(r.address().getHostAddress(), r.port(), r.connected(),
+                TimeUnit.NANOSECONDS.toMicros(r.connectNanos()), r.error()))
+            .toList();
+        var fastest = results.stream()
+            .filter(TcpConnectProber.ConnectResult::connected)
+            .min(Comparator.comparingLong(TcpConnectProber.ConnectResult::connectNanos));
+        String resolvedIp = fastest.map(r -> r.address().getHostAddress())
+            .orElse(addresses.length > 0 ? addresses[0].getHostAddress() : null);
+        long responseTimeMs = fastest.map(r -> TimeUnit.NANOSECONDS.toMillis(r.connectNanos())).orElse((long) timeoutMs);
+        return new PingResult(hostname, resolvedIp, fastest.isPresent(), responseTimeMs, probes);
+    }
+
+    private static PingResult toPingResult(String hostname, PhaseProbe.Result result) {
+        PhaseTimings phases = new PhaseTimings(
+            micros(result.dnsNanos()), micros(result.connectNanos()), micros(result.tlsNanos()), micros(result.firstByteNanos()),
+            TimeUnit.NANOSECONDS.toMicros(result.totalNanos()),
+            result.tlsProtocol(),
+            result.httpStatus() > 0 ? result.httpStatus() : null,
+            result.failedPhase() != null ? result.failedPhase().name() : null,
+            result.error());
+        return new PingResult(hostname, result.address().getHostAddress(), result.successful(),
+            TimeUnit.NANOSECONDS.toMillis(result.totalNanos()), null, phases);
+    }
+
+    private static Long micros(long nanos) {
+        return nanos >= 0 ? TimeUnit.NANOSECONDS.toMicros(nanos) : null;
+    }
+
+    // ---------------------------------------------------------
+    // Resolve
+    // ---------------------------------------------------------
+
+    ResponseEntity<List<String>> resolve(String hostname) {
+        try {
+            InetAddress[] addresses = dnsResolver.getAllByName(hostname);
+            if (addresses.length > 0) {
+                List<String> ipAddresses = Arrays.stream(addresses)
+                    .map(InetAddress::getHostAddress)
+                    .toList();
+                return ResponseEntity.ok(ipAddresses);
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(List.of("Keine IP-Adressen für Hostname '" + hostname + "' gefunden."));
+        } catch (DnsTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(List.of("Kein DNS-Server hat für Hostname '" + hostname + "' rechtzeitig geantwortet."));
+        } catch (UnknownHostException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(List.of("Hostname '" + hostname + "' konnte nicht aufgelöst werden."));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(List.of("DNS-Auflösung aufgrund von Sicherheitseinschränkungen verweigert."));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(List.of("Ein unerwarteter Fehler ist aufgetreten."));
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Batches
+    // ---------------------------------------------------------
+
+    Flux<DnsBatchResult> resolveBatch(List<String> hostnames, Integer concurrency, Long deadlineMs) {
+        if (hostnames.isEmpty() || hostnames.size() > batchProperties.maxHosts()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Es müssen zwischen 1 und " + batchProperties.maxHosts() + " Hostnamen angegeben werden.");
+        }
+        int parallelism = concurrency == null
+            ? batchProperties.maxConcurrency()
+            : Math.clamp(concurrency, 1, batchProperties.maxConcurrency());
+        Duration deadline = deadlineMs == null
+            ? batchProperties.deadline()
+            : Duration.ofMillis(Math.clamp(deadlineMs, 1, batchProperties.deadline().toMillis()));
+        long start = System.nanoTime();
+
+        return BatchFanOut.fanOut(hostnames, this::resolveSingle,
+            hostname -> new DnsBatchResult(hostname, DnsBatchResult.Status.TIMEOUT, List.of(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis()),
+            parallelism, deadline, lookupScheduler);
+    }
+
+    Flux<PingResult> pingBatch(List<String> hostnames, int timeoutMs, String mode, List<Integer> ports, Integer concurrency) {
+        if (hostnames.isEmpty() || hostnames.size() > pingBatchProperties.maxTargets()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Es müssen zwischen 1 und " + pingBatchProperties.maxTargets() + " Hosts angegeben werden.");
+        }
+        int[] tcpPorts = switch (mode) {
+            case "icmp" -> null;
+            case "tcp" -> toPorts(ports);
+            default -> throw unknownMode(mode);
+        };
+        int parallelism = concurrency == null
+            ? pingBatchProperties.maxConcurrency()
+            : Math.clamp(concurrency, 1, pingBatchProperties.maxConcurrency());
+
+        return BatchFanOut.fanOut(hostnames, hostname -> pingSingle(hostname, timeoutMs, tcpPorts),
+            hostname -> new PingResult(hostname, null, false, pingBatchProperties.deadline().toMillis()),
+            parallelism, pingBatchProperties.deadline(), lookupScheduler);
+    }
+
+    private PingResult pingSingle(String hostname, int timeoutMs, int[] tcpPorts) {
+        try {
+            return tcpPorts == null ? pingIcmp(hostname, timeoutMs) : pingTcp(hostname, timeoutMs, tcpPorts);
+        } catch (Exception e) {
+            return new PingResult(hostname, null, false, 0);
+        }
+    }
+
+    private DnsBatchResult resolveSingle(String hostname) {
+        long start = System.nanoTime();
+        DnsBatchResult.Status status;
+        List<String> ipAddresses = List.of();
+        try {
+            ipAddresses = Arrays.stream(dnsResolver.getAllByName(hostname))
+                .map(InetAddress::getHostAddress)
+                .toList();
+            status = ipAddresses.isEmpty() ? DnsBatchResult.Status.NOT_FOUND : DnsBatchResult.Status.RESOLVED;
+        } catch (DnsTimeoutException e) {
+            status = DnsBatchResult.Status.TIMEOUT;
+        } catch (UnknownHostException e) {
+            status = DnsBatchResult.Status.NOT_FOUND;
+        } catch (SecurityException e) {
+            status = DnsBatchResult.Status.FORBIDDEN;
+        } catch (Exception e) {
+            status = DnsBatchResult.Status.ERROR;
+        }
+        return new DnsBatchResult(hostname, status, ipAddresses, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+}
@@ -3,21 +3,154 @@ package com.wlanboy.mirrorservice.controller;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Component;
 
+import com.wlanboy.mirrorservice.dns.CoalescingLoader;
+import com.wlanboy.mirrorservice.dns.DnsCache;
+import com.wlanboy.mirrorservice.dns.DnsCacheProperties;
+import com.wlanboy.mirrorservice.dns.NioDnsClient;
+import com.wlanboy.mirrorservice.dns.NioDnsProperties;
+import com.wlanboy.mirrorservice.net.PhaseProbe;
+import com.wlanboy.mirrorservice.net.TcpConnectProber;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
 @Component
 public class DnsResolver {
 
+    private final NioDnsClient nioClient;
+    private final CoalescingLoader loader;
+    private final DnsCache cache;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TcpConnectProber tcpProber = new TcpConnectProber();
+    private final PhaseProbe phaseProbe = new PhaseProbe(this::getAllByName);
+    private final Map<PhaseProbe.Phase, Timer> phaseTimers = new EnumMap<>(PhaseProbe.Phase.class);
+
+    public DnsResolver(DnsCacheProperties cacheProperties, NioDnsProperties nioProperties, MeterRegistry meterRegistry) {
+        this.nioClient = nioProperties.enabled() ? new NioDnsClient(nioProperties) : null;
+        this.loader = new CoalescingLoader(nioClient != null ? nioClient : InetAddress::getAllByName);
+        this.cache = cacheProperties.enabled()
+            ? new DnsCache(loader, cacheProperties, refreshExecutor, System::nanoTime)
+            : null;
+        bindMetrics(loader, meterRegistry);
+        if (cache != null) {
+            bindMetrics(cache, meterRegistry);
+        }
+        if (nioClient != null) {
+            bindMetrics(nioClient, meterRegistry);
+        }
+        for (PhaseProbe.Phase phase : PhaseProbe.Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("ping.phase")
+                .description("Dauer einzelner Verbindungsphasen bei /ping mit mode=detailed")
+                .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+
     public InetAddress[] getAllByName(String hostname) throws UnknownHostException {
-        return InetAddress.getAllByName(hostname);
+        if (cache == null) {
+            return loader.load(hostname);
+        }
+        return cache.getAllByName(hostname);
     }
 
     public InetAddress getByName(String hostname) throws UnknownHostException {
-        return InetAddress.getByName(hostname);
+        return getAllByName(hostname)[0];
     }
 
     public boolean isReachable(InetAddress address, int timeoutMs) throws IOException {
         return address.isReachable(timeoutMs);
     }
+
+    public CompletableFuture<List<TcpConnectProber.ConnectResult>> probeTcp(InetAddress[] addresses, int[] ports, int timeoutMs) {
+        return tcpProber.probe(addresses, ports, Duration.ofMillis(timeoutMs));
+    }
+
+    /**
+     * Blockierende Phasenmessung (DNS, TCP, TLS, erstes Byte); nur auf virtuellen Threads aufrufen.
+     * Jede abgeschlossene Phase wird im Timer {@code ping.phase} erfasst.
+     */
+    public PhaseProbe.Result probePhases(PhaseProbe.Request request) throws UnknownHostException {
+        PhaseProbe.Result result = phaseProbe.probe(request);
+        record(PhaseProbe.Phase.DNS, result.dnsNanos());
+        record(PhaseProbe.Phase.CONNECT, result.connectNanos());
+        record(PhaseProbe.Phase.TLS, result.tlsNanos());
+        record(PhaseProbe.Phase.FIRST_BYTE, result.firstByteNanos());
+        return result;
+    }
+
+    private void record(PhaseProbe.Phase phase, long nanos) {
+        if (nanos >= 0) {
+            phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+        tcpProber.close();
+        if (nioClient != null) {
+            nioClient.close();
+        }
+    }
+
+    private static void bindMetrics(CoalescingLoader loader, MeterRegistry registry) {
+        FunctionCounter.builder("dns.lookup.calls", loader, CoalescingLoader::calls)
+            .description("Tatsächliche Aufrufe des System-Resolvers")
+            .register(registry);
+        FunctionCounter.builder("dns.lookup.coalesced", loader, CoalescingLoader::coalesced)
+            .description("Aufrufer, die auf eine bereits laufende Auflösung desselben Hostnamens gewartet haben")
+            .register(registry);
+        Gauge.builder("dns.lookup.inflight", loader, CoalescingLoader::inFlight)
+            .description("Aktuell laufende Resolver-Aufrufe")
+            .register(registry);
+    }
+
+    private static void bindMetrics(NioDnsClient client, MeterRegistry registry) {
+        FunctionCounter.builder("dns.nio.queries", client, NioDnsClient::queries)
+            .description("Gesendete UDP-Anfragen des NIO-DNS-Clients")
+            .register(registry);
+        FunctionCounter.builder("dns.nio.retries", client, NioDnsClient::retries)
+            .description("Wiederholte Anfragen nach Timeout oder Serverfehler")
+            .register(registry);
+        FunctionCounter.builder("dns.nio.timeouts", client, NioDnsClient::timeouts)
+            .description("Anfragen ohne Antwort innerhalb des Timeouts")
+            .register(registry);
+        FunctionCounter.builder("dns.nio.tcp.queries", client, NioDnsClient::tcpQueries)
+            .description("TCP-Fallbacks nach abgeschnittener UDP-Antwort")
+            .register(registry);
+    }
+
+    private static void bindMetrics(DnsCache cache, MeterRegistry registry) {
+        FunctionCounter.builder("dns.cache.hits", cache, DnsCache::hits)
+            .description("DNS-Cache Treffer (positiv und negativ)")
+            .register(registry);
+        FunctionCounter.builder("dns.cache.misses", cache, DnsCache::misses)
+            .description("DNS-Cache Fehlgriffe mit Resolver-Aufruf")
+            .register(registry);
+        FunctionCounter.builder("dns.cache.evictions", cache, DnsCache::evictions)
+            .description("Wegen Größenlimit verdrängte Einträge")
+            .register(registry);
+        FunctionCounter.builder("dns.cache.refreshes", cache, DnsCache::refreshes)
+            .description("Im Hintergrund vorzeitig erneuerte Einträge")
+            .register(registry);
+        Gauge.builder("dns.cache.size", cache, DnsCache::size)
+            .description("Aktuelle Anzahl Einträge im DNS-Cache")
+            .register(registry);
+    }
 }
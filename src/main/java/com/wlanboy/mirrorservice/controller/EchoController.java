@@ -0,0 +1,147 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.echo.EchoMetadata;
+import com.wlanboy.mirrorservice.echo.EchoStreams;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet-Echo: spiegelt den Request-Body Chunk für Chunk zurück, ohne ihn
+ * vollständig zu puffern. Das Netty-Profil bringt mit {@code ReactiveEchoController}
+ * ein Gegenstück für WebFlux mit.
+ */
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Mirror")
+public class EchoController {
+
+    private static final Logger log = LoggerFactory.getLogger(EchoController.class);
+
+    private final EchoStreams streams;
+
+    public EchoController(EchoStreams streams) {
+        this.streams = streams;
+    }
+
+    @Operation(
+        summary = "Request zurückspiegeln",
+        description = "Streamt den Request-Body unverändert zurück, während er noch empfangen wird. Pro Request wird nur ein "
+            + "Kopierpuffer von 64 KiB belegt, auch bei Uploads im Gigabyte-Bereich. Mit /echo/headers wird die Request-Zeile samt "
+            + "Headern im HTTP-Format vorangestellt, mit /echo/json eine JSON-Zeile; die Länge dieses Blocks steht im Header X-Echo-Meta-Length."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Request-Body, optional mit vorangestellten Metadaten"),
+        @ApiResponse(responseCode = "400", description = "Unbekanntes Metadaten-Format")
+    })
+    @RequestMapping({"/echo", "/echo/{meta}"})
+    public void echo(
+            @Parameter(description = "Vorangestellte Metadaten: headers oder json; ohne Angabe nur der Body", example = "json")
+            @PathVariable(required = false) String meta,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        EchoMetadata.Format format;
+        try {
+            format = EchoMetadata.Format.parse(meta);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        long contentLength = request.getContentLengthLong();
+        ByteBuffer block = metadata(request).render(format, contentLength);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(EchoMetadata.contentType(format, request.getContentType()));
+        if (format == EchoMetadata.Format.NONE) {
+            String encoding = request.getHeader("Content-Encoding");
+            if (encoding != null) {
+                response.setHeader("Content-Encoding", encoding);
+            }
+        } else {
+            response.setHeader(EchoMetadata.META_LENGTH_HEADER, Integer.toString(block.remaining()));
+        }
+        if (contentLength >= 0) {
+            response.setContentLengthLong(block.remaining() + contentLength);
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(0);
+        streams.opened();
+        Thread.ofVirtual().name("mirror-echo").start(() -> pump(block, async));
+    }
+
+    private static EchoMetadata metadata(HttpServletRequest request) {
+        String target = request.getQueryString() != null
+            ? request.getRequestURI() + "?" + request.getQueryString()
+            : request.getRequestURI();
+        EchoMetadata metadata = new EchoMetadata(request.getMethod(), target, request.getProtocol(),
+            request.getRemoteAddr() + ":" + request.getRemotePort());
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            Enumeration<String> values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                metadata.header(name, values.nextElement());
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Kopiert auf einem virtuellen Thread, damit weder ein Container-Thread
+     * noch der Aufrufer auf langsame Clients wartet. Geflusht wird nur, wenn
+     * gerade keine weiteren Eingangsdaten anliegen, damit der Client das Echo
+     * zeitnah sieht, ohne dass jeder kleine Chunk einzeln geschrieben wird.
+     */
+    private void pump(ByteBuffer block, AsyncContext async) {
+        long copied = 0;
+        try {
+            ServletInputStream in = async.getRequest().getInputStream();
+            ServletOutputStream out = async.getResponse().getOutputStream();
+            if (block.hasRemaining()) {
+                out.write(block);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(EchoStreams.BUFFER_SIZE);
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (read > 0) {
+                    out.write(buffer.flip());
+                    buffer.clear();
+                    streams.copied(read);
+                    copied += read;
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Echo nach {} Bytes abgebrochen: {}", copied, e.getMessage());
+        } finally {
+            streams.closed();
+            try {
+                async.complete();
+            } catch (IllegalStateException ignored) {
+                // Client hat die Verbindung bereits geschlossen
+            }
+        }
+    }
+}
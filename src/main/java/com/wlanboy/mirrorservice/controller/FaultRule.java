@@ -0,0 +1,81 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Fehlerregel: trifft Requests nach Methode, Pfadpräfix und Header-Werten und löst mit der angegebenen Rate "
+    + "einen Fehlerstatus, einen Verbindungsabbruch, einen abgeschnittenen Body oder zusätzliche Latenz aus.")
+public record FaultRule(
+    @Schema(description = "Eindeutige ID der Regel; Buchstaben, Ziffern, '.', '_' und '-', maximal 64 Zeichen", example = "flaky-orders")
+    String id,
+
+    @Schema(description = "HTTP-Methode; ohne Angabe jede Methode", example = "POST")
+    String method,
+
+    @Schema(description = "Pfadpräfix, auf den die Regel wirkt", defaultValue = "/mirror", example = "/mirror/s/orders")
+    String pathPrefix,
+
+    @Schema(
+        description = "Header, die alle vorhanden sein müssen; der Wert muss exakt übereinstimmen, '*' prüft nur auf Vorhandensein",
+        additionalProperties = Schema.AdditionalPropertiesValue.USE_ADDITIONAL_PROPERTIES_ANNOTATION,
+        example = "{\"X-Chaos\": \"on\"}"
+    )
+    Map<String, String> headers,
+
+    @Schema(description = "Art des Fehlers", example = "ERROR")
+    Type type,
+
+    @Schema(description = "Anteil der passenden Requests, bei denen der Fehler ausgelöst wird", defaultValue = "1.0",
+        minimum = "0", maximum = "1", example = "0.2")
+    Double rate,
+
+    @Schema(description = "Statuscode bei ERROR", defaultValue = "503", minimum = "100", maximum = "599", example = "503")
+    Integer status,
+
+    @Schema(description = "Bei TRUNCATE: nach so vielen Body-Bytes wird die Verbindung getrennt", defaultValue = "0",
+        minimum = "0", example = "1024")
+    Long truncateAfterBytes,
+
+    @Schema(description = "Bei LATENCY: Verteilung der zusätzlichen Verzögerung vor der eigentlichen Verarbeitung")
+    LatencySpec latency
+) {
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    public static final String DEFAULT_PATH_PREFIX = "/mirror";
+
+    public enum Type { ERROR, RESET, TRUNCATE, LATENCY }
+
+    public FaultRule {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Fault.id darf nur Buchstaben, Ziffern, '.', '_' und '-' enthalten (maximal 64 Zeichen)");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Fault.type muss angegeben werden");
+        }
+        if (method != null) method = method.toUpperCase(Locale.ROOT);
+        if (pathPrefix == null) pathPrefix = DEFAULT_PATH_PREFIX;
+        if (!pathPrefix.startsWith("/")) {
+            throw new IllegalArgumentException("Fault.pathPrefix muss mit '/' beginnen");
+        }
+        if (headers == null) headers = Map.of();
+        if (rate == null) rate = 1.0;
+        if (rate.isNaN() || rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Fault.rate muss zwischen 0 und 1 liegen");
+        }
+        if (status == null) status = 503;
+        if (status < 100 || status > 599) {
+            throw new IllegalArgumentException("Fault.status muss zwischen 100 und 599 liegen");
+        }
+        if (truncateAfterBytes == null) truncateAfterBytes = 0L;
+        if (truncateAfterBytes < 0) {
+            throw new IllegalArgumentException("Fault.truncateAfterBytes darf nicht negativ sein");
+        }
+        if (type == Type.LATENCY && latency == null) {
+            throw new IllegalArgumentException("Fault.latency muss bei type LATENCY angegeben werden");
+        }
+    }
+}
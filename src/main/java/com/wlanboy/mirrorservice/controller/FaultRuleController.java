@@ -0,0 +1,73 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.fault.CompiledFaultRule;
+import com.wlanboy.mirrorservice.fault.FaultRules;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Fehlerregeln", description = "Regeln, die vor dem Mirror-Pfad Fehlerstatus, Verbindungsabbrüche, abgeschnittene Bodys oder Latenz einstreuen.")
+public class FaultRuleController {
+
+    private final FaultRules rules;
+
+    public FaultRuleController(FaultRules rules) {
+        this.rules = rules;
+    }
+
+    @Operation(summary = "Fehlerregeln auflisten", description = "Liefert die aktiven Regeln in Auswertungsreihenfolge mit ihren Trefferzählern.")
+    @GetMapping("/faults")
+    public List<FaultRuleInfo> list() {
+        return rules.rules().stream()
+            .map(FaultRuleController::toInfo)
+            .toList();
+    }
+
+    @Operation(
+        summary = "Fehlerregeln ersetzen",
+        description = "Ersetzt alle Regeln atomar. Ausgewertet wird in Listenreihenfolge; die erste passende Regel, die laut "
+            + "ihrer Rate auslöst, wird angewendet. Trefferzähler bleiben für weiterhin vorhandene IDs erhalten. "
+            + "/mirror/faults selbst ist von den Regeln ausgenommen."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Regeln aktiv"),
+        @ApiResponse(responseCode = "400", description = "Ungültige Regel oder doppelte ID")
+    })
+    @PutMapping("/faults")
+    public List<FaultRuleInfo> replace(@RequestBody List<FaultRule> faultRules) {
+        try {
+            rules.replace(faultRules);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return list();
+    }
+
+    @Operation(summary = "Alle Fehlerregeln entfernen")
+    @ApiResponse(responseCode = "204", description = "Keine Regeln mehr aktiv")
+    @DeleteMapping("/faults")
+    public ResponseEntity<Void> clear() {
+        rules.replace(List.of());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static FaultRuleInfo toInfo(CompiledFaultRule rule) {
+        return new FaultRuleInfo(rule.rule(), rule.hits());
+    }
+}
@@ -0,0 +1,12 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Aktive Fehlerregel mit der Anzahl ausgelöster Fehler.")
+public record FaultRuleInfo(
+    @Schema(description = "Regel in der Reihenfolge der Auswertung")
+    FaultRule rule,
+
+    @Schema(description = "Bisher ausgelöste Fehler; bleibt beim Ersetzen einer Regel mit gleicher ID erhalten", example = "42")
+    long hits
+) {}
@@ -0,0 +1,47 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Erfasst die tatsächlich eingebaute Verzögerung von Mirror-Antworten im Timer
+ * {@code mirror.delay.injected}, getrennt nach Verteilung. Micrometer hält die
+ * Perzentile clientseitig in einem HdrHistogram, zusätzlich werden
+ * Histogramm-Buckets für Prometheus veröffentlicht.
+ */
+@Component
+public class InjectedDelayMetrics {
+
+    private final Timer waitTimer;
+    private final Map<LatencySpec.Type, Timer> distributionTimers = new EnumMap<>(LatencySpec.Type.class);
+
+    public InjectedDelayMetrics(MeterRegistry meterRegistry) {
+        this.waitTimer = timer(meterRegistry, "wait");
+        for (LatencySpec.Type type : LatencySpec.Type.values()) {
+            distributionTimers.put(type, timer(meterRegistry, type.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    public void record(MirrorInstruction instruction, long delayNanos) {
+        Timer timer = instruction.latency() != null ? distributionTimers.get(instruction.latency().type()) : waitTimer;
+        timer.record(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, String distribution) {
+        return Timer.builder("mirror.delay.injected")
+            .description("Tatsächlich eingebaute Verzögerung der Mirror-Antworten")
+            .tag("distribution", distribution)
+            .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(Duration.ofMillis((long) LatencySpec.MAX_DELAY_MS))
+            .register(registry);
+    }
+}
@@ -0,0 +1,136 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+@Schema(description = "Verteilung der Verzögerung, aus der pro Request gezogen wird. Ersetzt waitMs, wenn angegeben. "
+    + "Ergebnisse werden auf [minMs, maxMs] begrenzt.")
+public record LatencySpec(
+    @Schema(description = "Art der Verteilung", example = "LOG_NORMAL")
+    Type type,
+
+    @Schema(description = "Feste Verzögerung in Millisekunden (FIXED)", example = "100")
+    Double valueMs,
+
+    @Schema(description = "Untergrenze in Millisekunden (UNIFORM, Begrenzung aller Typen)", defaultValue = "0", example = "10")
+    Double minMs,
+
+    @Schema(description = "Obergrenze in Millisekunden (UNIFORM, Begrenzung aller Typen)", defaultValue = "60000", example = "5000")
+    Double maxMs,
+
+    @Schema(description = "Mittelwert in Millisekunden (NORMAL)", example = "200")
+    Double meanMs,
+
+    @Schema(description = "Standardabweichung in Millisekunden (NORMAL)", example = "50")
+    Double stddevMs,
+
+    @Schema(description = "Median in Millisekunden (LOG_NORMAL)", example = "50")
+    Double medianMs,
+
+    @Schema(description = "Sigma des zugrunde liegenden Logarithmus (LOG_NORMAL)", example = "0.8")
+    Double sigma,
+
+    @Schema(description = "Minimalwert x_m in Millisekunden (PARETO)", example = "20")
+    Double scaleMs,
+
+    @Schema(description = "Formparameter alpha (PARETO), kleinere Werte ergeben längere Ausläufer", example = "1.5")
+    Double shape,
+
+    @Schema(description = "Perzentil-Tabelle Perzentil -> Millisekunden (EMPIRICAL), dazwischen wird linear interpoliert",
+        example = "{\"50\": 20, \"90\": 80, \"99\": 400, \"100\": 2000}")
+    NavigableMap<Double, Double> percentiles
+) {
+
+    public static final double MAX_DELAY_MS = 60000;
+
+    public enum Type { FIXED, UNIFORM, NORMAL, LOG_NORMAL, PARETO, EMPIRICAL }
+
+    public LatencySpec {
+        if (type == null) {
+            throw new IllegalArgumentException("Latency.type muss angegeben werden");
+        }
+        if (minMs == null) minMs = 0.0;
+        if (maxMs == null) maxMs = MAX_DELAY_MS;
+        if (minMs < 0 || maxMs > MAX_DELAY_MS || minMs > maxMs) {
+            throw new IllegalArgumentException("Latency.minMs/maxMs müssen im Bereich 0 bis 60000 liegen und minMs <= maxMs");
+        }
+        if (percentiles != null && !(percentiles instanceof TreeMap)) {
+            percentiles = new TreeMap<>(percentiles);
+        }
+        switch (type) {
+            case FIXED -> require(valueMs, "valueMs");
+            case UNIFORM -> { }
+            case NORMAL -> {
+                require(meanMs, "meanMs");
+                require(stddevMs, "stddevMs");
+            }
+            case LOG_NORMAL -> {
+                require(medianMs, "medianMs");
+                require(sigma, "sigma");
+                if (medianMs <= 0) {
+                    throw new IllegalArgumentException("Latency.medianMs muss größer als 0 sein");
+                }
+            }
+            case PARETO -> {
+                require(scaleMs, "scaleMs");
+                require(shape, "shape");
+                if (scaleMs <= 0 || shape <= 0) {
+                    throw new IllegalArgumentException("Latency.scaleMs und Latency.shape müssen größer als 0 sein");
+                }
+            }
+            case EMPIRICAL -> {
+                if (percentiles == null || percentiles.isEmpty()) {
+                    throw new IllegalArgumentException("Latency.percentiles muss für EMPIRICAL angegeben werden");
+                }
+                double previous = -1;
+                for (Map.Entry<Double, Double> point : percentiles.entrySet()) {
+                    if (point.getKey() < 0 || point.getKey() > 100 || point.getValue() == null || point.getValue() < previous) {
+                        throw new IllegalArgumentException(
+                            "Latency.percentiles braucht Perzentile zwischen 0 und 100 mit aufsteigenden Werten");
+                    }
+                    previous = point.getValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Zieht eine Verzögerung in Millisekunden, begrenzt auf {@code [minMs, maxMs]}.
+     */
+    public long sampleMs(RandomGenerator random) {
+        double value = switch (type) {
+            case FIXED -> valueMs;
+            case UNIFORM -> minMs + random.nextDouble() * (maxMs - minMs);
+            case NORMAL -> meanMs + stddevMs * random.nextGaussian();
+            case LOG_NORMAL -> medianMs * Math.exp(sigma * random.nextGaussian());
+            case PARETO -> scaleMs / Math.pow(1.0 - random.nextDouble(), 1.0 / shape);
+            case EMPIRICAL -> empirical(random.nextDouble() * 100.0);
+        };
+        return Math.round(Math.clamp(value, minMs, maxMs));
+    }
+
+    private double empirical(double percentile) {
+        Map.Entry<Double, Double> upper = percentiles.ceilingEntry(percentile);
+        if (upper == null) {
+            return percentiles.lastEntry().getValue();
+        }
+        Map.Entry<Double, Double> lower = percentiles.lowerEntry(percentile);
+        double lowerPercentile = lower != null ? lower.getKey() : 0.0;
+        double lowerValue = lower != null ? lower.getValue() : Math.min(minMs, upper.getValue());
+        if (upper.getKey() <= lowerPercentile) {
+            return upper.getValue();
+        }
+        double fraction = (percentile - lowerPercentile) / (upper.getKey() - lowerPercentile);
+        return lowerValue + fraction * (upper.getValue() - lowerValue);
+    }
+
+    private static void require(Double value, String name) {
+        if (value == null || value.isNaN() || value < 0) {
+            throw new IllegalArgumentException("Latency." + name + " muss für diesen Typ angegeben werden und darf nicht negativ sein");
+        }
+    }
+}
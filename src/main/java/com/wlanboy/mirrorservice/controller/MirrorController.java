@@ -1,15 +1,30 @@
 package com.wlanboy.mirrorservice.controller;
 
-import java.time.Duration;
-
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.fixture.ByteRange;
+import com.wlanboy.mirrorservice.fixture.Fixture;
+import com.wlanboy.mirrorservice.fixture.FixtureBody;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.payload.GeneratedPayload;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitDecision;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -20,11 +35,30 @@ import jakarta.validation.Valid;
 import reactor.core.publisher.Mono;
 
 @RestController
+@ConditionalOnProperty(name = "mirror.execution-mode", havingValue = "reactive", matchIfMissing = true)
 @RequestMapping("/mirror")
 @Tag(name = "Mirror", description = "Gibt HTTP-Antworten mit konfigurierbarem Statuscode, Headers, Body und optionaler Verzögerung zurück. Nützlich für Tests von Timeouts, Fehlerverhalten und Header-Verarbeitung.")
 public class MirrorController {
 
-    @Operation(summary = "Mirror GET/HEAD Request", description = "Spiegelt den GET/HEAD-Request basierend auf den Query-Parametern.")
+    private final InjectedDelayMetrics delayMetrics;
+    private final MirrorDelayScheduler delayScheduler;
+    private final ThrottledStreams throttledStreams;
+    private final FixtureStore fixtures;
+    private final RateLimiter rateLimiter;
+    private final SequenceCursors sequences;
+
+    public MirrorController(InjectedDelayMetrics delayMetrics, MirrorDelayScheduler delayScheduler, ThrottledStreams throttledStreams,
+            FixtureStore fixtures, RateLimiter rateLimiter, SequenceCursors sequences) {
+        this.delayMetrics = delayMetrics;
+        this.delayScheduler = delayScheduler;
+        this.throttledStreams = throttledStreams;
+        this.fixtures = fixtures;
+        this.rateLimiter = rateLimiter;
+        this.sequences = sequences;
+    }
+
+    @Operation(summary = "Mirror GET/HEAD Request", description = "Spiegelt den GET/HEAD-Request basierend auf den Query-Parametern. "
+        + "Mit fixture und statusCode 200 wird ein einzelner Bytebereich aus dem Range-Header als 206 geliefert.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Erfolgreiche Antwort mit konfiguriertem Body",
             content = @Content(mediaType = "text/plain", examples = {
@@ -46,8 +80,10 @@ public class MirrorController {
         )
     })
     @RequestMapping(method = {RequestMethod.GET, RequestMethod.HEAD})
-    public Mono<ResponseEntity<String>> mirrorGet(@ParameterObject MirrorInstruction instruction) {
-        return executeMirror(instruction);
+    public Mono<ResponseEntity<Object>> mirrorGet(@ParameterObject MirrorInstruction instruction,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @Parameter(hidden = true) RateLimitClient client) {
+        return executeMirror(instruction, range, client);
     }
 
     @Operation(
@@ -89,20 +125,111 @@ public class MirrorController {
         )
     })
     @RequestMapping(method = {RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH})
-    public Mono<ResponseEntity<String>> mirror(@Valid @RequestBody MirrorInstruction instruction) {
-        return executeMirror(instruction);
+    public Mono<ResponseEntity<Object>> mirror(@Valid @RequestBody MirrorInstruction instruction, @Parameter(hidden = true) RateLimitClient client) {
+        return executeMirror(instruction, null, client);
     }
 
-    private Mono<ResponseEntity<String>> executeMirror(MirrorInstruction instruction) {
-        Mono<ResponseEntity<String>> result = Mono.fromSupplier(() -> {
-            var response = ResponseEntity.status(instruction.statusCode());
-            instruction.responseHeaders().forEach(response::header);
-            return response.body(instruction.responseBody());
-        });
+    private Mono<ResponseEntity<Object>> executeMirror(MirrorInstruction requested, String range, RateLimitClient client) {
+        RateLimitDecision rateLimit = requested.rateLimit() != null
+            ? rateLimiter.acquire(requested.rateLimit(), client, null)
+            : null;
+        if (rateLimit != null && !rateLimit.allowed()) {
+            return Mono.just(rejected(rateLimit));
+        }
+        MirrorInstruction instruction = requested.sequence() != null
+            ? requested.atStep(sequences.next(requested.sequence(), client, null))
+            : requested;
+        Mono<ResponseEntity<Object>> result = Mono.fromSupplier(() -> toResponse(instruction, range, rateLimit, fixtures, throttledStreams));
 
-        if (instruction.waitMs() > 0) {
-            return Mono.delay(Duration.ofMillis(instruction.waitMs())).then(result);
+        long delayMs = instruction.delayMs();
+        if (delayMs > 0) {
+            long start = System.nanoTime();
+            return delayScheduler.delay(delayMs).then(result)
+                .doOnNext(response -> delayMetrics.record(instruction, System.nanoTime() - start));
+        }
+        if (instruction.latency() != null) {
+            delayMetrics.record(instruction, 0);
         }
         return result;
     }
+
+    /**
+     * Antwort für einen Request, dessen Rate-Limit-Bucket leer ist: 429 ohne
+     * Verzögerung und ohne die übrigen Angaben der Instruktion.
+     */
+    static ResponseEntity<Object> rejected(RateLimitDecision rateLimit) {
+        var response = ResponseEntity.status(RateLimitDecision.REJECTED_STATUS)
+            .header(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        rateLimit.forEachHeader(response::header);
+        return response.body(RateLimitDecision.REJECTED_BODY);
+    }
+
+    /**
+     * @param rateLimit Ergebnis des Rate-Limits, dessen Header übernommen werden; {@code null} ohne Rate-Limit
+     */
+    static ResponseEntity<Object> toResponse(MirrorInstruction instruction, String range, RateLimitDecision rateLimit,
+            FixtureStore fixtures, ThrottledStreams throttledStreams) {
+        if (instruction.fixture() != null) {
+            return toFixtureResponse(instruction, range, rateLimit, fixtures, throttledStreams);
+        }
+        var response = ResponseEntity.status(instruction.statusCode());
+        if (rateLimit != null) {
+            rateLimit.forEachHeader(response::header);
+        }
+        instruction.responseHeaders().forEach(response::header);
+        PayloadSpec payload = instruction.payload();
+        ThrottleSpec throttle = instruction.throttle();
+        if (payload == null && throttle == null) {
+            return response.body(instruction.responseBody());
+        }
+        if (!instruction.hasResponseHeader(HttpHeaders.CONTENT_TYPE)) {
+            response.header(HttpHeaders.CONTENT_TYPE,
+                payload != null ? GeneratedPayload.contentType(payload.pattern()) : "text/plain;charset=UTF-8");
+        }
+        if (throttle == null) {
+            return response.body(GeneratedPayload.of(payload));
+        }
+        return response.body(payload != null
+            ? throttledStreams.open(throttle, GeneratedPayload.of(payload))
+            : throttledStreams.open(throttle, instruction.responseBody()));
+    }
+
+    /**
+     * Antwort aus einer gemappten Fixture. Ein Range-Header wird nur bei
+     * statusCode 200 ausgewertet und ergibt 206 bzw. 416.
+     */
+    private static ResponseEntity<Object> toFixtureResponse(MirrorInstruction instruction, String range, RateLimitDecision rateLimit,
+            FixtureStore fixtures, ThrottledStreams throttledStreams) {
+        Fixture fixture;
+        try {
+            fixture = fixtures.get(instruction.fixture());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (fixture == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unbekannte Fixture '" + instruction.fixture() + "'.");
+        }
+        ByteRange byteRange = instruction.statusCode() == HttpStatus.OK.value() ? ByteRange.parse(range, fixture.size()) : null;
+        if (byteRange != null && !byteRange.satisfiable()) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, byteRange.contentRange(fixture.size()))
+                .build();
+        }
+
+        var response = ResponseEntity.status(byteRange != null ? HttpStatus.PARTIAL_CONTENT.value() : instruction.statusCode());
+        if (rateLimit != null) {
+            rateLimit.forEachHeader(response::header);
+        }
+        instruction.responseHeaders().forEach(response::header);
+        if (!instruction.hasResponseHeader(HttpHeaders.CONTENT_TYPE)) {
+            response.header(HttpHeaders.CONTENT_TYPE, fixture.contentType());
+        }
+        response.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.lastModified(fixture.lastModified().toMillis());
+        if (byteRange != null) {
+            response.header(HttpHeaders.CONTENT_RANGE, byteRange.contentRange(fixture.size()));
+        }
+        FixtureBody body = new FixtureBody(fixture, byteRange);
+        return response.body(instruction.throttle() != null ? throttledStreams.open(instruction.throttle(), body) : body);
+    }
 }
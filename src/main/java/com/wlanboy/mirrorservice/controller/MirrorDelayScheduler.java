@@ -0,0 +1,78 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.net.HashedWheelTimer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verzögert Mirror-Antworten über einen gemeinsamen {@link HashedWheelTimer}
+ * statt über Reactors Parallel-Scheduler. Der Timer selbst kostet pro wartendem
+ * Request einen Wheel-Eintrag (etwa 96 Bytes inklusive Task); asynchroner
+ * Servlet-Kontext und Verbindung kommen hinzu und werden von
+ * {@code ConnectionFootprintTest} pro gehaltener Verbindung gemessen.
+ */
+@Component
+public class MirrorDelayScheduler {
+
+    /**
+     * Von HashedWheelTimerLoadTest gemessen (etwa 96 Bytes): Eintrag, Task-Lambda
+     * und Referenz auf die Antwort. Nur der Timer-Anteil, nicht der Speicher eines
+     * wartenden Requests.
+     */
+    static final long BYTES_PER_PENDING_TIMEOUT = 96;
+
+    private final HashedWheelTimer timer;
+    private final ExecutorService completionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MirrorDelayScheduler(MirrorTimerProperties properties, MeterRegistry meterRegistry) {
+        Timer drift = Timer.builder("mirror.timer.drift")
+            .description("Verspätung ausgelöster Verzögerungen gegenüber ihrer Deadline")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .register(meterRegistry);
+        this.timer = new HashedWheelTimer("mirror-delay-timer", properties.tickDuration(), properties.wheelSize(),
+            nanos -> drift.record(nanos, TimeUnit.NANOSECONDS));
+
+        Gauge.builder("mirror.timer.pending", timer, HashedWheelTimer::pending)
+            .description("Aktuell wartende verzögerte Mirror-Antworten")
+            .register(meterRegistry);
+        Gauge.builder("mirror.timer.pending.memory.estimate", timer, t -> t.pending() * BYTES_PER_PENDING_TIMEOUT)
+            .description("Speicher der Timer-Einträge wartender Verzögerungen; ohne Servlet-Kontext und Verbindung, also nicht der Speicher pro Request")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Mono, das nach {@code delayMs} leer abschließt. Abbrechen (z.B. bei
+     * Verbindungsabbruch) entfernt den Timer-Eintrag.
+     */
+    public Mono<Void> delay(long delayMs) {
+        return Mono.create(sink -> {
+            HashedWheelTimer.Timeout timeout = timer.newTimeout(sink::success, delayMs, TimeUnit.MILLISECONDS);
+            sink.onCancel(timeout::cancel);
+        });
+    }
+
+    /**
+     * Führt {@code task} nach {@code delayMs} auf einem virtuellen Thread aus,
+     * damit blockierendes Schreiben den Timer-Thread nicht aufhält.
+     */
+    public HashedWheelTimer.Timeout schedule(Runnable task, long delayMs) {
+        return timer.newTimeout(() -> completionExecutor.execute(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.close();
+        completionExecutor.shutdownNow();
+    }
+}
@@ -4,21 +4,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Schema(description = "Instruktion für den Mirror-Service: definiert Statuscode, Verzögerung, Body und Headers der gespiegelten Antwort.")
 public record MirrorInstruction(
     @Schema(description = "HTTP Statuscode der Antwort", defaultValue = "200", minimum = "100", maximum = "599")
     @Min(value = 100, message = "StatusCode muss mindestens 100 sein")
     @Max(value = 599, message = "StatusCode darf maximal 599 sein")
-    int statusCode,
+    Integer statusCode,
 
     @Schema(description = "Wartezeit in Millisekunden", defaultValue = "0", minimum = "0", maximum = "60000")
     @Min(value = 0, message = "WaitMs darf nicht negativ sein")
     @Max(value = 60000, message = "WaitMs darf maximal 60000 sein")
-    int waitMs,
+    Integer waitMs,
 
-    @Schema(description = "Inhalt der Antwort", example = "Hello World")
+    @Schema(description = "Inhalt der Antwort; schließt payload und fixture aus", example = "Hello World")
     String responseBody,
 
     @Schema(
@@ -26,11 +28,86 @@ public record MirrorInstruction(
         additionalProperties = Schema.AdditionalPropertiesValue.USE_ADDITIONAL_PROPERTIES_ANNOTATION,
         example = "{\"X-Custom-Header\": \"Value\"}"
     )
-    Map<String, String> responseHeaders
+    Map<String, String> responseHeaders,
+
+    @Schema(description = "Optionale Verteilung der Verzögerung; ersetzt waitMs und wird pro Request neu gezogen")
+    LatencySpec latency,
+
+    @Schema(description = "Optional generierter Body (Größe, Muster, Chunk-Größe) statt responseBody")
+    PayloadSpec payload,
+
+    @Schema(description = "Optional gedrosselte Übertragung des Bodys (Datenrate, Time-to-first-Byte, Jitter, Stillstand)")
+    ThrottleSpec throttle,
+
+    @Schema(description = "Name einer Datei im Fixture-Verzeichnis, die gemappt als Body geliefert wird; unterstützt Range-Requests",
+        example = "upstream-response.json")
+    String fixture,
+
+    @Schema(description = "Optional simuliertes Rate-Limit pro Client, IP oder Szenario; bei leerem Bucket 429 ohne Verzögerung")
+    RateLimitSpec rateLimit,
+
+    @Schema(description = "Optionale Antwortsequenz pro Client: Statuscode, Body und Wartezeit wechseln mit jedem Aufruf")
+    SequenceSpec sequence
 ) {
+    /** Response-Header mit dem 1-basierten Index des gelieferten Sequenzschritts. */
+    public static final String SEQUENCE_STEP_HEADER = "X-Sequence-Step";
+
+    /** Fehlende Zahlen (Body ohne Feld, Query ohne Parameter) bekommen hier ihre Defaults statt eines Bindungsfehlers. */
     public MirrorInstruction {
-        if (statusCode == 0) statusCode = 200;
-        if (waitMs < 0) waitMs = 0;
+        if (statusCode == null || statusCode == 0) statusCode = 200;
+        if (waitMs == null || waitMs < 0) waitMs = 0;
         if (responseHeaders == null) responseHeaders = Map.of();
+        if (payload != null && responseBody != null) {
+            throw new IllegalArgumentException("responseBody und payload dürfen nicht gemeinsam angegeben werden");
+        }
+        if (fixture != null) {
+            if (responseBody != null || payload != null) {
+                throw new IllegalArgumentException("fixture schließt responseBody und payload aus");
+            }
+            if (fixture.isBlank() || fixture.startsWith("/") || fixture.contains("\\")
+                    || fixture.equals("..") || fixture.startsWith("../") || fixture.contains("/../") || fixture.endsWith("/..")) {
+                throw new IllegalArgumentException("fixture muss ein relativer Pfad im Fixture-Verzeichnis sein");
+            }
+        }
+        if (sequence != null && (payload != null || fixture != null)) {
+            for (SequenceStep step : sequence.steps()) {
+                if (step.responseBody() != null) {
+                    throw new IllegalArgumentException("sequence.steps.responseBody schließt payload und fixture aus");
+                }
+            }
+        }
+    }
+
+    public boolean hasResponseHeader(String name) {
+        for (String header : responseHeaders.keySet()) {
+            if (header.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verzögerung für diesen Request: aus {@link #latency()} gezogen oder {@link #waitMs()}.
+     */
+    public long delayMs() {
+        return latency != null ? latency.sampleMs(ThreadLocalRandom.current()) : waitMs;
+    }
+
+    /**
+     * Instruktion für einen Schritt von {@link #sequence()}: Statuscode, Body und
+     * Wartezeit des Schritts ersetzen die eigenen, alles andere bleibt erhalten.
+     * Der Index wird als {@value #SEQUENCE_STEP_HEADER} mitgeliefert.
+     */
+    public MirrorInstruction atStep(int index) {
+        SequenceStep step = sequence.steps().get(index);
+        Map<String, String> headers = new LinkedHashMap<>(responseHeaders);
+        headers.put(SEQUENCE_STEP_HEADER, Integer.toString(index + 1));
+        return new MirrorInstruction(step.statusCode(),
+            step.waitMs() != null ? step.waitMs() : waitMs,
+            step.responseBody() != null ? step.responseBody() : responseBody,
+            headers,
+            step.waitMs() != null ? null : latency,
+            payload, throttle, fixture, rateLimit, null);
     }
 }
@@ -0,0 +1,12 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.timer")
+public record MirrorTimerProperties(
+    @DefaultValue("10ms") Duration tickDuration,
+    @DefaultValue("512") int wheelSize
+) {}
@@ -0,0 +1,75 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.monitor.LatencyHistory;
+import com.wlanboy.mirrorservice.monitor.ReachabilityMonitor;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@Tag(name = "Monitor", description = "Ergebnisse der periodischen Erreichbarkeitsprüfung konfigurierter Ziele.")
+public class MonitorController {
+
+    private final ReachabilityMonitor monitor;
+
+    public MonitorController(ReachabilityMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Operation(
+        summary = "Status aller Ziele",
+        description = "Liefert für jedes unter mirror.monitor.targets konfigurierte Ziel den aktuellen Zustand und die "
+            + "Statistik über das Standardfenster mirror.monitor.window."
+    )
+    @GetMapping("/monitor")
+    public List<MonitorStatus> statuses() {
+        return monitor.statuses().stream().map(MonitorController::toStatus).toList();
+    }
+
+    @Operation(
+        summary = "Status eines Ziels",
+        description = "Liefert Zustand, Verfügbarkeit und p50/p95/p99 der Latenz eines Ziels über ein frei wählbares Fenster."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistik des Ziels"),
+        @ApiResponse(responseCode = "400", description = "Ungültiges Zeitfenster"),
+        @ApiResponse(responseCode = "404", description = "Unbekanntes Ziel")
+    })
+    @GetMapping("/monitor/{name}")
+    public ResponseEntity<MonitorStatus> status(
+            @PathVariable String name,
+            @Schema(description = "Zeitfenster in Sekunden, Standard: mirror.monitor.window", example = "3600")
+            @RequestParam(required = false) Long windowSeconds) {
+        if (windowSeconds != null && windowSeconds < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "windowSeconds muss größer als 0 sein.");
+        }
+        var stats = windowSeconds == null
+            ? monitor.statuses().stream().filter(s -> s.target().id().equals(name)).findFirst()
+            : monitor.status(name, Duration.ofSeconds(windowSeconds));
+        return stats.map(s -> ResponseEntity.ok(toStatus(s)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private static MonitorStatus toStatus(ReachabilityMonitor.TargetStats targetStats) {
+        var target = targetStats.target();
+        LatencyHistory.Stats stats = targetStats.stats();
+        return new MonitorStatus(target.id(), target.host(), target.mode(), target.ports(),
+            stats.lastSuccess(), stats.lastEpochSecond(), stats.lastLatencyUs(),
+            targetStats.window().toSeconds(), stats.samples(), stats.availability(),
+            stats.p50Us(), stats.p95Us(), stats.p99Us());
+    }
+}
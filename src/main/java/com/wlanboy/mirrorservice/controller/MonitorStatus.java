@@ -0,0 +1,47 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Zustand und Latenzstatistik eines überwachten Ziels über ein Zeitfenster.")
+public record MonitorStatus(
+    @Schema(description = "Name des Ziels", example = "gateway")
+    String name,
+
+    @Schema(description = "Überwachter Host", example = "192.168.100.1")
+    String host,
+
+    @Schema(description = "Probe-Modus", example = "tcp")
+    String mode,
+
+    @Schema(description = "Geprüfte TCP-Ports (nur mode=tcp)", example = "[22, 443]")
+    List<Integer> ports,
+
+    @Schema(description = "Letzte Probe war erfolgreich", example = "true")
+    boolean up,
+
+    @Schema(description = "Zeitpunkt der letzten Probe (Epoch-Sekunden), -1 vor der ersten Probe", example = "1760777400")
+    long lastCheckEpochSecond,
+
+    @Schema(description = "Latenz der letzten Probe in Mikrosekunden, -1 bei Fehler", example = "812")
+    long lastLatencyUs,
+
+    @Schema(description = "Ausgewertetes Zeitfenster in Sekunden", example = "900")
+    long windowSeconds,
+
+    @Schema(description = "Anzahl Proben im Fenster", example = "30")
+    int samples,
+
+    @Schema(description = "Anteil erfolgreicher Proben im Fenster (0..1)", example = "0.9667")
+    double availability,
+
+    @Schema(description = "Median der Latenz in Mikrosekunden, -1 ohne erfolgreiche Probe", example = "790")
+    long p50Us,
+
+    @Schema(description = "95. Perzentil der Latenz in Mikrosekunden", example = "1210")
+    long p95Us,
+
+    @Schema(description = "99. Perzentil der Latenz in Mikrosekunden", example = "2304")
+    long p99Us
+) {}
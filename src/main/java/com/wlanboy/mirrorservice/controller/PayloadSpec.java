@@ -0,0 +1,53 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.nio.charset.StandardCharsets;
+
+@Schema(description = "Synthetischer Antwort-Body, der aus vorab gefüllten, geteilten Direct-Buffern gestreamt wird. "
+    + "Ersetzt responseBody; auch Antworten im Gigabyte-Bereich belegen keinen Heap pro Request.")
+public record PayloadSpec(
+    @Schema(description = "Größe des Bodys in Bytes", example = "1073741824", minimum = "0", maximum = "17179869184")
+    long sizeBytes,
+
+    @Schema(description = "Inhalt des Bodys", defaultValue = "ZEROS", example = "JSON_ARRAY")
+    Pattern pattern,
+
+    @Schema(description = "Wiederholter Text für TEXT (UTF-8, maximal 1024 Bytes)", defaultValue = "MirrorService\\n", example = "lorem ipsum ")
+    String text,
+
+    @Schema(description = "Optional: Bytes pro Chunk. Ist der Wert gesetzt, wird ohne Content-Length mit Chunked-Encoding "
+        + "gesendet und nach jedem Chunk geflusht", minimum = "1", maximum = "1048576", example = "8192")
+    Integer chunkSize
+) {
+
+    public static final long MAX_SIZE_BYTES = 16L * 1024 * 1024 * 1024;
+    public static final int MAX_CHUNK_SIZE = 1024 * 1024;
+    public static final int MAX_TEXT_BYTES = 1024;
+    public static final String DEFAULT_TEXT = "MirrorService\n";
+
+    public enum Pattern { ZEROS, RANDOM, TEXT, JSON_ARRAY }
+
+    public PayloadSpec {
+        if (pattern == null) pattern = Pattern.ZEROS;
+        if (sizeBytes < 0 || sizeBytes > MAX_SIZE_BYTES) {
+            throw new IllegalArgumentException("Payload.sizeBytes muss zwischen 0 und " + MAX_SIZE_BYTES + " liegen");
+        }
+        if (pattern == Pattern.JSON_ARRAY && sizeBytes < 2) {
+            throw new IllegalArgumentException("Payload.sizeBytes muss für JSON_ARRAY mindestens 2 sein");
+        }
+        if (pattern == Pattern.TEXT) {
+            if (text == null || text.isEmpty()) text = DEFAULT_TEXT;
+            if (text.getBytes(StandardCharsets.UTF_8).length > MAX_TEXT_BYTES) {
+                throw new IllegalArgumentException("Payload.text darf maximal " + MAX_TEXT_BYTES + " Bytes lang sein");
+            }
+        }
+        if (chunkSize != null && (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)) {
+            throw new IllegalArgumentException("Payload.chunkSize muss zwischen 1 und " + MAX_CHUNK_SIZE + " liegen");
+        }
+    }
+
+    public boolean chunked() {
+        return chunkSize != null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.wlanboy.mirrorservice.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Zeitaufteilung einer Verbindung nach Phasen (mode=detailed). Nicht ausgeführte Phasen fehlen.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PhaseTimings(
+    @Schema(description = "DNS-Auflösung in Mikrosekunden", example = "812")
+    Long dnsUs,
+
+    @Schema(description = "TCP-Connect in Mikrosekunden", example = "11873")
+    Long connectUs,
+
+    @Schema(description = "TLS-Handshake in Mikrosekunden", example = "24310")
+    Long tlsUs,
+
+    @Schema(description = "Zeit vom Senden des HTTP-Requests bis zum ersten Antwortbyte in Mikrosekunden", example = "18240")
+    Long firstByteUs,
+
+    @Schema(description = "Summe aller ausgeführten Phasen in Mikrosekunden", example = "55235")
+    long totalUs,
+
+    @Schema(description = "Ausgehandeltes TLS-Protokoll", example = "TLSv1.3")
+    String tlsProtocol,
+
+    @Schema(description = "HTTP-Statuscode der Antwort", example = "301")
+    Integer httpStatus,
+
+    @Schema(description = "Phase, in der die Probe fehlgeschlagen ist", allowableValues = {"CONNECT", "TLS", "FIRST_BYTE"})
+    String failedPhase,
+
+    @Schema(description = "Fehlermeldung der fehlgeschlagenen Phase", example = "Connection refused")
+    String error
+) {}
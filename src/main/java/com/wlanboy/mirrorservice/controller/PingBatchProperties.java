@@ -0,0 +1,13 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.ping.batch")
+public record PingBatchProperties(
+    @DefaultValue("1000") int maxTargets,
+    @DefaultValue("256") int maxConcurrency,
+    @DefaultValue("30s") Duration deadline
+) {}
@@ -1,7 +1,11 @@
 package com.wlanboy.mirrorservice.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.List;
+
 @Schema(description = "Ergebnis einer Ping-Anfrage mit Erreichbarkeit, aufgelöster IP und Antwortzeit.")
 public record PingResult(
     @Schema(description = "Angefragter Hostname", example = "google.com")
@@ -14,5 +18,21 @@ public record PingResult(
     boolean reachable,
 
     @Schema(description = "Antwortzeit in Millisekunden", example = "12")
-    long responseTimeMs
-) {}
+    long responseTimeMs,
+
+    @Schema(description = "Einzelergebnisse pro Adresse und Port (nur mode=tcp)")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<PortProbe> probes,
+
+    @Schema(description = "Zeitaufteilung nach DNS, TCP-Connect, TLS und erstem Byte (nur mode=detailed)")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    PhaseTimings phases
+) {
+    public PingResult(String hostname, String resolvedIp, boolean reachable, long responseTimeMs) {
+        this(hostname, resolvedIp, reachable, responseTimeMs, null, null);
+    }
+
+    public PingResult(String hostname, String resolvedIp, boolean reachable, long responseTimeMs, List<PortProbe> probes) {
+        this(hostname, resolvedIp, reachable, responseTimeMs, probes, null);
+    }
+}
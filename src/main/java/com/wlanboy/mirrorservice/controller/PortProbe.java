@@ -0,0 +1,21 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Ergebnis eines TCP-Verbindungsaufbaus zu einer Adresse und einem Port.")
+public record PortProbe(
+    @Schema(description = "Aufgelöste IP-Adresse (IPv4 oder IPv6)", example = "142.250.185.46")
+    String address,
+
+    @Schema(description = "Geprüfter TCP-Port", example = "443")
+    int port,
+
+    @Schema(description = "Gibt an, ob die Verbindung aufgebaut werden konnte", example = "true")
+    boolean connected,
+
+    @Schema(description = "Dauer des Verbindungsaufbaus in Mikrosekunden", example = "11873")
+    long connectTimeUs,
+
+    @Schema(description = "Fehlerursache, falls keine Verbindung zustande kam", example = "Connection refused")
+    String error
+) {}
@@ -0,0 +1,45 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Simuliert ein Rate-Limit wie bei einem gedrosselten Upstream: pro Schlüssel ein Token-Bucket mit limit "
+    + "Requests je windowMs. Ist der Bucket leer, wird sofort mit 429 sowie Retry-After- und RateLimit-*-Headern geantwortet.")
+public record RateLimitSpec(
+    @Schema(description = "Erlaubte Requests pro Fenster; zugleich die Burst-Größe", minimum = "1", maximum = "1000000", example = "10")
+    int limit,
+
+    @Schema(description = "Länge des Fensters in Millisekunden; Tokens laufen gleichmäßig über das Fenster nach",
+        defaultValue = "1000", minimum = "1", maximum = "86400000", example = "1000")
+    Long windowMs,
+
+    @Schema(description = "Schlüssel des Buckets: IP des Clients, Wert des Headers header (ohne Header die IP) oder ein gemeinsamer "
+        + "Bucket für alle Aufrufer des Szenarios bzw. der Instruktion", defaultValue = "IP", example = "HEADER")
+    Key key,
+
+    @Schema(description = "Header mit der Client-Kennung bei key HEADER", defaultValue = "X-Client-Id", example = "X-Api-Key")
+    String header,
+
+    @Schema(description = "Namensraum der Buckets; Instruktionen mit gleichem Namen teilen sich die Buckets. Standard ist limit/windowMs",
+        example = "orders-api")
+    String name
+) {
+
+    public static final long MAX_WINDOW_MS = 86_400_000;
+    public static final int MAX_LIMIT = 1_000_000;
+    public static final String DEFAULT_HEADER = "X-Client-Id";
+
+    public enum Key { IP, HEADER, SCENARIO }
+
+    public RateLimitSpec {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("RateLimit.limit muss zwischen 1 und " + MAX_LIMIT + " liegen");
+        }
+        if (windowMs == null) windowMs = 1000L;
+        if (windowMs < 1 || windowMs > MAX_WINDOW_MS) {
+            throw new IllegalArgumentException("RateLimit.windowMs muss zwischen 1 und " + MAX_WINDOW_MS + " liegen");
+        }
+        if (key == null) key = Key.IP;
+        if (header == null || header.isBlank()) header = DEFAULT_HEADER;
+        if (name == null || name.isBlank()) name = limit + "/" + windowMs;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Mitgeschnittener Request. request_id, title und body entsprechen dem Aufbau von requests.jsonl, "
+    + "die übrigen Felder enthalten die Einzelheiten.")
+public record RecordedRequest(
+    @Schema(description = "Laufende Nummer des Mitschnitts", example = "req-42")
+    @JsonProperty("request_id")
+    String requestId,
+
+    @Schema(description = "Kurzfassung aus Methode, Pfad und Status", example = "POST /mirror -> 503")
+    String title,
+
+    @Schema(description = "Anfang des Request-Bodys als UTF-8, höchstens max-body-bytes", example = "{\"statusCode\": 503}")
+    String body,
+
+    @Schema(description = "HTTP-Methode", example = "POST")
+    String method,
+
+    @Schema(description = "Pfad ohne Query", example = "/mirror")
+    String path,
+
+    @Schema(description = "Query-String oder null", example = "statusCode=503")
+    String query,
+
+    @Schema(description = "Gesendeter Statuscode", example = "503")
+    int status,
+
+    @Schema(description = "Request-Header; mehrfache Header mit Komma verbunden, vertrauliche Werte als ***")
+    Map<String, String> headers,
+
+    @Schema(description = "Eingang des Requests")
+    Instant startedAt,
+
+    @Schema(description = "Dauer bis zum Ende der Antwort in Millisekunden", example = "12.5")
+    double durationMs,
+
+    @Schema(description = "Gelesene Body-Bytes insgesamt", example = "42")
+    long bodySize,
+
+    @Schema(description = "Ob body nur den Anfang des Bodys enthält")
+    boolean bodyTruncated
+) {}
@@ -0,0 +1,100 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.scenario.CompiledScenario;
+import com.wlanboy.mirrorservice.scenario.ScenarioRegistry;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Mirror-Szenarien", description = "Einmal registrierte Mirror-Instruktionen, die vorab kodiert unter /mirror/s/{id} ausgeliefert werden.")
+public class ScenarioController {
+
+    private final ScenarioRegistry registry;
+
+    public ScenarioController(ScenarioRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Operation(summary = "Szenarien auflisten", description = "Liefert alle registrierten Szenarien sortiert nach ID.")
+    @GetMapping("/scenarios")
+    public List<ScenarioInfo> list() {
+        return registry.all().stream()
+            .sorted(Comparator.comparing(CompiledScenario::id))
+            .map(ScenarioController::toInfo)
+            .toList();
+    }
+
+    @Operation(summary = "Szenario lesen")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Szenario gefunden"),
+        @ApiResponse(responseCode = "404", description = "Unbekannte Szenario-ID")
+    })
+    @GetMapping("/scenarios/{id}")
+    public ResponseEntity<ScenarioInfo> get(@PathVariable String id) {
+        CompiledScenario scenario = registry.get(id);
+        return scenario != null
+            ? ResponseEntity.ok(toInfo(scenario))
+            : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @Operation(
+        summary = "Szenario registrieren oder ersetzen",
+        description = "Validiert die Instruktion einmalig und legt sie vorab kodiert (Status, Header, Body-Bytes) ab. "
+            + "Die ID darf aus Buchstaben, Ziffern, '.', '_' und '-' bestehen (maximal 64 Zeichen)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Szenario neu angelegt"),
+        @ApiResponse(responseCode = "200", description = "Bestehendes Szenario ersetzt"),
+        @ApiResponse(responseCode = "400", description = "Ungültige ID oder Instruktion")
+    })
+    @PutMapping("/scenarios/{id}")
+    public ResponseEntity<ScenarioInfo> put(@PathVariable String id, @Valid @RequestBody MirrorInstruction instruction) {
+        if (!ScenarioRegistry.isValidId(id)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Szenario-ID darf nur Buchstaben, Ziffern, '.', '_' und '-' enthalten (maximal 64 Zeichen).");
+        }
+        if (instruction.throttle() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "throttle wird für Szenarien nicht unterstützt.");
+        }
+        if (instruction.fixture() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fixture wird für Szenarien nicht unterstützt.");
+        }
+        boolean created = registry.put(id, instruction);
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK).body(toInfo(registry.get(id)));
+    }
+
+    @Operation(summary = "Szenario löschen")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Szenario gelöscht"),
+        @ApiResponse(responseCode = "404", description = "Unbekannte Szenario-ID")
+    })
+    @DeleteMapping("/scenarios/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        return registry.remove(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    private static ScenarioInfo toInfo(CompiledScenario scenario) {
+        return new ScenarioInfo(scenario.id(), scenario.instruction(), scenario.requests());
+    }
+}
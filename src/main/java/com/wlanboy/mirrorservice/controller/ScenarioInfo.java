@@ -0,0 +1,15 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Registriertes Mirror-Szenario mit seiner Instruktion und der Anzahl ausgelieferter Antworten.")
+public record ScenarioInfo(
+    @Schema(description = "ID des Szenarios, aufrufbar unter /mirror/s/{id}", example = "slow-503")
+    String id,
+
+    @Schema(description = "Registrierte Instruktion")
+    MirrorInstruction instruction,
+
+    @Schema(description = "Bisher ausgelieferte Antworten", example = "1523")
+    long requests
+) {}
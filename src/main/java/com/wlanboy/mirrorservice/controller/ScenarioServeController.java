@@ -0,0 +1,149 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.payload.GeneratedPayload;
+import com.wlanboy.mirrorservice.payload.GeneratedPayloadHttpMessageConverter;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClientArgumentResolver;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitDecision;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.scenario.CompiledScenario;
+import com.wlanboy.mirrorservice.scenario.ScenarioRegistry;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet-Auslieferung registrierter Szenarien; das Netty-Profil bringt mit
+ * {@code ReactiveScenarioServeController} ein Gegenstück für WebFlux mit.
+ */
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Mirror-Szenarien")
+public class ScenarioServeController {
+
+    private static final Logger log = LoggerFactory.getLogger(ScenarioServeController.class);
+
+    private final ScenarioRegistry registry;
+    private final InjectedDelayMetrics delayMetrics;
+    private final MirrorDelayScheduler delayScheduler;
+    private final RateLimiter rateLimiter;
+    private final SequenceCursors sequences;
+
+    public ScenarioServeController(ScenarioRegistry registry, InjectedDelayMetrics delayMetrics, MirrorDelayScheduler delayScheduler,
+            RateLimiter rateLimiter, SequenceCursors sequences) {
+        this.registry = registry;
+        this.delayMetrics = delayMetrics;
+        this.delayScheduler = delayScheduler;
+        this.rateLimiter = rateLimiter;
+        this.sequences = sequences;
+    }
+
+    @Operation(
+        summary = "Szenario ausführen",
+        description = "Liefert die vorab kodierte Antwort des Szenarios für jede HTTP-Methode. Ohne Verzögerung wird direkt "
+            + "auf die Servlet-Response geschrieben; mit waitMs oder latency wird die Antwort asynchron nach Ablauf der gezogenen Wartezeit gesendet."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "default", description = "Konfigurierter Statuscode, Header und Body des Szenarios; "
+            + "bei Sequenzen die des aktuellen Schritts mit X-Sequence-Step"),
+        @ApiResponse(responseCode = "404", description = "Unbekannte Szenario-ID"),
+        @ApiResponse(responseCode = "429", description = "Rate-Limit des Szenarios erschöpft")
+    })
+    @RequestMapping("/s/{id}")
+    public void serve(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CompiledScenario registered = registry.get(id);
+        if (registered == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unbekanntes Szenario '" + id + "'.");
+        }
+        MirrorInstruction instruction = registered.instruction();
+        RateLimitClient client = instruction.rateLimit() != null || instruction.sequence() != null
+            ? RateLimitClientArgumentResolver.of(request)
+            : null;
+        RateLimitDecision rateLimit = instruction.rateLimit() != null
+            ? rateLimiter.acquire(instruction.rateLimit(), client, id)
+            : null;
+        if (rateLimit != null && !rateLimit.allowed()) {
+            writeRejected(rateLimit, response);
+            return;
+        }
+        CompiledScenario scenario = instruction.sequence() != null
+            ? registered.step(sequences.next(instruction.sequence(), client, id))
+            : registered;
+        long delayMs = scenario.instruction().delayMs();
+        if (delayMs == 0) {
+            if (scenario.instruction().latency() != null) {
+                delayMetrics.record(scenario.instruction(), 0);
+            }
+            write(scenario, rateLimit, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(0);
+        long start = System.nanoTime();
+        delayScheduler.schedule(() -> complete(scenario, rateLimit, async, start), delayMs);
+    }
+
+    private void complete(CompiledScenario scenario, RateLimitDecision rateLimit, AsyncContext async, long start) {
+        delayMetrics.record(scenario.instruction(), System.nanoTime() - start);
+        try {
+            write(scenario, rateLimit, (HttpServletResponse) async.getResponse());
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Verzögerte Szenario-Antwort '{}' nicht zustellbar: {}", scenario.id(), e.getMessage());
+        } finally {
+            try {
+                async.complete();
+            } catch (IllegalStateException ignored) {
+                // Client hat die Verbindung bereits geschlossen
+            }
+        }
+    }
+
+    private static void writeRejected(RateLimitDecision rateLimit, HttpServletResponse response) throws IOException {
+        byte[] body = RateLimitDecision.REJECTED_BODY.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(RateLimitDecision.REJECTED_STATUS);
+        rateLimit.forEachHeader(response::setHeader);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void write(CompiledScenario scenario, RateLimitDecision rateLimit, HttpServletResponse response) throws IOException {
+        scenario.recordRequest();
+        response.setStatus(scenario.status());
+        if (rateLimit != null) {
+            rateLimit.forEachHeader(response::setHeader);
+        }
+        scenario.forEachHeader(response::setHeader);
+        response.setContentType(scenario.contentType());
+        GeneratedPayload payload = scenario.newPayload();
+        if (payload != null) {
+            if (!payload.chunked()) {
+                response.setContentLengthLong(payload.length());
+            }
+            GeneratedPayloadHttpMessageConverter.writeTo(payload, response.getOutputStream());
+            return;
+        }
+        response.setContentLength(scenario.contentLength());
+        if (scenario.contentLength() > 0) {
+            response.getOutputStream().write(scenario.body());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Antwortsequenz pro Client: jeder Aufruf rückt einen Cursor pro Schlüssel weiter und liefert den "
+    + "entsprechenden Schritt, etwa 503, 503, 200 für Retry-Tests oder jeder fünfte Aufruf 500 für Circuit-Breaker.")
+public record SequenceSpec(
+    @Schema(description = "Schritte in Reihenfolge; ein Schritt mit times gilt für so viele aufeinanderfolgende Aufrufe",
+        example = "[{\"statusCode\": 503, \"times\": 2}, {\"statusCode\": 200}]")
+    List<SequenceStep> steps,
+
+    @Schema(description = "Verhalten nach dem letzten Schritt: beim letzten Schritt bleiben oder von vorn beginnen",
+        defaultValue = "HOLD_LAST", example = "CYCLE")
+    Mode mode,
+
+    @Schema(description = "Schlüssel des Cursors: IP des Clients oder Wert des Headers header (ohne Header die IP)",
+        defaultValue = "IP", example = "HEADER")
+    Key key,
+
+    @Schema(description = "Header mit der Client-Kennung bei key HEADER", defaultValue = "X-Client-Id", example = "X-Request-Client")
+    String header,
+
+    @Schema(description = "Ein Cursor ohne Aufruf seit so vielen Millisekunden wird verworfen; der nächste Aufruf beginnt von vorn",
+        defaultValue = "300000", minimum = "1", maximum = "86400000", example = "60000")
+    Long ttlMs,
+
+    @Schema(description = "Namensraum der Cursor; Instruktionen mit gleichem Namen teilen sich die Cursor. "
+        + "Standard ist ein aus den Schritten abgeleiteter Name, in Szenarien zusätzlich die Szenario-ID", example = "checkout-retry")
+    String name
+) {
+
+    public static final int MAX_STEPS = 1000;
+    public static final int MAX_LENGTH = 1_000_000;
+    public static final long MAX_TTL_MS = 86_400_000;
+    public static final String DEFAULT_HEADER = "X-Client-Id";
+
+    public enum Mode { HOLD_LAST, CYCLE }
+
+    public enum Key { IP, HEADER }
+
+    public SequenceSpec {
+        if (steps == null || steps.isEmpty() || steps.size() > MAX_STEPS) {
+            throw new IllegalArgumentException("Sequence.steps muss zwischen 1 und " + MAX_STEPS + " Schritte enthalten");
+        }
+        steps = List.copyOf(steps);
+        long length = 0;
+        for (SequenceStep step : steps) {
+            length += step.times();
+        }
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Sequence darf höchstens " + MAX_LENGTH + " Aufrufe umfassen");
+        }
+        if (mode == null) mode = Mode.HOLD_LAST;
+        if (key == null) key = Key.IP;
+        if (header == null || header.isBlank()) header = DEFAULT_HEADER;
+        if (ttlMs == null) ttlMs = 300_000L;
+        if (ttlMs < 1 || ttlMs > MAX_TTL_MS) {
+            throw new IllegalArgumentException("Sequence.ttlMs muss zwischen 1 und " + MAX_TTL_MS + " liegen");
+        }
+        if (name == null || name.isBlank()) name = "seq-" + Integer.toHexString(steps.hashCode());
+    }
+
+    /** Anzahl der Aufrufe, die ein Durchlauf der Sequenz umfasst. */
+    public int length() {
+        int length = 0;
+        for (SequenceStep step : steps) {
+            length += step.times();
+        }
+        return length;
+    }
+
+    /**
+     * Schritt für den Aufruf an Position {@code position} (0-basiert, bereits
+     * auf {@code 0..length()-1} begrenzt).
+     */
+    public int stepAt(int position) {
+        int end = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            end += steps.get(i).times();
+            if (position < end) {
+                return i;
+            }
+        }
+        return steps.size() - 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Schritt einer Antwortsequenz; nicht gesetzte Felder kommen aus der Instruktion.")
+public record SequenceStep(
+    @Schema(description = "HTTP Statuscode dieses Schritts", minimum = "100", maximum = "599", example = "503")
+    int statusCode,
+
+    @Schema(description = "Body dieses Schritts; ohne Angabe der Body der Instruktion", example = "Service unavailable")
+    String responseBody,
+
+    @Schema(description = "Wartezeit dieses Schritts in Millisekunden; ersetzt waitMs und latency der Instruktion",
+        minimum = "0", maximum = "60000", example = "2000")
+    Integer waitMs,
+
+    @Schema(description = "Wie viele aufeinanderfolgende Aufrufe diesen Schritt erhalten", defaultValue = "1",
+        minimum = "1", maximum = "100000", example = "2")
+    Integer times
+) {
+
+    public static final int MAX_TIMES = 100_000;
+
+    public SequenceStep {
+        if (statusCode < 100 || statusCode > 599) {
+            throw new IllegalArgumentException("Sequence.steps.statusCode muss zwischen 100 und 599 liegen");
+        }
+        if (waitMs != null && (waitMs < 0 || waitMs > 60000)) {
+            throw new IllegalArgumentException("Sequence.steps.waitMs muss zwischen 0 und 60000 liegen");
+        }
+        if (times == null) times = 1;
+        if (times < 1 || times > MAX_TIMES) {
+            throw new IllegalArgumentException("Sequence.steps.times muss zwischen 1 und " + MAX_TIMES + " liegen");
+        }
+    }
+}
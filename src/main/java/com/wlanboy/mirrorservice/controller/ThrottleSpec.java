@@ -0,0 +1,57 @@
+package com.wlanboy.mirrorservice.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Drosselt die Übertragung des Bodys: Header sofort, erstes Byte nach firstByteMs, danach "
+    + "bytesPerSecond mit optionalem Jitter zwischen Chunks und einmaligem Stillstand nach stallAfterBytes.")
+public record ThrottleSpec(
+    @Schema(description = "Ziel-Datenrate in Bytes pro Sekunde", example = "1024", minimum = "1", maximum = "1073741824")
+    long bytesPerSecond,
+
+    @Schema(description = "Zeit bis zum ersten Body-Byte in Millisekunden; die Header werden sofort gesendet",
+        defaultValue = "0", minimum = "0", maximum = "60000", example = "500")
+    Integer firstByteMs,
+
+    @Schema(description = "Zusätzliche zufällige Verzögerung 0..jitterMs pro Chunk; verschiebt die mittlere Rate nicht",
+        defaultValue = "0", minimum = "0", maximum = "60000", example = "50")
+    Integer jitterMs,
+
+    @Schema(description = "Nach so vielen Bytes wird einmalig für stallMs angehalten", minimum = "0", example = "4096")
+    Long stallAfterBytes,
+
+    @Schema(description = "Dauer des Stillstands in Millisekunden", minimum = "0", maximum = "600000", example = "10000")
+    Integer stallMs,
+
+    @Schema(description = "Bytes pro Chunk; Standard ist ein Zwanzigstel der Rate, maximal 16384",
+        minimum = "1", maximum = "1048576", example = "256")
+    Integer chunkSize
+) {
+
+    public static final long MAX_BYTES_PER_SECOND = 1024L * 1024 * 1024;
+    public static final int MAX_STALL_MS = 600000;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 16384;
+
+    public ThrottleSpec {
+        if (bytesPerSecond < 1 || bytesPerSecond > MAX_BYTES_PER_SECOND) {
+            throw new IllegalArgumentException("Throttle.bytesPerSecond muss zwischen 1 und " + MAX_BYTES_PER_SECOND + " liegen");
+        }
+        if (firstByteMs == null) firstByteMs = 0;
+        if (jitterMs == null) jitterMs = 0;
+        if (stallMs == null) stallMs = 0;
+        if (firstByteMs < 0 || firstByteMs > 60000 || jitterMs < 0 || jitterMs > 60000) {
+            throw new IllegalArgumentException("Throttle.firstByteMs und Throttle.jitterMs müssen zwischen 0 und 60000 liegen");
+        }
+        if (stallMs < 0 || stallMs > MAX_STALL_MS) {
+            throw new IllegalArgumentException("Throttle.stallMs muss zwischen 0 und " + MAX_STALL_MS + " liegen");
+        }
+        if (stallAfterBytes != null && stallAfterBytes < 0) {
+            throw new IllegalArgumentException("Throttle.stallAfterBytes darf nicht negativ sein");
+        }
+        if (chunkSize == null) {
+            chunkSize = (int) Math.clamp(bytesPerSecond / 20, 1, DEFAULT_MAX_CHUNK_SIZE);
+        }
+        if (chunkSize < 1 || chunkSize > PayloadSpec.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Throttle.chunkSize muss zwischen 1 und " + PayloadSpec.MAX_CHUNK_SIZE + " liegen");
+        }
+    }
+}
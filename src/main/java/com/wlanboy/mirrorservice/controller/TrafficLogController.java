@@ -0,0 +1,64 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.time.Instant;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.wlanboy.mirrorservice.recorder.RecordingFilter;
+import com.wlanboy.mirrorservice.recorder.TrafficLog;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+
+@RestController
+@ConditionalOnProperty(name = {"mirror.recorder.enabled", "mirror.traffic-log.enabled"}, havingValue = "true")
+@RequestMapping("/mirror")
+@Tag(name = "Mitschnitt", description = "Export der zuletzt eingegangenen Requests auf /mirror, /resolve und /ping mit Headern, Zeiten und Body-Anfang.")
+public class TrafficLogController {
+
+    private final TrafficLog trafficLog;
+
+    public TrafficLogController(TrafficLog trafficLog) {
+        this.trafficLog = trafficLog;
+    }
+
+    @Operation(
+        summary = "Traffic-Log durchsuchen",
+        description = "Streamt die dauerhaft geschriebenen Mitschnitte aus den Segmentdateien als NDJSON, ältestes Segment zuerst. "
+            + "Segmente außerhalb von since/until werden übersprungen, ohne sie zu lesen. Enthält alles bis zum letzten Flush."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ein RecordedRequest pro Zeile, request_id aus Segment und Offset"),
+        @ApiResponse(responseCode = "400", description = "Ungültiger Status oder Zeitraum")
+    })
+    @GetMapping(value = "/recordings/log", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecordedRequest> scan(
+            @Parameter(description = "Nur Pfade mit diesem Präfix", example = "/resolve")
+            @RequestParam(required = false) String path,
+            @Parameter(description = "Statuscode oder Statusklasse", example = "5xx")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Eingang ab diesem Zeitpunkt (ISO-8601)", example = "2026-10-18T08:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @Parameter(description = "Eingang vor diesem Zeitpunkt (ISO-8601)", example = "2026-10-18T09:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant until) {
+        RecordingFilter filter;
+        try {
+            filter = RecordingFilter.of(path, status, since, until);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return Flux.fromStream(() -> trafficLog.scan(since, until).filter(filter));
+    }
+}
@@ -0,0 +1,81 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fasst gleichzeitige Auflösungen desselben Hostnamens zusammen (Single-Flight):
+ * nur der erste Aufrufer fragt den Resolver, alle weiteren warten auf dessen
+ * Ergebnis bzw. Fehler.
+ */
+public final class CoalescingLoader implements DnsCache.Loader {
+
+    private final DnsCache.Loader delegate;
+    private final ConcurrentMap<String, CompletableFuture<InetAddress[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingLoader(DnsCache.Loader delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public InetAddress[] load(String hostname) throws UnknownHostException {
+        String key = hostname.toLowerCase(Locale.ROOT);
+        CompletableFuture<InetAddress[]> own = new CompletableFuture<>();
+        CompletableFuture<InetAddress[]> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        calls.increment();
+        try {
+            InetAddress[] addresses = delegate.load(hostname);
+            own.complete(addresses);
+            return addresses;
+        } catch (UnknownHostException | RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static InetAddress[] await(CompletableFuture<InetAddress[]> leader) throws UnknownHostException {
+        try {
+            return leader.join().clone();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException unknownHost) {
+                throw DnsTimeoutException.copyOf(unknownHost);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Größenbegrenzter LRU-Cache für DNS-Auflösungen mit getrennten TTLs für
+ * positive und negative Ergebnisse. Optional wird ein Eintrag nach Ablauf von
+ * {@code refreshAheadFactor * ttl} im Hintergrund neu aufgelöst, während
+ * Aufrufer weiterhin den noch gültigen Wert bekommen. Schlägt dieser Refresh
+ * fehl, bleibt der positive Eintrag bis zu seinem Ablauf erhalten; negative
+ * Ergebnisse werden nur bei einem Miss im Vordergrund gecacht. Ein
+ * {@link DnsTimeoutException Timeout} wird gar nicht gecacht.
+ */
+public final class DnsCache {
+
+    @FunctionalInterface
+    public interface Loader {
+        InetAddress[] load(String hostname) throws UnknownHostException;
+    }
+
+    private final Loader loader;
+    private final int maxSize;
+    private final long positiveTtlNanos;
+    private final long negativeTtlNanos;
+    private final boolean refreshAhead;
+    private final double refreshAheadFactor;
+    private final Executor refreshExecutor;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public DnsCache(Loader loader, DnsCacheProperties properties, Executor refreshExecutor, LongSupplier ticker) {
+        this.loader = loader;
+        this.maxSize = Math.max(1, properties.maxSize());
+        this.positiveTtlNanos = properties.positiveTtl().toNanos();
+        this.negativeTtlNanos = properties.negativeTtl().toNanos();
+        this.refreshAhead = properties.refreshAhead();
+        this.refreshAheadFactor = Math.clamp(properties.refreshAheadFactor(), 0.0, 1.0);
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > DnsCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public InetAddress[] getAllByName(String hostname) throws UnknownHostException {
+        String key = hostname.toLowerCase(Locale.ROOT);
+        long now = ticker.getAsLong();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt >= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return load(key, hostname).resolve();
+        }
+
+        hits.increment();
+        Entry current = entry;
+        if (refreshAhead && current.failure == null && now - current.refreshAt >= 0
+                && current.refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> refresh(key, hostname, current));
+        }
+        return current.resolve();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    private Entry load(String key, String hostname) throws DnsTimeoutException {
+        Entry entry;
+        try {
+            entry = positive(loader.load(hostname));
+        } catch (DnsTimeoutException e) {
+            throw e;
+        } catch (UnknownHostException e) {
+            entry = negative(e);
+        }
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void refresh(String key, String hostname, Entry stale) {
+        try {
+            Entry fresh = positive(loader.load(hostname));
+            synchronized (entries) {
+                entries.put(key, fresh);
+            }
+            refreshes.increment();
+        } catch (UnknownHostException | RuntimeException e) {
+            // vorübergehender Fehler: der noch gültige Eintrag bleibt, ein späterer Treffer versucht es erneut
+            stale.refreshing.set(false);
+        }
+    }
+
+    private Entry positive(InetAddress[] addresses) {
+        long now = ticker.getAsLong();
+        return new Entry(addresses, null, now + positiveTtlNanos, now + (long) (positiveTtlNanos * refreshAheadFactor));
+    }
+
+    private Entry negative(UnknownHostException failure) {
+        long expiresAt = ticker.getAsLong() + negativeTtlNanos;
+        return new Entry(null, failure, expiresAt, expiresAt);
+    }
+
+    private static final class Entry {
+        final InetAddress[] addresses;
+        final UnknownHostException failure;
+        final long expiresAt;
+        final long refreshAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(InetAddress[] addresses, UnknownHostException failure, long expiresAt, long refreshAt) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+
+        InetAddress[] resolve() throws UnknownHostException {
+            if (failure != null) {
+                throw new UnknownHostException(failure.getMessage());
+            }
+            return addresses.clone();
+        }
+    }
+}
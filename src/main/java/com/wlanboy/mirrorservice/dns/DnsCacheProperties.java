@@ -0,0 +1,16 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.dns.cache")
+public record DnsCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10000") int maxSize,
+    @DefaultValue("30s") Duration positiveTtl,
+    @DefaultValue("5s") Duration negativeTtl,
+    @DefaultValue("false") boolean refreshAhead,
+    @DefaultValue("0.8") double refreshAheadFactor
+) {}
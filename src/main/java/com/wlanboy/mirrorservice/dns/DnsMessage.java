@@ -0,0 +1,148 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimaler DNS-Wire-Codec (RFC 1035) für rekursive A/AAAA-Anfragen.
+ */
+final class DnsMessage {
+
+    static final int TYPE_A = 1;
+    static final int TYPE_AAAA = 28;
+    static final int CLASS_IN = 1;
+
+    static final int RCODE_NOERROR = 0;
+    static final int RCODE_NXDOMAIN = 3;
+
+    private static final int FLAG_QR = 0x8000;
+    private static final int FLAG_TC = 0x0200;
+    private static final int FLAG_RD = 0x0100;
+    private static final int MAX_POINTER_JUMPS = 32;
+
+    record Response(int id, int rcode, boolean truncated, String question, int questionType, List<InetAddress> addresses) {}
+
+    private DnsMessage() {
+    }
+
+    static ByteBuffer encodeQuery(int id, String name, int type) {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        buffer.putShort((short) id);
+        buffer.putShort((short) FLAG_RD);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        writeName(buffer, name);
+        buffer.putShort((short) type);
+        buffer.putShort((short) CLASS_IN);
+        return buffer.flip();
+    }
+
+    static Response decodeResponse(ByteBuffer buffer) {
+        try {
+            int id = buffer.getShort() & 0xFFFF;
+            int flags = buffer.getShort() & 0xFFFF;
+            if ((flags & FLAG_QR) == 0) {
+                throw new IllegalArgumentException("Keine DNS-Antwort");
+            }
+            int questions = buffer.getShort() & 0xFFFF;
+            int answers = buffer.getShort() & 0xFFFF;
+            buffer.getShort();
+            buffer.getShort();
+
+            String question = null;
+            int questionType = 0;
+            for (int i = 0; i < questions; i++) {
+                String name = readName(buffer);
+                int type = buffer.getShort() & 0xFFFF;
+                buffer.getShort();
+                if (i == 0) {
+                    question = name;
+                    questionType = type;
+                }
+            }
+
+            List<InetAddress> addresses = new ArrayList<>(answers);
+            for (int i = 0; i < answers; i++) {
+                readName(buffer);
+                int type = buffer.getShort() & 0xFFFF;
+                int recordClass = buffer.getShort() & 0xFFFF;
+                buffer.getInt();
+                int length = buffer.getShort() & 0xFFFF;
+                if (recordClass == CLASS_IN && ((type == TYPE_A && length == 4) || (type == TYPE_AAAA && length == 16))) {
+                    byte[] raw = new byte[length];
+                    buffer.get(raw);
+                    addresses.add(InetAddress.getByAddress(question, raw));
+                } else {
+                    buffer.position(buffer.position() + length);
+                }
+            }
+            return new Response(id, flags & 0x000F, (flags & FLAG_TC) != 0, question, questionType, addresses);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | UnknownHostException e) {
+            throw new IllegalArgumentException("Ungültige DNS-Antwort", e);
+        }
+    }
+
+    static String normalize(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".") ? lower.substring(0, lower.length() - 1) : lower;
+    }
+
+    private static void writeName(ByteBuffer buffer, String name) {
+        String normalized = normalize(name);
+        if (normalized.length() > 253) {
+            throw new IllegalArgumentException("Hostname zu lang: '" + name + "'");
+        }
+        if (!normalized.isEmpty()) {
+            for (String label : normalized.split("\\.")) {
+                byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+                if (bytes.length == 0 || bytes.length > 63) {
+                    throw new IllegalArgumentException("Ungültiges Label in '" + name + "'");
+                }
+                buffer.put((byte) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        buffer.put((byte) 0);
+    }
+
+    private static String readName(ByteBuffer buffer) {
+        StringBuilder name = new StringBuilder();
+        int position = buffer.position();
+        int resumeAt = -1;
+        int jumps = 0;
+        while (true) {
+            int length = buffer.get(position) & 0xFF;
+            if ((length & 0xC0) == 0xC0) {
+                if (++jumps > MAX_POINTER_JUMPS) {
+                    throw new IllegalArgumentException("Zyklische Namenskompression");
+                }
+                if (resumeAt < 0) {
+                    resumeAt = position + 2;
+                }
+                position = ((length & 0x3F) << 8) | (buffer.get(position + 1) & 0xFF);
+                continue;
+            }
+            position++;
+            if (length == 0) {
+                break;
+            }
+            if (!name.isEmpty()) {
+                name.append('.');
+            }
+            for (int i = 0; i < length; i++) {
+                name.append((char) (buffer.get(position + i) & 0xFF));
+            }
+            position += length;
+        }
+        buffer.position(resumeAt >= 0 ? resumeAt : position);
+        return name.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,25 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.net.UnknownHostException;
+
+/**
+ * Kein DNS-Server hat innerhalb aller Versuche geantwortet. Im Gegensatz zu
+ * NXDOMAIN ist der Hostname damit nicht unbekannt, sondern nur nicht
+ * auflösbar; das Ergebnis wird daher nicht negativ gecacht.
+ */
+public class DnsTimeoutException extends UnknownHostException {
+
+    public DnsTimeoutException(String hostname) {
+        super(hostname);
+    }
+
+    /**
+     * Neue Ausnahme für den wartenden Thread, damit dessen Stacktrace erscheint;
+     * ein Timeout bleibt dabei ein Timeout.
+     */
+    static UnknownHostException copyOf(UnknownHostException e) {
+        return e instanceof DnsTimeoutException
+            ? new DnsTimeoutException(e.getMessage())
+            : new UnknownHostException(e.getMessage());
+    }
+}
@@ -0,0 +1,525 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.net.StandardSocketOptions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import com.wlanboy.mirrorservice.net.NioEventLoop;
+
+/**
+ * Nicht-blockierender DNS-Client: A- und AAAA-Anfragen gehen per UDP über einen
+ * gemeinsamen {@link DatagramChannel}, abgeschnittene Antworten werden per TCP
+ * wiederholt. Alle Anfragen teilen sich einen einzigen {@link NioEventLoop};
+ * blockierend wartet nur der Aufrufer von {@link #load(String)}.
+ * <p>
+ * Höchstens {@code maxInFlight} UDP-Anfragen sind gleichzeitig unbeantwortet,
+ * weitere warten in einer Queue; ihr Timeout beginnt erst mit dem Senden.
+ * Bleiben alle Versuche ohne Antwort, schlägt die Auflösung mit
+ * {@link DnsTimeoutException} statt mit "unbekannt" fehl.
+ * <p>
+ * {@code /etc/hosts} wird nicht ausgewertet.
+ */
+public final class NioDnsClient implements DnsCache.Loader, AutoCloseable {
+
+    private static final Path RESOLV_CONF = Path.of("/etc/resolv.conf");
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final int MAX_UDP_PAYLOAD = 512;
+    private static final int MAX_TCP_PAYLOAD = 65535;
+    private static final int RECEIVE_BUFFER_BYTES = 1 << 20;
+
+    private final NioEventLoop loop;
+    private final boolean ownsLoop;
+    private final List<InetSocketAddress> servers;
+    private final List<String> searchDomains;
+    private final int ndots;
+    private final long timeoutNanos;
+    private final int maxTries;
+    private final boolean tcpFallback;
+    private final int maxInFlight;
+    private final DatagramChannel udp;
+
+    // Nur auf dem Event-Loop-Thread verwendet
+    private final Map<Integer, Query> pending = new HashMap<>();
+    private final ArrayDeque<Query> waiting = new ArrayDeque<>();
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_UDP_PAYLOAD);
+    private final SplittableRandom random = new SplittableRandom();
+    private int nextServer;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder tcpQueries = new LongAdder();
+
+    public NioDnsClient(NioDnsProperties properties) {
+        this(properties, new NioEventLoop("dns-nio"), true);
+    }
+
+    NioDnsClient(NioDnsProperties properties, NioEventLoop loop, boolean ownsLoop) {
+        ResolvConf resolvConf = ResolvConf.read(RESOLV_CONF);
+        List<String> configuredServers = properties.servers() == null || properties.servers().isEmpty()
+            ? resolvConf.nameservers()
+            : properties.servers();
+        if (configuredServers.isEmpty()) {
+            throw new IllegalStateException("Keine DNS-Server konfiguriert (mirror.dns.nio.servers oder /etc/resolv.conf)");
+        }
+        this.loop = loop;
+        this.ownsLoop = ownsLoop;
+        this.servers = configuredServers.stream().map(NioDnsClient::parseServer).toList();
+        this.searchDomains = properties.searchDomains() == null ? resolvConf.search() : properties.searchDomains();
+        this.ndots = properties.searchDomains() == null && resolvConf.ndots() > 0 ? resolvConf.ndots() : properties.ndots();
+        this.timeoutNanos = properties.timeout().toNanos();
+        this.maxTries = Math.max(1, properties.attempts()) * servers.size();
+        this.tcpFallback = properties.tcpFallback();
+        this.maxInFlight = Math.max(1, properties.maxInFlight());
+        try {
+            this.udp = DatagramChannel.open();
+            udp.configureBlocking(false);
+            // Der Kernel kappt auf net.core.rmem_max; die Begrenzung über maxInFlight wirkt unabhängig davon
+            udp.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_BYTES);
+            udp.bind(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loop.execute(() -> {
+            try {
+                loop.register(udp, SelectionKey.OP_READ, key -> receive());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public InetAddress[] load(String hostname) throws UnknownHostException {
+        try {
+            return resolve(hostname).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownHostException unknownHost) {
+                throw DnsTimeoutException.copyOf(unknownHost);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UnknownHostException(hostname);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException(hostname);
+        }
+    }
+
+    /**
+     * Löst den Hostnamen asynchron auf. Abhängige Stages laufen auf dem I/O-Thread
+     * und sollten daher nicht blockieren.
+     */
+    public CompletableFuture<InetAddress[]> resolve(String hostname) {
+        if (hostname == null || hostname.isEmpty() || "localhost".equalsIgnoreCase(hostname)
+                || hostname.indexOf(':') >= 0 || IPV4_LITERAL.matcher(hostname).matches()) {
+            // Literale und localhost ohne Netzwerkzugriff
+            try {
+                return CompletableFuture.completedFuture(InetAddress.getAllByName(hostname));
+            } catch (UnknownHostException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<InetAddress[]> result = new CompletableFuture<>();
+        List<String> candidates = candidates(hostname);
+        loop.execute(() -> resolveCandidate(hostname, candidates, 0, result));
+        return result;
+    }
+
+    public long queries() {
+        return queries.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long tcpQueries() {
+        return tcpQueries.sum();
+    }
+
+    @Override
+    public void close() {
+        loop.execute(() -> {
+            for (Query query : List.copyOf(pending.values())) {
+                query.timeout.cancel();
+                query.callback.accept(Outcome.FAILED);
+            }
+            pending.clear();
+            for (Query query : waiting) {
+                query.callback.accept(Outcome.FAILED);
+            }
+            waiting.clear();
+            NioEventLoop.closeQuietly(udp);
+        });
+        if (ownsLoop) {
+            loop.close();
+        }
+    }
+
+    List<String> candidates(String hostname) {
+        if (hostname.endsWith(".")) {
+            return List.of(DnsMessage.normalize(hostname));
+        }
+        String name = DnsMessage.normalize(hostname);
+        long dots = name.chars().filter(c -> c == '.').count();
+        List<String> candidates = new ArrayList<>(searchDomains.size() + 1);
+        if (dots >= ndots) {
+            candidates.add(name);
+        }
+        for (String domain : searchDomains) {
+            candidates.add(name + "." + DnsMessage.normalize(domain));
+        }
+        if (dots < ndots) {
+            candidates.add(name);
+        }
+        return candidates;
+    }
+
+    private void resolveCandidate(String hostname, List<String> candidates, int index, CompletableFuture<InetAddress[]> result) {
+        String name = candidates.get(index);
+        Outcome[] outcomes = new Outcome[2];
+        Runnable combine = () -> {
+            if (outcomes[0] == null || outcomes[1] == null) {
+                return;
+            }
+            List<InetAddress> addresses = new ArrayList<>(outcomes[0].addresses());
+            addresses.addAll(outcomes[1].addresses());
+            if (!addresses.isEmpty()) {
+                result.complete(rename(hostname, addresses));
+            } else if (outcomes[0].answered() && outcomes[1].answered() && index + 1 < candidates.size()) {
+                resolveCandidate(hostname, candidates, index + 1, result);
+            } else if (outcomes[0] == Outcome.TIMED_OUT || outcomes[1] == Outcome.TIMED_OUT) {
+                result.completeExceptionally(new DnsTimeoutException(hostname));
+            } else {
+                result.completeExceptionally(new UnknownHostException(hostname));
+            }
+        };
+        send(new Query(name, DnsMessage.TYPE_A, outcome -> {
+            outcomes[0] = outcome;
+            combine.run();
+        }));
+        send(new Query(name, DnsMessage.TYPE_AAAA, outcome -> {
+            outcomes[1] = outcome;
+            combine.run();
+        }));
+    }
+
+    private void send(Query query) {
+        if (query.attempt == 0 && pending.size() >= maxInFlight) {
+            waiting.add(query);
+            return;
+        }
+        query.server = servers.get(Math.floorMod(nextServer + query.attempt, servers.size()));
+        if (query.attempt == 0) {
+            nextServer++;
+        }
+        query.id = allocateId();
+        pending.put(query.id, query);
+        queries.increment();
+        try {
+            query.packet = DnsMessage.encodeQuery(query.id, query.name, query.type);
+            udp.send(query.packet.duplicate(), query.server);
+        } catch (IllegalArgumentException e) {
+            pending.remove(query.id);
+            query.callback.accept(Outcome.FAILED);
+            return;
+        } catch (IOException e) {
+            // Wie ein verlorenes Paket behandeln, der Timeout wiederholt die Anfrage
+        }
+        query.timeout = loop.schedule(() -> onTimeout(query), timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void onTimeout(Query query) {
+        if (pending.remove(query.id, query)) {
+            timeouts.increment();
+            retryOrFail(query, Outcome.TIMED_OUT);
+            sendWaiting();
+        }
+    }
+
+    private void retryOrFail(Query query, Outcome exhausted) {
+        if (++query.attempt < maxTries) {
+            retries.increment();
+            send(query);
+        } else {
+            query.callback.accept(exhausted);
+        }
+    }
+
+    private void sendWaiting() {
+        while (!waiting.isEmpty() && pending.size() < maxInFlight) {
+            send(waiting.poll());
+        }
+    }
+
+    private void receive() {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from;
+            try {
+                from = udp.receive(receiveBuffer);
+            } catch (IOException e) {
+                // Einzelnes Paket verloren, der Timeout wiederholt die Anfrage
+                return;
+            }
+            if (from == null) {
+                sendWaiting();
+                return;
+            }
+            receiveBuffer.flip();
+            DnsMessage.Response response;
+            try {
+                response = DnsMessage.decodeResponse(receiveBuffer);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            Query query = pending.get(response.id());
+            if (query == null || !query.matches(from, response)) {
+                continue;
+            }
+            pending.remove(query.id);
+            query.timeout.cancel();
+            if (response.truncated() && tcpFallback) {
+                queryOverTcp(query);
+            } else {
+                complete(query, response);
+            }
+        }
+    }
+
+    private void complete(Query query, DnsMessage.Response response) {
+        if (response.rcode() == DnsMessage.RCODE_NOERROR || response.rcode() == DnsMessage.RCODE_NXDOMAIN) {
+            query.callback.accept(new Outcome(response.rcode(), response.addresses()));
+        } else {
+            retryOrFail(query, Outcome.FAILED);
+        }
+    }
+
+    private void queryOverTcp(Query query) {
+        tcpQueries.increment();
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            TcpExchange exchange = new TcpExchange(query, channel);
+            boolean connected = channel.connect(query.server);
+            loop.register(channel, connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT, exchange::ready);
+            query.timeout = loop.schedule(() -> exchange.fail(Outcome.TIMED_OUT), timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            if (channel != null) {
+                NioEventLoop.closeQuietly(channel);
+            }
+            retryOrFail(query, Outcome.FAILED);
+        }
+    }
+
+    private int allocateId() {
+        int id;
+        do {
+            id = random.nextInt(0x10000);
+        } while (pending.containsKey(id));
+        return id;
+    }
+
+    private static InetAddress[] rename(String hostname, List<InetAddress> addresses) {
+        InetAddress[] renamed = new InetAddress[addresses.size()];
+        for (int i = 0; i < renamed.length; i++) {
+            try {
+                renamed[i] = InetAddress.getByAddress(hostname, addresses.get(i).getAddress());
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return renamed;
+    }
+
+    static InetSocketAddress parseServer(String server) {
+        String host = server;
+        int port = 53;
+        if (server.startsWith("[")) {
+            int end = server.indexOf(']');
+            host = server.substring(1, end);
+            if (end + 1 < server.length() && server.charAt(end + 1) == ':') {
+                port = Integer.parseInt(server.substring(end + 2));
+            }
+        } else if (server.indexOf(':') == server.lastIndexOf(':') && server.indexOf(':') > 0) {
+            host = server.substring(0, server.indexOf(':'));
+            port = Integer.parseInt(server.substring(server.indexOf(':') + 1));
+        }
+        return new InetSocketAddress(host, port);
+    }
+
+    private record Outcome(int rcode, List<InetAddress> addresses) {
+        static final Outcome FAILED = new Outcome(-1, List.of());
+        static final Outcome TIMED_OUT = new Outcome(-2, List.of());
+
+        boolean answered() {
+            return rcode >= 0;
+        }
+    }
+
+    private static final class Query {
+        final String name;
+        final int type;
+        final Consumer<Outcome> callback;
+        int id;
+        int attempt;
+        InetSocketAddress server;
+        ByteBuffer packet;
+        NioEventLoop.Timeout timeout;
+
+        Query(String name, int type, Consumer<Outcome> callback) {
+            this.name = name;
+            this.type = type;
+            this.callback = callback;
+        }
+
+        boolean matches(SocketAddress from, DnsMessage.Response response) {
+            return server.equals(from) && type == response.questionType() && name.equals(response.question());
+        }
+    }
+
+    private final class TcpExchange {
+        private final Query query;
+        private final SocketChannel channel;
+        private final ByteBuffer request;
+        private final ByteBuffer length = ByteBuffer.allocate(2);
+        private ByteBuffer response;
+        private boolean done;
+
+        TcpExchange(Query query, SocketChannel channel) {
+            this.query = query;
+            this.channel = channel;
+            ByteBuffer packet = query.packet.duplicate();
+            this.request = ByteBuffer.allocate(2 + packet.remaining());
+            request.putShort((short) packet.remaining()).put(packet).flip();
+        }
+
+        void ready(SelectionKey key) {
+            try {
+                if (key.isConnectable()) {
+                    if (!channel.finishConnect()) {
+                        return;
+                    }
+                    key.interestOps(SelectionKey.OP_WRITE);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    channel.write(request);
+                    if (!request.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                fail(Outcome.FAILED);
+            }
+        }
+
+        private void read() throws IOException {
+            if (response == null) {
+                if (channel.read(length) < 0) {
+                    throw new IOException("Verbindung vorzeitig geschlossen");
+                }
+                if (length.hasRemaining()) {
+                    return;
+                }
+                int size = length.flip().getShort() & 0xFFFF;
+                response = ByteBuffer.allocate(Math.min(size, MAX_TCP_PAYLOAD));
+            }
+            if (channel.read(response) < 0 && response.hasRemaining()) {
+                throw new IOException("Verbindung vorzeitig geschlossen");
+            }
+            if (!response.hasRemaining()) {
+                DnsMessage.Response decoded = DnsMessage.decodeResponse(response.flip());
+                if (decoded.id() != query.id || !query.name.equals(decoded.question())) {
+                    throw new IOException("Antwort passt nicht zur Anfrage");
+                }
+                finish();
+                complete(query, decoded);
+            }
+        }
+
+        void fail(Outcome exhausted) {
+            if (!done) {
+                finish();
+                if (exhausted == Outcome.TIMED_OUT) {
+                    timeouts.increment();
+                }
+                retryOrFail(query, exhausted);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            query.timeout.cancel();
+            NioEventLoop.closeQuietly(channel);
+        }
+    }
+
+    record ResolvConf(List<String> nameservers, List<String> search, int ndots) {
+
+        static ResolvConf read(Path path) {
+            List<String> nameservers = new ArrayList<>();
+            List<String> search = new ArrayList<>();
+            int ndots = 0;
+            try {
+                for (String line : Files.readAllLines(path)) {
+                    String[] parts = line.trim().split("\\s+");
+                    if (parts.length < 2 || parts[0].startsWith("#") || parts[0].startsWith(";")) {
+                        continue;
+                    }
+                    switch (parts[0]) {
+                        case "nameserver" -> nameservers.add(parts[1]);
+                        case "search", "domain" -> {
+                            search.clear();
+                            search.addAll(List.of(parts).subList(1, parts.length));
+                        }
+                        case "options" -> {
+                            for (int i = 1; i < parts.length; i++) {
+                                if (parts[i].startsWith("ndots:")) {
+                                    ndots = Integer.parseInt(parts[i].substring("ndots:".length()));
+                                }
+                            }
+                        }
+                        default -> {
+                            // andere Direktiven werden ignoriert
+                        }
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // ohne resolv.conf nur explizit konfigurierte Server
+            }
+            return new ResolvConf(List.copyOf(nameservers), List.copyOf(search), ndots);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguration des NIO-DNS-Clients. Ohne {@code servers} bzw. {@code searchDomains}
+ * werden die Einträge aus {@code /etc/resolv.conf} verwendet. {@code maxInFlight}
+ * begrenzt die gleichzeitig unbeantworteten UDP-Anfragen; weitere warten, statt
+ * als Burst die Empfangspuffer von Server und Client zu überlaufen.
+ */
+@ConfigurationProperties("mirror.dns.nio")
+public record NioDnsProperties(
+    @DefaultValue("false") boolean enabled,
+    List<String> servers,
+    List<String> searchDomains,
+    @DefaultValue("1") int ndots,
+    @DefaultValue("2s") Duration timeout,
+    @DefaultValue("2") int attempts,
+    @DefaultValue("true") boolean tcpFallback,
+    @DefaultValue("128") int maxInFlight
+) {}
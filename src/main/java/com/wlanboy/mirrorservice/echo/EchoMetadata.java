@@ -0,0 +1,153 @@
+package com.wlanboy.mirrorservice.echo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Metadaten eines Echo-Requests (Methode, Ziel, Protokoll, Header), die vor den
+ * unveränderten Body gestellt werden. Die Klasse kennt keinen Web-Stack; Servlet-
+ * und Netty-Variante füllen sie aus ihrem jeweiligen Request.
+ */
+public final class EchoMetadata {
+
+    public enum Format {
+        /** Nur der Body, ohne Metadaten. */
+        NONE,
+        /** Request-Zeile und Header im HTTP/1.1-Format, abgeschlossen mit einer Leerzeile. */
+        HEADERS,
+        /** Ein JSON-Objekt in einer Zeile, abgeschlossen mit {@code \n}. */
+        JSON;
+
+        public static Format parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return NONE;
+            }
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unbekanntes Echo-Format '" + value + "', erlaubt sind headers und json");
+            }
+        }
+    }
+
+    /** Antwort-Header mit der Länge des vorangestellten Metadatenblocks in Bytes. */
+    public static final String META_LENGTH_HEADER = "X-Echo-Meta-Length";
+
+    static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final String method;
+    private final String target;
+    private final String protocol;
+    private final String remoteAddress;
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+
+    public EchoMetadata(String method, String target, String protocol, String remoteAddress) {
+        this.method = method;
+        this.target = target;
+        this.protocol = protocol;
+        this.remoteAddress = remoteAddress;
+    }
+
+    public EchoMetadata header(String name, String value) {
+        headers.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+        return this;
+    }
+
+    /**
+     * Content-Type der Echo-Antwort: ohne Metadaten der des Requests, sonst ein
+     * Typ, der zum vorangestellten Block passt.
+     */
+    public static String contentType(Format format, String requestContentType) {
+        return switch (format) {
+            case NONE -> requestContentType != null ? requestContentType : DEFAULT_CONTENT_TYPE;
+            case HEADERS -> "message/http";
+            case JSON -> DEFAULT_CONTENT_TYPE;
+        };
+    }
+
+    /**
+     * Kodierter Metadatenblock; bei {@link Format#NONE} ein leerer Buffer.
+     */
+    public ByteBuffer render(Format format, long contentLength) {
+        String block = switch (format) {
+            case NONE -> "";
+            case HEADERS -> headerBlock();
+            case JSON -> jsonLine(contentLength);
+        };
+        return ByteBuffer.wrap(block.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    private String headerBlock() {
+        StringBuilder out = new StringBuilder(256);
+        out.append(method).append(' ').append(target).append(' ').append(protocol).append("\r\n");
+        headers.forEach((name, values) -> {
+            for (String value : values) {
+                out.append(name).append(": ").append(value).append("\r\n");
+            }
+        });
+        return out.append("\r\n").toString();
+    }
+
+    private String jsonLine(long contentLength) {
+        StringBuilder out = new StringBuilder(256);
+        out.append("{\"method\":");
+        appendString(out, method);
+        out.append(",\"target\":");
+        appendString(out, target);
+        out.append(",\"protocol\":");
+        appendString(out, protocol);
+        out.append(",\"remoteAddress\":");
+        appendString(out, remoteAddress);
+        out.append(",\"contentLength\":").append(contentLength >= 0 ? Long.toString(contentLength) : "null");
+        out.append(",\"headers\":{");
+        boolean firstHeader = true;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (!firstHeader) {
+                out.append(',');
+            }
+            firstHeader = false;
+            appendString(out, header.getKey());
+            out.append(":[");
+            List<String> values = header.getValue();
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendString(out, values.get(i));
+            }
+            out.append(']');
+        }
+        return out.append("}}\n").toString();
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
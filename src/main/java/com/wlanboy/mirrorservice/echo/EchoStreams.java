@@ -0,0 +1,46 @@
+package com.wlanboy.mirrorservice.echo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metriken der Echo-Streams beider Web-Stacks: laufende Echos und
+ * zurückgespiegelte Body-Bytes.
+ */
+@Component
+public class EchoStreams {
+
+    /** Größe des Kopierpuffers pro Servlet-Echo; Netty reicht die Eingangs-Buffer direkt weiter. */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+
+    public EchoStreams(MeterRegistry meterRegistry) {
+        Gauge.builder("mirror.echo.active", active, AtomicInteger::get)
+            .description("Aktuell laufende Echo-Antworten")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.echo.bytes", bytes, LongAdder::sum)
+            .description("Zurückgespiegelte Request-Body-Bytes")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public void opened() {
+        active.incrementAndGet();
+    }
+
+    public void copied(long count) {
+        bytes.add(count);
+    }
+
+    public void closed() {
+        active.decrementAndGet();
+    }
+}
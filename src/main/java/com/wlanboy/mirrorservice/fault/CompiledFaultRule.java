@@ -0,0 +1,83 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.wlanboy.mirrorservice.controller.FaultRule;
+
+/**
+ * Unveränderliche, für die Auswertung vorbereitete {@link FaultRule}: Header-Namen
+ * und erwartete Werte liegen als Arrays vor, die Rate als {@code double}. Der
+ * Trefferzähler ist ein {@link LongAdder}, damit parallel auslösende Requests
+ * nicht um eine gemeinsame Cache-Line konkurrieren.
+ */
+public final class CompiledFaultRule {
+
+    static final String ANY_VALUE = "*";
+
+    private final FaultRule rule;
+    private final String pathPrefix;
+    private final String[] headerNames;
+    private final String[] headerValues;
+    private final double rate;
+    private final LongAdder hits;
+
+    CompiledFaultRule(FaultRule rule, LongAdder hits) {
+        this.rule = rule;
+        this.pathPrefix = rule.pathPrefix();
+        this.headerNames = new String[rule.headers().size()];
+        this.headerValues = new String[rule.headers().size()];
+        int i = 0;
+        for (Map.Entry<String, String> header : rule.headers().entrySet()) {
+            headerNames[i] = header.getKey();
+            headerValues[i] = ANY_VALUE.equals(header.getValue()) ? null : header.getValue();
+            i++;
+        }
+        this.rate = rule.rate();
+        this.hits = hits;
+    }
+
+    public FaultRule rule() {
+        return rule;
+    }
+
+    public String id() {
+        return rule.id();
+    }
+
+    public FaultRule.Type type() {
+        return rule.type();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    /** Zieht die zusätzliche Verzögerung einer LATENCY-Regel. */
+    public long sampleDelayMs() {
+        return rule.latency().sampleMs(ThreadLocalRandom.current());
+    }
+
+    boolean matches(String path, Function<String, String> headers) {
+        if (!path.startsWith(pathPrefix)) {
+            return false;
+        }
+        for (int i = 0; i < headerNames.length; i++) {
+            String actual = headers.apply(headerNames[i]);
+            if (actual == null || (headerValues[i] != null && !headerValues[i].equals(actual))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean fires() {
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+}
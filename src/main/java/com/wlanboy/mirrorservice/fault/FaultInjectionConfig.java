@@ -0,0 +1,23 @@
+package com.wlanboy.mirrorservice.fault;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+
+/**
+ * Registriert den {@link FaultInjectionFilter} über eine Konfiguration statt als
+ * Komponente, damit ihn {@code @WebMvcTest}-Slices nicht automatisch aufnehmen.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FaultInjectionConfig {
+
+    @Bean
+    public FilterRegistrationBean<FaultInjectionFilter> faultInjectionFilter(FaultRules rules, MirrorDelayScheduler delayScheduler) {
+        FilterRegistrationBean<FaultInjectionFilter> registration =
+            new FilterRegistrationBean<>(new FaultInjectionFilter(rules, delayScheduler));
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
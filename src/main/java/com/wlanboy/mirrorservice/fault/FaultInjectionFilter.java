@@ -0,0 +1,217 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Wendet die {@link FaultRules} auf dem Servlet-Stack vor dem eigentlichen
+ * Handler an. Verbindungsabbrüche nutzen {@code sendError(-1)}, mit dem Jetty
+ * die Verbindung ohne weitere Antwort schließt. Latenz wird ohne blockierten
+ * Thread über den Delay-Timer und einen Async-Dispatch eingefügt. Das
+ * Netty-Profil bringt mit {@code ReactiveFaultInjectionFilter} ein Gegenstück mit.
+ */
+public class FaultInjectionFilter extends OncePerRequestFilter {
+
+    public static final String FAULT_HEADER = "X-Fault-Rule";
+
+    /** Die Regelverwaltung selbst ist ausgenommen, damit sich Regeln immer wieder entfernen lassen. */
+    static final String ADMIN_PATH = "/mirror/faults";
+
+    private static final int ABORT = -1;
+
+    private static final Logger log = LoggerFactory.getLogger(FaultInjectionFilter.class);
+
+    private final FaultRules rules;
+    private final MirrorDelayScheduler delayScheduler;
+
+    public FaultInjectionFilter(FaultRules rules, MirrorDelayScheduler delayScheduler) {
+        this.rules = rules;
+        this.delayScheduler = delayScheduler;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(ADMIN_PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // Regeln greifen nur beim ersten Dispatch; verzögerte oder asynchron
+            // beantwortete Requests laufen hier nur noch durch
+            proceed(request, response, chain);
+            return;
+        }
+        CompiledFaultRule rule = rules.select(request.getMethod(), request.getRequestURI(), request::getHeader);
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        switch (rule.type()) {
+            case ERROR -> {
+                response.setStatus(rule.rule().status());
+                response.setHeader(FAULT_HEADER, rule.id());
+                response.setContentType("text/plain;charset=UTF-8");
+                byte[] body = ("Injizierter Fehler durch Regel '" + rule.id() + "'").getBytes(StandardCharsets.UTF_8);
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+            case RESET -> response.sendError(ABORT);
+            case TRUNCATE -> {
+                response.setHeader(FAULT_HEADER, rule.id());
+                proceed(request, new TruncatingResponse(response, rule.rule().truncateAfterBytes()), chain);
+            }
+            case LATENCY -> {
+                response.setHeader(FAULT_HEADER, rule.id());
+                AsyncContext async = request.startAsync(request, response);
+                async.setTimeout(0);
+                delayScheduler.schedule(async::dispatch, rule.sampleDelayMs());
+            }
+        }
+    }
+
+    /**
+     * Führt die Kette aus und schneidet eine abzuschneidende Antwort spätestens
+     * dann ab, wenn der Handler fertig ist, auch wenn der Body kürzer war.
+     */
+    private static void proceed(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        for (ServletResponse current = response; current instanceof ServletResponseWrapper wrapper; current = wrapper.getResponse()) {
+            if (wrapper instanceof TruncatingResponse truncating) {
+                truncating.abort();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reicht höchstens {@code limit} Body-Bytes durch und bricht dann die
+     * Verbindung ab; Header wie {@code Content-Length} bleiben unverändert, der
+     * Client sieht also eine unvollständige Antwort.
+     */
+    static final class TruncatingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletResponse target;
+        private long remaining;
+        private boolean aborted;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        TruncatingResponse(HttpServletResponse target, long limit) {
+            super(target);
+            this.target = target;
+            this.remaining = limit;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TruncatingOutputStream(target.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        void abort() throws IOException {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            if (writer != null) {
+                writer.flush();
+            }
+            target.flushBuffer();
+            try {
+                target.sendError(ABORT);
+            } catch (IllegalStateException e) {
+                // Container ohne Abbruch-Unterstützung: die Antwort endet einfach hier
+                log.debug("Abgeschnittene Antwort konnte nicht abgebrochen werden: {}", e.getMessage());
+            }
+        }
+
+        private final class TruncatingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            TruncatingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (remaining > 0) {
+                    delegate.write(b);
+                    remaining--;
+                }
+                if (remaining == 0) {
+                    abort();
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                int passed = (int) Math.min(len, remaining);
+                if (passed > 0) {
+                    delegate.write(b, off, passed);
+                    remaining -= passed;
+                }
+                if (remaining == 0 && len > 0) {
+                    abort();
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!aborted) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return aborted || delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Unveränderlicher Regelsatz. Beim Kompilieren wird pro bekannter HTTP-Methode
+ * ein Array der in Frage kommenden Regeln in Auswertungsreihenfolge angelegt;
+ * die Auswertung ist damit ein Switch auf die Methode und ein Durchlauf über ein
+ * Array ohne Sperren und ohne Allokation.
+ */
+final class FaultRuleSet {
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+    private static final int OTHER = METHODS.length;
+
+    static final FaultRuleSet EMPTY = new FaultRuleSet(List.of());
+
+    private final List<CompiledFaultRule> rules;
+    private final CompiledFaultRule[][] byMethod;
+
+    FaultRuleSet(List<CompiledFaultRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.byMethod = new CompiledFaultRule[METHODS.length + 1][];
+        for (int m = 0; m <= METHODS.length; m++) {
+            List<CompiledFaultRule> candidates = new ArrayList<>();
+            for (CompiledFaultRule rule : rules) {
+                String method = rule.rule().method();
+                if (method == null || (m == OTHER ? methodIndex(method) == OTHER : METHODS[m].equals(method))) {
+                    candidates.add(rule);
+                }
+            }
+            byMethod[m] = candidates.toArray(CompiledFaultRule[]::new);
+        }
+    }
+
+    List<CompiledFaultRule> rules() {
+        return rules;
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Erste Regel in Auswertungsreihenfolge, die passt und gemäß ihrer Rate
+     * auslöst; deren Trefferzähler wird erhöht. Passt eine Regel, löst aber
+     * nicht aus, geht die Auswertung mit der nächsten weiter.
+     */
+    CompiledFaultRule select(String method, String path, Function<String, String> headers) {
+        int index = methodIndex(method);
+        for (CompiledFaultRule rule : byMethod[index]) {
+            if (index == OTHER && rule.rule().method() != null && !rule.rule().method().equals(method)) {
+                continue;
+            }
+            if (rule.matches(path, headers) && rule.fires()) {
+                rule.recordHit();
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static int methodIndex(String method) {
+        return switch (method) {
+            case "GET" -> 0;
+            case "HEAD" -> 1;
+            case "POST" -> 2;
+            case "PUT" -> 3;
+            case "PATCH" -> 4;
+            case "DELETE" -> 5;
+            case "OPTIONS" -> 6;
+            case "TRACE" -> 7;
+            default -> OTHER;
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.FaultRule;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Aktive Fehlerregeln. Requests lesen den aktuellen {@link FaultRuleSet} über ein
+ * einziges {@code volatile}-Feld; Änderungen kompilieren einen neuen Regelsatz
+ * und tauschen ihn atomar aus. Trefferzähler bleiben für IDs, die beim Ersetzen
+ * erhalten bleiben, bestehen und werden als {@code mirror.fault.hits} exportiert.
+ */
+@Component
+public class FaultRules {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LongAdder> hitCounters = new HashMap<>();
+    private final Map<String, Meter> meters = new HashMap<>();
+    private volatile FaultRuleSet active = FaultRuleSet.EMPTY;
+
+    public FaultRules(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("mirror.faults", this, rules -> rules.active.rules().size())
+            .description("Anzahl aktiver Fehlerregeln")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Regel, deren Fehler für diesen Request ausgelöst wird, oder {@code null}.
+     *
+     * @param headers liefert den ersten Wert eines Headers oder {@code null}
+     */
+    public CompiledFaultRule select(String method, String path, Function<String, String> headers) {
+        FaultRuleSet rules = active;
+        return rules.isEmpty() ? null : rules.select(method, path, headers);
+    }
+
+    public List<CompiledFaultRule> rules() {
+        return active.rules();
+    }
+
+    /**
+     * Ersetzt alle Regeln; die Reihenfolge der Liste ist die Auswertungsreihenfolge.
+     *
+     * @throws IllegalArgumentException bei doppelten IDs
+     */
+    public synchronized void replace(List<FaultRule> rules) {
+        Set<String> ids = new HashSet<>();
+        for (FaultRule rule : rules) {
+            if (!ids.add(rule.id())) {
+                throw new IllegalArgumentException("Fault-ID '" + rule.id() + "' ist mehrfach vergeben");
+            }
+        }
+        List<CompiledFaultRule> compiled = new ArrayList<>(rules.size());
+        for (FaultRule rule : rules) {
+            compiled.add(new CompiledFaultRule(rule, hitCounters.computeIfAbsent(rule.id(), this::registerCounter)));
+        }
+        hitCounters.keySet().removeIf(id -> {
+            if (ids.contains(id)) {
+                return false;
+            }
+            meterRegistry.remove(meters.remove(id));
+            return true;
+        });
+        active = new FaultRuleSet(compiled);
+    }
+
+    private LongAdder registerCounter(String id) {
+        LongAdder hits = new LongAdder();
+        meters.put(id, FunctionCounter.builder("mirror.fault.hits", hits, LongAdder::sum)
+            .description("Ausgelöste Fehler pro Fehlerregel")
+            .tag("rule", id)
+            .register(meterRegistry));
+        return hits;
+    }
+}
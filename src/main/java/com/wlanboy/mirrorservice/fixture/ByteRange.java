@@ -0,0 +1,63 @@
+package com.wlanboy.mirrorservice.fixture;
+
+/**
+ * Einzelner Bytebereich aus einem {@code Range}-Header (RFC 9110, Abschnitt 14.1).
+ * Mehrfachbereiche und syntaktisch ungültige Header werden ignoriert, die
+ * Antwort enthält dann die ganze Datei.
+ *
+ * @param first erstes Byte (inklusive)
+ * @param last letztes Byte (inklusive); bei nicht erfüllbaren Bereichen {@code -1}
+ */
+public record ByteRange(long first, long last) {
+
+    private static final String UNIT = "bytes=";
+
+    public boolean satisfiable() {
+        return last >= first;
+    }
+
+    public long length() {
+        return last - first + 1;
+    }
+
+    public String contentRange(long size) {
+        return satisfiable() ? "bytes " + first + "-" + last + "/" + size : "bytes */" + size;
+    }
+
+    /**
+     * @return den Bereich, einen nicht erfüllbaren Bereich oder {@code null},
+     *     wenn der Header fehlt oder ignoriert wird
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.regionMatches(true, 0, UNIT, 0, UNIT.length()) || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String start = spec.substring(0, dash).trim();
+            String end = spec.substring(dash + 1).trim();
+            if (start.isEmpty()) {
+                long suffix = Long.parseLong(end);
+                if (suffix <= 0 || size == 0) {
+                    return new ByteRange(0, -1);
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long first = Long.parseLong(start);
+            long last = end.isEmpty() ? Long.MAX_VALUE : Long.parseLong(end);
+            if (first < 0 || last < first) {
+                return null;
+            }
+            if (first >= size) {
+                return new ByteRange(0, -1);
+            }
+            return new ByteRange(first, Math.min(last, size - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.nio.ByteBuffer;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Eine in den Speicher abgebildete Fixture-Datei. Die Datei ist in Segmente
+ * von höchstens {@link FixtureStore#SEGMENT_SIZE} Bytes gemappt, da ein
+ * einzelnes Mapping auf 2 GiB begrenzt ist. Die Segmente sind schreibgeschützt
+ * und werden von allen Requests geteilt; ersetzt ein Reload die Datei, laufen
+ * bereits begonnene Antworten auf dem alten Mapping zu Ende.
+ */
+public final class Fixture {
+
+    private final String name;
+    private final long size;
+    private final FileTime lastModified;
+    private final String contentType;
+    private final int segmentSize;
+    private final ByteBuffer[] segments;
+    volatile long checkedAt;
+
+    Fixture(String name, long size, FileTime lastModified, String contentType, int segmentSize, ByteBuffer[] segments, long checkedAt) {
+        this.name = name;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+        this.segmentSize = segmentSize;
+        this.segments = segments;
+        this.checkedAt = checkedAt;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public FileTime lastModified() {
+        return lastModified;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Schreibgeschützte Sicht ab {@code position} mit höchstens {@code maxLength}
+     * Bytes; endet spätestens an der nächsten Segmentgrenze.
+     */
+    public ByteBuffer slice(long position, int maxLength) {
+        ByteBuffer segment = segments[(int) (position / segmentSize)];
+        int offset = (int) (position % segmentSize);
+        return segment.slice(offset, Math.min(maxLength, segment.capacity() - offset));
+    }
+
+    boolean sameFile(long size, FileTime lastModified) {
+        return this.size == size && this.lastModified.equals(lastModified);
+    }
+}
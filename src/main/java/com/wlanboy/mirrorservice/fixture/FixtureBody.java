@@ -0,0 +1,44 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Zustand einer einzelnen Auslieferung einer {@link Fixture}, optional auf einen
+ * {@link ByteRange} beschränkt. Liefert den Body als schreibgeschützte Slices
+ * der gemappten Segmente, sodass pro Request nur dieses Objekt entsteht.
+ */
+public final class FixtureBody {
+
+    static final int MAX_SLICE = 1024 * 1024;
+
+    private final Fixture fixture;
+    private final long end;
+    private long position;
+
+    public FixtureBody(Fixture fixture, ByteRange range) {
+        this.fixture = fixture;
+        this.position = range != null ? range.first() : 0;
+        this.end = range != null ? range.last() + 1 : fixture.size();
+    }
+
+    public Fixture fixture() {
+        return fixture;
+    }
+
+    /** Noch zu liefernde Bytes; vor dem ersten Chunk die Content-Length. */
+    public long length() {
+        return end - position;
+    }
+
+    /**
+     * Nächster Abschnitt des Bodys oder {@code null}, wenn alles geliefert wurde.
+     */
+    public ByteBuffer nextChunk() {
+        if (position >= end) {
+            return null;
+        }
+        ByteBuffer slice = fixture.slice(position, (int) Math.min(MAX_SLICE, end - position));
+        position += slice.remaining();
+        return slice;
+    }
+}
@@ -0,0 +1,71 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.ServletOutputStream;
+
+/**
+ * Schreibt einen {@link FixtureBody} auf den Servlet-Stack. Die gemappten Slices
+ * gehen per {@link ServletOutputStream#write(ByteBuffer)} direkt aus dem Page-Cache
+ * an Jetty, ohne Kopie in ein Heap-Array.
+ */
+@Component
+public class FixtureBodyHttpMessageConverter extends AbstractHttpMessageConverter<FixtureBody> {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    public FixtureBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FixtureBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected FixtureBody readInternal(Class<? extends FixtureBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("FixtureBody kann nicht gelesen werden", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(FixtureBody body, MediaType contentType) {
+        return body.length();
+    }
+
+    @Override
+    protected void writeInternal(FixtureBody body, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        byte[] copy = null;
+        ByteBuffer chunk;
+        while ((chunk = body.nextChunk()) != null) {
+            if (out instanceof ServletOutputStream servletOut) {
+                servletOut.write(chunk);
+            } else {
+                if (copy == null) {
+                    copy = new byte[COPY_BUFFER_SIZE];
+                }
+                while (chunk.hasRemaining()) {
+                    int size = Math.min(copy.length, chunk.remaining());
+                    chunk.get(copy, 0, size);
+                    out.write(copy, 0, size);
+                }
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,13 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.fixtures")
+public record FixtureProperties(
+    @DefaultValue("/app/data") Path directory,
+    @DefaultValue("2s") Duration checkInterval
+) {}
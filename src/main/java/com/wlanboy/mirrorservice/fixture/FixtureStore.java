@@ -0,0 +1,169 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Liefert Dateien aus {@code mirror.fixtures.directory} als speicherabgebildete
+ * {@link Fixture}s. Eine Datei wird beim ersten Zugriff gemappt; danach wird
+ * höchstens einmal pro {@code check-interval} per {@code stat} geprüft, ob sich
+ * Größe oder Änderungszeit geändert haben, und die Datei gegebenenfalls neu
+ * gemappt. Alte Mappings gibt der Garbage Collector frei.
+ * <p>
+ * Dateien sollten atomar ersetzt werden (schreiben, dann umbenennen): wird eine
+ * gemappte Datei an Ort und Stelle gekürzt, schlagen laufende Antworten fehl.
+ */
+@Component
+public class FixtureStore {
+
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private final Path directory;
+    private final long checkIntervalNanos;
+    private final int segmentSize;
+    private final LongSupplier ticker;
+    private final ConcurrentMap<String, Fixture> fixtures = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+
+    @Autowired
+    public FixtureStore(FixtureProperties properties, MeterRegistry meterRegistry) {
+        this(properties, SEGMENT_SIZE, System::nanoTime);
+        Gauge.builder("mirror.fixtures.mapped", fixtures, ConcurrentMap::size)
+            .description("Aktuell gemappte Fixture-Dateien")
+            .register(meterRegistry);
+        Gauge.builder("mirror.fixtures.mapped.size", this, FixtureStore::mappedBytes)
+            .description("Summe der gemappten Fixture-Größen")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.fixtures.loads", loads, LongAdder::sum)
+            .description("Gemappte Fixture-Dateien inklusive Reloads nach Änderungen")
+            .register(meterRegistry);
+    }
+
+    FixtureStore(FixtureProperties properties, int segmentSize, LongSupplier ticker) {
+        this.directory = properties.directory().toAbsolutePath().normalize();
+        this.checkIntervalNanos = properties.checkInterval().toNanos();
+        this.segmentSize = segmentSize;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Fixture zum Dateinamen oder {@code null}, wenn die Datei nicht existiert.
+     *
+     * @throws IllegalArgumentException wenn der Name aus dem Verzeichnis hinausführt
+     * @throws UncheckedIOException wenn die Datei nicht gelesen werden kann
+     */
+    public Fixture get(String name) {
+        Fixture current = fixtures.get(name);
+        long now = ticker.getAsLong();
+        if (current != null && now - current.checkedAt < checkIntervalNanos) {
+            return current;
+        }
+        Path file = resolve(name);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (current != null) {
+                fixtures.remove(name, current);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fixture '" + name + "' nicht lesbar", e);
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        if (current != null && current.sameFile(attributes.size(), attributes.lastModifiedTime())) {
+            current.checkedAt = now;
+            return current;
+        }
+        Fixture loaded = load(name, file, attributes, now);
+        fixtures.put(name, loaded);
+        return loaded;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    long loads() {
+        return loads.sum();
+    }
+
+    private long mappedBytes() {
+        long total = 0;
+        for (Fixture fixture : fixtures.values()) {
+            total += fixture.size();
+        }
+        return total;
+    }
+
+    private Path resolve(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Fixture-Name darf nicht leer sein");
+        }
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new IllegalArgumentException("Fixture '" + name + "' liegt außerhalb von " + directory);
+        }
+        return file;
+    }
+
+    private Fixture load(String name, Path file, BasicFileAttributes attributes, long now) {
+        long size = attributes.size();
+        int count = (int) ((size + segmentSize - 1) / segmentSize);
+        ByteBuffer[] segments = new ByteBuffer[Math.max(1, count)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (size == 0) {
+                segments[0] = ByteBuffer.allocate(0).asReadOnlyBuffer();
+            }
+            for (int i = 0; i < count; i++) {
+                long position = (long) i * segmentSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fixture '" + name + "' nicht lesbar", e);
+        }
+        loads.increment();
+        return new Fixture(name, size, attributes.lastModifiedTime(), contentType(name), segmentSize, segments, now);
+    }
+
+    static String contentType(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        int dot = lower.lastIndexOf('.');
+        return switch (dot >= 0 ? lower.substring(dot + 1) : "") {
+            case "json" -> "application/json";
+            case "ndjson" -> "application/x-ndjson";
+            case "xml" -> "application/xml";
+            case "html", "htm" -> "text/html;charset=UTF-8";
+            case "txt", "log" -> "text/plain;charset=UTF-8";
+            case "csv" -> "text/csv;charset=UTF-8";
+            case "png" -> "image/png";
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "gz" -> "application/gzip";
+            case "zip" -> "application/zip";
+            case "pdf" -> "application/pdf";
+            default -> "application/octet-stream";
+        };
+    }
+}
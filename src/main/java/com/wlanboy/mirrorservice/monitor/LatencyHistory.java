@@ -0,0 +1,94 @@
+package com.wlanboy.mirrorservice.monitor;
+
+import java.util.Arrays;
+
+/**
+ * Ringpuffer fester Größe für Proben eines Ziels. Jede Probe belegt genau ein
+ * {@code long}: obere 32 Bit Epoch-Sekunde, untere 32 Bit Latenz in
+ * Mikrosekunden ({@code 0xFFFFFFFF} markiert eine fehlgeschlagene Probe).
+ * 1024 Proben kosten damit 8 KB pro Ziel.
+ */
+public final class LatencyHistory {
+
+    private static final long FAILED = 0xFFFFFFFFL;
+    private static final long MAX_LATENCY_US = FAILED - 1;
+
+    public record Stats(int samples, int successes, double availability,
+                        long p50Us, long p95Us, long p99Us,
+                        boolean lastSuccess, long lastLatencyUs, long lastEpochSecond) {
+
+        static final Stats EMPTY = new Stats(0, 0, 0.0, -1, -1, -1, false, -1, -1);
+    }
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyHistory(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    public synchronized void recordSuccess(long epochSecond, long latencyUs) {
+        append(epochSecond, Math.clamp(latencyUs, 0, MAX_LATENCY_US));
+    }
+
+    public synchronized void recordFailure(long epochSecond) {
+        append(epochSecond, FAILED);
+    }
+
+    /**
+     * Kennzahlen über alle Proben ab {@code fromEpochSecond} (inklusive).
+     * Perzentile nach Nearest-Rank über die erfolgreichen Proben, {@code -1} ohne Erfolg.
+     */
+    public synchronized Stats stats(long fromEpochSecond) {
+        if (count == 0) {
+            return Stats.EMPTY;
+        }
+        long[] latencies = new long[count];
+        int inWindow = 0;
+        int successes = 0;
+        for (int i = 0; i < count; i++) {
+            long sample = samples[(next - 1 - i + samples.length) % samples.length];
+            if ((sample >>> 32) < fromEpochSecond) {
+                break;
+            }
+            inWindow++;
+            long latency = sample & FAILED;
+            if (latency != FAILED) {
+                latencies[successes++] = latency;
+            }
+        }
+        Arrays.sort(latencies, 0, successes);
+
+        long last = samples[(next - 1 + samples.length) % samples.length];
+        long lastLatency = last & FAILED;
+        return new Stats(inWindow, successes,
+            inWindow == 0 ? 0.0 : (double) successes / inWindow,
+            percentile(latencies, successes, 0.50),
+            percentile(latencies, successes, 0.95),
+            percentile(latencies, successes, 0.99),
+            lastLatency != FAILED,
+            lastLatency != FAILED ? lastLatency : -1,
+            last >>> 32);
+    }
+
+    public int capacity() {
+        return samples.length;
+    }
+
+    private void append(long epochSecond, long latency) {
+        samples[next] = (epochSecond << 32) | latency;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    private static long percentile(long[] sorted, int size, double quantile) {
+        if (size == 0) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(quantile * size);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,32 @@
+package com.wlanboy.mirrorservice.monitor;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.monitor")
+public record MonitorProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("30s") Duration interval,
+    @DefaultValue("1s") Duration timeout,
+    @DefaultValue("1024") int historySize,
+    @DefaultValue("15m") Duration window,
+    @DefaultValue List<Target> targets
+) {
+
+    /**
+     * Überwachtes Ziel. Ohne {@code name} wird der Host als Name verwendet.
+     */
+    public record Target(
+        String name,
+        String host,
+        @DefaultValue("icmp") String mode,
+        @DefaultValue List<Integer> ports
+    ) {
+        public String id() {
+            return name != null && !name.isBlank() ? name : host;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.wlanboy.mirrorservice.monitor;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.DnsResolver;
+import com.wlanboy.mirrorservice.net.TcpConnectProber;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Prüft die konfigurierten Ziele periodisch über den {@link DnsResolver} und
+ * hält pro Ziel eine {@link LatencyHistory}. Die Proben einer Runde laufen
+ * parallel auf virtuellen Threads; die nächste Runde startet erst, wenn die
+ * vorherige abgeschlossen ist.
+ */
+@Component
+public class ReachabilityMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReachabilityMonitor.class);
+
+    public record TargetStats(MonitorProperties.Target target, Duration window, LatencyHistory.Stats stats) {}
+
+    private final MonitorProperties properties;
+    private final DnsResolver dnsResolver;
+    private final Clock clock;
+    private final Map<String, Monitored> targets = new LinkedHashMap<>();
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ReachabilityMonitor(MonitorProperties properties, DnsResolver dnsResolver, MeterRegistry meterRegistry) {
+        this(properties, dnsResolver, meterRegistry, Clock.systemUTC());
+    }
+
+    ReachabilityMonitor(MonitorProperties properties, DnsResolver dnsResolver, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.dnsResolver = dnsResolver;
+        this.clock = clock;
+        for (MonitorProperties.Target target : properties.targets()) {
+            validate(target);
+            Monitored monitored = new Monitored(target, new LatencyHistory(properties.historySize()));
+            if (targets.putIfAbsent(target.id(), monitored) != null) {
+                throw new IllegalArgumentException("Monitor-Ziel '" + target.id() + "' ist mehrfach konfiguriert.");
+            }
+            bindMetrics(monitored, meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled() || targets.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("reachability-monitor").daemon().factory());
+        scheduler.scheduleAtFixedRate(this::probeAll, 0, properties.interval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Reachability-Monitor gestartet: {} Ziele, Intervall {}", targets.size(), properties.interval());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        probeExecutor.shutdownNow();
+    }
+
+    public List<TargetStats> statuses() {
+        List<TargetStats> result = new ArrayList<>(targets.size());
+        for (Monitored monitored : targets.values()) {
+            result.add(new TargetStats(monitored.target, properties.window(), monitored.current));
+        }
+        return result;
+    }
+
+    public Optional<TargetStats> status(String id, Duration window) {
+        Monitored monitored = targets.get(id);
+        if (monitored == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TargetStats(monitored.target, window, monitored.history.stats(windowStart(window))));
+    }
+
+    void probeAll() {
+        List<Callable<Void>> probes = new ArrayList<>(targets.size());
+        for (Monitored monitored : targets.values()) {
+            probes.add(() -> {
+                probe(monitored);
+                return null;
+            });
+        }
+        try {
+            probeExecutor.invokeAll(probes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Monitor-Runde fehlgeschlagen", e);
+        }
+    }
+
+    private void probe(Monitored monitored) {
+        long now = clock.instant().getEpochSecond();
+        long latencyNanos;
+        try {
+            latencyNanos = "tcp".equals(monitored.target.mode()) ? probeTcp(monitored.target) : probeIcmp(monitored.target);
+        } catch (Exception e) {
+            latencyNanos = -1;
+        }
+        if (latencyNanos >= 0) {
+            monitored.history.recordSuccess(now, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        } else {
+            monitored.history.recordFailure(now);
+        }
+        monitored.current = monitored.history.stats(windowStart(properties.window()));
+    }
+
+    private long probeIcmp(MonitorProperties.Target target) throws Exception {
+        InetAddress address = dnsResolver.getByName(target.host());
+        long start = System.nanoTime();
+        boolean reachable = dnsResolver.isReachable(address, (int) properties.timeout().toMillis());
+        return reachable ? System.nanoTime() - start : -1;
+    }
+
+    private long probeTcp(MonitorProperties.Target target) throws Exception {
+        InetAddress[] addresses = dnsResolver.getAllByName(target.host());
+        int[] ports = target.ports().stream().mapToInt(Integer::intValue).toArray();
+        return dnsResolver.probeTcp(addresses, ports, (int) properties.timeout().toMillis()).join().stream()
+            .filter(TcpConnectProber.ConnectResult::connected)
+            .mapToLong(TcpConnectProber.ConnectResult::connectNanos)
+            .min()
+            .orElse(-1);
+    }
+
+    private long windowStart(Duration window) {
+        return clock.instant().minus(window).getEpochSecond();
+    }
+
+    private static void validate(MonitorProperties.Target target) {
+        if (target.host() == null || target.host().isBlank()) {
+            throw new IllegalArgumentException("Monitor-Ziel ohne host konfiguriert.");
+        }
+        switch (target.mode()) {
+            case "icmp" -> { }
+            case "tcp" -> {
+                if (target.ports().isEmpty() || target.ports().stream().anyMatch(p -> p == null || p < 1 || p > 65535)) {
+                    throw new IllegalArgumentException("Monitor-Ziel '" + target.id() + "' benötigt Ports zwischen 1 und 65535.");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unbekannter Modus '" + target.mode() + "' für Monitor-Ziel '" + target.id() + "'.");
+        }
+    }
+
+    private static void bindMetrics(Monitored monitored, MeterRegistry registry) {
+        String id = monitored.target.id();
+        Gauge.builder("monitor.up", monitored, m -> m.current.lastSuccess() ? 1 : 0)
+            .description("Letzte Probe des Ziels erfolgreich (1) oder fehlgeschlagen (0)")
+            .tag("target", id)
+            .register(registry);
+        Gauge.builder("monitor.availability", monitored, m -> m.current.availability())
+            .description("Anteil erfolgreicher Proben im Monitor-Fenster")
+            .tag("target", id)
+            .register(registry);
+        bindLatency(monitored, registry, "0.5", LatencyHistory.Stats::p50Us);
+        bindLatency(monitored, registry, "0.95", LatencyHistory.Stats::p95Us);
+        bindLatency(monitored, registry, "0.99", LatencyHistory.Stats::p99Us);
+    }
+
+    private static void bindLatency(Monitored monitored, MeterRegistry registry, String quantile,
+            ToLongFunction<LatencyHistory.Stats> value) {
+        Gauge.builder("monitor.latency", monitored, m -> {
+                long micros = value.applyAsLong(m.current);
+                return micros < 0 ? Double.NaN : micros / 1_000_000.0;
+            })
+            .description("Latenz-Perzentil erfolgreicher Proben im Monitor-Fenster")
+            .baseUnit("seconds")
+            .tag("target", monitored.target.id())
+            .tag("quantile", quantile)
+            .register(registry);
+    }
+
+    private static final class Monitored {
+        final MonitorProperties.Target target;
+        final LatencyHistory history;
+        volatile LatencyHistory.Stats current = LatencyHistory.Stats.EMPTY;
+
+        Monitored(MonitorProperties.Target target, LatencyHistory history) {
+            this.target = target;
+            this.history = history;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.wlanboy.mirrorservice.net;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Timer nach dem Hashed-Wheel-Verfahren für sehr viele gleichzeitig wartende,
+ * ungenaue Verzögerungen. Ein einzelner Thread rückt alle {@code tick} einen
+ * Slot weiter und führt die dort fälligen Einträge aus; Einfügen und Abbrechen
+ * sind O(1) und laufen ohne Sperren über Queues. Die Auflösung entspricht der
+ * Tick-Dauer.
+ *
+ * <p>Tasks laufen auf dem Timer-Thread und müssen kurz sein.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int ST_PENDING = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    public interface Timeout {
+        /**
+         * @return {@code true}, wenn der Task dadurch nicht mehr ausgeführt wird
+         */
+        boolean cancel();
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final LongConsumer driftListener;
+    private final Queue<Entry> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancellations = new ConcurrentLinkedQueue<>();
+    private final LongAdder pending = new LongAdder();
+    private final long startTime;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param driftListener erhält pro ausgeführtem Eintrag die Verspätung gegenüber der Deadline in Nanosekunden
+     */
+    public HashedWheelTimer(String name, Duration tickDuration, int wheelSize, LongConsumer driftListener) {
+        if (tickDuration.toMillis() < 1) {
+            throw new IllegalArgumentException("Tick-Dauer muss mindestens 1ms sein");
+        }
+        if (wheelSize < 1 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Radgröße muss zwischen 1 und 2^30 liegen");
+        }
+        this.tickNanos = tickDuration.toNanos();
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.driftListener = driftListener;
+        this.startTime = System.nanoTime();
+        this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer ist beendet");
+        }
+        Entry entry = new Entry(this, task, System.nanoTime() + Math.max(0, unit.toNanos(delay)) - startTime);
+        pending.increment();
+        additions.add(entry);
+        return entry;
+    }
+
+    public long pending() {
+        return pending.sum();
+    }
+
+    public int wheelSize() {
+        return wheel.length;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while (running && (sleep = startTime + deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                break;
+            }
+            removeCancelled();
+            transferAdditions();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferAdditions() {
+        // Begrenzung pro Tick, damit ein Ansturm neuer Einträge den Tick nicht beliebig verzögert
+        for (int i = 0; i < 100_000; i++) {
+            Entry entry = additions.poll();
+            if (entry == null) {
+                return;
+            }
+            if (entry.state != ST_PENDING) {
+                continue;
+            }
+            long calculated = entry.deadline / tickNanos;
+            entry.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(entry);
+        }
+    }
+
+    private void removeCancelled() {
+        Entry entry;
+        while ((entry = cancellations.poll()) != null) {
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Entry entry = bucket.head;
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.remainingRounds <= 0) {
+                bucket.remove(entry);
+                if (STATE.compareAndSet(entry, ST_PENDING, ST_EXPIRED)) {
+                    pending.decrement();
+                    run(entry);
+                }
+            } else if (entry.state == ST_CANCELLED) {
+                bucket.remove(entry);
+            } else {
+                entry.remainingRounds--;
+            }
+            entry = next;
+        }
+    }
+
+    private void run(Entry entry) {
+        if (driftListener != null) {
+            driftListener.accept(Math.max(0, System.nanoTime() - startTime - entry.deadline));
+        }
+        try {
+            entry.task.run();
+        } catch (Throwable t) {
+            log.warn("Timer-Task fehlgeschlagen", t);
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<Entry> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Entry.class, "state");
+
+    private static final class Entry implements Timeout {
+        final HashedWheelTimer timer;
+        final Runnable task;
+        final long deadline;
+        long remainingRounds;
+        volatile int state = ST_PENDING;
+        Bucket bucket;
+        Entry next;
+        Entry prev;
+
+        Entry(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, ST_PENDING, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrement();
+            timer.cancellations.add(this);
+            return true;
+        }
+    }
+
+    /** Doppelt verkettete Liste, wird nur vom Timer-Thread verändert. */
+    private static final class Bucket {
+        Entry head;
+        Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            if (head == null) {
+                head = tail = entry;
+            } else {
+                tail.next = entry;
+                entry.prev = tail;
+                tail = entry;
+            }
+        }
+
+        void remove(Entry entry) {
+            if (entry.bucket != this) {
+                return;
+            }
+            Entry next = entry.next;
+            if (entry.prev != null) {
+                entry.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = entry.prev;
+            }
+            if (entry == head) {
+                head = next;
+            }
+            if (entry == tail) {
+                tail = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.wlanboy.mirrorservice.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ein einzelner Selector-Thread mit Task-Queue und Timern. Kanäle, Handler und
+ * Timer werden ausschließlich auf diesem Thread angefasst, daher brauchen die
+ * Protokoll-Implementierungen darüber keine eigene Synchronisation.
+ */
+public final class NioEventLoop implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NioEventLoop.class);
+
+    @FunctionalInterface
+    public interface Handler {
+        void ready(SelectionKey key) throws IOException;
+    }
+
+    public static final class Timeout implements Comparable<Timeout> {
+        private final long deadline;
+        private final long sequence;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private Timeout(long deadline, long sequence, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        /** Nur auf dem Event-Loop-Thread aufrufen. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(Timeout other) {
+            int byDeadline = Long.compare(deadline - other.deadline, 0);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<Timeout> timeouts = new PriorityQueue<>();
+    private final AtomicLong timeoutSequence = new AtomicLong();
+    private volatile boolean running = true;
+
+    public NioEventLoop(String name) {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.thread = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /** Nur auf dem Event-Loop-Thread aufrufen. */
+    public SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    /** Nur auf dem Event-Loop-Thread aufrufen. */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(System.nanoTime() + unit.toNanos(delay), timeoutSequence.incrementAndGet(), task);
+        timeouts.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(nextTimeoutMillis());
+                processSelectedKeys();
+                runTasks();
+                runTimeouts();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            runTasks();
+            closeSelector();
+        }
+    }
+
+    private long nextTimeoutMillis() {
+        if (!tasks.isEmpty()) {
+            return 1;
+        }
+        Timeout next = timeouts.peek();
+        if (next == null) {
+            return 0;
+        }
+        long remaining = TimeUnit.NANOSECONDS.toMillis(next.deadline - System.nanoTime());
+        return Math.max(1, remaining);
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Handler handler = (Handler) key.attachment();
+            try {
+                handler.ready(key);
+            } catch (IOException | CancelledKeyException e) {
+                key.cancel();
+                closeQuietly(key.channel());
+            } catch (RuntimeException e) {
+                log.warn("Handler in {} fehlgeschlagen", thread.getName(), e);
+                key.cancel();
+                closeQuietly(key.channel());
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            runSafely(task);
+        }
+    }
+
+    private void runTimeouts() {
+        long now = System.nanoTime();
+        Timeout next;
+        while ((next = timeouts.peek()) != null && next.deadline - now <= 0) {
+            timeouts.poll();
+            if (!next.cancelled) {
+                runSafely(next.task);
+            }
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("Task in {} fehlgeschlagen", thread.getName(), e);
+        }
+    }
+
+    private void closeSelector() {
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Shutdown
+        }
+    }
+
+    public static void closeQuietly(SelectableChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // bereits geschlossen
+        }
+    }
+}
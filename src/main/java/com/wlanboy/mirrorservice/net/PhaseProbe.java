@@ -0,0 +1,141 @@
+package com.wlanboy.mirrorservice.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Misst eine Verbindung Phase für Phase mit {@link System#nanoTime()}:
+ * DNS-Auflösung, TCP-Connect, TLS-Handshake und optional die Zeit bis zum
+ * ersten Byte einer HTTP-Antwort. Blockiert den aufrufenden Thread und ist
+ * daher für virtuelle Threads gedacht.
+ */
+public final class PhaseProbe {
+
+    @FunctionalInterface
+    public interface Resolver {
+        InetAddress[] resolve(String hostname) throws UnknownHostException;
+    }
+
+    public enum Phase { DNS, CONNECT, TLS, FIRST_BYTE }
+
+    public record Request(String hostname, int port, boolean tls, String httpPath, int timeoutMs) {}
+
+    /**
+     * Dauer je Phase in Nanosekunden, {@code -1} für nicht ausgeführte Phasen.
+     */
+    public record Result(InetAddress address, long dnsNanos, long connectNanos, long tlsNanos, long firstByteNanos,
+                         String tlsProtocol, int httpStatus, Phase failedPhase, String error) {
+
+        public boolean successful() {
+            return failedPhase == null;
+        }
+
+        public long totalNanos() {
+            return Math.max(0, dnsNanos) + Math.max(0, connectNanos) + Math.max(0, tlsNanos) + Math.max(0, firstByteNanos);
+        }
+    }
+
+    private final Resolver resolver;
+    private final SSLSocketFactory sslSocketFactory;
+
+    public PhaseProbe(Resolver resolver) {
+        this(resolver, defaultSslSocketFactory());
+    }
+
+    PhaseProbe(Resolver resolver, SSLSocketFactory sslSocketFactory) {
+        this.resolver = resolver;
+        this.sslSocketFactory = sslSocketFactory;
+    }
+
+    public Result probe(Request request) throws UnknownHostException {
+        long start = System.nanoTime();
+        InetAddress address = resolver.resolve(request.hostname())[0];
+        long dns = System.nanoTime() - start;
+
+        long connect = -1;
+        long tls = -1;
+        long firstByte = -1;
+        String tlsProtocol = null;
+        int httpStatus = 0;
+        Phase phase = Phase.CONNECT;
+        Socket socket = new Socket();
+        try {
+            start = System.nanoTime();
+            socket.connect(new InetSocketAddress(address, request.port()), request.timeoutMs());
+            connect = System.nanoTime() - start;
+            socket.setSoTimeout(request.timeoutMs());
+
+            if (request.tls()) {
+                phase = Phase.TLS;
+                start = System.nanoTime();
+                SSLSocket ssl = (SSLSocket) sslSocketFactory.createSocket(socket, request.hostname(), request.port(), true);
+                ssl.startHandshake();
+                tls = System.nanoTime() - start;
+                tlsProtocol = ssl.getSession().getProtocol();
+                socket = ssl;
+            }
+
+            if (request.httpPath() != null) {
+                phase = Phase.FIRST_BYTE;
+                OutputStream out = socket.getOutputStream();
+                InputStream in = socket.getInputStream();
+                byte[] head = ("HEAD " + request.httpPath() + " HTTP/1.1\r\n"
+                    + "Host: " + request.hostname() + "\r\n"
+                    + "User-Agent: mirrorservice\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+                start = System.nanoTime();
+                out.write(head);
+                out.flush();
+                int first = in.read();
+                firstByte = System.nanoTime() - start;
+                if (first < 0) {
+                    throw new IOException("Verbindung ohne Antwort geschlossen");
+                }
+                httpStatus = readStatus(first, in);
+            }
+            return new Result(address, dns, connect, tls, firstByte, tlsProtocol, httpStatus, null, null);
+        } catch (IOException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Result(address, dns, connect, tls, firstByte, tlsProtocol, httpStatus, phase, error);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Probe ist abgeschlossen
+            }
+        }
+    }
+
+    private static int readStatus(int first, InputStream in) throws IOException {
+        // "HTTP/1.1 200 ..." → Statuscode steht nach dem ersten Leerzeichen
+        StringBuilder line = new StringBuilder().append((char) first);
+        for (int b = in.read(); b >= 0 && b != '\n' && line.length() < 64; b = in.read()) {
+            line.append((char) b);
+        }
+        String[] parts = line.toString().split(" ");
+        try {
+            return parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static SSLSocketFactory defaultSslSocketFactory() {
+        try {
+            return SSLContext.getDefault().getSocketFactory();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
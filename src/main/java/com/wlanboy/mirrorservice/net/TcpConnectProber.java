@@ -0,0 +1,131 @@
+package com.wlanboy.mirrorservice.net;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Misst TCP-Verbindungsaufbauzeiten per nicht-blockierendem Connect. Alle
+ * Kombinationen aus Adresse und Port einer Anfrage laufen parallel auf dem
+ * gemeinsamen {@link NioEventLoop}, ohne dass ein Thread pro Probe wartet.
+ */
+public final class TcpConnectProber implements AutoCloseable {
+
+    public record ConnectResult(InetAddress address, int port, boolean connected, long connectNanos, String error) {}
+
+    private final NioEventLoop loop;
+
+    public TcpConnectProber() {
+        this.loop = new NioEventLoop("tcp-probe");
+    }
+
+    public CompletableFuture<List<ConnectResult>> probe(InetAddress[] addresses, int[] ports, Duration timeout) {
+        ConnectResult[] results = new ConnectResult[addresses.length * ports.length];
+        CompletableFuture<List<ConnectResult>> future = new CompletableFuture<>();
+        if (results.length == 0) {
+            future.complete(List.of());
+            return future;
+        }
+        loop.execute(() -> {
+            int[] remaining = {results.length};
+            for (int a = 0; a < addresses.length; a++) {
+                for (int p = 0; p < ports.length; p++) {
+                    int slot = a * ports.length + p;
+                    connect(addresses[a], ports[p], timeout, result -> {
+                        results[slot] = result;
+                        if (--remaining[0] == 0) {
+                            future.complete(Arrays.asList(results));
+                        }
+                    });
+                }
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void close() {
+        loop.close();
+    }
+
+    private void connect(InetAddress address, int port, Duration timeout, Consumer<ConnectResult> done) {
+        new Attempt(address, port, done).start(timeout);
+    }
+
+    private final class Attempt {
+        private final InetAddress address;
+        private final int port;
+        private final Consumer<ConnectResult> done;
+        private SocketChannel channel;
+        private NioEventLoop.Timeout timeout;
+        private long start;
+        private boolean finished;
+
+        Attempt(InetAddress address, int port, Consumer<ConnectResult> done) {
+            this.address = address;
+            this.port = port;
+            this.done = done;
+        }
+
+        void start(Duration limit) {
+            start = System.nanoTime();
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(new InetSocketAddress(address, port))) {
+                    succeed();
+                    return;
+                }
+                loop.register(channel, SelectionKey.OP_CONNECT, key -> onConnectable());
+                timeout = loop.schedule(() -> fail("timeout"), limit.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (IOException | RuntimeException e) {
+                fail(message(e));
+            }
+        }
+
+        private void onConnectable() {
+            try {
+                if (channel.finishConnect()) {
+                    succeed();
+                }
+            } catch (IOException e) {
+                fail(message(e));
+            }
+        }
+
+        private void succeed() {
+            long elapsed = System.nanoTime() - start;
+            finish(new ConnectResult(address, port, true, elapsed, null));
+        }
+
+        private void fail(String error) {
+            finish(new ConnectResult(address, port, false, System.nanoTime() - start, error));
+        }
+
+        private void finish(ConnectResult result) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (channel != null) {
+                NioEventLoop.closeQuietly(channel);
+            }
+            done.accept(result);
+        }
+
+        private static String message(Exception e) {
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+    }
+}
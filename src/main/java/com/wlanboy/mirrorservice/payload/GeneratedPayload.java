@@ -0,0 +1,118 @@
+package com.wlanboy.mirrorservice.payload;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.wlanboy.mirrorservice.controller.PayloadSpec;
+
+/**
+ * Zustand einer einzelnen Auslieferung eines {@link PayloadSpec}. Liefert den Body
+ * als Folge schreibgeschützter Slices der geteilten {@link PatternBlocks}; pro
+ * Request entstehen nur dieses Objekt und höchstens zwei kleine Heap-Buffer für
+ * Anfang und Ende eines JSON-Arrays.
+ * <p>
+ * Bei gesetztem {@code chunkSize} ist jeder Slice höchstens so groß; bei
+ * JSON_ARRAY sind der erste und letzte Slice wegen der Klammern kürzer.
+ */
+public final class GeneratedPayload {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final long length;
+    private final boolean chunked;
+    private final int maxSlice;
+    private final ByteBuffer head;
+    private final ByteBuffer block;
+    private final long bodyLength;
+    private final ByteBuffer tail;
+    private long bodyPosition;
+
+    private GeneratedPayload(PayloadSpec spec, ByteBuffer head, ByteBuffer block, long bodyLength, ByteBuffer tail) {
+        this.length = spec.sizeBytes();
+        this.chunked = spec.chunked();
+        this.maxSlice = spec.chunked() ? spec.chunkSize() : PatternBlocks.BLOCK_SIZE;
+        this.head = head;
+        this.block = block;
+        this.bodyLength = bodyLength;
+        this.tail = tail;
+    }
+
+    public static GeneratedPayload of(PayloadSpec spec) {
+        return switch (spec.pattern()) {
+            case ZEROS -> new GeneratedPayload(spec, EMPTY, PatternBlocks.zeros(), spec.sizeBytes(), EMPTY);
+            case RANDOM -> new GeneratedPayload(spec, EMPTY, PatternBlocks.random(), spec.sizeBytes(), EMPTY);
+            case TEXT -> new GeneratedPayload(spec, EMPTY, PatternBlocks.text(spec.text()), spec.sizeBytes(), EMPTY);
+            case JSON_ARRAY -> jsonArray(spec);
+        };
+    }
+
+    public static String contentType(PayloadSpec.Pattern pattern) {
+        return switch (pattern) {
+            case ZEROS, RANDOM -> "application/octet-stream";
+            case TEXT -> "text/plain;charset=UTF-8";
+            case JSON_ARRAY -> "application/json";
+        };
+    }
+
+    /**
+     * {@code [} + n-mal {@code element,} + {@code element} + Leerzeichen + {@code ]},
+     * sodass das Array exakt {@code sizeBytes} lang und gültiges JSON ist.
+     */
+    private static GeneratedPayload jsonArray(PayloadSpec spec) {
+        byte[] element = PatternBlocks.JSON_ELEMENT;
+        long inner = spec.sizeBytes() - 2;
+        byte[] tail;
+        long body = 0;
+        if (inner < element.length) {
+            tail = new byte[(int) inner + 1];
+            Arrays.fill(tail, (byte) ' ');
+        } else {
+            long elements = (inner - element.length) / (element.length + 1);
+            int padding = (int) ((inner - element.length) % (element.length + 1));
+            body = elements * (element.length + 1);
+            tail = new byte[element.length + padding + 1];
+            System.arraycopy(element, 0, tail, 0, element.length);
+            Arrays.fill(tail, element.length, tail.length, (byte) ' ');
+        }
+        tail[tail.length - 1] = ']';
+        return new GeneratedPayload(spec, ByteBuffer.wrap(new byte[]{'['}).asReadOnlyBuffer(), PatternBlocks.jsonElements(), body,
+            ByteBuffer.wrap(tail).asReadOnlyBuffer());
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public boolean chunked() {
+        return chunked;
+    }
+
+    /**
+     * Nächster Abschnitt des Bodys oder {@code null}, wenn alles geliefert wurde.
+     * Der zurückgegebene Buffer ist eine Sicht auf geteilten Speicher und darf
+     * nur gelesen werden.
+     */
+    public ByteBuffer nextChunk() {
+        if (head.hasRemaining()) {
+            return take(head);
+        }
+        if (bodyPosition < bodyLength) {
+            int period = block.capacity();
+            int offset = (int) (bodyPosition % period);
+            int size = (int) Math.min(Math.min(maxSlice, period - offset), bodyLength - bodyPosition);
+            bodyPosition += size;
+            return block.slice(offset, size);
+        }
+        if (tail.hasRemaining()) {
+            return take(tail);
+        }
+        return null;
+    }
+
+    private ByteBuffer take(ByteBuffer source) {
+        int size = Math.min(maxSlice, source.remaining());
+        ByteBuffer slice = source.slice(source.position(), size);
+        source.position(source.position() + size);
+        return slice;
+    }
+}
@@ -0,0 +1,80 @@
+package com.wlanboy.mirrorservice.payload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.ServletOutputStream;
+
+/**
+ * Schreibt einen {@link GeneratedPayload} auf den Servlet-Stack. Die Slices der
+ * geteilten Direct-Buffer gehen per {@link ServletOutputStream#write(ByteBuffer)}
+ * ohne Umweg über ein Heap-Array an Jetty.
+ */
+@Component
+public class GeneratedPayloadHttpMessageConverter extends AbstractHttpMessageConverter<GeneratedPayload> {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    public GeneratedPayloadHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GeneratedPayload.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GeneratedPayload readInternal(Class<? extends GeneratedPayload> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("GeneratedPayload kann nicht gelesen werden", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(GeneratedPayload payload, MediaType contentType) {
+        return payload.chunked() ? null : payload.length();
+    }
+
+    @Override
+    protected void writeInternal(GeneratedPayload payload, HttpOutputMessage outputMessage) throws IOException {
+        writeTo(payload, outputMessage.getBody());
+    }
+
+    /**
+     * Streamt den Payload; bei gesetztem {@code chunkSize} wird nach jedem Slice geflusht.
+     */
+    public static void writeTo(GeneratedPayload payload, OutputStream out) throws IOException {
+        byte[] copy = null;
+        ByteBuffer chunk;
+        while ((chunk = payload.nextChunk()) != null) {
+            if (out instanceof ServletOutputStream servletOut) {
+                servletOut.write(chunk);
+            } else {
+                if (copy == null) {
+                    copy = new byte[COPY_BUFFER_SIZE];
+                }
+                while (chunk.hasRemaining()) {
+                    int size = Math.min(copy.length, chunk.remaining());
+                    chunk.get(copy, 0, size);
+                    out.write(copy, 0, size);
+                }
+            }
+            if (payload.chunked()) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+}
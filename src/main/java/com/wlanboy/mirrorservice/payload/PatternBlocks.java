@@ -0,0 +1,83 @@
+package com.wlanboy.mirrorservice.payload;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prozessweit geteilte, einmal gefüllte Direct-Buffer für die Payload-Muster.
+ * Jeder Block ist schreibgeschützt und lässt sich lückenlos aneinanderreihen,
+ * d.h. seine Kapazität ist ein Vielfaches der Musterlänge.
+ */
+final class PatternBlocks {
+
+    static final int BLOCK_SIZE = 1024 * 1024;
+    static final byte[] JSON_ELEMENT = "{\"id\":1,\"name\":\"mirror\",\"value\":0.5}".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int MAX_TEXT_BLOCKS = 32;
+    private static final Map<String, ByteBuffer> TEXT_BLOCKS = new ConcurrentHashMap<>();
+
+    private PatternBlocks() {
+    }
+
+    static ByteBuffer zeros() {
+        return Zeros.BLOCK;
+    }
+
+    static ByteBuffer random() {
+        return Random.BLOCK;
+    }
+
+    static ByteBuffer jsonElements() {
+        return Json.BLOCK;
+    }
+
+    static ByteBuffer text(String text) {
+        ByteBuffer block = TEXT_BLOCKS.get(text);
+        if (block != null) {
+            return block;
+        }
+        if (TEXT_BLOCKS.size() >= MAX_TEXT_BLOCKS) {
+            TEXT_BLOCKS.clear();
+        }
+        return TEXT_BLOCKS.computeIfAbsent(text, t -> tile(t.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ByteBuffer tile(byte[] pattern) {
+        ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE / pattern.length * pattern.length);
+        while (block.hasRemaining()) {
+            block.put(pattern);
+        }
+        return block.flip().asReadOnlyBuffer();
+    }
+
+    private static final class Zeros {
+        static final ByteBuffer BLOCK = ByteBuffer.allocateDirect(BLOCK_SIZE).asReadOnlyBuffer();
+    }
+
+    private static final class Random {
+        static final ByteBuffer BLOCK;
+
+        static {
+            SplittableRandom random = new SplittableRandom();
+            ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE);
+            while (block.hasRemaining()) {
+                block.putLong(random.nextLong());
+            }
+            BLOCK = block.flip().asReadOnlyBuffer();
+        }
+    }
+
+    private static final class Json {
+        static final ByteBuffer BLOCK;
+
+        static {
+            byte[] element = new byte[JSON_ELEMENT.length + 1];
+            System.arraycopy(JSON_ELEMENT, 0, element, 0, JSON_ELEMENT.length);
+            element[JSON_ELEMENT.length] = ',';
+            BLOCK = tile(element);
+        }
+    }
+}
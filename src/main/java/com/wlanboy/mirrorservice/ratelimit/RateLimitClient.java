@@ -0,0 +1,15 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+/**
+ * Stack-neutrale Sicht auf den aufrufenden Client, aus der der {@link RateLimiter}
+ * den Bucket-Schlüssel und {@code SequenceCursors} den Cursor-Schlüssel bilden. Servlet- und WebFlux-Stack stellen jeweils einen
+ * Argument-Resolver bereit, damit gemeinsame Controller sie als Parameter erhalten.
+ */
+public interface RateLimitClient {
+
+    /** IP-Adresse des Clients ohne Port. */
+    String address();
+
+    /** Erster Wert des Headers oder {@code null}. */
+    String header(String name);
+}
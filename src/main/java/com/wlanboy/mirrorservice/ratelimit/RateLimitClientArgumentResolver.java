@@ -0,0 +1,42 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Stellt gemeinsamen Controllern auf dem Servlet-Stack einen {@link RateLimitClient}
+ * bereit; das Netty-Profil bringt mit {@code ReactiveRateLimitClientArgumentResolver}
+ * ein Gegenstück mit.
+ */
+public class RateLimitClientArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static RateLimitClient of(HttpServletRequest request) {
+        return new RateLimitClient() {
+            @Override
+            public String address() {
+                return request.getRemoteAddr();
+            }
+
+            @Override
+            public String header(String name) {
+                return request.getHeader(name);
+            }
+        };
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return RateLimitClient.class == parameter.getParameterType();
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory) {
+        return of(webRequest.getNativeRequest(HttpServletRequest.class));
+    }
+}
@@ -0,0 +1,37 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Ergebnis einer Bucket-Abfrage samt den Werten für die Antwort-Header. Die
+ * RateLimit-Header folgen dem IETF-Entwurf ({@code RateLimit-Limit},
+ * {@code RateLimit-Remaining}, {@code RateLimit-Reset} in Sekunden,
+ * {@code RateLimit-Policy}); abgelehnte Requests bekommen zusätzlich
+ * {@code Retry-After}.
+ */
+public record RateLimitDecision(boolean allowed, int limit, long windowMs, long remaining, long resetNanos, long retryAfterNanos) {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+    public static final String POLICY_HEADER = "RateLimit-Policy";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    public static final int REJECTED_STATUS = 429;
+    public static final String REJECTED_BODY = "Rate-Limit überschritten";
+
+    public void forEachHeader(BiConsumer<String, String> consumer) {
+        consumer.accept(LIMIT_HEADER, Integer.toString(limit));
+        consumer.accept(REMAINING_HEADER, Long.toString(remaining));
+        consumer.accept(RESET_HEADER, Long.toString(seconds(resetNanos)));
+        consumer.accept(POLICY_HEADER, limit + ";w=" + Math.max(1, seconds(windowMs * 1_000_000)));
+        if (!allowed) {
+            consumer.accept(RETRY_AFTER_HEADER, Long.toString(Math.max(1, seconds(retryAfterNanos))));
+        }
+    }
+
+    /** Aufgerundet, damit ein Client, der die Angabe befolgt, nicht zu früh wiederkommt. */
+    private static long seconds(long nanos) {
+        return (nanos + 999_999_999) / 1_000_000_000;
+    }
+}
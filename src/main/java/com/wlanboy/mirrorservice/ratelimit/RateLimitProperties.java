@@ -0,0 +1,12 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("100000") int maxKeys,
+    @DefaultValue("10s") Duration sweepInterval
+) {}
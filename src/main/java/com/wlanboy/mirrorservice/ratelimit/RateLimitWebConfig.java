@@ -0,0 +1,19 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registriert den {@link RateLimitClientArgumentResolver} im Servlet-Stack.
+ */
+@Configuration
+public class RateLimitWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new RateLimitClientArgumentResolver());
+    }
+}
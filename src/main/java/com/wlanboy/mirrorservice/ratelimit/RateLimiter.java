@@ -0,0 +1,193 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.RateLimitSpec;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Token-Buckets für simulierte Rate-Limits. Jeder Bucket ist ein einzelnes
+ * {@code long}: der theoretische Zeitpunkt, zu dem er wieder voll wäre (GCRA).
+ * Ein Request schiebt diesen Zeitpunkt per CAS um ein Token-Intervall weiter;
+ * liegt er dann mehr als ein Fenster in der Zukunft, ist der Bucket leer. Damit
+ * ist die Abfrage ohne Sperren und nach dem ersten Request eines Schlüssels ohne
+ * Allokation eines Buckets.
+ * <p>
+ * Ein Bucket, dessen Zeitpunkt erreicht ist, ist voll und damit gleichwertig zu
+ * keinem Bucket. Solche Buckets entfernt ein Hintergrund-Thread alle
+ * {@code sweep-interval}; der Speicher wächst also nur mit den Schlüsseln, die
+ * innerhalb ihres Fensters aktiv sind, und höchstens bis {@code max-keys}.
+ * Darüber hinaus werden neue Schlüssel ohne Limit durchgelassen und gezählt.
+ */
+@Component
+public class RateLimiter {
+
+    /** Markiert einen Bucket, den der Sweeper gerade entfernt; Requests legen dann einen neuen an. */
+    static final long EVICTED = Long.MIN_VALUE;
+
+    private final int maxKeys;
+    private final long sweepIntervalMs;
+    private final LongSupplier ticker;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, System::nanoTime);
+        Gauge.builder("mirror.ratelimit.keys", buckets, Map::size)
+            .description("Aktuell gehaltene Rate-Limit-Buckets")
+            .register(meterRegistry);
+        registerOutcome(meterRegistry, "allowed", allowed);
+        registerOutcome(meterRegistry, "rejected", rejected);
+        registerOutcome(meterRegistry, "untracked", untracked);
+        FunctionCounter.builder("mirror.ratelimit.evictions", evictions, LongAdder::sum)
+            .description("Entfernte volle Rate-Limit-Buckets")
+            .register(meterRegistry);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier ticker) {
+        this.maxKeys = properties.maxKeys();
+        this.sweepIntervalMs = properties.sweepInterval().toMillis();
+        this.ticker = ticker;
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("rate-limit-sweeper").daemon().factory());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Nimmt ein Token aus dem Bucket des Clients.
+     *
+     * @param scenario Szenario-ID für {@link RateLimitSpec.Key#SCENARIO}; {@code null} außerhalb von Szenarien
+     */
+    public RateLimitDecision acquire(RateLimitSpec spec, RateLimitClient client, String scenario) {
+        String key = spec.name() + '\n' + clientKey(spec, client, scenario);
+        long interval = TimeUnit.MILLISECONDS.toNanos(spec.windowMs()) / spec.limit();
+        long windowNanos = interval * spec.limit();
+        while (true) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys) {
+                    untracked.increment();
+                    return new RateLimitDecision(true, spec.limit(), spec.windowMs(), spec.limit() - 1, interval, 0);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+            }
+            RateLimitDecision decision = bucket.acquire(ticker.getAsLong(), interval, windowNanos, spec);
+            if (decision != null) {
+                (decision.allowed() ? allowed : rejected).increment();
+                return decision;
+            }
+            buckets.remove(key, bucket);
+        }
+    }
+
+    /**
+     * Entfernt alle vollen Buckets. Ein Bucket wird zuerst per CAS als entfernt
+     * markiert, damit kein gleichzeitiger Request sein Token in einem Bucket
+     * verbraucht, der danach verschwindet.
+     */
+    void sweep() {
+        long now = ticker.getAsLong();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (bucket.evictIfFull(now)) {
+                buckets.remove(entry.getKey(), bucket);
+                evictions.increment();
+            }
+        }
+    }
+
+    int keys() {
+        return buckets.size();
+    }
+
+    private static String clientKey(RateLimitSpec spec, RateLimitClient client, String scenario) {
+        return switch (spec.key()) {
+            case IP -> client.address();
+            case HEADER -> {
+                String value = client.header(spec.header());
+                yield value != null ? "h:" + value : client.address();
+            }
+            case SCENARIO -> scenario != null ? "s:" + scenario : "*";
+        };
+    }
+
+    private static void registerOutcome(MeterRegistry meterRegistry, String outcome, LongAdder counter) {
+        FunctionCounter.builder("mirror.ratelimit.requests", counter, LongAdder::sum)
+            .description("Requests mit simuliertem Rate-Limit nach Ergebnis")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    static final class Bucket {
+
+        private static final VarHandle FULL_AT;
+
+        static {
+            try {
+                FULL_AT = MethodHandles.lookup().findVarHandle(Bucket.class, "fullAt", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /** Zeitpunkt in {@code nanoTime}, ab dem der Bucket wieder voll ist; {@link #EVICTED} nach dem Entfernen. */
+        private volatile long fullAt = Long.MIN_VALUE + 1;
+
+        /**
+         * @return die Entscheidung oder {@code null}, wenn der Bucket inzwischen entfernt wurde
+         */
+        RateLimitDecision acquire(long now, long interval, long windowNanos, RateLimitSpec spec) {
+            while (true) {
+                long current = fullAt;
+                if (current == EVICTED) {
+                    return null;
+                }
+                long base = Math.max(current, now);
+                long next = base + interval;
+                if (next - now > windowNanos) {
+                    return new RateLimitDecision(false, spec.limit(), spec.windowMs(), 0, base - now, next - now - windowNanos);
+                }
+                if (FULL_AT.compareAndSet(this, current, next)) {
+                    long remaining = (windowNanos - (next - now)) / interval;
+                    return new RateLimitDecision(true, spec.limit(), spec.windowMs(), remaining, next - now, 0);
+                }
+            }
+        }
+
+        boolean evictIfFull(long now) {
+            long current = fullAt;
+            return current != EVICTED && current <= now && FULL_AT.compareAndSet(this, current, EVICTED);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.recorder")
+public record RecorderProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("4096") int capacity,
+    @DefaultValue("1024") int maxBodyBytes,
+    @DefaultValue({"Authorization", "Proxy-Authorization", "Cookie"}) List<String> redactHeaders,
+    @DefaultValue({"/mirror", "/resolve", "/ping"}) List<String> paths
+) {}
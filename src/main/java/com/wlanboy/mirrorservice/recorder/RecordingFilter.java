@@ -0,0 +1,52 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+/**
+ * Filter für den Export der Mitschnitte: Pfad-Präfix, Statuscode oder
+ * Statusklasse und Zeitraum des Eingangs ({@code since} einschließlich,
+ * {@code until} ausschließlich). Nicht gesetzte Kriterien lassen alles durch.
+ */
+public record RecordingFilter(String pathPrefix, int statusFrom, int statusTo, Instant since, Instant until)
+        implements Predicate<RecordedRequest> {
+
+    public static final RecordingFilter ALL = new RecordingFilter(null, 0, 999, null, null);
+
+    /**
+     * @param status Statuscode wie {@code 503} oder Klasse wie {@code 5xx}
+     * @throws IllegalArgumentException bei ungültigem Status oder Zeitraum
+     */
+    public static RecordingFilter of(String path, String status, Instant since, Instant until) {
+        int from = 0;
+        int to = 999;
+        if (status != null && !status.isBlank()) {
+            String value = status.trim().toLowerCase(Locale.ROOT);
+            if (value.length() == 3 && value.endsWith("xx") && value.charAt(0) >= '1' && value.charAt(0) <= '5') {
+                from = (value.charAt(0) - '0') * 100;
+                to = from + 99;
+            } else {
+                try {
+                    from = to = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("status muss ein Statuscode wie 503 oder eine Klasse wie 5xx sein");
+                }
+            }
+        }
+        if (since != null && until != null && !until.isAfter(since)) {
+            throw new IllegalArgumentException("until muss nach since liegen");
+        }
+        return new RecordingFilter(path == null || path.isBlank() ? null : path, from, to, since, until);
+    }
+
+    @Override
+    public boolean test(RecordedRequest recorded) {
+        return (pathPrefix == null || recorded.path().startsWith(pathPrefix))
+            && recorded.status() >= statusFrom && recorded.status() <= statusTo
+            && (since == null || !recorded.startedAt().isBefore(since))
+            && (until == null || recorded.startedAt().isBefore(until));
+    }
+}
@@ -0,0 +1,86 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Was während eines Requests mitgeschnitten wird, bis der {@link RequestRecorder}
+ * es in den Ring übernimmt. Wird nur vom jeweiligen Request benutzt; der
+ * Body-Puffer wird erst beim ersten Body-Byte angelegt, passend zum ersten
+ * gelesenen Stück (mindestens {@value #INITIAL_BODY_BYTES} Bytes), und wächst
+ * durch Verdoppeln bis höchstens {@code max-body-bytes}.
+ */
+public final class RequestCapture {
+
+    static final String REDACTED = "***";
+    static final int INITIAL_BODY_BYTES = 256;
+
+    final String method;
+    final String path;
+    final String query;
+    final long startedAtMillis;
+    final long startNanos;
+    private final int maxBodyBytes;
+    private final RequestRecorder recorder;
+    String[] headers = new String[16];
+    int headerCount;
+    byte[] body;
+    int bodyLength;
+    long bodySize;
+
+    RequestCapture(String method, String path, String query, int maxBodyBytes, RequestRecorder recorder) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.maxBodyBytes = maxBodyBytes;
+        this.recorder = recorder;
+    }
+
+    /** Übernimmt einen Header; Werte aus {@code redact-headers} werden ersetzt. */
+    public void header(String name, String value) {
+        if (headerCount + 2 > headers.length) {
+            headers = Arrays.copyOf(headers, headers.length * 2);
+        }
+        headers[headerCount++] = name;
+        headers[headerCount++] = recorder.redacts(name) ? REDACTED : value;
+    }
+
+    public void body(int b) {
+        bodySize++;
+        if (bodyLength < maxBodyBytes) {
+            bodyBuffer(1)[bodyLength++] = (byte) b;
+        }
+    }
+
+    public void body(byte[] data, int offset, int length) {
+        bodySize += length;
+        int copy = Math.min(length, maxBodyBytes - bodyLength);
+        if (copy > 0) {
+            System.arraycopy(data, offset, bodyBuffer(copy), bodyLength, copy);
+            bodyLength += copy;
+        }
+    }
+
+    /** Liest ab der aktuellen Position, ohne sie zu verändern. */
+    public void body(ByteBuffer data) {
+        bodySize += data.remaining();
+        int copy = Math.min(data.remaining(), maxBodyBytes - bodyLength);
+        if (copy > 0) {
+            data.get(data.position(), bodyBuffer(copy), bodyLength, copy);
+            bodyLength += copy;
+        }
+    }
+
+    /** Puffer mit Platz für {@code needed} weitere Bytes; der Aufrufer hält {@code max-body-bytes} ein. */
+    private byte[] bodyBuffer(int needed) {
+        int required = bodyLength + needed;
+        if (body == null) {
+            body = new byte[Math.min(maxBodyBytes, Math.max(required, INITIAL_BODY_BYTES))];
+        } else if (required > body.length) {
+            body = Arrays.copyOf(body, (int) Math.min(maxBodyBytes, Math.max(required, 2L * body.length)));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,250 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ringpuffer der letzten {@code capacity} Requests. Alle Slots samt Body-Puffer
+ * werden beim Start angelegt; ein fertiger Request holt sich per
+ * {@code getAndIncrement} eine laufende Nummer und schreibt in den Slot
+ * {@code nummer & mask}, ohne Sperre und ohne auf Leser zu warten.
+ * <p>
+ * Jeder Slot trägt eine Version als Seqlock: ungerade während des Schreibens,
+ * danach {@code 2 * nummer + 2}. Leser kopieren den Slot und verwerfen die
+ * Kopie, wenn sich die Version dabei geändert hat. Überholt ein Schreiber einen
+ * noch schreibenden Vorgänger im selben Slot, verzichtet er auf den Eintrag und
+ * zählt ihn als verworfen.
+ */
+@Component
+@ConditionalOnProperty(name = "mirror.recorder.enabled", havingValue = "true")
+public class RequestRecorder {
+
+    /** Der Export selbst wird nicht mitgeschnitten. */
+    public static final String EXPORT_PATH = "/mirror/recordings";
+
+    static final int MAX_CAPACITY = 1 << 20;
+    static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int maxBodyBytes;
+    private final String[] redactHeaders;
+    private final String[] paths;
+    private final AtomicLong next = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long floor;
+
+    @Autowired
+    public RequestRecorder(RecorderProperties properties, MeterRegistry meterRegistry) {
+        this(properties);
+        FunctionCounter.builder("mirror.recorder.requests", next, AtomicLong::get)
+            .description("Mitgeschnittene Requests")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.recorder.dropped", dropped, LongAdder::sum)
+            .description("Verworfene Mitschnitte, weil der Slot noch beschrieben wurde")
+            .register(meterRegistry);
+    }
+
+    RequestRecorder(RecorderProperties properties) {
+        if (properties.capacity() < 1 || properties.capacity() > MAX_CAPACITY) {
+            throw new IllegalArgumentException("mirror.recorder.capacity muss zwischen 1 und " + MAX_CAPACITY + " liegen");
+        }
+        if (properties.maxBodyBytes() < 0 || properties.maxBodyBytes() > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("mirror.recorder.max-body-bytes muss zwischen 0 und " + MAX_BODY_BYTES + " liegen");
+        }
+        int capacity = properties.capacity() == 1 ? 1 : Integer.highestOneBit(properties.capacity() - 1) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(properties.maxBodyBytes());
+        }
+        this.mask = capacity - 1;
+        this.maxBodyBytes = properties.maxBodyBytes();
+        this.redactHeaders = properties.redactHeaders().toArray(String[]::new);
+        this.paths = properties.paths().toArray(String[]::new);
+    }
+
+    /** Ob Requests auf diesen Pfad mitgeschnitten werden: Präfix aus {@code paths}, ohne den Export. */
+    public boolean records(String path) {
+        if (path.startsWith(EXPORT_PATH)) {
+            return false;
+        }
+        for (String prefix : paths) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Beginnt den Mitschnitt eines Requests; Header und Body ergänzt der aufrufende Filter. */
+    public RequestCapture begin(String method, String path, String query) {
+        return new RequestCapture(method, path, query, maxBodyBytes, this);
+    }
+
+    /** Übernimmt den fertigen Request mit dem gesendeten Status in den Ring. */
+    public void finish(RequestCapture capture, int status) {
+        long sequence = next.getAndIncrement();
+        if (!slots[(int) sequence & mask].write(sequence, capture, status, System.nanoTime() - capture.startNanos)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Die gehaltenen Mitschnitte in der Reihenfolge ihres Abschlusses. Der
+     * Stream liest die Slots erst beim Verbrauch; was inzwischen überschrieben
+     * wurde, fehlt.
+     */
+    public Stream<RecordedRequest> recordings() {
+        long end = next.get();
+        long start = Math.max(floor, end - slots.length);
+        return LongStream.range(start, end)
+            .mapToObj(sequence -> slots[(int) sequence & mask].read(sequence))
+            .filter(Objects::nonNull);
+    }
+
+    /** Nummer, die der nächste abgeschlossene Request erhält. */
+    public long nextSequence() {
+        return next.get();
+    }
+
+    /**
+     * Mitschnitt mit dieser Nummer oder {@code null}, wenn er noch geschrieben
+     * wird, verworfen oder schon überschrieben wurde. {@link #clear()} wirkt hier nicht.
+     */
+    public RecordedRequest get(long sequence) {
+        return sequence >= 0 ? slots[(int) sequence & mask].read(sequence) : null;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Blendet alle bisherigen Mitschnitte aus; die Slots werden nach und nach überschrieben. */
+    public void clear() {
+        floor = next.get();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    boolean redacts(String header) {
+        for (String redacted : redactHeaders) {
+            if (redacted.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Slot {
+
+        private static final VarHandle VERSION;
+
+        static {
+            try {
+                VERSION = MethodHandles.lookup().findVarHandle(Slot.class, "version", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long version;
+        private final byte[] body;
+        private int bodyLength;
+        private long bodySize;
+        private String method;
+        private String path;
+        private String query;
+        private String[] headers;
+        private int headerCount;
+        private int status;
+        private long startedAtMillis;
+        private long durationNanos;
+
+        Slot(int maxBodyBytes) {
+            this.body = new byte[maxBodyBytes];
+        }
+
+        /**
+         * @return {@code false}, wenn ein anderer Schreiber den Slot gerade belegt
+         *         oder schon einen neueren Request abgelegt hat
+         */
+        boolean write(long sequence, RequestCapture capture, int status, long durationNanos) {
+            long writing = 2 * sequence + 1;
+            long current = version;
+            if ((current & 1) != 0 || current > writing || !VERSION.compareAndSet(this, current, writing)) {
+                return false;
+            }
+            VarHandle.storeStoreFence();
+            method = capture.method;
+            path = capture.path;
+            query = capture.query;
+            headers = capture.headers;
+            headerCount = capture.headerCount;
+            this.status = status;
+            startedAtMillis = capture.startedAtMillis;
+            this.durationNanos = durationNanos;
+            bodyLength = capture.bodyLength;
+            bodySize = capture.bodySize;
+            if (capture.bodyLength > 0) {
+                System.arraycopy(capture.body, 0, body, 0, capture.bodyLength);
+            }
+            VERSION.setRelease(this, writing + 1);
+            return true;
+        }
+
+        /**
+         * @return Kopie des Requests mit dieser Nummer oder {@code null}, wenn der
+         *         Slot noch beschrieben wird oder schon einen anderen enthält
+         */
+        RecordedRequest read(long sequence) {
+            long expected = 2 * sequence + 2;
+            if ((long) VERSION.getAcquire(this) != expected) {
+                return null;
+            }
+            String method = this.method;
+            String path = this.path;
+            String query = this.query;
+            String[] headers = this.headers;
+            int headerCount = this.headerCount;
+            int status = this.status;
+            long startedAtMillis = this.startedAtMillis;
+            long durationNanos = this.durationNanos;
+            long bodySize = this.bodySize;
+            byte[] body = Arrays.copyOf(this.body, Math.min(bodyLength, this.body.length));
+            VarHandle.loadLoadFence();
+            if (version != expected) {
+                return null;
+            }
+
+            Map<String, String> headerMap = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i += 2) {
+                headerMap.merge(headers[i], headers[i + 1], (first, second) -> first + ", " + second);
+            }
+            String target = query != null ? path + '?' + query : path;
+            return new RecordedRequest("req-" + sequence, method + ' ' + target + " -> " + status,
+                new String(body, StandardCharsets.UTF_8), method, path, query, status, headerMap,
+                Instant.ofEpochMilli(startedAtMillis), durationNanos / 1_000_000.0, bodySize, bodySize > body.length);
+        }
+    }
+}
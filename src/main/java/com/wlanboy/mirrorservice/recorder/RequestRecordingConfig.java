@@ -0,0 +1,25 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registriert den {@link RequestRecordingFilter} vor allen anderen Filtern, damit
+ * auch eingestreute Fehler mitgeschnitten werden. Als Konfiguration statt als
+ * Komponente, damit ihn {@code @WebMvcTest}-Slices nicht automatisch aufnehmen.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "mirror.recorder.enabled", havingValue = "true")
+public class RequestRecordingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestRecordingFilter> requestRecordingFilter(RequestRecorder recorder) {
+        FilterRegistrationBean<RequestRecordingFilter> registration = new FilterRegistrationBean<>(new RequestRecordingFilter(recorder));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
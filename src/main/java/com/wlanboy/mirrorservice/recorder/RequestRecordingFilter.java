@@ -0,0 +1,171 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Schneidet Requests auf die Pfade aus {@code mirror.recorder.paths} auf dem Servlet-Stack mit. Der Body
+ * wird beim Lesen durch den Handler mitkopiert, es wird also nichts zusätzlich
+ * gelesen oder gepuffert. Asynchron beantwortete Requests werden erst beim
+ * Abschluss des letzten Async-Zyklus übernommen. Das Netty-Profil bringt mit
+ * {@code ReactiveRequestRecordingFilter} ein Gegenstück mit.
+ */
+public class RequestRecordingFilter extends OncePerRequestFilter {
+
+    private final RequestRecorder recorder;
+
+    public RequestRecordingFilter(RequestRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !recorder.records(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestCapture capture = recorder.begin(request.getMethod(), request.getRequestURI(), request.getQueryString());
+        for (Enumeration<String> names = request.getHeaderNames(); names.hasMoreElements(); ) {
+            String name = names.nextElement();
+            for (Enumeration<String> values = request.getHeaders(name); values.hasMoreElements(); ) {
+                capture.header(name, values.nextElement());
+            }
+        }
+        CapturingRequest capturing = new CapturingRequest(request, capture);
+        boolean async = false;
+        try {
+            chain.doFilter(capturing, response);
+            if (capturing.isAsyncStarted()) {
+                capturing.getAsyncContext().addListener(new CompletionListener(capture, response));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                recorder.finish(capture, response.getStatus());
+            }
+        }
+    }
+
+    private final class CompletionListener implements AsyncListener {
+
+        private final RequestCapture capture;
+        private final HttpServletResponse response;
+
+        CompletionListener(RequestCapture capture, HttpServletResponse response) {
+            this.capture = capture;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            recorder.finish(capture, response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete folgt
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // ein neuer Async-Zyklus (etwa Fehler-Latenz, dann verzögerte Antwort) verwirft die Listener
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    static final class CapturingRequest extends HttpServletRequestWrapper {
+
+        private final RequestCapture capture;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        CapturingRequest(HttpServletRequest request, RequestCapture capture) {
+            super(request);
+            this.capture = capture;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CapturingInputStream(super.getInputStream(), capture);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+    }
+
+    static final class CapturingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final RequestCapture capture;
+
+        CapturingInputStream(ServletInputStream delegate, RequestCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture.body(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read > 0) {
+                capture.body(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            delegate.setReadListener(listener);
+        }
+    }
+}
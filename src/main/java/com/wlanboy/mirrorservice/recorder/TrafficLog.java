@@ -0,0 +1,311 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Schreibt die Mitschnitte des {@link RequestRecorder} dauerhaft in rollierende,
+ * speicherabgebildete Segmente unter {@code mirror.traffic-log.directory}. Der
+ * Request-Pfad bleibt unberührt: ein Hintergrund-Thread liest alle
+ * {@code flush-interval} die seit dem letzten Lauf abgeschlossenen Slots aus
+ * dem Ring, hängt sie als {@link TrafficRecords} an das aktive Segment und
+ * schreibt es mit einem einzigen {@code force} auf die Platte.
+ * <p>
+ * Gelesen werden nur Nummern, die schon beim vorherigen Lauf vergeben waren;
+ * deren Schreiber sind bis dahin fertig oder haben verworfen. Was der Ring
+ * inzwischen überschrieben hat, zählt als verloren; die Kapazität des Rings
+ * sollte also den Traffic eines Intervalls fassen.
+ * <p>
+ * Ein Segment wird geschlossen, wenn es voll oder älter als
+ * {@code segment-max-age} ist. Danach löscht die Retention die ältesten
+ * Segmente, solange die Summe über {@code max-total-size} liegt oder ihr
+ * jüngster Record älter als {@code max-age} ist.
+ */
+@Component
+@ConditionalOnProperty(name = {"mirror.recorder.enabled", "mirror.traffic-log.enabled"}, havingValue = "true")
+public class TrafficLog {
+
+    static final long MIN_SEGMENT_SIZE = 64 * 1024;
+    static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private static final int INITIAL_SCRATCH_SIZE = 64 * 1024;
+
+    private final RequestRecorder recorder;
+    private final Path directory;
+    private final int segmentSize;
+    private final long segmentMaxAgeMs;
+    private final long maxTotalSize;
+    private final long maxAgeMs;
+    private final long flushIntervalMs;
+    private final LongSupplier clock;
+    private final Deque<TrafficLogSegment.Header> sealed = new ConcurrentLinkedDeque<>();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private ByteBuffer scratch = ByteBuffer.allocate(INITIAL_SCRATCH_SIZE);
+    private volatile TrafficLogSegment active;
+    private long nextNumber;
+    private long cursor;
+    private long observed;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public TrafficLog(TrafficLogProperties properties, RequestRecorder recorder, MeterRegistry meterRegistry) {
+        this(properties, recorder, System::currentTimeMillis);
+        Gauge.builder("mirror.trafficlog.segments", this, TrafficLog::segments)
+            .description("Segmentdateien des Traffic-Logs inklusive des aktiven")
+            .register(meterRegistry);
+        Gauge.builder("mirror.trafficlog.size", this, TrafficLog::size)
+            .description("Belegte Bytes aller Segmente des Traffic-Logs")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.trafficlog.records", written, LongAdder::sum)
+            .description("In das Traffic-Log geschriebene Mitschnitte")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.trafficlog.lost", lost, LongAdder::sum)
+            .description("Mitschnitte, die vor dem Schreiben überschrieben oder verworfen wurden")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.trafficlog.deleted", deleted, LongAdder::sum)
+            .description("Von der Retention gelöschte Segmente")
+            .register(meterRegistry);
+    }
+
+    TrafficLog(TrafficLogProperties properties, RequestRecorder recorder, LongSupplier clock) {
+        long size = properties.segmentSize().toBytes();
+        if (size < MIN_SEGMENT_SIZE || size > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("mirror.traffic-log.segment-size muss zwischen "
+                + MIN_SEGMENT_SIZE + " und " + MAX_SEGMENT_SIZE + " Bytes liegen");
+        }
+        this.recorder = recorder;
+        this.directory = properties.directory().toAbsolutePath().normalize();
+        this.segmentSize = (int) size;
+        this.segmentMaxAgeMs = properties.segmentMaxAge().toMillis();
+        this.maxTotalSize = properties.maxTotalSize().toBytes();
+        this.maxAgeMs = properties.maxAge().toMillis();
+        this.flushIntervalMs = properties.flushInterval().toMillis();
+        this.clock = clock;
+        this.cursor = recorder.nextSequence();
+        this.observed = cursor;
+        try {
+            Files.createDirectories(directory);
+            for (TrafficLogSegment.Header header : headers(directory)) {
+                sealed.addLast(header);
+                nextNumber = header.number() + 1;
+            }
+            active = TrafficLogSegment.create(directory, nextNumber++, segmentSize, clock.getAsLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic-Log unter " + directory + " nicht nutzbar", e);
+        }
+        applyRetention(clock.getAsLong());
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("traffic-log-flusher").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Hält den Flusher an und schreibt danach alle bis hierhin abgeschlossenen Mitschnitte. */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(flushIntervalMs + 1000, TimeUnit.MILLISECONDS);
+        }
+        flush(true);
+    }
+
+    /**
+     * Ein Lauf des Flushers: schreibt die beim vorherigen Lauf beobachteten
+     * Nummern, synchronisiert das Segment und wendet Rotation und Retention an.
+     */
+    void flush() {
+        flush(false);
+    }
+
+    /** @param all auch die seit dem vorherigen Lauf vergebenen Nummern schreiben */
+    synchronized void flush(boolean all) {
+        long target = all ? recorder.nextSequence() : observed;
+        observed = recorder.nextSequence();
+        long start = Math.max(cursor, target - recorder.capacity());
+        lost.add(start - cursor);
+        long now = clock.getAsLong();
+        try {
+            for (long sequence = start; sequence < target; sequence++) {
+                RecordedRequest request = recorder.get(sequence);
+                if (request == null || !append(request, now)) {
+                    lost.increment();
+                }
+            }
+            cursor = Math.max(cursor, target);
+            active.force();
+            if (active.records() > 0 && now - active.createdAt() >= segmentMaxAgeMs) {
+                rotate(now);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic-Log unter " + directory + " nicht beschreibbar", e);
+        }
+        applyRetention(now);
+    }
+
+    /**
+     * Records mit Startzeit in {@code [since, until)}, beide Grenzen optional,
+     * aus allen Segmenten in Schreibreihenfolge. Segmente außerhalb des
+     * Zeitraums werden am Header erkannt und nicht gemappt; die übrigen werden
+     * nur lesend gemappt und erst beim Verbrauch des Streams gelesen. Der Scan
+     * sieht, was bis zum letzten Flush geschrieben wurde.
+     */
+    public Stream<RecordedRequest> scan(Instant since, Instant until) {
+        return scan(directory, since, until);
+    }
+
+    static Stream<RecordedRequest> scan(Path directory, Instant since, Instant until) {
+        long from = since != null ? since.toEpochMilli() : Long.MIN_VALUE;
+        long to = until != null ? until.toEpochMilli() : Long.MAX_VALUE;
+        List<TrafficLogSegment.Header> headers;
+        try {
+            headers = headers(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic-Log unter " + directory + " nicht lesbar", e);
+        }
+        return headers.stream().flatMap(header -> TrafficLogSegment.scan(header, from, to));
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    long written() {
+        return written.sum();
+    }
+
+    long lost() {
+        return lost.sum();
+    }
+
+    long deleted() {
+        return deleted.sum();
+    }
+
+    int segments() {
+        return sealed.size() + 1;
+    }
+
+    long size() {
+        long total = active.used();
+        for (TrafficLogSegment.Header header : sealed) {
+            total += header.used();
+        }
+        return total;
+    }
+
+    private boolean append(RecordedRequest request, long now) throws IOException {
+        ByteBuffer payload = encode(request);
+        if (payload == null) {
+            return false;
+        }
+        long startedAt = request.startedAt().toEpochMilli();
+        if (active.append(payload, startedAt)) {
+            written.increment();
+            return true;
+        }
+        rotate(now);
+        if (active.append(payload, startedAt)) {
+            written.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /** Kodiert in den wiederverwendeten Puffer; ein Record über der Segmentgröße ergibt {@code null}. */
+    private ByteBuffer encode(RecordedRequest request) {
+        int limit = segmentSize - TrafficLogSegment.HEADER_SIZE - TrafficLogSegment.RECORD_HEADER_SIZE;
+        while (true) {
+            try {
+                TrafficRecords.encode(request, scratch.clear());
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                if (scratch.capacity() >= limit) {
+                    return null;
+                }
+                scratch = ByteBuffer.allocate((int) Math.min(limit, 2L * scratch.capacity()));
+            }
+        }
+    }
+
+    private void rotate(long now) throws IOException {
+        active.force();
+        sealed.addLast(active.header());
+        active = TrafficLogSegment.create(directory, nextNumber++, segmentSize, now);
+    }
+
+    private void applyRetention(long now) {
+        long total = size();
+        TrafficLogSegment.Header oldest;
+        while ((oldest = sealed.peekFirst()) != null) {
+            if (total <= maxTotalSize && now - oldest.newest() <= maxAgeMs) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Segment " + oldest.path() + " nicht löschbar", e);
+            }
+            sealed.pollFirst();
+            total -= oldest.used();
+            deleted.increment();
+        }
+    }
+
+    /** Header aller gültigen Segmente im Verzeichnis, aufsteigend nach Nummer. */
+    private static List<TrafficLogSegment.Header> headers(Path directory) throws IOException {
+        List<TrafficLogSegment.Header> headers = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> TrafficLogSegment.number(file) >= 0).toList();
+        } catch (NoSuchFileException e) {
+            return headers;
+        }
+        for (Path file : files) {
+            try {
+                TrafficLogSegment.Header header = TrafficLogSegment.readHeader(file);
+                if (header != null) {
+                    headers.add(header);
+                }
+            } catch (NoSuchFileException e) {
+                // inzwischen von der Retention gelöscht
+            }
+        }
+        headers.sort(Comparator.comparingLong(TrafficLogSegment.Header::number));
+        return headers;
+    }
+}
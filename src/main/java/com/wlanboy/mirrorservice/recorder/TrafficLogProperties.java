@@ -0,0 +1,19 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("mirror.traffic-log")
+public record TrafficLogProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("/app/data/traffic") Path directory,
+    @DefaultValue("64MB") DataSize segmentSize,
+    @DefaultValue("1h") Duration segmentMaxAge,
+    @DefaultValue("1GB") DataSize maxTotalSize,
+    @DefaultValue("24h") Duration maxAge,
+    @DefaultValue("1s") Duration flushInterval
+) {}
@@ -0,0 +1,264 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+/**
+ * Eine speicherabgebildete Segmentdatei des Traffic-Logs. Die Datei wird beim
+ * Anlegen in voller Größe gemappt (als Sparse-Datei belegt sie nur die
+ * geschriebenen Seiten) und beginnt mit einem Header:
+ * <pre>
+ * int magic | int version | long createdAt | long minStartedAt | long maxStartedAt | long used | long records
+ * </pre>
+ * Danach folgen Records als {@code int length | int crc32c | payload} im Format
+ * von {@link TrafficRecords}. Die Länge wird zuletzt geschrieben; eine Länge 0
+ * markiert das Ende, ein abgebrochener Record am Ende fällt durch die
+ * Prüfsumme auf.
+ */
+final class TrafficLogSegment {
+
+    static final int MAGIC = 0x4D54524C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int CREATED_AT = 8;
+    private static final int MIN_STARTED_AT = 16;
+    private static final int MAX_STARTED_AT = 24;
+    private static final int USED = 32;
+    private static final int RECORDS = 40;
+
+    private static final String PREFIX = "traffic-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path path;
+    private final long number;
+    private final MappedByteBuffer buffer;
+    private int used;
+    private boolean dirty;
+
+    private TrafficLogSegment(Path path, long number, MappedByteBuffer buffer, int used) {
+        this.path = path;
+        this.number = number;
+        this.buffer = buffer;
+        this.used = used;
+    }
+
+    /** Legt die Segmentdatei mit dieser Nummer an und mappt sie zum Schreiben. */
+    static TrafficLogSegment create(Path directory, long number, int size, long now) throws IOException {
+        Path path = directory.resolve(fileName(number));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(CREATED_AT, now);
+        buffer.putLong(MIN_STARTED_AT, Long.MAX_VALUE);
+        buffer.putLong(MAX_STARTED_AT, Long.MIN_VALUE);
+        buffer.putLong(USED, HEADER_SIZE);
+        buffer.putLong(RECORDS, 0);
+        return new TrafficLogSegment(path, number, buffer, HEADER_SIZE);
+    }
+
+    /**
+     * Liest nur den Header einer Segmentdatei.
+     *
+     * @return den Header oder {@code null}, wenn die Datei kein Segment ist
+     */
+    static Header readHeader(Path path) throws IOException {
+        long number = number(path);
+        if (number < 0) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // weiterlesen, bis der Header vollständig ist
+            }
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            return null;
+        }
+        return new Header(path, number, header.getLong(CREATED_AT), header.getLong(MIN_STARTED_AT),
+            header.getLong(MAX_STARTED_AT), header.getLong(USED), header.getLong(RECORDS));
+    }
+
+    /**
+     * Records mit Startzeit in {@code [from, until)}. Die Datei wird erst beim
+     * Verbrauch des Streams gemappt; dekodiert werden nur passende Records.
+     */
+    static Stream<RecordedRequest> scan(Header header, long from, long until) {
+        if (header.overlaps(from, until)) {
+            return StreamSupport.stream(() -> Spliterators.spliteratorUnknownSize(
+                new RecordIterator(header, from, until), Spliterator.ORDERED | Spliterator.NONNULL), Spliterator.ORDERED, false);
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * Hängt einen kodierten Record an.
+     *
+     * @return {@code false}, wenn das Segment dafür zu voll ist
+     */
+    boolean append(ByteBuffer payload, long startedAt) {
+        int length = payload.remaining();
+        if ((long) used + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        buffer.put(used + RECORD_HEADER_SIZE, payload, payload.position(), length);
+        buffer.putInt(used + 4, (int) crc.getValue());
+        buffer.putInt(used, length);
+        used += RECORD_HEADER_SIZE + length;
+        buffer.putLong(MIN_STARTED_AT, Math.min(buffer.getLong(MIN_STARTED_AT), startedAt));
+        buffer.putLong(MAX_STARTED_AT, Math.max(buffer.getLong(MAX_STARTED_AT), startedAt));
+        buffer.putLong(USED, used);
+        buffer.putLong(RECORDS, buffer.getLong(RECORDS) + 1);
+        dirty = true;
+        return true;
+    }
+
+    /** Schreibt geänderte Seiten auf die Platte, sofern seit dem letzten Aufruf etwas angehängt wurde. */
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    int used() {
+        return used;
+    }
+
+    long records() {
+        return buffer.getLong(RECORDS);
+    }
+
+    long createdAt() {
+        return buffer.getLong(CREATED_AT);
+    }
+
+    Header header() {
+        return new Header(path, number, createdAt(), buffer.getLong(MIN_STARTED_AT), buffer.getLong(MAX_STARTED_AT), used, records());
+    }
+
+    static String fileName(long number) {
+        return String.format("%s%016d%s", PREFIX, number, SUFFIX);
+    }
+
+    /** Nummer aus dem Dateinamen oder {@code -1}, wenn der Name nicht passt. */
+    static long number(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Header einer Segmentdatei. Nach einem Absturz ohne {@code force} kann er
+     * hinter den Records zurückliegen; ein Header ohne gültigen Zeitraum wird
+     * deshalb beim Scan nicht übersprungen.
+     */
+    record Header(Path path, long number, long createdAt, long minStartedAt, long maxStartedAt, long used, long records) {
+
+        boolean overlaps(long from, long until) {
+            return minStartedAt > maxStartedAt || (maxStartedAt >= from && minStartedAt < until);
+        }
+
+        /** Zeitpunkt des jüngsten Records, ohne Records der Anlagezeitpunkt. */
+        long newest() {
+            return minStartedAt <= maxStartedAt ? maxStartedAt : createdAt;
+        }
+    }
+
+    private static final class RecordIterator implements Iterator<RecordedRequest> {
+
+        private final Header header;
+        private final long from;
+        private final long until;
+        private ByteBuffer buffer;
+        private int position = HEADER_SIZE;
+        private RecordedRequest next;
+
+        RecordIterator(Header header, long from, long until) {
+            this.header = header;
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public RecordedRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RecordedRequest current = next;
+            next = null;
+            return current;
+        }
+
+        private RecordedRequest advance() {
+            if (buffer == null && (buffer = map()) == null) {
+                return null;
+            }
+            while (position + RECORD_HEADER_SIZE <= buffer.limit()) {
+                int offset = position;
+                int length = buffer.getInt(offset);
+                if (length <= 0 || length > buffer.limit() - offset - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                position = offset + RECORD_HEADER_SIZE + length;
+                long startedAt = TrafficRecords.startedAt(buffer, offset + RECORD_HEADER_SIZE);
+                if (startedAt < from || startedAt >= until) {
+                    continue;
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    // abgebrochener Schreibvorgang: dahinter folgt nichts Gültiges mehr
+                    break;
+                }
+                return TrafficRecords.decode(buffer, offset + RECORD_HEADER_SIZE,
+                    "log-" + header.number() + "-" + offset);
+            }
+            position = buffer.limit();
+            return null;
+        }
+
+        /** Mappt die Datei nur lesend; eine inzwischen gelöschte Datei ergibt keine Records. */
+        private ByteBuffer map() {
+            try (FileChannel channel = FileChannel.open(header.path(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+/**
+ * Binärformat eines Mitschnitts im Traffic-Log. Strings sind UTF-8 mit
+ * vorangestellter Länge als {@code u16}; {@code 0xFFFF} steht für {@code null},
+ * längere Werte werden gekürzt.
+ * <pre>
+ * long startedAtMillis | long durationNanos | long bodySize | u16 status
+ * str method | str path | str query | u16 headerCount | (str name, str value)*
+ * u32 bodyLength | body
+ * </pre>
+ * Die Startzeit steht vorn, damit ein Scan nach Zeitraum sie ohne Dekodieren
+ * des Rests prüfen kann.
+ */
+final class TrafficRecords {
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_STRING_BYTES = 0xFFFE;
+
+    private TrafficRecords() {
+    }
+
+    /**
+     * Kodiert ab der Position von {@code target}.
+     *
+     * @throws BufferOverflowException wenn {@code target} zu klein ist
+     */
+    static void encode(RecordedRequest request, ByteBuffer target) {
+        target.putLong(request.startedAt().toEpochMilli());
+        target.putLong(Math.round(request.durationMs() * 1_000_000));
+        target.putLong(request.bodySize());
+        target.putShort((short) request.status());
+        putString(target, request.method());
+        putString(target, request.path());
+        putString(target, request.query());
+        target.putShort((short) request.headers().size());
+        for (Map.Entry<String, String> header : request.headers().entrySet()) {
+            putString(target, header.getKey());
+            putString(target, header.getValue());
+        }
+        byte[] body = request.body().getBytes(StandardCharsets.UTF_8);
+        target.putInt(body.length);
+        target.put(body);
+    }
+
+    /** Startzeit des Records ab {@code offset}, ohne den Rest zu lesen. */
+    static long startedAt(ByteBuffer source, int offset) {
+        return source.getLong(offset);
+    }
+
+    /**
+     * Dekodiert einen Record ab {@code offset} mit absoluten Zugriffen; die
+     * Position von {@code source} bleibt unverändert.
+     */
+    static RecordedRequest decode(ByteBuffer source, int offset, String requestId) {
+        ByteBuffer in = source.duplicate().position(offset);
+        long startedAt = in.getLong();
+        long durationNanos = in.getLong();
+        long bodySize = in.getLong();
+        int status = in.getShort() & 0xFFFF;
+        String method = getString(in);
+        String path = getString(in);
+        String query = getString(in);
+        int headerCount = in.getShort() & 0xFFFF;
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(getString(in), getString(in));
+        }
+        byte[] body = new byte[in.getInt()];
+        in.get(body);
+        String target = query != null ? path + '?' + query : path;
+        return new RecordedRequest(requestId, method + ' ' + target + " -> " + status,
+            new String(body, StandardCharsets.UTF_8), method, path, query, status, headers,
+            Instant.ofEpochMilli(startedAt), durationNanos / 1_000_000.0, bodySize, bodySize > body.length);
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        if (value == null) {
+            target.putShort((short) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        target.putShort((short) length);
+        target.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,130 @@
+package com.wlanboy.mirrorservice.scenario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+import com.wlanboy.mirrorservice.payload.GeneratedPayload;
+
+/**
+ * Vorab kodierte Form einer {@link MirrorInstruction}: Statuscode, Header-Paare,
+ * Content-Type und Body-Bytes werden beim Registrieren einmal berechnet, sodass
+ * das Ausliefern nur noch Felder auf die Response kopiert. Die Klasse kennt
+ * keinen Web-Stack; Servlet- und Netty-Variante schreiben sie jeweils selbst.
+ * <p>
+ * Hat die Instruktion eine Sequenz, wird jeder Schritt ebenso vorab kodiert;
+ * {@link #step(int)} liefert ihn mit demselben Request-Zähler.
+ */
+public final class CompiledScenario {
+
+    static final String DEFAULT_CONTENT_TYPE = "text/plain;charset=UTF-8";
+
+    private final String id;
+    private final MirrorInstruction instruction;
+    private final int status;
+    private final String[] headers;
+    private final String contentType;
+    private final byte[] body;
+    private final LongAdder requests;
+    private final CompiledScenario[] steps;
+
+    CompiledScenario(String id, MirrorInstruction instruction, LongAdder requests) {
+        this.id = id;
+        this.instruction = instruction;
+        this.status = instruction.statusCode();
+        this.requests = requests;
+
+        String type = instruction.payload() != null
+            ? GeneratedPayload.contentType(instruction.payload().pattern())
+            : DEFAULT_CONTENT_TYPE;
+        List<String> pairs = new ArrayList<>(instruction.responseHeaders().size() * 2);
+        for (Map.Entry<String, String> header : instruction.responseHeaders().entrySet()) {
+            if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                type = header.getValue();
+            } else if (!"Content-Length".equalsIgnoreCase(header.getKey())) {
+                pairs.add(header.getKey());
+                pairs.add(header.getValue());
+            }
+        }
+        this.headers = pairs.toArray(String[]::new);
+        this.contentType = type;
+        this.body = instruction.responseBody() == null
+            ? new byte[0]
+            : instruction.responseBody().getBytes(StandardCharsets.UTF_8);
+        if (instruction.sequence() != null) {
+            this.steps = new CompiledScenario[instruction.sequence().steps().size()];
+            for (int i = 0; i < steps.length; i++) {
+                steps[i] = new CompiledScenario(id, instruction.atStep(i), requests);
+            }
+        } else {
+            this.steps = null;
+        }
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public MirrorInstruction instruction() {
+        return instruction;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    LongAdder requestCounter() {
+        return requests;
+    }
+
+    /**
+     * Vorab kodierter Sequenzschritt; nur für Szenarien mit
+     * {@link MirrorInstruction#sequence()}.
+     */
+    public CompiledScenario step(int index) {
+        return steps[index];
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public void forEachHeader(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < headers.length; i += 2) {
+            consumer.accept(headers[i], headers[i + 1]);
+        }
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Neuer Payload-Zustand für diese Auslieferung oder {@code null}, wenn das
+     * Szenario einen festen Body hat.
+     */
+    public GeneratedPayload newPayload() {
+        return instruction.payload() != null ? GeneratedPayload.of(instruction.payload()) : null;
+    }
+
+    public int contentLength() {
+        return body.length;
+    }
+
+    /**
+     * Schreibgeschützte Sicht auf die vorab kodierten Body-Bytes; teilt den
+     * Speicher mit allen anderen Auslieferungen.
+     */
+    public ByteBuffer body() {
+        return ByteBuffer.wrap(body).asReadOnlyBuffer();
+    }
+
+    public void recordRequest() {
+        requests.increment();
+    }
+}
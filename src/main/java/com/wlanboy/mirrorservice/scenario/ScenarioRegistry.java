@@ -0,0 +1,88 @@
+package com.wlanboy.mirrorservice.scenario;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hält benannte, vorab kodierte Mirror-Szenarien. Lesen ist ein einfacher
+ * {@link ConcurrentHashMap}-Zugriff; Registrieren und Löschen pflegen
+ * zusätzlich den Zähler {@code mirror.scenario.requests} pro Szenario.
+ */
+@Component
+public class ScenarioRegistry {
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompiledScenario> scenarios = new ConcurrentHashMap<>();
+    private final Map<String, Meter> counters = new ConcurrentHashMap<>();
+
+    public ScenarioRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("mirror.scenarios", scenarios, Map::size)
+            .description("Anzahl registrierter Mirror-Szenarien")
+            .register(meterRegistry);
+    }
+
+    public static boolean isValidId(String id) {
+        return id != null && VALID_ID.matcher(id).matches();
+    }
+
+    public CompiledScenario get(String id) {
+        return scenarios.get(id);
+    }
+
+    public Collection<CompiledScenario> all() {
+        return scenarios.values();
+    }
+
+    /**
+     * Registriert oder ersetzt ein Szenario. Beim Ersetzen läuft der
+     * Anfragezähler weiter.
+     *
+     * @return {@code true}, wenn das Szenario neu angelegt wurde
+     */
+    public boolean put(String id, MirrorInstruction instruction) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Ungültige Szenario-ID '" + id + "'");
+        }
+        boolean[] created = new boolean[1];
+        scenarios.compute(id, (key, previous) -> {
+            LongAdder requests = previous != null ? previous.requestCounter() : new LongAdder();
+            if (previous == null) {
+                created[0] = true;
+                counters.put(key, FunctionCounter.builder("mirror.scenario.requests", requests, LongAdder::sum)
+                    .description("Über /mirror/s/{id} ausgelieferte Antworten pro Szenario")
+                    .tag("scenario", key)
+                    .register(meterRegistry));
+            }
+            return new CompiledScenario(key, instruction, requests);
+        });
+        return created[0];
+    }
+
+    public boolean remove(String id) {
+        boolean[] removed = new boolean[1];
+        scenarios.computeIfPresent(id, (key, previous) -> {
+            Meter counter = counters.remove(key);
+            if (counter != null) {
+                meterRegistry.remove(counter);
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+}
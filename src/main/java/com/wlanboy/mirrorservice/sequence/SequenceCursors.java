@@ -0,0 +1,210 @@
+package com.wlanboy.mirrorservice.sequence;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.SequenceSpec;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cursor der Antwortsequenzen pro Client. Jeder Cursor ist ein einzelnes
+ * {@code long} aus Position und Zeitpunkt des letzten Aufrufs, das per CAS
+ * weitergeschoben wird. Gleichzeitige Aufrufe mit demselben Schlüssel erhalten
+ * so immer unterschiedliche, lückenlos aufeinanderfolgende Positionen.
+ * <p>
+ * Ein Cursor ohne Aufruf seit {@code ttlMs} der Sequenz gilt als abgelaufen; der
+ * nächste Aufruf beginnt wieder beim ersten Schritt. Abgelaufene Cursor entfernt
+ * ein Hintergrund-Thread alle {@code sweep-interval}, höchstens
+ * {@code max-keys} werden gehalten. Darüber hinaus erhalten neue Schlüssel immer
+ * den ersten Schritt und werden gezählt.
+ */
+@Component
+public class SequenceCursors {
+
+    /** Markiert einen Cursor, den der Sweeper gerade entfernt; Aufrufe legen dann einen neuen an. */
+    static final long EVICTED = -1L;
+
+    /** Untere Bits: Millisekunden seit dem Start, reicht für rund 34 Jahre. */
+    static final int TIME_BITS = 40;
+    static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final int maxKeys;
+    private final long sweepIntervalMs;
+    private final LongSupplier ticker;
+    private final long epoch;
+    private final ConcurrentHashMap<String, Cursor> cursors = new ConcurrentHashMap<>();
+    private final LongAdder tracked = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public SequenceCursors(SequenceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, System::nanoTime);
+        Gauge.builder("mirror.sequence.cursors", cursors, Map::size)
+            .description("Aktuell gehaltene Sequenz-Cursor")
+            .register(meterRegistry);
+        registerOutcome(meterRegistry, "tracked", tracked);
+        registerOutcome(meterRegistry, "untracked", untracked);
+        FunctionCounter.builder("mirror.sequence.evictions", evictions, LongAdder::sum)
+            .description("Entfernte abgelaufene Sequenz-Cursor")
+            .register(meterRegistry);
+    }
+
+    SequenceCursors(SequenceProperties properties, LongSupplier ticker) {
+        this.maxKeys = properties.maxKeys();
+        this.sweepIntervalMs = properties.sweepInterval().toMillis();
+        this.ticker = ticker;
+        this.epoch = ticker.getAsLong();
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("sequence-sweeper").daemon().factory());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Rückt den Cursor des Clients um einen Aufruf weiter.
+     *
+     * @param scenario Szenario-ID, die den Namensraum ergänzt; {@code null} außerhalb von Szenarien
+     * @return Index des Schritts in {@link SequenceSpec#steps()} für diesen Aufruf
+     */
+    public int next(SequenceSpec spec, RateLimitClient client, String scenario) {
+        String key = scenario != null
+            ? scenario + '\n' + spec.name() + '\n' + clientKey(spec, client)
+            : spec.name() + '\n' + clientKey(spec, client);
+        int length = spec.length();
+        boolean cycle = spec.mode() == SequenceSpec.Mode.CYCLE;
+        while (true) {
+            Cursor cursor = cursors.get(key);
+            long now = nowMs();
+            if (cursor == null) {
+                if (cursors.size() >= maxKeys) {
+                    untracked.increment();
+                    return 0;
+                }
+                cursor = cursors.computeIfAbsent(key, k -> new Cursor(spec.ttlMs(), now));
+            }
+            int position = cursor.advance(now, length, cycle);
+            if (position >= 0) {
+                tracked.increment();
+                return spec.stepAt(position);
+            }
+            cursors.remove(key, cursor);
+        }
+    }
+
+    /**
+     * Entfernt alle abgelaufenen Cursor. Ein Cursor wird zuerst per CAS als
+     * entfernt markiert, damit kein gleichzeitiger Aufruf eine Position in einem
+     * Cursor verbraucht, der danach verschwindet.
+     */
+    void sweep() {
+        long now = nowMs();
+        for (Map.Entry<String, Cursor> entry : cursors.entrySet()) {
+            Cursor cursor = entry.getValue();
+            if (cursor.evictIfExpired(now)) {
+                cursors.remove(entry.getKey(), cursor);
+                evictions.increment();
+            }
+        }
+    }
+
+    int keys() {
+        return cursors.size();
+    }
+
+    private long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(ticker.getAsLong() - epoch);
+    }
+
+    private static String clientKey(SequenceSpec spec, RateLimitClient client) {
+        if (spec.key() == SequenceSpec.Key.HEADER) {
+            String value = client.header(spec.header());
+            if (value != null) {
+                return "h:" + value;
+            }
+        }
+        return client.address();
+    }
+
+    private static void registerOutcome(MeterRegistry meterRegistry, String outcome, LongAdder counter) {
+        FunctionCounter.builder("mirror.sequence.requests", counter, LongAdder::sum)
+            .description("Aufrufe mit Antwortsequenz nach Ergebnis")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    static final class Cursor {
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Cursor.class, "state", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long ttlMs;
+
+        /** Nächste Position in den oberen, letzter Aufruf in den unteren {@link #TIME_BITS} Bits; {@link #EVICTED} nach dem Entfernen. */
+        private volatile long state;
+
+        Cursor(long ttlMs, long now) {
+            this.ttlMs = ttlMs;
+            this.state = now & TIME_MASK;
+        }
+
+        /**
+         * @return die Position dieses Aufrufs oder {@code -1}, wenn der Cursor inzwischen entfernt wurde
+         */
+        int advance(long now, int length, boolean cycle) {
+            while (true) {
+                long current = state;
+                if (current == EVICTED) {
+                    return -1;
+                }
+                int position = now - (current & TIME_MASK) > ttlMs ? 0 : (int) (current >>> TIME_BITS);
+                if (position >= length) {
+                    // Sequenz unter gleichem Namen verkürzt
+                    position = cycle ? position % length : length - 1;
+                }
+                int next = position + 1 < length ? position + 1 : cycle ? 0 : position;
+                if (STATE.compareAndSet(this, current, ((long) next << TIME_BITS) | (now & TIME_MASK))) {
+                    return position;
+                }
+            }
+        }
+
+        boolean evictIfExpired(long now) {
+            long current = state;
+            return current != EVICTED && now - (current & TIME_MASK) > ttlMs && STATE.compareAndSet(this, current, EVICTED);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.wlanboy.mirrorservice.sequence;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("mirror.sequence")
+public record SequenceProperties(
+    @DefaultValue("100000") int maxKeys,
+    @DefaultValue("10s") Duration sweepInterval
+) {}
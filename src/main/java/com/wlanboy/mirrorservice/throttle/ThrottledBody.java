@@ -0,0 +1,131 @@
+package com.wlanboy.mirrorservice.throttle;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+import com.wlanboy.mirrorservice.controller.ThrottleSpec;
+
+/**
+ * Gedrosselte Auslieferung eines Bodys. Die Sollzeit jedes Chunks ergibt sich
+ * aus der bereits gesendeten Menge ({@code start + firstByte + bytes / rate}),
+ * dazu kommen der einmalige Stillstand und ein pro Chunk neu gezogener Jitter.
+ * Da der Jitter nicht aufsummiert wird, bleibt die mittlere Rate erhalten, und
+ * verspätete Timer holen ohne Drift auf.
+ * <p>
+ * Nicht thread-sicher; die Writer rufen die Methoden streng nacheinander auf.
+ */
+public final class ThrottledBody {
+
+    private final ThrottleSpec spec;
+    private final Supplier<ByteBuffer> source;
+    private final long length;
+    private final ThrottledStreams streams;
+    private final LongSupplier ticker;
+    private final RandomGenerator random;
+    private final double nanosPerByte;
+    private final long stallAfterBytes;
+
+    private ByteBuffer current;
+    private long startNanos;
+    private long sentBytes;
+    private long jitterNanos;
+    private boolean stalled;
+    private boolean started;
+    private boolean finished;
+
+    ThrottledBody(ThrottleSpec spec, Supplier<ByteBuffer> source, long length, ThrottledStreams streams,
+            LongSupplier ticker, RandomGenerator random) {
+        this.spec = spec;
+        this.source = source;
+        this.length = length;
+        this.streams = streams;
+        this.ticker = ticker;
+        this.random = random;
+        this.nanosPerByte = 1e9 / spec.bytesPerSecond();
+        this.stallAfterBytes = spec.stallAfterBytes() != null && spec.stallMs() > 0 ? spec.stallAfterBytes() : -1;
+    }
+
+    /**
+     * Länge des Bodys oder {@code -1}, wenn ohne Content-Length gesendet wird.
+     */
+    public long length() {
+        return length;
+    }
+
+    public MirrorDelayScheduler scheduler() {
+        return streams.scheduler();
+    }
+
+    /**
+     * Startet die Uhr; aufzurufen, sobald die Header gesendet sind.
+     */
+    public void start() {
+        startNanos = ticker.getAsLong();
+        started = true;
+        streams.opened();
+    }
+
+    /**
+     * Nächster Chunk oder {@code null}, wenn der Body vollständig ist. Ein Chunk
+     * endet nie hinter der Stillstandsgrenze.
+     */
+    public ByteBuffer nextChunk() {
+        while (current == null || !current.hasRemaining()) {
+            current = source.get();
+            if (current == null) {
+                return null;
+            }
+        }
+        int size = Math.min(spec.chunkSize(), current.remaining());
+        if (!stalled && stallAfterBytes > sentBytes) {
+            size = (int) Math.min(size, stallAfterBytes - sentBytes);
+        }
+        ByteBuffer chunk = current.slice(current.position(), size);
+        current.position(current.position() + size);
+        return chunk;
+    }
+
+    /**
+     * Millisekunden bis zur Sollzeit des nächsten Chunks, {@code 0} wenn fällig.
+     */
+    public long delayMsUntilNext() {
+        if (!stalled && stallAfterBytes >= 0 && sentBytes >= stallAfterBytes) {
+            stalled = true;
+            streams.stalled();
+        }
+        long due = startNanos
+            + TimeUnit.MILLISECONDS.toNanos(spec.firstByteMs())
+            + (long) (sentBytes * nanosPerByte)
+            + (stalled ? TimeUnit.MILLISECONDS.toNanos(spec.stallMs()) : 0)
+            + jitterNanos;
+        long remaining = due - ticker.getAsLong();
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining + 999_999) : 0;
+    }
+
+    public void sent(int bytes) {
+        sentBytes += bytes;
+        streams.sent(bytes);
+        jitterNanos = spec.jitterMs() > 0
+            ? random.nextLong(TimeUnit.MILLISECONDS.toNanos(spec.jitterMs()) + 1)
+            : 0;
+    }
+
+    public long sentBytes() {
+        return sentBytes;
+    }
+
+    /**
+     * Schließt den Stream ab und erfasst die erreichte Rate; mehrfacher Aufruf ist unschädlich.
+     */
+    public void finish(boolean completed) {
+        if (finished || !started) {
+            return;
+        }
+        finished = true;
+        streams.closed(sentBytes, ticker.getAsLong() - startNanos, completed);
+    }
+}
@@ -0,0 +1,98 @@
+package com.wlanboy.mirrorservice.throttle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Liefert einen {@link ThrottledBody} auf dem Servlet-Stack aus. Der Converter
+ * startet einen eigenen asynchronen Kontext, lässt Spring MVC die Header
+ * flushen und gibt den Container-Thread zurück. Jeder Chunk wird danach zu
+ * seiner Sollzeit über den Wheel-Timer auf einem kurzlebigen virtuellen Thread
+ * geschrieben; zwischen zwei Chunks belegt ein Stream keinen Thread.
+ */
+@Component
+public class ThrottledBodyHttpMessageConverter extends AbstractHttpMessageConverter<ThrottledBody> {
+
+    private static final Logger log = LoggerFactory.getLogger(ThrottledBodyHttpMessageConverter.class);
+
+    public ThrottledBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ThrottledBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ThrottledBody readInternal(Class<? extends ThrottledBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ThrottledBody kann nicht gelesen werden", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ThrottledBody body, MediaType contentType) {
+        return body.length() >= 0 ? body.length() : null;
+    }
+
+    @Override
+    protected void writeInternal(ThrottledBody body, HttpOutputMessage outputMessage) throws IOException {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        AsyncContext async = request.startAsync(request, attributes.getResponse());
+        async.setTimeout(0);
+        outputMessage.getBody().flush();
+        body.start();
+        scheduleNext(body, async);
+    }
+
+    private static void scheduleNext(ThrottledBody body, AsyncContext async) {
+        body.scheduler().schedule(() -> pump(body, async), body.delayMsUntilNext());
+    }
+
+    private static void pump(ThrottledBody body, AsyncContext async) {
+        try {
+            ServletOutputStream out = async.getResponse().getOutputStream();
+            do {
+                ByteBuffer chunk = body.nextChunk();
+                if (chunk == null) {
+                    body.finish(true);
+                    async.complete();
+                    return;
+                }
+                int size = chunk.remaining();
+                out.write(chunk);
+                out.flush();
+                body.sent(size);
+            } while (body.delayMsUntilNext() == 0);
+            scheduleNext(body, async);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Gedrosselte Antwort nach {} Bytes abgebrochen: {}", body.sentBytes(), e.getMessage());
+            body.finish(false);
+            try {
+                async.complete();
+            } catch (IllegalStateException ignored) {
+                // Client hat die Verbindung bereits geschlossen
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.wlanboy.mirrorservice.throttle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.stereotype.Component;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+import com.wlanboy.mirrorservice.controller.ThrottleSpec;
+import com.wlanboy.mirrorservice.fixture.FixtureBody;
+import com.wlanboy.mirrorservice.payload.GeneratedPayload;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Erzeugt {@link ThrottledBody}-Instanzen und führt die Metriken aller
+ * gedrosselten Streams: aktive Streams, gesendete Bytes, Stillstände und die
+ * pro Stream tatsächlich erreichte Datenrate.
+ */
+@Component
+public class ThrottledStreams {
+
+    private final MirrorDelayScheduler scheduler;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final DistributionSummary completedThroughput;
+    private final DistributionSummary abortedThroughput;
+
+    public ThrottledStreams(MirrorDelayScheduler scheduler, MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        Gauge.builder("mirror.throttle.active", active, AtomicInteger::get)
+            .description("Aktuell laufende gedrosselte Antworten")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.throttle.bytes", bytes, LongAdder::sum)
+            .description("Von gedrosselten Antworten gesendete Bytes")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder("mirror.throttle.stalls", stalls, LongAdder::sum)
+            .description("Ausgelöste Stillstände nach stallAfterBytes")
+            .register(meterRegistry);
+        this.completedThroughput = throughput(meterRegistry, "completed");
+        this.abortedThroughput = throughput(meterRegistry, "aborted");
+    }
+
+    public ThrottledBody open(ThrottleSpec spec, GeneratedPayload payload) {
+        return open(spec, payload::nextChunk, payload.chunked() ? -1 : payload.length(), System::nanoTime, ThreadLocalRandom.current());
+    }
+
+    public ThrottledBody open(ThrottleSpec spec, FixtureBody fixture) {
+        return open(spec, fixture::nextChunk, fixture.length(), System::nanoTime, ThreadLocalRandom.current());
+    }
+
+    public ThrottledBody open(ThrottleSpec spec, String body) {
+        byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer[] single = {ByteBuffer.wrap(bytes).asReadOnlyBuffer()};
+        Supplier<ByteBuffer> source = () -> {
+            ByteBuffer next = single[0];
+            single[0] = null;
+            return next;
+        };
+        return open(spec, source, bytes.length, System::nanoTime, ThreadLocalRandom.current());
+    }
+
+    ThrottledBody open(ThrottleSpec spec, Supplier<ByteBuffer> source, long length, LongSupplier ticker, RandomGenerator random) {
+        return new ThrottledBody(spec, source, length, this, ticker, random);
+    }
+
+    MirrorDelayScheduler scheduler() {
+        return scheduler;
+    }
+
+    void opened() {
+        active.incrementAndGet();
+    }
+
+    void sent(int count) {
+        bytes.add(count);
+    }
+
+    void stalled() {
+        stalls.increment();
+    }
+
+    void closed(long sentBytes, long elapsedNanos, boolean completed) {
+        active.decrementAndGet();
+        if (elapsedNanos > 0) {
+            (completed ? completedThroughput : abortedThroughput).record(sentBytes * 1e9 / elapsedNanos);
+        }
+    }
+
+    private static DistributionSummary throughput(MeterRegistry registry, String outcome) {
+        return DistributionSummary.builder("mirror.throttle.throughput")
+            .description("Pro Stream erreichte Datenrate in Bytes pro Sekunde")
+            .baseUnit("bytes")
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.9, 0.99)
+            .register(registry);
+    }
+}
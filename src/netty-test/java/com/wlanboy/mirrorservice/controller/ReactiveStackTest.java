@@ -0,0 +1,191 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webflux.test.autoconfigure.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.wlanboy.mirrorservice.echo.EchoStreams;
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.scenario.ScenarioRegistry;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Prüft die gemeinsamen Controller auf dem WebFlux-Stack ({@code mvn -Dnetty test}).
+ */
+@WebFluxTest(value = {MirrorController.class, DnsLookupController.class, ScenarioController.class, ReactiveScenarioServeController.class,
+    ReactiveEchoController.class}, properties = "mirror.fixtures.directory=src/test/resources/fixtures")
+@Import({ScenarioRegistry.class, InjectedDelayMetrics.class, MirrorDelayScheduler.class, ThrottledStreams.class, EchoStreams.class,
+    FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, DnsBatchProperties.class, PingBatchProperties.class, FixtureProperties.class, RateLimitProperties.class, SequenceProperties.class})
+class ReactiveStackTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockitoBean
+    private DnsResolver dnsResolver;
+
+    // ---------------------------------------------------------
+    // Mirror
+    // ---------------------------------------------------------
+
+    @Test
+    void testMirrorGet() {
+        client.get().uri("/mirror?statusCode=202&responseBody=GET-OK")
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody(String.class).isEqualTo("GET-OK");
+    }
+
+    @Test
+    void testMirrorPostWithDelay() {
+        long start = System.currentTimeMillis();
+
+        client.post().uri("/mirror")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {
+                  "statusCode": 503,
+                  "responseBody": "DELAYED",
+                  "waitMs": 100,
+                  "responseHeaders": { "Retry-After": "30" }
+                }
+                """)
+            .exchange()
+            .expectStatus().isEqualTo(503)
+            .expectHeader().valueEquals("Retry-After", "30")
+            .expectBody(String.class).isEqualTo("DELAYED");
+
+        long elapsed = System.currentTimeMillis() - start;
+        assert elapsed >= 100 : "Delay should be at least 100ms, was " + elapsed + "ms";
+    }
+
+    @Test
+    void testMirrorInvalidStatusCode() {
+        client.post().uri("/mirror")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"statusCode\": 42}")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    // ---------------------------------------------------------
+    // Resolve / Ping
+    // ---------------------------------------------------------
+
+    @Test
+    void testResolve() throws Exception {
+        when(dnsResolver.getAllByName("example.com")).thenReturn(new InetAddress[]{InetAddress.getByName("93.184.216.34")});
+
+        client.get().uri("/resolve/example.com")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$[0]").isEqualTo("93.184.216.34");
+    }
+
+    @Test
+    void testPingUnknownHost() throws Exception {
+        when(dnsResolver.getByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+
+        client.get().uri("/ping/unknown.example")
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.hostname").isEqualTo("unknown.example")
+            .jsonPath("$.reachable").isEqualTo(false);
+    }
+
+    // ---------------------------------------------------------
+    // Szenarien
+    // ---------------------------------------------------------
+
+    @Test
+    void testScenarioServedFromPrecompiledBytes() {
+        client.put().uri("/mirror/scenarios/netty")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"statusCode\": 418, \"responseBody\": \"teapot\", \"responseHeaders\": {\"X-Scenario\": \"netty\"}}")
+            .exchange()
+            .expectStatus().isCreated();
+
+        for (int i = 0; i < 2; i++) {
+            client.delete().uri("/mirror/s/netty")
+                .exchange()
+                .expectStatus().isEqualTo(418)
+                .expectHeader().valueEquals("X-Scenario", "netty")
+                .expectHeader().contentLength(6)
+                .expectBody(String.class).isEqualTo("teapot");
+        }
+
+        client.get().uri("/mirror/scenarios/netty")
+            .exchange()
+            .expectBody().jsonPath("$.requests").isEqualTo(2);
+    }
+
+    @Test
+    void testUnknownScenario() {
+        client.get().uri("/mirror/s/missing")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    // ---------------------------------------------------------
+    // Fixtures
+    // ---------------------------------------------------------
+
+    @Test
+    void testFixtureRange() {
+        client.get().uri("/mirror?fixture=sample.json")
+            .header("Range", "bytes=2-8")
+            .exchange()
+            .expectStatus().isEqualTo(206)
+            .expectHeader().valueEquals("Content-Range", "bytes 2-8/37")
+            .expectHeader().contentLength(7)
+            .expectBody(String.class).isEqualTo("fixture");
+    }
+
+    // ---------------------------------------------------------
+    // Echo
+    // ---------------------------------------------------------
+
+    @Test
+    void testEchoStreamsBodyBack() {
+        client.post().uri("/mirror/echo")
+            .contentType(MediaType.TEXT_PLAIN)
+            .bodyValue("netty-echo")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentLength(10)
+            .expectBody(String.class).isEqualTo("netty-echo");
+    }
+
+    @Test
+    void testEchoWithHeaderBlock() {
+        client.post().uri("/mirror/echo/headers")
+            .header("X-Trace", "abc")
+            .bodyValue("payload")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("Content-Type", "message/http")
+            .expectHeader().exists("X-Echo-Meta-Length")
+            .expectBody(String.class).value(body -> {
+                assert body.startsWith("POST /mirror/echo/headers ") : body;
+                assert body.contains("X-Trace: abc\r\n") : body;
+                assert body.endsWith("\r\n\r\npayload") : body;
+            });
+    }
+}
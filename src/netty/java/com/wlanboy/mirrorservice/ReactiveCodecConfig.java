@@ -0,0 +1,34 @@
+package com.wlanboy.mirrorservice;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.wlanboy.mirrorservice.codec.MirrorInstructionHttpMessageReader;
+import com.wlanboy.mirrorservice.fixture.FixtureBodyHttpMessageWriter;
+import com.wlanboy.mirrorservice.payload.GeneratedPayloadHttpMessageWriter;
+import com.wlanboy.mirrorservice.throttle.ThrottledBodyHttpMessageWriter;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Registriert die Writer für generierte, gemappte und gedrosselte Bodys sowie den
+ * Reader für {@code MirrorInstruction} im WebFlux-Stack.
+ */
+@Configuration
+public class ReactiveCodecConfig implements WebFluxConfigurer {
+
+    private final JsonMapper jsonMapper;
+
+    public ReactiveCodecConfig(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new GeneratedPayloadHttpMessageWriter());
+        configurer.customCodecs().register(new FixtureBodyHttpMessageWriter());
+        configurer.customCodecs().register(new ThrottledBodyHttpMessageWriter());
+        configurer.customCodecs().register(new MirrorInstructionHttpMessageReader(jsonMapper));
+    }
+}
@@ -0,0 +1,25 @@
+package com.wlanboy.mirrorservice;
+
+import java.net.URI;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * WebFlux-Gegenstück zu {@code RouterConfig} für das Netty-Profil.
+ */
+@Configuration
+public class ReactiveRouterConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> indexRouter() {
+        return RouterFunctions.route(
+            RequestPredicates.GET("/"),
+            request -> ServerResponse.temporaryRedirect(URI.create("/index.html")).build()
+        );
+    }
+}
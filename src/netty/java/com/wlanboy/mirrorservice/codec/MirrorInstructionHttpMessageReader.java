@@ -0,0 +1,89 @@
+package com.wlanboy.mirrorservice.codec;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * WebFlux-Gegenstück zu {@code MirrorInstructionHttpMessageConverter}: fügt die
+ * Body-Buffer zusammen, dekodiert mit dem {@link MirrorInstructionDecoder} und
+ * fällt nur bei Bedarf auf Jackson zurück. Fehler beim Lesen werden als
+ * {@link DecodingException} gemeldet, die WebFlux mit 400 beantwortet;
+ * Wertebereiche prüft {@code @Valid} am Controller.
+ */
+public class MirrorInstructionHttpMessageReader implements HttpMessageReader<MirrorInstruction> {
+
+    /** Entspricht dem Standardlimit der WebFlux-Codecs. */
+    private static final int MAX_IN_MEMORY_SIZE = 256 * 1024;
+
+    private static final List<MediaType> MEDIA_TYPES =
+        List.of(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+
+    private final JsonMapper jsonMapper;
+
+    public MirrorInstructionHttpMessageReader(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public List<MediaType> getReadableMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean canRead(ResolvableType elementType, MediaType mediaType) {
+        if (elementType.toClass() != MirrorInstruction.class) {
+            return false;
+        }
+        if (mediaType == null) {
+            return true;
+        }
+        for (MediaType supported : MEDIA_TYPES) {
+            if (supported.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Flux<MirrorInstruction> read(ResolvableType elementType, ReactiveHttpInputMessage message,
+            Map<String, Object> hints) {
+        return Flux.from(readMono(elementType, message, hints));
+    }
+
+    @Override
+    public Mono<MirrorInstruction> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
+            Map<String, Object> hints) {
+        return DataBufferUtils.join(message.getBody(), MAX_IN_MEMORY_SIZE).map(this::decode);
+    }
+
+    private MirrorInstruction decode(DataBuffer buffer) {
+        byte[] body = new byte[buffer.readableByteCount()];
+        try {
+            buffer.read(body);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        try {
+            MirrorInstruction instruction = MirrorInstructionDecoder.decode(body, 0, body.length);
+            return instruction != null ? instruction : jsonMapper.readValue(body, MirrorInstruction.class);
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new DecodingException("Ungültige MirrorInstruction: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.wlanboy.mirrorservice.echo.EchoMetadata;
+import com.wlanboy.mirrorservice.echo.EchoStreams;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRequest;
+
+/**
+ * WebFlux-Echo: die von Netty empfangenen Body-Buffer werden ohne Kopie an die
+ * Response weitergereicht und nach dem Schreiben freigegeben.
+ */
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Mirror")
+public class ReactiveEchoController {
+
+    private static final String DEFAULT_PROTOCOL = "HTTP/1.1";
+
+    private final EchoStreams streams;
+
+    public ReactiveEchoController(EchoStreams streams) {
+        this.streams = streams;
+    }
+
+    @Operation(
+        summary = "Request zurückspiegeln",
+        description = "Streamt den Request-Body unverändert zurück, während er noch empfangen wird; die Netty-Buffer werden "
+            + "ohne Kopie weitergereicht. Mit /echo/headers wird die Request-Zeile samt Headern im HTTP-Format vorangestellt, "
+            + "mit /echo/json eine JSON-Zeile; die Länge dieses Blocks steht im Header X-Echo-Meta-Length."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Request-Body, optional mit vorangestellten Metadaten"),
+        @ApiResponse(responseCode = "400", description = "Unbekanntes Metadaten-Format")
+    })
+    @RequestMapping({"/echo", "/echo/{meta}"})
+    public Mono<Void> echo(
+            @Parameter(description = "Vorangestellte Metadaten: headers oder json; ohne Angabe nur der Body", example = "json")
+            @PathVariable(required = false) String meta,
+            ServerWebExchange exchange) {
+        EchoMetadata.Format format;
+        try {
+            format = EchoMetadata.Format.parse(meta);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders requestHeaders = request.getHeaders();
+        long contentLength = requestHeaders.getContentLength();
+        ByteBuffer block = metadata(request).render(format, contentLength);
+
+        HttpHeaders headers = response.getHeaders();
+        String requestContentType = requestHeaders.getFirst(HttpHeaders.CONTENT_TYPE);
+        headers.set(HttpHeaders.CONTENT_TYPE, EchoMetadata.contentType(format, requestContentType));
+        if (format == EchoMetadata.Format.NONE) {
+            String encoding = requestHeaders.getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+        } else {
+            headers.set(EchoMetadata.META_LENGTH_HEADER, Integer.toString(block.remaining()));
+        }
+        if (contentLength >= 0) {
+            headers.setContentLength(block.remaining() + contentLength);
+        }
+
+        Flux<DataBuffer> body = request.getBody().doOnNext(buffer -> streams.copied(buffer.readableByteCount()));
+        if (block.hasRemaining()) {
+            body = Flux.concat(Mono.fromSupplier(() -> response.bufferFactory().wrap(block)), body);
+        }
+        return response.writeWith(body)
+            .doOnSubscribe(subscription -> streams.opened())
+            .doFinally(signal -> streams.closed());
+    }
+
+    private static EchoMetadata metadata(ServerHttpRequest request) {
+        String target = request.getURI().getRawQuery() != null
+            ? request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+            : request.getURI().getRawPath();
+        InetSocketAddress remote = request.getRemoteAddress();
+        EchoMetadata metadata = new EchoMetadata(request.getMethod().name(), target, protocol(request),
+            remote != null ? remote.getHostString() + ":" + remote.getPort() : null);
+        request.getHeaders().forEach((name, values) -> values.forEach(value -> metadata.header(name, value)));
+        return metadata;
+    }
+
+    /**
+     * WebFlux kennt die Protokollversion nur am nativen Reactor-Netty-Request;
+     * ohne laufenden Server (WebTestClient) bleibt es bei HTTP/1.1.
+     */
+    private static String protocol(ServerHttpRequest request) {
+        try {
+            Object nativeRequest = ServerHttpRequestDecorator.getNativeRequest(request);
+            return nativeRequest instanceof HttpServerRequest netty ? netty.version().text() : DEFAULT_PROTOCOL;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return DEFAULT_PROTOCOL;
+        }
+    }
+}
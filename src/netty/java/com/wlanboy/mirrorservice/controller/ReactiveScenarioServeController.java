@@ -0,0 +1,132 @@
+package com.wlanboy.mirrorservice.controller;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.wlanboy.mirrorservice.payload.GeneratedPayload;
+import com.wlanboy.mirrorservice.payload.GeneratedPayloadHttpMessageWriter;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitDecision;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.ratelimit.ReactiveRateLimitClientArgumentResolver;
+import com.wlanboy.mirrorservice.scenario.CompiledScenario;
+import com.wlanboy.mirrorservice.scenario.ScenarioRegistry;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux-Auslieferung registrierter Szenarien. Der Body wird ohne Kopie aus den
+ * vorab kodierten Bytes des {@link CompiledScenario} an Netty übergeben.
+ */
+@RestController
+@RequestMapping("/mirror")
+@Tag(name = "Mirror-Szenarien")
+public class ReactiveScenarioServeController {
+
+    private final ScenarioRegistry registry;
+    private final InjectedDelayMetrics delayMetrics;
+    private final MirrorDelayScheduler delayScheduler;
+    private final RateLimiter rateLimiter;
+    private final SequenceCursors sequences;
+
+    public ReactiveScenarioServeController(ScenarioRegistry registry, InjectedDelayMetrics delayMetrics, MirrorDelayScheduler delayScheduler,
+            RateLimiter rateLimiter, SequenceCursors sequences) {
+        this.registry = registry;
+        this.delayMetrics = delayMetrics;
+        this.delayScheduler = delayScheduler;
+        this.rateLimiter = rateLimiter;
+        this.sequences = sequences;
+    }
+
+    @Operation(
+        summary = "Szenario ausführen",
+        description = "Liefert die vorab kodierte Antwort des Szenarios für jede HTTP-Methode. Mit waitMs oder latency "
+            + "wird die Antwort nach Ablauf der gezogenen Wartezeit gesendet, ohne dass ein Thread belegt ist."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "default", description = "Konfigurierter Statuscode, Header und Body des Szenarios; "
+            + "bei Sequenzen die des aktuellen Schritts mit X-Sequence-Step"),
+        @ApiResponse(responseCode = "404", description = "Unbekannte Szenario-ID"),
+        @ApiResponse(responseCode = "429", description = "Rate-Limit des Szenarios erschöpft")
+    })
+    @RequestMapping("/s/{id}")
+    public Mono<Void> serve(@PathVariable String id, ServerWebExchange exchange) {
+        CompiledScenario registered = registry.get(id);
+        if (registered == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unbekanntes Szenario '" + id + "'."));
+        }
+        MirrorInstruction instruction = registered.instruction();
+        RateLimitClient client = instruction.rateLimit() != null || instruction.sequence() != null
+            ? ReactiveRateLimitClientArgumentResolver.of(exchange.getRequest())
+            : null;
+        RateLimitDecision rateLimit = instruction.rateLimit() != null
+            ? rateLimiter.acquire(instruction.rateLimit(), client, id)
+            : null;
+        if (rateLimit != null && !rateLimit.allowed()) {
+            return writeRejected(rateLimit, exchange.getResponse());
+        }
+        CompiledScenario scenario = instruction.sequence() != null
+            ? registered.step(sequences.next(instruction.sequence(), client, id))
+            : registered;
+        long delayMs = scenario.instruction().delayMs();
+        if (delayMs == 0) {
+            if (scenario.instruction().latency() != null) {
+                delayMetrics.record(scenario.instruction(), 0);
+            }
+            return write(scenario, rateLimit, exchange.getResponse());
+        }
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return delayScheduler.delay(delayMs)
+                .then(Mono.defer(() -> {
+                    delayMetrics.record(scenario.instruction(), System.nanoTime() - start);
+                    return write(scenario, rateLimit, exchange.getResponse());
+                }));
+        });
+    }
+
+    private static Mono<Void> writeRejected(RateLimitDecision rateLimit, ServerHttpResponse response) {
+        byte[] body = RateLimitDecision.REJECTED_BODY.getBytes(StandardCharsets.UTF_8);
+        response.setStatusCode(HttpStatusCode.valueOf(RateLimitDecision.REJECTED_STATUS));
+        HttpHeaders headers = response.getHeaders();
+        rateLimit.forEachHeader(headers::set);
+        headers.set(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    private static Mono<Void> write(CompiledScenario scenario, RateLimitDecision rateLimit, ServerHttpResponse response) {
+        scenario.recordRequest();
+        response.setStatusCode(HttpStatusCode.valueOf(scenario.status()));
+        HttpHeaders headers = response.getHeaders();
+        if (rateLimit != null) {
+            rateLimit.forEachHeader(headers::set);
+        }
+        scenario.forEachHeader(headers::set);
+        headers.set(HttpHeaders.CONTENT_TYPE, scenario.contentType());
+        GeneratedPayload payload = scenario.newPayload();
+        if (payload != null) {
+            return GeneratedPayloadHttpMessageWriter.writeTo(payload, response);
+        }
+        headers.setContentLength(scenario.contentLength());
+        if (scenario.contentLength() == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(scenario.body())));
+    }
+}
@@ -0,0 +1,19 @@
+package com.wlanboy.mirrorservice.fault;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+
+/**
+ * Registriert den {@link ReactiveFaultInjectionFilter} über eine Konfiguration
+ * statt als Komponente, damit ihn {@code @WebFluxTest}-Slices nicht automatisch aufnehmen.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReactiveFaultInjectionConfig {
+
+    @Bean
+    public ReactiveFaultInjectionFilter faultInjectionFilter(FaultRules rules, MirrorDelayScheduler delayScheduler) {
+        return new ReactiveFaultInjectionFilter(rules, delayScheduler);
+    }
+}
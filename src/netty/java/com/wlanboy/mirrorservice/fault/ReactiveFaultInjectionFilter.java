@@ -0,0 +1,146 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.nio.charset.StandardCharsets;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.wlanboy.mirrorservice.controller.MirrorDelayScheduler;
+
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRequest;
+
+/**
+ * WebFlux-Gegenstück zum {@code FaultInjectionFilter}: Verbindungsabbrüche
+ * schließen den Netty-Kanal mit {@code SO_LINGER 0}, Latenz hängt am
+ * Delay-Timer. Ohne nativen Reactor-Netty-Request (WebTestClient) wird ein
+ * Abbruch als 502 beantwortet.
+ */
+public class ReactiveFaultInjectionFilter implements WebFilter {
+
+    public static final String FAULT_HEADER = "X-Fault-Rule";
+
+    static final String ADMIN_PATH = "/mirror/faults";
+
+    private final FaultRules rules;
+    private final MirrorDelayScheduler delayScheduler;
+
+    public ReactiveFaultInjectionFilter(FaultRules rules, MirrorDelayScheduler delayScheduler) {
+        this.rules = rules;
+        this.delayScheduler = delayScheduler;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (path.startsWith(ADMIN_PATH)) {
+            return chain.filter(exchange);
+        }
+        HttpHeaders headers = request.getHeaders();
+        CompiledFaultRule rule = rules.select(request.getMethod().name(), path, headers::getFirst);
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        return switch (rule.type()) {
+            case ERROR -> {
+                response.setStatusCode(HttpStatusCode.valueOf(rule.rule().status()));
+                response.getHeaders().set(FAULT_HEADER, rule.id());
+                response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+                byte[] body = ("Injizierter Fehler durch Regel '" + rule.id() + "'").getBytes(StandardCharsets.UTF_8);
+                response.getHeaders().setContentLength(body.length);
+                yield response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+            }
+            case RESET -> abort(exchange);
+            case TRUNCATE -> {
+                response.getHeaders().set(FAULT_HEADER, rule.id());
+                TruncatingResponse truncating = new TruncatingResponse(exchange, rule.rule().truncateAfterBytes());
+                yield chain.filter(exchange.mutate().response(truncating).build())
+                    .then(Mono.defer(() -> abort(exchange)));
+            }
+            case LATENCY -> {
+                response.getHeaders().set(FAULT_HEADER, rule.id());
+                yield delayScheduler.delay(rule.sampleDelayMs()).then(chain.filter(exchange));
+            }
+        };
+    }
+
+    /** Schließt die Verbindung ohne (weitere) Antwort. */
+    static Mono<Void> abort(ServerWebExchange exchange) {
+        HttpServerRequest netty = nativeRequest(exchange.getRequest());
+        if (netty == null) {
+            ServerHttpResponse response = exchange.getResponse();
+            if (!response.isCommitted()) {
+                response.setStatusCode(HttpStatus.BAD_GATEWAY);
+            }
+            return response.setComplete();
+        }
+        netty.withConnection(connection -> {
+            connection.channel().config().setOption(ChannelOption.SO_LINGER, 0);
+            connection.channel().close();
+        });
+        return Mono.empty();
+    }
+
+    private static HttpServerRequest nativeRequest(ServerHttpRequest request) {
+        try {
+            return ServerHttpRequestDecorator.getNativeRequest(request) instanceof HttpServerRequest netty ? netty : null;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reicht höchstens {@code limit} Body-Bytes durch; was danach kommt, wird
+     * freigegeben statt geschrieben. Die Verbindung trennt der Filter, sobald
+     * der Handler fertig ist.
+     */
+    static final class TruncatingResponse extends ServerHttpResponseDecorator {
+
+        private long remaining;
+
+        TruncatingResponse(ServerWebExchange exchange, long limit) {
+            super(exchange.getResponse());
+            this.remaining = limit;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).handle((buffer, sink) -> {
+                long passed = Math.min(buffer.readableByteCount(), remaining);
+                if (passed == 0) {
+                    DataBufferUtils.release(buffer);
+                    return;
+                }
+                remaining -= passed;
+                if (passed < buffer.readableByteCount()) {
+                    DataBuffer head = buffer.split(buffer.readPosition() + (int) passed);
+                    DataBufferUtils.release(buffer);
+                    sink.next(head);
+                } else {
+                    sink.next(buffer);
+                }
+            }));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux-Gegenstück zu {@code FixtureBodyHttpMessageConverter}: die gemappten
+ * Slices werden per {@link DataBufferFactory#wrap(ByteBuffer)} ohne Kopie an
+ * Netty gereicht, das sie direkt aus dem Page-Cache auf den Socket schreibt.
+ */
+public class FixtureBodyHttpMessageWriter implements HttpMessageWriter<FixtureBody> {
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return FixtureBody.class.isAssignableFrom(elementType.toClass());
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends FixtureBody> inputStream, ResolvableType elementType,
+            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream).flatMap(body -> writeTo(body, message));
+    }
+
+    static Mono<Void> writeTo(FixtureBody body, ReactiveHttpOutputMessage message) {
+        message.getHeaders().setContentLength(body.length());
+        DataBufferFactory factory = message.bufferFactory();
+        Flux<DataBuffer> chunks = Flux.generate(sink -> {
+            ByteBuffer chunk = body.nextChunk();
+            if (chunk == null) {
+                sink.complete();
+            } else {
+                sink.next(factory.wrap(chunk));
+            }
+        });
+        return message.writeWith(chunks);
+    }
+}
@@ -0,0 +1,59 @@
+package com.wlanboy.mirrorservice.payload;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux-Gegenstück zu {@code GeneratedPayloadHttpMessageConverter}: jeder Slice
+ * wird per {@link DataBufferFactory#wrap(ByteBuffer)} ohne Kopie an Netty gereicht
+ * und erst erzeugt, wenn Netty weitere Daten anfordert.
+ */
+public class GeneratedPayloadHttpMessageWriter implements HttpMessageWriter<GeneratedPayload> {
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return GeneratedPayload.class.isAssignableFrom(elementType.toClass());
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends GeneratedPayload> inputStream, ResolvableType elementType,
+            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream).flatMap(payload -> writeTo(payload, message));
+    }
+
+    public static Mono<Void> writeTo(GeneratedPayload payload, ReactiveHttpOutputMessage message) {
+        if (!payload.chunked()) {
+            message.getHeaders().setContentLength(payload.length());
+        }
+        DataBufferFactory factory = message.bufferFactory();
+        Flux<DataBuffer> body = Flux.generate(sink -> {
+            ByteBuffer chunk = payload.nextChunk();
+            if (chunk == null) {
+                sink.complete();
+            } else {
+                sink.next(factory.wrap(chunk));
+            }
+        });
+        if (payload.chunked()) {
+            return message.writeAndFlushWith(body.map(Mono::just));
+        }
+        return message.writeWith(body);
+    }
+}
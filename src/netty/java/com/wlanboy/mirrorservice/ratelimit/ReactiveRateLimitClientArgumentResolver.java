@@ -0,0 +1,46 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.SyncHandlerMethodArgumentResolver;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * WebFlux-Gegenstück zum {@code RateLimitClientArgumentResolver}.
+ */
+public class ReactiveRateLimitClientArgumentResolver implements SyncHandlerMethodArgumentResolver {
+
+    /** Ohne Remote-Adresse (WebTestClient) teilen sich alle Requests einen Bucket. */
+    static final String UNKNOWN_ADDRESS = "unknown";
+
+    public static RateLimitClient of(ServerHttpRequest request) {
+        return new RateLimitClient() {
+            @Override
+            public String address() {
+                InetSocketAddress remote = request.getRemoteAddress();
+                if (remote == null) {
+                    return UNKNOWN_ADDRESS;
+                }
+                return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+            }
+
+            @Override
+            public String header(String name) {
+                return request.getHeaders().getFirst(name);
+            }
+        };
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return RateLimitClient.class == parameter.getParameterType();
+    }
+
+    @Override
+    public Object resolveArgumentValue(MethodParameter parameter, BindingContext bindingContext, ServerWebExchange exchange) {
+        return of(exchange.getRequest());
+    }
+}
@@ -0,0 +1,17 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * Registriert den {@link ReactiveRateLimitClientArgumentResolver} im WebFlux-Stack.
+ */
+@Configuration
+public class ReactiveRateLimitWebConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactiveRateLimitClientArgumentResolver());
+    }
+}
@@ -0,0 +1,23 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Registriert den {@link ReactiveRequestRecordingFilter} vor allen anderen
+ * Filtern; als Konfiguration statt als Komponente, damit ihn
+ * {@code @WebFluxTest}-Slices nicht automatisch aufnehmen.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "mirror.recorder.enabled", havingValue = "true")
+public class ReactiveRequestRecordingConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public ReactiveRequestRecordingFilter requestRecordingFilter(RequestRecorder recorder) {
+        return new ReactiveRequestRecordingFilter(recorder);
+    }
+}
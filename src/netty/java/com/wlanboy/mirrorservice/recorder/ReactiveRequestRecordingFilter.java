@@ -0,0 +1,60 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux-Gegenstück zum {@code RequestRecordingFilter}: Body-Puffer werden beim
+ * Durchreichen an den Handler mitkopiert, übernommen wird nach dem Ende der
+ * Antwort, auch bei Fehler oder Abbruch.
+ */
+public class ReactiveRequestRecordingFilter implements WebFilter {
+
+    private final RequestRecorder recorder;
+
+    public ReactiveRequestRecordingFilter(RequestRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!recorder.records(path)) {
+            return chain.filter(exchange);
+        }
+        RequestCapture capture = recorder.begin(request.getMethod().name(), path, request.getURI().getRawQuery());
+        request.getHeaders().forEach((name, values) -> {
+            for (String value : values) {
+                capture.header(name, value);
+            }
+        });
+        ServerHttpRequest capturing = new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(buffer -> capture(buffer, capture));
+            }
+        };
+        return chain.filter(exchange.mutate().request(capturing).build())
+            .doFinally(signal -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                recorder.finish(capture, status != null ? status.value() : 200);
+            });
+    }
+
+    private static void capture(DataBuffer buffer, RequestCapture capture) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                capture.body(iterator.next());
+            }
+        }
+    }
+}
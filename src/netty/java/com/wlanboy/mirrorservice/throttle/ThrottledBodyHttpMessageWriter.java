@@ -0,0 +1,67 @@
+package com.wlanboy.mirrorservice.throttle;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * WebFlux-Gegenstück zu {@code ThrottledBodyHttpMessageConverter}: jeder Chunk
+ * wartet als Wheel-Timer-Eintrag auf seine Sollzeit und wird danach einzeln
+ * geflusht. Es gibt weder blockierte Threads noch gepufferte Chunks.
+ */
+public class ThrottledBodyHttpMessageWriter implements HttpMessageWriter<ThrottledBody> {
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return ThrottledBody.class.isAssignableFrom(elementType.toClass());
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends ThrottledBody> inputStream, ResolvableType elementType,
+            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream).flatMap(body -> writeTo(body, message));
+    }
+
+    static Mono<Void> writeTo(ThrottledBody body, ReactiveHttpOutputMessage message) {
+        if (body.length() >= 0) {
+            message.getHeaders().setContentLength(body.length());
+        }
+        DataBufferFactory factory = message.bufferFactory();
+        Flux<Publisher<DataBuffer>> chunks = Flux.<ByteBuffer>generate(sink -> {
+                ByteBuffer chunk = body.nextChunk();
+                if (chunk == null) {
+                    sink.complete();
+                } else {
+                    sink.next(chunk);
+                }
+            })
+            .concatMap(chunk -> Mono.defer(() -> body.scheduler().delay(body.delayMsUntilNext()))
+                .then(Mono.fromSupplier(() -> {
+                    body.sent(chunk.remaining());
+                    return factory.wrap(chunk);
+                })), 1)
+            .map(Mono::just);
+        // Leerer erster Puffer: Header sofort flushen, erst danach läuft die Uhr
+        Publisher<DataBuffer> headers = Mono.fromSupplier(() -> factory.wrap(new byte[0]))
+            .doOnNext(empty -> body.start());
+        return message.writeAndFlushWith(Flux.concat(Mono.just(headers), chunks))
+            .doFinally(signal -> body.finish(signal == SignalType.ON_COMPLETE));
+    }
+}
@@ -1,13 +1,13 @@
 package com.wlanboy.mirrorservice;
 
-import org.junit.Test;
+import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest
-public class MirrorserviceApplicationTests {
+class MirrorserviceApplicationTests {
 
 	@Test
-	public void contextLoads() {
+	void contextLoads() {
 	}
 
 }
@@ -0,0 +1,110 @@
+package com.wlanboy.mirrorservice.bench;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wlanboy.mirrorservice.MirrorserviceApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Misst den Speicherbedarf lange gehaltener Verbindungen für den Stack, mit dem
+ * gebaut wurde: {@code N} Clients senden {@code GET /mirror?waitMs=...} und
+ * warten, danach wird der Heap- und Direct-Memory-Zuwachs pro offener Anfrage
+ * ausgegeben. Für den Vergleich einmal ohne und einmal mit {@code -Dnetty} starten:
+ * {@code mvn test -Dtest=ConnectionFootprintTest -Dbenchmark=true [-Dnetty]}
+ * <p>
+ * Client- und Server-Sockets liegen im selben Prozess, das Limit offener Dateien
+ * muss also mindestens {@code 2 * N} betragen. Netty-Arenen ohne Cleaner tauchen
+ * nicht in den JDK-Buffer-Pools auf; der Direct-Wert ist dort eine Untergrenze.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConnectionFootprintTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 5_000);
+    private static final long HOLD_MS = 120_000;
+
+    @Test
+    void measureBytesPerHeldConnection() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MirrorserviceApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run()) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            byte[] request = ("GET /mirror?waitMs=" + HOLD_MS + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+            long heapBefore = usedHeap();
+            long directBefore = usedDirect();
+
+            // Rohe SocketChannels statt HttpClient, damit der Client selbst kaum Heap belegt.
+            List<SocketChannel> channels = new ArrayList<>(CONNECTIONS);
+            try {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+                    channel.write(ByteBuffer.wrap(request));
+                    channels.add(channel);
+                }
+                awaitPending(registry, CONNECTIONS);
+
+                long heap = usedHeap() - heapBefore;
+                long direct = usedDirect() - directBefore;
+                System.out.println();
+                System.out.printf("server stack        : %s%n", stack(context));
+                System.out.printf("held connections    : %d%n", CONNECTIONS);
+                System.out.printf("heap per connection : %d bytes%n", heap / CONNECTIONS);
+                System.out.printf("direct per conn.    : %d bytes%n", direct / CONNECTIONS);
+                System.out.printf("connections per MB  : %.1f%n", CONNECTIONS / ((heap + direct) / (1024.0 * 1024.0)));
+            } finally {
+                for (SocketChannel channel : channels) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private static void awaitPending(MeterRegistry registry, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            var gauge = registry.find("mirror.timer.pending").gauge();
+            if (gauge != null && gauge.value() >= expected) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Nicht alle Verbindungen sind beim Server angekommen");
+    }
+
+    private static String stack(ConfigurableApplicationContext context) {
+        return context.getClass().getSimpleName().contains("Reactive") ? "reactor-netty (webflux)" : "jetty (servlet)";
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+}
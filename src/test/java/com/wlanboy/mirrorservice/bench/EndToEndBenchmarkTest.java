@@ -0,0 +1,162 @@
+package com.wlanboy.mirrorservice.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.wlanboy.mirrorservice.MirrorserviceApplication;
+import com.wlanboy.mirrorservice.controller.DnsResolver;
+import com.wlanboy.mirrorservice.dns.DnsCacheProperties;
+import com.wlanboy.mirrorservice.dns.NioDnsProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Startet den vollständigen Service (Web-Stack, Async-Dispatch, Actuator,
+ * Tracing) auf einem zufälligen Port und treibt {@code /mirror}, {@code /resolve}
+ * und {@code /ping} geschlossen und mit fester Rate, auch mit vielen gleichzeitig
+ * wartenden Verzögerungen. DNS und Ping laufen gegen einen {@link DnsResolver}
+ * ohne Netzwerkzugriff. Die Ergebnisse werden gegen die Grenzen aus
+ * {@code bench/end-to-end-thresholds.properties} geprüft.
+ * {@code mvn test -Dtest=EndToEndBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EndToEndBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 256);
+    private static final int DELAY_REQUESTS = Integer.getInteger("benchmark.delayRequests", 10_000);
+    private static final int DELAY_CONCURRENCY = Integer.getInteger("benchmark.delayConcurrency", 2_000);
+    private static final int RATE = Integer.getInteger("benchmark.rate", 1_000);
+    private static final int DELAY_RATE = Integer.getInteger("benchmark.delayRate", 2_000);
+    private static final Duration RATE_DURATION = Duration.ofSeconds(Long.getLong("benchmark.rateSeconds", 10));
+
+    private static final String THRESHOLD_PREFIX = "benchmark.threshold.";
+
+    @Test
+    void driveServiceEndToEnd() throws Exception {
+        List<LoadDriver.Result> results;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MirrorserviceApplication.class, OfflineDns.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            URI mirror = URI.create(base + "/mirror?responseBody=ok");
+            URI[] delayMix = new URI[10];
+            for (int i = 0; i < 9; i++) {
+                delayMix[i] = URI.create(base + "/mirror?waitMs=200");
+            }
+            delayMix[9] = mirror;
+            LoadDriver driver = new LoadDriver();
+
+            driver.run("warmup", mirror, REQUESTS / 4, CONCURRENCY);
+            driver.run("warmup", URI.create(base + "/resolve/bench.example"), REQUESTS / 4, CONCURRENCY);
+
+            results = List.of(
+                driver.run("mirror-closed", mirror, REQUESTS, CONCURRENCY),
+                driver.runFixedRate("mirror-rate", new URI[] {mirror}, RATE, RATE_DURATION),
+                driver.run("delay-mix-closed", delayMix, DELAY_REQUESTS, DELAY_CONCURRENCY),
+                driver.runFixedRate("delay-rate", new URI[] {URI.create(base + "/mirror?waitMs=1000")}, DELAY_RATE, RATE_DURATION),
+                driver.run("resolve-closed", URI.create(base + "/resolve/bench.example"), REQUESTS, CONCURRENCY),
+                driver.run("ping-closed", URI.create(base + "/ping/bench.example"), REQUESTS, CONCURRENCY));
+        }
+
+        System.out.println();
+        System.out.println(LoadDriver.Result.header());
+        results.forEach(r -> System.out.println(r.row()));
+
+        Properties thresholds = thresholds();
+        List<String> violations = new ArrayList<>();
+        for (LoadDriver.Result result : results) {
+            check(violations, result, "max-errors", thresholds, result.errors(), false);
+            check(violations, result, "max-heap-mb", thresholds, result.peakHeapMb(), false);
+            check(violations, result, "max-threads", thresholds, result.peakThreads(), false);
+            check(violations, result, result.name() + ".min-rps", thresholds, result.throughput(), true);
+            check(violations, result, result.name() + ".max-p99-ms", thresholds, result.p99Us() / 1000.0, false);
+            check(violations, result, result.name() + ".max-p999-ms", thresholds, result.p999Us() / 1000.0, false);
+        }
+        assertTrue(violations.isEmpty(), "Regressionsgrenzen verletzt:\n" + String.join("\n", violations));
+    }
+
+    private static void check(List<String> violations, LoadDriver.Result result, String key, Properties thresholds,
+            double actual, boolean minimum) {
+        String limit = thresholds.getProperty(key);
+        if (limit == null) {
+            return;
+        }
+        double bound = Double.parseDouble(limit);
+        if (minimum ? actual < bound : actual > bound) {
+            violations.add(String.format("%s: %s = %.2f, Grenze %s", result.name(), key, actual, limit));
+        }
+    }
+
+    /** Mitgelieferte Grenzen, optional eine eigene Datei und zuletzt einzelne System-Properties. */
+    private static Properties thresholds() throws IOException {
+        Properties thresholds = new Properties();
+        try (InputStream in = EndToEndBenchmarkTest.class.getResourceAsStream("/bench/end-to-end-thresholds.properties")) {
+            thresholds.load(in);
+        }
+        String file = System.getProperty("benchmark.thresholds");
+        if (file != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+                thresholds.load(reader);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(THRESHOLD_PREFIX)) {
+                thresholds.setProperty(name.substring(THRESHOLD_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return thresholds;
+    }
+
+    /**
+     * Wird nur als zusätzliche Quelle übergeben und ist deshalb nicht annotiert,
+     * damit der Component-Scan anderer Tests ihn nicht aufgreift.
+     */
+    static class OfflineDns {
+
+        @Bean
+        @Primary
+        DnsResolver offlineDnsResolver(MeterRegistry meterRegistry) {
+            return new OfflineDnsResolver(meterRegistry);
+        }
+    }
+
+    /** Löst jeden Hostnamen auf Loopback auf und meldet jeden Host als erreichbar. */
+    static final class OfflineDnsResolver extends DnsResolver {
+
+        OfflineDnsResolver(MeterRegistry meterRegistry) {
+            super(new DnsCacheProperties(false, 0, Duration.ZERO, Duration.ZERO, false, 0),
+                new NioDnsProperties(false, null, null, 1, Duration.ofSeconds(2), 2, true, 128),
+                meterRegistry);
+        }
+
+        @Override
+        public InetAddress[] getAllByName(String hostname) throws UnknownHostException {
+            return new InetAddress[] {InetAddress.getByAddress(hostname, new byte[] {127, 0, 0, 1})};
+        }
+
+        @Override
+        public boolean isReachable(InetAddress address, int timeoutMs) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wlanboy.mirrorservice.bench;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wlanboy.mirrorservice.MirrorserviceApplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vergleicht {@code mirror.execution-mode=reactive} und {@code virtual} mit
+ * identischer Last gegen eine echte Jetty-Instanz. Nur manuell ausführen:
+ * {@code mvn test -Dtest=ExecutionModeComparisonTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExecutionModeComparisonTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 512);
+    private static final int DELAY_REQUESTS = Integer.getInteger("benchmark.delayRequests", 10_000);
+    private static final int DELAY_CONCURRENCY = Integer.getInteger("benchmark.delayConcurrency", 2_000);
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        List<LoadDriver.Result> results = new ArrayList<>();
+        results.addAll(runMode("reactive", false));
+        results.addAll(runMode("virtual", true));
+
+        System.out.println();
+        System.out.println(LoadDriver.Result.header());
+        results.forEach(r -> System.out.println(r.row()));
+
+        results.forEach(r -> assertEquals(0, r.errors(), r.name() + " hatte Fehler"));
+    }
+
+    private List<LoadDriver.Result> runMode(String mode, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MirrorserviceApplication.class)
+                .properties(
+                    "server.port=0",
+                    "mirror.execution-mode=" + mode,
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    "logging.level.root=WARN")
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadDriver driver = new LoadDriver();
+
+            driver.run("warmup", URI.create(base + "/mirror?responseBody=ok"), REQUESTS / 4, CONCURRENCY);
+
+            return List.of(
+                driver.run(mode + " /mirror", URI.create(base + "/mirror?responseBody=ok"), REQUESTS, CONCURRENCY),
+                driver.run(mode + " /mirror waitMs=50", URI.create(base + "/mirror?waitMs=50"), DELAY_REQUESTS, DELAY_CONCURRENCY),
+                driver.run(mode + " /resolve/localhost", URI.create(base + "/resolve/localhost"), REQUESTS, CONCURRENCY));
+        }
+    }
+}
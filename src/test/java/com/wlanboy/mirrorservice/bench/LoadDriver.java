@@ -0,0 +1,199 @@
+package com.wlanboy.mirrorservice.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Einfacher Lastgenerator auf virtuellen Threads. Geschlossen: {@code concurrency}
+ * Threads senden nacheinander GET-Anfragen, bis {@code requests} erreicht sind.
+ * Feste Rate: Anfragen starten im festen Takt unabhängig von den Antworten; die
+ * Latenz zählt ab dem geplanten Startzeitpunkt, damit ein langsamer Server
+ * nicht durch ausbleibende Anfragen geschönt wird. Mehrere Ziele werden
+ * reihum verwendet, Gewichte ergeben sich aus Wiederholungen.
+ * <p>
+ * Während jedes Laufs werden belegter Heap und die Zahl der Plattform-Threads
+ * abgetastet und als Spitzenwerte berichtet; Server und Client teilen sich die JVM.
+ */
+final class LoadDriver {
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    record Result(String name, int requests, long errors, double throughput, long p50Us, long p99Us, long p999Us,
+            long maxUs, long peakHeapMb, int peakThreads) {
+
+        static String header() {
+            return String.format("%-28s %9s %7s %11s %9s %9s %9s %9s %8s %8s",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "heap MB", "threads");
+        }
+
+        String row() {
+            return String.format("%-28s %9d %7d %11.1f %9.2f %9.2f %9.2f %9.2f %8d %8d",
+                name, requests, errors, throughput, p50Us / 1000.0, p99Us / 1000.0, p999Us / 1000.0, maxUs / 1000.0,
+                peakHeapMb, peakThreads);
+        }
+    }
+
+    private final HttpClient client;
+
+    LoadDriver() {
+        this.client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    Result run(String name, URI uri, int requests, int concurrency) throws InterruptedException {
+        return run(name, new URI[] {uri}, requests, concurrency);
+    }
+
+    Result run(String name, URI[] targets, int requests, int concurrency) throws InterruptedException {
+        HttpRequest[] prepared = prepare(targets);
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+
+        ResourceSampler sampler = new ResourceSampler();
+        long elapsed;
+        try {
+            long start = System.nanoTime();
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < concurrency; w++) {
+                    workers.execute(() -> {
+                        int i;
+                        while ((i = next.getAndIncrement()) < requests) {
+                            long t0 = System.nanoTime();
+                            send(prepared[i % prepared.length], errors);
+                            latencies[i] = (System.nanoTime() - t0) / 1000;
+                        }
+                    });
+                }
+            }
+            elapsed = System.nanoTime() - start;
+        } finally {
+            sampler.close();
+        }
+        return result(name, latencies, errors.sum(), elapsed, sampler);
+    }
+
+    Result runFixedRate(String name, URI[] targets, int ratePerSecond, Duration duration) throws InterruptedException {
+        HttpRequest[] prepared = prepare(targets);
+        int requests = (int) Math.max(1, ratePerSecond * duration.toNanos() / 1_000_000_000L);
+        long intervalNanos = 1_000_000_000L / ratePerSecond;
+        long[] latencies = new long[requests];
+        LongAdder errors = new LongAdder();
+
+        ResourceSampler sampler = new ResourceSampler();
+        long elapsed;
+        try {
+            long start = System.nanoTime();
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < requests; i++) {
+                    long intended = start + i * intervalNanos;
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    int index = i;
+                    workers.execute(() -> {
+                        send(prepared[index % prepared.length], errors);
+                        latencies[index] = (System.nanoTime() - intended) / 1000;
+                    });
+                }
+            }
+            elapsed = System.nanoTime() - start;
+        } finally {
+            sampler.close();
+        }
+        return result(name, latencies, errors.sum(), elapsed, sampler);
+    }
+
+    private void send(HttpRequest request, LongAdder errors) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                errors.increment();
+            }
+        } catch (Exception e) {
+            errors.increment();
+        }
+    }
+
+    private static HttpRequest[] prepare(URI[] targets) {
+        HttpRequest[] requests = new HttpRequest[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            requests[i] = HttpRequest.newBuilder(targets[i]).timeout(Duration.ofSeconds(30)).GET().build();
+        }
+        return requests;
+    }
+
+    private static Result result(String name, long[] latencies, long errors, long elapsedNanos, ResourceSampler sampler) {
+        Arrays.sort(latencies);
+        int requests = latencies.length;
+        return new Result(name, requests, errors, requests * 1e9 / elapsedNanos,
+            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+            latencies[requests - 1], sampler.peakHeapBytes() / (1024 * 1024), sampler.peakThreads());
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+
+    /**
+     * Tastet Heap und Plattform-Threads auf einem Daemon-Thread ab; virtuelle
+     * Threads zählt die {@link ThreadMXBean} nicht mit.
+     */
+    private static final class ResourceSampler {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final Thread sampler;
+        private volatile long peakHeapBytes;
+        private volatile int peakThreads;
+
+        ResourceSampler() {
+            sample();
+            sampler = Thread.ofPlatform().daemon().name("load-sampler").start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sample();
+                    try {
+                        Thread.sleep(SAMPLE_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        private void sample() {
+            peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+            peakThreads = Math.max(peakThreads, threads.getThreadCount());
+        }
+
+        long peakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        int peakThreads() {
+            return peakThreads;
+        }
+
+        void close() throws InterruptedException {
+            sampler.interrupt();
+            sampler.join();
+            sample();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wlanboy.mirrorservice.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.wlanboy.mirrorservice.codec.MirrorInstructionDecoder;
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Vergleicht den bisherigen Lesepfad einer {@link MirrorInstruction} (Jackson plus
+ * Bean Validation) mit dem {@link MirrorInstructionDecoder} plus Bean Validation: Nanosekunden und
+ * allozierte Bytes pro dekodierter Instruktion, gemessen über den
+ * Allokationszähler des aktuellen Threads.
+ * {@code mvn test -Dtest=MirrorInstructionDecodeBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MirrorInstructionDecodeBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static final byte[] BODY = """
+        {
+          "statusCode": 201,
+          "waitMs": 25,
+          "responseBody": "Hello World",
+          "responseHeaders": {
+            "X-Test": "bench",
+            "Cache-Control": "no-store"
+          }
+        }
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private static volatile Object sink;
+
+    @Test
+    void compareDecodePaths() {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Validator validator = factory.getValidator();
+            Function<MirrorInstruction, MirrorInstruction> validate = instruction -> {
+                Set<ConstraintViolation<MirrorInstruction>> violations = validator.validate(instruction);
+                if (!violations.isEmpty()) {
+                    throw new IllegalArgumentException(violations.iterator().next().getMessage());
+                }
+                return instruction;
+            };
+            Function<byte[], MirrorInstruction> jackson = body -> validate.apply(jsonMapper.readValue(body, MirrorInstruction.class));
+            Function<byte[], MirrorInstruction> decoder = body -> validate.apply(MirrorInstructionDecoder.decode(body, 0, body.length));
+
+            if (!jackson.apply(BODY).equals(decoder.apply(BODY))) {
+                throw new AssertionError("Decoder und Jackson liefern unterschiedliche Instruktionen");
+            }
+            System.out.println();
+            report("jackson + validator", jackson);
+            report("decoder + validator", decoder);
+        }
+    }
+
+    private static void report(String name, Function<byte[], MirrorInstruction> path) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink = path.apply(BODY);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = path.apply(BODY);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-20s: %6.0f ns/op, %6d bytes/op%n", name, (double) nanos / ITERATIONS, allocated / ITERATIONS);
+    }
+}
@@ -0,0 +1,98 @@
+package com.wlanboy.mirrorservice.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.MirrorInstruction;
+
+class MirrorInstructionDecoderTest {
+
+    private static MirrorInstruction decode(String json) {
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        return MirrorInstructionDecoder.decode(data, 0, data.length);
+    }
+
+    @Test
+    void decodesFlatInstruction() {
+        MirrorInstruction instruction = decode("""
+            {
+              "statusCode": 201,
+              "waitMs": 25,
+              "responseBody": "POST-OK",
+              "responseHeaders": {"X-Test": "POST", "X-Mode": "a\\"b\\u00e4"}
+            }
+            """);
+
+        assertEquals(new MirrorInstruction(201, 25, "POST-OK", Map.of("X-Test", "POST", "X-Mode", "a\"bä"),
+            null, null, null, null, null, null), instruction);
+    }
+
+    @Test
+    void appliesRecordDefaults() {
+        MirrorInstruction instruction = decode("{\"statusCode\":0,\"waitMs\":-5,\"latency\":null,\"payload\":null,\"throttle\":null,\"rateLimit\":null,\"sequence\":null}");
+
+        assertEquals(200, instruction.statusCode());
+        assertEquals(0, instruction.waitMs());
+        assertEquals(Map.of(), instruction.responseHeaders());
+        assertNull(instruction.responseBody());
+
+        assertEquals(200, decode("{}").statusCode());
+    }
+
+    @Test
+    void passesMissingNumbersAsNullLikeJackson() {
+        assertEquals(new MirrorInstruction(null, null, "a", null, null, null, null, null, null, null),
+            decode("{\"responseBody\":\"a\"}"));
+        assertEquals(0, decode("{\"statusCode\":201}").waitMs());
+    }
+
+    @Test
+    void decodesFixtureAndRespectsOffset() {
+        byte[] data = "xx{\"fixture\":\"sample.json\"}yy".getBytes(StandardCharsets.US_ASCII);
+
+        MirrorInstruction instruction = MirrorInstructionDecoder.decode(data, 2, data.length - 4);
+
+        assertEquals("sample.json", instruction.fixture());
+    }
+
+    @Test
+    void leavesValueRangesToBeanValidation() {
+        assertEquals(99, decode("{\"statusCode\":99}").statusCode());
+        assertEquals(600, decode("{\"statusCode\":600}").statusCode());
+        assertEquals(60001, decode("{\"waitMs\":60001}").waitMs());
+        assertEquals(Integer.MAX_VALUE, decode("{\"statusCode\":2147483647}").statusCode());
+    }
+
+    @Test
+    void propagatesRecordConstructorErrors() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> decode("{\"responseBody\":\"X\",\"fixture\":\"a.json\"}"));
+
+        assertEquals("fixture schließt responseBody und payload aus", e.getMessage());
+    }
+
+    @Test
+    void leavesEverythingElseToJackson() {
+        assertNull(decode("{\"statusCode\":\"200\"}"));
+        assertNull(decode("{\"statusCode\":200.0}"));
+        assertNull(decode("{\"statusCode\":0200}"));
+        assertNull(decode("{\"statusCode\":null}"));
+        assertNull(decode("{\"statusCode\":99999999999}"));
+        assertNull(decode("{\"unknown\":1}"));
+        assertNull(decode("{\"latency\":{\"type\":\"FIXED\",\"valueMs\":5}}"));
+        assertNull(decode("{\"rateLimit\":{\"limit\":5}}"));
+        assertNull(decode("{\"sequence\":{\"steps\":[{\"statusCode\":503}]}}"));
+        assertNull(decode("{\"responseBody\":\"Grüße\"}"));
+        assertNull(decode("{\"responseHeaders\":{\"X\":null}}"));
+        assertNull(decode("{\"statusCode\":200"));
+        assertNull(decode("{\"statusCode\":200} {}"));
+        assertNull(decode("{\"responseBody\":\"a\\xb\"}"));
+        assertNull(decode(""));
+    }
+}
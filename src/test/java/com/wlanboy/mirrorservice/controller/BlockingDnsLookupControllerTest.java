@@ -0,0 +1,76 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = BlockingDnsLookupController.class, properties = "mirror.execution-mode=virtual")
+@EnableConfigurationProperties({DnsBatchProperties.class, PingBatchProperties.class})
+class BlockingDnsLookupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DnsResolver dnsResolver;
+
+    @Test
+    void testPingIsSynchronous() throws Exception {
+        InetAddress addr = InetAddress.getByName("93.184.216.34");
+        when(dnsResolver.getByName("example.com")).thenReturn(addr);
+        when(dnsResolver.isReachable(addr, 1000)).thenReturn(true);
+
+        mockMvc.perform(get("/ping/example.com"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolvedIp").value("93.184.216.34"))
+                .andExpect(jsonPath("$.reachable").value(true));
+    }
+
+    @Test
+    void testPingUnknownHost() throws Exception {
+        when(dnsResolver.getByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+
+        mockMvc.perform(get("/ping/unknown.example"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.hostname").value("unknown.example"))
+                .andExpect(jsonPath("$.reachable").value(false));
+    }
+
+    @Test
+    void testPingUnknownMode() throws Exception {
+        mockMvc.perform(get("/ping/example.com").param("mode", "udp"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testResolve() throws Exception {
+        when(dnsResolver.getAllByName("example.com")).thenReturn(new InetAddress[]{
+            InetAddress.getByName("93.184.216.34"), InetAddress.getByName("2606:2800:21f:cb07:6820:80da:af6b:8b2c")});
+
+        mockMvc.perform(get("/resolve/example.com"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("93.184.216.34"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testResolveUnknownHost() throws Exception {
+        when(dnsResolver.getAllByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+
+        mockMvc.perform(get("/resolve/unknown.example"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$[0]").value("Hostname 'unknown.example' konnte nicht aufgelöst werden."));
+    }
+}
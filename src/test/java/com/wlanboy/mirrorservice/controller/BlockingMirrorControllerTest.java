@@ -0,0 +1,79 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = BlockingMirrorController.class, properties = "mirror.execution-mode=virtual")
+@Import({InjectedDelayMetrics.class, MirrorDelayScheduler.class, ThrottledStreams.class, FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, FixtureProperties.class, RateLimitProperties.class, SequenceProperties.class})
+class BlockingMirrorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testMirrorGetIsSynchronous() throws Exception {
+        mockMvc.perform(get("/mirror")
+                .param("statusCode", "200")
+                .param("responseBody", "GET-OK"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().string("GET-OK"));
+    }
+
+    @Test
+    void testMirrorGetWithoutParametersUsesDefaults() throws Exception {
+        mockMvc.perform(get("/mirror"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/mirror").param("statusCode", "204"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testMirrorPostWithDelay() throws Exception {
+        long start = System.currentTimeMillis();
+
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {
+                      "statusCode": 503,
+                      "responseBody": "DELAYED",
+                      "waitMs": 100,
+                      "responseHeaders": { "Retry-After": "30" }
+                    }
+                    """))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(content().string("DELAYED"));
+
+        long elapsed = System.currentTimeMillis() - start;
+        assert elapsed >= 100 : "Delay should be at least 100ms, was " + elapsed + "ms";
+    }
+
+    @Test
+    void testInvalidStatusCode() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statusCode\": 42}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,19 +2,33 @@ package com.wlanboy.mirrorservice.controller;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.wlanboy.mirrorservice.dns.DnsTimeoutException;
+import com.wlanboy.mirrorservice.net.PhaseProbe;
+import com.wlanboy.mirrorservice.net.TcpConnectProber;
+
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(DnsLookupController.class)
+@EnableConfigurationProperties({DnsBatchProperties.class, PingBatchProperties.class})
 class DnsLookupControllerTest {
 
     @Autowired
@@ -71,6 +85,19 @@ class DnsLookupControllerTest {
                 .andExpect(jsonPath("$[0]").value("Hostname 'unknown.example' konnte nicht aufgelöst werden."));
     }
 
+    @Test
+    void testResolveDns_timeout() throws Exception {
+        when(dnsResolver.getAllByName("slow.example")).thenThrow(new DnsTimeoutException("slow.example"));
+
+        var result = mockMvc.perform(get("/resolve/slow.example"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$[0]").value("Kein DNS-Server hat für Hostname 'slow.example' rechtzeitig geantwortet."));
+    }
+
     // ---------------------------------------------------------
     // Ping
     // ---------------------------------------------------------
@@ -136,4 +163,250 @@ class DnsLookupControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.reachable").value(true));
     }
+
+    // ---------------------------------------------------------
+    // Ping mode=tcp
+    // ---------------------------------------------------------
+
+    @Test
+    void testPingTcp_perAddressAndPort() throws Exception {
+        InetAddress v4 = InetAddress.getByName("93.184.216.34");
+        InetAddress v6 = InetAddress.getByName("2606:2800:21f:cb07:6820:80da:af6b:8b2c");
+        when(dnsResolver.getAllByName("example.com")).thenReturn(new InetAddress[]{v4, v6});
+        when(dnsResolver.probeTcp(any(), eq(new int[]{80, 443}), eq(1000))).thenReturn(CompletableFuture.completedFuture(List.of(
+            new TcpConnectProber.ConnectResult(v4, 80, true, 12_345_678, null),
+            new TcpConnectProber.ConnectResult(v4, 443, true, 2_500_000, null),
+            new TcpConnectProber.ConnectResult(v6, 80, false, 400_000, "Network is unreachable"),
+            new TcpConnectProber.ConnectResult(v6, 443, false, 400_000, "Network is unreachable"))));
+
+        var result = mockMvc.perform(get("/ping/example.com").param("mode", "tcp").param("ports", "80", "443"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reachable").value(true))
+                .andExpect(jsonPath("$.resolvedIp").value("93.184.216.34"))
+                .andExpect(jsonPath("$.responseTimeMs").value(2))
+                .andExpect(jsonPath("$.probes.length()").value(4))
+                .andExpect(jsonPath("$.probes[0].connectTimeUs").value(12345))
+                .andExpect(jsonPath("$.probes[2].address").value("2606:2800:21f:cb07:6820:80da:af6b:8b2c"))
+                .andExpect(jsonPath("$.probes[2].connected").value(false))
+                .andExpect(jsonPath("$.probes[2].error").value("Network is unreachable"));
+    }
+
+    @Test
+    void testPingTcp_allRefused() throws Exception {
+        InetAddress addr = InetAddress.getByName("192.0.2.1");
+        when(dnsResolver.getAllByName("192.0.2.1")).thenReturn(new InetAddress[]{addr});
+        when(dnsResolver.probeTcp(any(), eq(new int[]{22}), eq(500))).thenReturn(CompletableFuture.completedFuture(List.of(
+            new TcpConnectProber.ConnectResult(addr, 22, false, 500_000_000, "timeout"))));
+
+        var result = mockMvc.perform(get("/ping/192.0.2.1").param("mode", "tcp").param("ports", "22").param("timeoutMs", "500"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isRequestTimeout())
+                .andExpect(jsonPath("$.reachable").value(false))
+                .andExpect(jsonPath("$.responseTimeMs").value(500))
+                .andExpect(jsonPath("$.probes[0].error").value("timeout"));
+    }
+
+    @Test
+    void testPingTcp_withoutPorts() throws Exception {
+        mockMvc.perform(get("/ping/example.com").param("mode", "tcp"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPing_unknownMode() throws Exception {
+        mockMvc.perform(get("/ping/example.com").param("mode", "udp"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // Ping mode=detailed
+    // ---------------------------------------------------------
+
+    @Test
+    void testPingDetailed_allPhases() throws Exception {
+        InetAddress addr = InetAddress.getByName("93.184.216.34");
+        when(dnsResolver.probePhases(new PhaseProbe.Request("example.com", 443, true, "/", 1000))).thenReturn(
+            new PhaseProbe.Result(addr, 800_000, 11_000_000, 24_000_000, 18_000_000, "TLSv1.3", 301, null, null));
+
+        var result = mockMvc.perform(get("/ping/example.com").param("mode", "detailed").param("httpPath", "/"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reachable").value(true))
+                .andExpect(jsonPath("$.resolvedIp").value("93.184.216.34"))
+                .andExpect(jsonPath("$.responseTimeMs").value(53))
+                .andExpect(jsonPath("$.phases.dnsUs").value(800))
+                .andExpect(jsonPath("$.phases.connectUs").value(11000))
+                .andExpect(jsonPath("$.phases.tlsUs").value(24000))
+                .andExpect(jsonPath("$.phases.firstByteUs").value(18000))
+                .andExpect(jsonPath("$.phases.totalUs").value(53800))
+                .andExpect(jsonPath("$.phases.tlsProtocol").value("TLSv1.3"))
+                .andExpect(jsonPath("$.phases.httpStatus").value(301))
+                .andExpect(jsonPath("$.phases.failedPhase").doesNotExist())
+                .andExpect(jsonPath("$.probes").doesNotExist());
+    }
+
+    @Test
+    void testPingDetailed_connectFailed() throws Exception {
+        InetAddress addr = InetAddress.getByName("192.0.2.1");
+        when(dnsResolver.probePhases(new PhaseProbe.Request("192.0.2.1", 8080, false, null, 1000))).thenReturn(
+            new PhaseProbe.Result(addr, 0, -1, -1, -1, null, 0, PhaseProbe.Phase.CONNECT, "Connect timed out"));
+
+        var result = mockMvc.perform(get("/ping/192.0.2.1").param("mode", "detailed").param("port", "8080"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isRequestTimeout())
+                .andExpect(jsonPath("$.reachable").value(false))
+                .andExpect(jsonPath("$.phases.dnsUs").value(0))
+                .andExpect(jsonPath("$.phases.connectUs").doesNotExist())
+                .andExpect(jsonPath("$.phases.tlsUs").doesNotExist())
+                .andExpect(jsonPath("$.phases.failedPhase").value("CONNECT"))
+                .andExpect(jsonPath("$.phases.error").value("Connect timed out"));
+    }
+
+    @Test
+    void testPingDetailed_unknownHost() throws Exception {
+        when(dnsResolver.probePhases(any())).thenThrow(new UnknownHostException("unbekannt.local"));
+
+        var result = mockMvc.perform(get("/ping/unbekannt.local").param("mode", "detailed"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testPingDetailed_invalidPath() throws Exception {
+        mockMvc.perform(get("/ping/example.com").param("mode", "detailed").param("httpPath", "/a b"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // Batch Resolve
+    // ---------------------------------------------------------
+
+    @Test
+    void testResolveBatch_mixedResults() throws Exception {
+        InetAddress addr = InetAddress.getByName("93.184.216.34");
+        when(dnsResolver.getAllByName("example.com")).thenReturn(new InetAddress[]{addr});
+        when(dnsResolver.getAllByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+
+        var result = mockMvc.perform(post("/resolve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[\"example.com\", \"unknown.example\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"hostname\":\"example.com\",\"status\":\"RESOLVED\",\"addresses\":[\"93.184.216.34\"]")))
+                .andExpect(content().string(containsString("\"hostname\":\"unknown.example\",\"status\":\"NOT_FOUND\"")));
+    }
+
+    @Test
+    void testResolveBatch_deadlineReportsTimeout() throws Exception {
+        InetAddress addr = InetAddress.getByName("93.184.216.34");
+        when(dnsResolver.getAllByName("example.com")).thenReturn(new InetAddress[]{addr});
+        when(dnsResolver.getAllByName("slow.example")).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new InetAddress[]{addr};
+        });
+
+        var result = mockMvc.perform(post("/resolve")
+                .param("deadlineMs", "200")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[\"slow.example\", \"example.com\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"hostname\":\"example.com\",\"status\":\"RESOLVED\"")))
+                .andExpect(content().string(containsString("\"hostname\":\"slow.example\",\"status\":\"TIMEOUT\"")));
+    }
+
+    @Test
+    void testResolveBatch_emptyList() throws Exception {
+        mockMvc.perform(post("/resolve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // Batch Ping
+    // ---------------------------------------------------------
+
+    @Test
+    void testPingBatch_streamsEveryHost() throws Exception {
+        InetAddress fast = InetAddress.getByName("93.184.216.34");
+        InetAddress down = InetAddress.getByName("192.0.2.1");
+        when(dnsResolver.getByName("example.com")).thenReturn(fast);
+        when(dnsResolver.getByName("192.0.2.1")).thenReturn(down);
+        when(dnsResolver.getByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+        when(dnsResolver.isReachable(fast, 1000)).thenReturn(true);
+        when(dnsResolver.isReachable(down, 1000)).thenReturn(false);
+
+        var result = mockMvc.perform(post("/ping")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[\"example.com\", \"192.0.2.1\", \"unknown.example\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"hostname\":\"example.com\",\"resolvedIp\":\"93.184.216.34\",\"reachable\":true")))
+                .andExpect(content().string(containsString("\"hostname\":\"192.0.2.1\",\"resolvedIp\":\"192.0.2.1\",\"reachable\":false")))
+                .andExpect(content().string(containsString("\"hostname\":\"unknown.example\",\"resolvedIp\":null,\"reachable\":false")));
+    }
+
+    @Test
+    void testPingBatch_probesRunConcurrently() throws Exception {
+        InetAddress addr = InetAddress.getByName("93.184.216.34");
+        when(dnsResolver.getByName(any())).thenReturn(addr);
+        when(dnsResolver.isReachable(addr, 1000)).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return true;
+        });
+
+        long start = System.nanoTime();
+        var result = mockMvc.perform(post("/ping")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[\"a.example\", \"b.example\", \"c.example\", \"d.example\", \"e.example\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"hostname\":\"e.example\"")));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 1200, "Fünf Proben à 300ms müssen parallel laufen, Dauer: " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testPingBatch_tcpWithoutPorts() throws Exception {
+        mockMvc.perform(post("/ping")
+                .param("mode", "tcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("[\"example.com\"]"))
+                .andExpect(status().isBadRequest());
+    }
 }
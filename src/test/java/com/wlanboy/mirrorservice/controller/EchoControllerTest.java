@@ -0,0 +1,124 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.wlanboy.mirrorservice.echo.EchoStreams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EchoController.class)
+@Import({EchoStreams.class, TestMetricsConfiguration.class})
+class EchoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static MvcResult awaitCompletion(MvcResult result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (result.getRequest().isAsyncStarted() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(result.getRequest().isAsyncStarted(), "Echo sollte abgeschlossen sein");
+        return result;
+    }
+
+    // ---------------------------------------------------------
+    // Body
+    // ---------------------------------------------------------
+
+    @Test
+    void testEchoBinaryBody() throws Exception {
+        byte[] body = new byte[200_000];
+        new Random(7).nextBytes(body);
+        double bytesBefore = meterRegistry.get("mirror.echo.bytes").functionCounter().count();
+
+        MvcResult result = awaitCompletion(mockMvc.perform(put("/mirror/echo")
+                .contentType("application/x-test")
+                .header("Content-Encoding", "identity")
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-test"))
+                .andExpect(header().longValue("Content-Length", body.length))
+                .andExpect(header().string("Content-Encoding", "identity"))
+                .andExpect(header().doesNotExist("X-Echo-Meta-Length"))
+                .andReturn());
+
+        assertArrayEquals(body, result.getResponse().getContentAsByteArray());
+        assertEquals(bytesBefore + body.length, meterRegistry.get("mirror.echo.bytes").functionCounter().count(), 0.0);
+        assertEquals(0.0, meterRegistry.get("mirror.echo.active").gauge().value(), 0.0);
+    }
+
+    @Test
+    void testEchoEmptyBody() throws Exception {
+        MvcResult result = awaitCompletion(mockMvc.perform(get("/mirror/echo"))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+    }
+
+    // ---------------------------------------------------------
+    // Metadaten
+    // ---------------------------------------------------------
+
+    @Test
+    void testEchoWithHeaderBlock() throws Exception {
+        MvcResult result = awaitCompletion(mockMvc.perform(post("/mirror/echo/headers?trace=1")
+                .header("X-Forwarded-For", "10.0.0.1")
+                .contentType("text/plain")
+                .content("hello"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "message/http"))
+                .andReturn());
+
+        String response = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        int metaLength = Integer.parseInt(result.getResponse().getHeader("X-Echo-Meta-Length"));
+
+        assertTrue(response.startsWith("POST /mirror/echo/headers?trace=1 HTTP/1.1\r\n"), response);
+        assertTrue(response.contains("X-Forwarded-For: 10.0.0.1\r\n"), response);
+        assertTrue(response.substring(0, metaLength).endsWith("\r\n\r\n"));
+        assertEquals("hello", response.substring(metaLength));
+        assertEquals(metaLength + 5, result.getResponse().getContentLengthLong());
+    }
+
+    @Test
+    void testEchoWithJsonEnvelope() throws Exception {
+        MvcResult result = awaitCompletion(mockMvc.perform(post("/mirror/echo/json")
+                .contentType("application/json")
+                .content("{\"a\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/octet-stream"))
+                .andReturn());
+
+        String response = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        int metaLength = Integer.parseInt(result.getResponse().getHeader("X-Echo-Meta-Length"));
+        String meta = response.substring(0, metaLength);
+
+        assertTrue(meta.startsWith("{\"method\":\"POST\",\"target\":\"/mirror/echo/json\""), meta);
+        assertTrue(meta.contains("\"contentLength\":7"), meta);
+        assertTrue(meta.endsWith("}\n"), meta);
+        assertEquals("{\"a\":1}", response.substring(metaLength));
+    }
+
+    @Test
+    void testUnknownFormat() throws Exception {
+        mockMvc.perform(post("/mirror/echo/xml").content("x"))
+                .andExpect(status().isBadRequest());
+    }
+}
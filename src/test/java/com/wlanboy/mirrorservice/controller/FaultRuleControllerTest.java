@@ -0,0 +1,125 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.wlanboy.mirrorservice.fault.FaultInjectionConfig;
+import com.wlanboy.mirrorservice.fault.FaultRules;
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = {FaultRuleController.class, MirrorController.class}, properties = "mirror.fixtures.directory=src/test/resources/fixtures")
+@Import({FaultRules.class, FaultInjectionConfig.class, InjectedDelayMetrics.class, MirrorDelayScheduler.class,
+    ThrottledStreams.class, FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, FixtureProperties.class, RateLimitProperties.class, SequenceProperties.class})
+class FaultRuleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FaultRules faultRules;
+
+    @AfterEach
+    void clearRules() {
+        faultRules.replace(List.of());
+    }
+
+    private void replace(String json) throws Exception {
+        mockMvc.perform(put("/mirror/faults")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testReplaceListAndClear() throws Exception {
+        mockMvc.perform(put("/mirror/faults")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": \"flaky\", \"type\": \"ERROR\", \"method\": \"post\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rule.id").value("flaky"))
+                .andExpect(jsonPath("$[0].rule.method").value("POST"))
+                .andExpect(jsonPath("$[0].rule.pathPrefix").value("/mirror"))
+                .andExpect(jsonPath("$[0].rule.status").value(503))
+                .andExpect(jsonPath("$[0].hits").value(0));
+
+        mockMvc.perform(delete("/mirror/faults"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/mirror/faults"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() throws Exception {
+        mockMvc.perform(put("/mirror/faults")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": \"a\", \"type\": \"ERROR\"}, {\"id\": \"a\", \"type\": \"RESET\"}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/mirror/faults")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\": \"a\", \"type\": \"ERROR\", \"rate\": 2}]"))
+                .andExpect(status().isBadRequest());
+        assertTrue(faultRules.rules().isEmpty());
+    }
+
+    @Test
+    void testErrorRuleAnswersBeforeMirror() throws Exception {
+        replace("[{\"id\": \"chaos\", \"type\": \"ERROR\", \"status\": 502, \"headers\": {\"X-Chaos\": \"on\"}}]");
+
+        mockMvc.perform(get("/mirror").header("X-Chaos", "on"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadGateway())
+                .andExpect(header().string("X-Fault-Rule", "chaos"));
+
+        var passed = mockMvc.perform(get("/mirror").param("statusCode", "201").param("responseBody", "through"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(passed))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("X-Fault-Rule"))
+                .andExpect(content().string("through"));
+
+        mockMvc.perform(get("/mirror/faults"))
+                .andExpect(jsonPath("$[0].hits").value(1));
+    }
+
+    @Test
+    void testResetRuleAbortsConnection() throws Exception {
+        replace("[{\"id\": \"reset\", \"type\": \"RESET\", \"method\": \"GET\"}]");
+
+        var result = mockMvc.perform(get("/mirror"))
+                .andExpect(request().asyncNotStarted())
+                .andReturn();
+
+        assertEquals(-1, result.getResponse().getStatus());
+    }
+
+    @Test
+    void testAdminPathIsNotAffected() throws Exception {
+        replace("[{\"id\": \"all\", \"type\": \"ERROR\", \"pathPrefix\": \"/\"}]");
+
+        mockMvc.perform(get("/mirror/faults"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/mirror/faults"))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,95 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencySpecTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private static LatencySpec spec(LatencySpec.Type type) {
+        return new LatencySpec(type, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static long[] sample(LatencySpec spec) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            values[i] = spec.sampleMs(random);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    @Test
+    void testFixed() {
+        var spec = new LatencySpec(LatencySpec.Type.FIXED, 120.0, null, null, null, null, null, null, null, null, null);
+        assertEquals(120, spec.sampleMs(new SplittableRandom()));
+    }
+
+    @Test
+    void testUniformStaysInBounds() {
+        var spec = new LatencySpec(LatencySpec.Type.UNIFORM, null, 10.0, 20.0, null, null, null, null, null, null, null);
+        long[] values = sample(spec);
+        assertEquals(10, values[0]);
+        assertEquals(20, values[values.length - 1]);
+        assertEquals(15, percentile(values, 0.5), 1);
+    }
+
+    @Test
+    void testNormalIsClampedAtZero() {
+        var spec = new LatencySpec(LatencySpec.Type.NORMAL, null, null, null, 20.0, 20.0, null, null, null, null, null);
+        long[] values = sample(spec);
+        assertEquals(0, values[0]);
+        assertEquals(20, percentile(values, 0.5), 1);
+        assertEquals(20 + 2.326 * 20, percentile(values, 0.99), 2);
+    }
+
+    @Test
+    void testLogNormalPercentiles() {
+        var spec = new LatencySpec(LatencySpec.Type.LOG_NORMAL, null, null, null, null, null, 50.0, 0.8, null, null, null);
+        long[] values = sample(spec);
+        assertEquals(50, percentile(values, 0.5), 2);
+        assertEquals(50 * Math.exp(0.8 * 2.326), percentile(values, 0.99), 15);
+    }
+
+    @Test
+    void testParetoTail() {
+        var spec = new LatencySpec(LatencySpec.Type.PARETO, null, null, null, null, null, null, null, 20.0, 1.5, null);
+        long[] values = sample(spec);
+        assertEquals(20, values[0]);
+        // p99 = x_m / (0.01)^(1/alpha)
+        assertEquals(20 / Math.pow(0.01, 1 / 1.5), percentile(values, 0.99), 20);
+    }
+
+    @Test
+    void testEmpiricalInterpolatesTable() {
+        Map<Double, Double> table = Map.of(50.0, 20.0, 90.0, 80.0, 99.0, 400.0, 100.0, 2000.0);
+        var spec = new LatencySpec(LatencySpec.Type.EMPIRICAL, null, null, null, null, null, null, null, null, null, new TreeMap<>(table));
+        long[] values = sample(spec);
+        assertEquals(20, percentile(values, 0.5), 1);
+        assertEquals(80, percentile(values, 0.9), 2);
+        assertEquals(400, percentile(values, 0.99), 10);
+        assertTrue(values[values.length - 1] <= 2000);
+    }
+
+    @Test
+    void testMissingParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> spec(null));
+        assertThrows(IllegalArgumentException.class, () -> spec(LatencySpec.Type.FIXED));
+        assertThrows(IllegalArgumentException.class, () -> spec(LatencySpec.Type.LOG_NORMAL));
+        assertThrows(IllegalArgumentException.class, () -> spec(LatencySpec.Type.EMPIRICAL));
+        assertThrows(IllegalArgumentException.class,
+            () -> new LatencySpec(LatencySpec.Type.UNIFORM, null, 100.0, 10.0, null, null, null, null, null, null, null));
+    }
+}
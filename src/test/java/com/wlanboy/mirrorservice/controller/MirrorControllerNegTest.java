@@ -1,16 +1,33 @@
 package com.wlanboy.mirrorservice.controller;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(MirrorController.class)
+@Import({InjectedDelayMetrics.class, MirrorDelayScheduler.class, ThrottledStreams.class, FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, FixtureProperties.class, RateLimitProperties.class, SequenceProperties.class})
 class MirrorControllerNegTest {
 
     @Autowired
@@ -212,4 +229,145 @@ class MirrorControllerNegTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(""));
     }
+
+    // ---------------------------------------------------------
+    // 16 — Latenzverteilung ohne Pflichtparameter → 400
+    // ---------------------------------------------------------
+    @Test
+    void testLatencyWithoutParameters() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {
+                      "statusCode": 200,
+                      "latency": { "type": "LOG_NORMAL", "medianMs": 50 }
+                    }
+                    """))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 17 — responseBody und payload gleichzeitig → 400
+    // ---------------------------------------------------------
+    @Test
+    void testResponseBodyAndPayload() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {
+                      "statusCode": 200,
+                      "responseBody": "OK",
+                      "payload": { "sizeBytes": 1024 }
+                    }
+                    """))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 18 — Payload über dem Maximum → 400
+    // ---------------------------------------------------------
+    @Test
+    void testPayloadTooLarge() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"payload\": { \"sizeBytes\": 17179869185 }}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 19 — Drosselung ohne gültige Rate → 400
+    // ---------------------------------------------------------
+    @Test
+    void testThrottleWithoutRate() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {
+                      "statusCode": 200,
+                      "responseBody": "OK",
+                      "throttle": { "bytesPerSecond": 0 }
+                    }
+                    """))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 20 — fixture zusammen mit responseBody → 400
+    // ---------------------------------------------------------
+    @Test
+    void testFixtureAndResponseBody() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"responseBody\": \"OK\", \"fixture\": \"sample.json\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 21 — fixture außerhalb des Verzeichnisses → 400
+    // ---------------------------------------------------------
+    @Test
+    void testFixtureOutsideDirectory() throws Exception {
+        mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fixture\": \"../etc/passwd\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // 22 — unbekannte fixture → 404
+    // ---------------------------------------------------------
+    @Test
+    void testUnknownFixture() throws Exception {
+        var result = mockMvc.perform(get("/mirror?fixture=missing.json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    // ---------------------------------------------------------
+    // 23 — Decoder und Jackson-Rückfall: dieselbe Validierung
+    // ---------------------------------------------------------
+    @Test
+    void testRangeViolationsMatchJacksonFallback() throws Exception {
+        for (String field : List.of("\"statusCode\": 99", "\"statusCode\": 600", "\"waitMs\": 60001")) {
+            // ASCII-Body nimmt der Decoder, Nicht-ASCII geht an Jackson
+            MvcResult decoded = postInvalid("{" + field + ", \"responseBody\": \"a\"}");
+            MvcResult fallback = postInvalid("{" + field + ", \"responseBody\": \"\u00e4\"}");
+
+            assertInstanceOf(MethodArgumentNotValidException.class, decoded.getResolvedException(), field);
+            assertInstanceOf(MethodArgumentNotValidException.class, fallback.getResolvedException(), field);
+            assertEquals(fieldErrors(decoded), fieldErrors(fallback), field);
+            assertEquals(decoded.getResponse().getContentAsString(), fallback.getResponse().getContentAsString(), field);
+        }
+
+        // negative oder fehlende Zahlen setzt der Record auf die Defaults, auf beiden Pfaden
+        for (String fields : List.of("\"waitMs\": -1, ", "\"statusCode\": 200, ", "")) {
+            for (String body : List.of("a", "\u00e4")) {
+                var result = mockMvc.perform(post("/mirror")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{" + fields + "\"responseBody\": \"" + body + "\"}"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                        .andExpect(status().isOk());
+            }
+        }
+    }
+
+    private MvcResult postInvalid(String content) throws Exception {
+        return mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+    }
+
+    private static List<String> fieldErrors(MvcResult result) {
+        return ((MethodArgumentNotValidException) result.getResolvedException()).getFieldErrors().stream()
+            .map(error -> error.getField() + ": " + error.getDefaultMessage())
+            .toList();
+    }
 }
@@ -2,19 +2,39 @@ package com.wlanboy.mirrorservice.controller;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(MirrorController.class)
+@WebMvcTest(value = MirrorController.class, properties = "mirror.fixtures.directory=src/test/resources/fixtures")
+@Import({InjectedDelayMetrics.class, MirrorDelayScheduler.class, ThrottledStreams.class, FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, FixtureProperties.class, RateLimitProperties.class, SequenceProperties.class})
 class MirrorControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // ---------------------------------------------------------
     // GET
     // ---------------------------------------------------------
@@ -173,4 +193,275 @@ class MirrorControllerTest {
         long elapsed = System.currentTimeMillis() - start;
         assert elapsed >= 100 : "Delay should be at least 100ms, was " + elapsed + "ms";
     }
+
+    // ---------------------------------------------------------
+    // Latenzverteilung
+    // ---------------------------------------------------------
+    @Test
+    void testMirrorWithLatencyDistribution() throws Exception {
+        String json = """
+            {
+              "statusCode": 200,
+              "responseBody": "SAMPLED",
+              "latency": {
+                "type": "UNIFORM",
+                "minMs": 50,
+                "maxMs": 80
+              }
+            }
+            """;
+
+        long start = System.currentTimeMillis();
+
+        var result = mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("SAMPLED"));
+
+        long elapsed = System.currentTimeMillis() - start;
+        assert elapsed >= 50 : "Delay should be at least 50ms, was " + elapsed + "ms";
+
+        Timer timer = meterRegistry.get("mirror.delay.injected").tag("distribution", "uniform").timer();
+        assert timer.count() == 1 : "Injected delay should be recorded once, was " + timer.count();
+        assert timer.max(TimeUnit.MILLISECONDS) >= 50 : "Recorded delay should be at least 50ms";
+    }
+
+    // ---------------------------------------------------------
+    // Generierter Payload
+    // ---------------------------------------------------------
+    @Test
+    void testMirrorWithGeneratedPayload() throws Exception {
+        String json = """
+            {
+              "statusCode": 200,
+              "payload": { "sizeBytes": 3145728, "pattern": "ZEROS" }
+            }
+            """;
+
+        var result = mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/octet-stream"))
+                .andExpect(header().longValue("Content-Length", 3145728))
+                .andReturn().getResponse();
+
+        assert response.getContentAsByteArray().length == 3145728 : "Body should be 3 MiB";
+    }
+
+    @Test
+    void testMirrorWithChunkedJsonPayload() throws Exception {
+        String json = """
+            {
+              "statusCode": 200,
+              "payload": { "sizeBytes": 1000, "pattern": "JSON_ARRAY", "chunkSize": 128 }
+            }
+            """;
+
+        var result = mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Length"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].name").value("mirror"));
+    }
+
+    // ---------------------------------------------------------
+    // Gedrosselte Antwort
+    // ---------------------------------------------------------
+    @Test
+    void testMirrorWithThrottledBody() throws Exception {
+        String json = """
+            {
+              "statusCode": 200,
+              "responseBody": "0123456789",
+              "throttle": { "bytesPerSecond": 100, "firstByteMs": 100, "chunkSize": 5 }
+            }
+            """;
+
+        var result = mockMvc.perform(post("/mirror")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long start = System.nanoTime();
+        var dispatched = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", 10))
+                .andReturn();
+
+        long deadline = start + TimeUnit.SECONDS.toNanos(5);
+        while (dispatched.getRequest().isAsyncStarted() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assert !dispatched.getRequest().isAsyncStarted() : "Throttled stream should complete";
+        assert dispatched.getResponse().getContentAsString().equals("0123456789") : "Body should be complete";
+        assert elapsedMs >= 150 : "First byte after 100ms plus 5 bytes at 100 B/s, was " + elapsedMs + "ms";
+    }
+
+    // ---------------------------------------------------------
+    // Fixtures
+    // ---------------------------------------------------------
+    @Test
+    void testMirrorWithFixture() throws Exception {
+        var result = mockMvc.perform(get("/mirror?fixture=sample.json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().longValue("Content-Length", 37))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.fixture").value("sample"));
+    }
+
+    @Test
+    void testMirrorWithFixtureInBodyIgnoresRange() throws Exception {
+        var result = mockMvc.perform(post("/mirror").header("Range", "bytes=2-8")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fixture\": \"sample.json\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Range"))
+                .andExpect(header().longValue("Content-Length", 37))
+                .andExpect(jsonPath("$.values[2]").value(3));
+    }
+
+    @Test
+    void testMirrorWithFixtureRange() throws Exception {
+        var result = mockMvc.perform(get("/mirror?fixture=sample.json").header("Range", "bytes=2-8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-8/37"))
+                .andExpect(header().longValue("Content-Length", 7))
+                .andExpect(content().string("fixture"));
+    }
+
+    @Test
+    void testMirrorWithUnsatisfiableFixtureRange() throws Exception {
+        var result = mockMvc.perform(get("/mirror?fixture=sample.json").header("Range", "bytes=100-"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */37"));
+    }
+
+    @Test
+    void testMirrorWithFixtureIgnoresRangeForOtherStatus() throws Exception {
+        var result = mockMvc.perform(get("/mirror?fixture=sample.json&statusCode=500").header("Range", "bytes=0-0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().longValue("Content-Length", 37));
+    }
+
+    // ---------------------------------------------------------
+    // Rate-Limit
+    // ---------------------------------------------------------
+    @Test
+    void testMirrorRateLimitPerHeaderKey() throws Exception {
+        String json = """
+            {
+              "statusCode": 200,
+              "responseBody": "OK",
+              "rateLimit": {"limit": 1, "windowMs": 60000, "key": "HEADER", "name": "rate-limit-test"}
+            }
+            """;
+        double rejectedBefore = meterRegistry.get("mirror.ratelimit.requests").tag("outcome", "rejected").functionCounter().count();
+
+        var first = mockMvc.perform(post("/mirror").header("X-Client-Id", "a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "1"))
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(header().string("RateLimit-Policy", "1;w=60"));
+
+        var second = mockMvc.perform(post("/mirror").header("X-Client-Id", "a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(second))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"))
+                .andExpect(header().string("RateLimit-Remaining", "0"));
+
+        var other = mockMvc.perform(post("/mirror").header("X-Client-Id", "b")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(other))
+                .andExpect(status().isOk());
+
+        double rejected = meterRegistry.get("mirror.ratelimit.requests").tag("outcome", "rejected").functionCounter().count() - rejectedBefore;
+        assert rejected == 1 : "Rejected request should be counted once, was " + rejected;
+    }
+
+    @Test
+    void testMirrorRateLimitReadmeExample() throws Exception {
+        String json = "{\"statusCode\":200,\"responseBody\":\"ok\",\"rateLimit\":{\"limit\":5,\"windowMs\":1000,\"key\":\"HEADER\"}}";
+
+        var first = mockMvc.perform(post("/mirror").header("X-Client-Id", "app-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "5"))
+                .andExpect(header().string("RateLimit-Policy", "5;w=1"))
+                .andExpect(header().exists("RateLimit-Reset"))
+                .andExpect(content().string("ok"));
+
+        // Der Bucket füllt sich alle 200ms um einen Token auf; spätestens nach 50 Requests ist er leer
+        int status = 200;
+        for (int i = 0; i < 50 && status == 200; i++) {
+            var next = mockMvc.perform(post("/mirror").header("X-Client-Id", "app-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            var response = mockMvc.perform(asyncDispatch(next)).andReturn().getResponse();
+            status = response.getStatus();
+            if (status == 429) {
+                assert "1".equals(response.getHeader("Retry-After")) : "Retry-After should be 1s, was " + response.getHeader("Retry-After");
+                assert "0".equals(response.getHeader("RateLimit-Remaining")) : "Empty bucket should report 0 remaining";
+            }
+        }
+        assert status == 429 : "Bucket with limit 5 should run empty, last status was " + status;
+    }
 }
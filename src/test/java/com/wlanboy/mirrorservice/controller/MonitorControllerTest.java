@@ -0,0 +1,73 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.wlanboy.mirrorservice.monitor.LatencyHistory;
+import com.wlanboy.mirrorservice.monitor.MonitorProperties;
+import com.wlanboy.mirrorservice.monitor.ReachabilityMonitor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MonitorController.class)
+class MonitorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReachabilityMonitor monitor;
+
+    private final MonitorProperties.Target gateway = new MonitorProperties.Target("gateway", "192.168.100.1", "tcp", List.of(22, 443));
+    private final LatencyHistory.Stats stats = new LatencyHistory.Stats(30, 29, 29 / 30.0, 790, 1210, 2304, true, 812, 1_760_777_400L);
+
+    @Test
+    void testStatuses() throws Exception {
+        when(monitor.statuses()).thenReturn(List.of(new ReachabilityMonitor.TargetStats(gateway, Duration.ofMinutes(15), stats)));
+
+        mockMvc.perform(get("/monitor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("gateway"))
+                .andExpect(jsonPath("$[0].ports[1]").value(443))
+                .andExpect(jsonPath("$[0].up").value(true))
+                .andExpect(jsonPath("$[0].windowSeconds").value(900))
+                .andExpect(jsonPath("$[0].p95Us").value(1210));
+    }
+
+    @Test
+    void testStatusWithWindow() throws Exception {
+        when(monitor.status(eq("gateway"), eq(Duration.ofHours(1))))
+            .thenReturn(Optional.of(new ReachabilityMonitor.TargetStats(gateway, Duration.ofHours(1), stats)));
+
+        mockMvc.perform(get("/monitor/gateway").param("windowSeconds", "3600"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowSeconds").value(3600))
+                .andExpect(jsonPath("$.samples").value(30))
+                .andExpect(jsonPath("$.p99Us").value(2304));
+    }
+
+    @Test
+    void testUnknownTarget() throws Exception {
+        when(monitor.status(any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/monitor/unbekannt").param("windowSeconds", "60"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testInvalidWindow() throws Exception {
+        mockMvc.perform(get("/monitor/gateway").param("windowSeconds", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,96 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.wlanboy.mirrorservice.fixture.FixtureProperties;
+import com.wlanboy.mirrorservice.fixture.FixtureStore;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.recorder.RecorderProperties;
+import com.wlanboy.mirrorservice.recorder.RequestRecorder;
+import com.wlanboy.mirrorservice.recorder.RequestRecordingConfig;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.throttle.ThrottledStreams;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = {RecordingController.class, MirrorController.class},
+    properties = {"mirror.recorder.enabled=true", "mirror.recorder.max-body-bytes=16"})
+@Import({RequestRecorder.class, RequestRecordingConfig.class, InjectedDelayMetrics.class, MirrorDelayScheduler.class,
+    ThrottledStreams.class, FixtureStore.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({RecorderProperties.class, MirrorTimerProperties.class, FixtureProperties.class, RateLimitProperties.class,
+    SequenceProperties.class})
+class RecordingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestRecorder recorder;
+
+    @AfterEach
+    void clearRecordings() {
+        recorder.clear();
+    }
+
+    private void mirror(String json) throws Exception {
+        var result = mockMvc.perform(post("/mirror")
+                .header("X-Client-Id", "app-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+    }
+
+    private String export(String query) throws Exception {
+        var result = mockMvc.perform(get("/mirror/recordings" + query))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void testExportsRecordedRequestsAsNdjson() throws Exception {
+        mirror("{\"statusCode\": 201, \"responseBody\": \"created\"}");
+        mirror("{\"statusCode\": 503}");
+
+        String[] lines = export("").strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"request_id\":\"req-"), lines[0]);
+        assertTrue(lines[0].contains("\"title\":\"POST /mirror -> 201\""), lines[0]);
+        assertTrue(lines[0].contains("\"body\":\"{\\\"statusCode\\\": 2\""), lines[0]);
+        assertTrue(lines[0].contains("\"bodyTruncated\":true"), lines[0]);
+        assertTrue(lines[0].contains("\"X-Client-Id\":\"app-1\""), lines[0]);
+        assertTrue(lines[1].contains("\"status\":503"), lines[1]);
+    }
+
+    @Test
+    void testFiltersAndClear() throws Exception {
+        mirror("{\"statusCode\": 200}");
+        mirror("{\"statusCode\": 502}");
+
+        String failed = export("?status=5xx&path=/mirror");
+        assertEquals(1, failed.strip().split("\n").length);
+        assertTrue(failed.contains("-> 502"), failed);
+
+        mockMvc.perform(get("/mirror/recordings").param("status", "teapot"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/mirror/recordings"))
+                .andExpect(status().isNoContent());
+        assertEquals("", export("").strip(), "Export and clear calls must not be recorded");
+    }
+}
@@ -0,0 +1,191 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.wlanboy.mirrorservice.ratelimit.RateLimitProperties;
+import com.wlanboy.mirrorservice.ratelimit.RateLimiter;
+import com.wlanboy.mirrorservice.sequence.SequenceCursors;
+import com.wlanboy.mirrorservice.sequence.SequenceProperties;
+import com.wlanboy.mirrorservice.scenario.ScenarioRegistry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({ScenarioController.class, ScenarioServeController.class})
+@Import({ScenarioRegistry.class, InjectedDelayMetrics.class, MirrorDelayScheduler.class, RateLimiter.class, SequenceCursors.class, TestMetricsConfiguration.class})
+@EnableConfigurationProperties({MirrorTimerProperties.class, RateLimitProperties.class, SequenceProperties.class})
+class ScenarioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private void register(String id, String json) throws Exception {
+        mockMvc.perform(put("/mirror/scenarios/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    // ---------------------------------------------------------
+    // CRUD
+    // ---------------------------------------------------------
+
+    @Test
+    void testCreateReplaceAndDelete() throws Exception {
+        mockMvc.perform(put("/mirror/scenarios/crud")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statusCode\": 503, \"responseBody\": \"down\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("crud"))
+                .andExpect(jsonPath("$.instruction.statusCode").value(503));
+
+        mockMvc.perform(put("/mirror/scenarios/crud")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statusCode\": 200, \"responseBody\": \"up\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/mirror/scenarios/crud"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.instruction.responseBody").value("up"));
+
+        mockMvc.perform(get("/mirror/scenarios"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 'crud')]").exists());
+
+        mockMvc.perform(delete("/mirror/scenarios/crud"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/mirror/scenarios/crud"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/mirror/s/crud"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testInvalidInstructionIsRejected() throws Exception {
+        mockMvc.perform(put("/mirror/scenarios/invalid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statusCode\": 42}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testInvalidIdIsRejected() throws Exception {
+        mockMvc.perform(put("/mirror/scenarios/a b")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"statusCode\": 200}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ---------------------------------------------------------
+    // Ausliefern
+    // ---------------------------------------------------------
+
+    @Test
+    void testServeWithoutDelay() throws Exception {
+        register("json-ok", """
+            {
+              "statusCode": 201,
+              "responseBody": "{\\"result\\": \\"ok\\"}",
+              "responseHeaders": {
+                "Content-Type": "application/json",
+                "X-Scenario": "json-ok"
+              }
+            }
+            """);
+
+        mockMvc.perform(post("/mirror/s/json-ok"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-Scenario", "json-ok"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("{\"result\": \"ok\"}"));
+        mockMvc.perform(get("/mirror/s/json-ok"))
+                .andExpect(status().isCreated());
+
+        assertEquals(2.0, meterRegistry.get("mirror.scenario.requests").tag("scenario", "json-ok").functionCounter().count());
+    }
+
+    @Test
+    void testServeWithDelay() throws Exception {
+        register("delayed", "{\"statusCode\": 504, \"waitMs\": 100, \"responseBody\": \"late\"}");
+
+        long start = System.currentTimeMillis();
+        var result = mockMvc.perform(get("/mirror/s/delayed"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long deadline = start + 5000;
+        while (result.getRequest().isAsyncStarted() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed >= 100, "Delay should be at least 100ms, was " + elapsed + "ms");
+        assertEquals(504, result.getResponse().getStatus());
+        assertEquals("late", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void testServeSequencePerClient() throws Exception {
+        register("retry", """
+            {
+              "statusCode": 200,
+              "responseBody": "ok",
+              "sequence": {
+                "steps": [{"statusCode": 503, "responseBody": "busy", "times": 2}, {"statusCode": 200}],
+                "key": "HEADER"
+              }
+            }
+            """);
+
+        mockMvc.perform(get("/mirror/s/retry").header("X-Client-Id", "a"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("X-Sequence-Step", "1"))
+                .andExpect(content().string("busy"));
+        mockMvc.perform(get("/mirror/s/retry").header("X-Client-Id", "a"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/mirror/s/retry").header("X-Client-Id", "b"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/mirror/s/retry").header("X-Client-Id", "a"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Sequence-Step", "2"))
+                .andExpect(content().string("ok"));
+        mockMvc.perform(get("/mirror/s/retry").header("X-Client-Id", "a"))
+                .andExpect(status().isOk());
+
+        assertEquals(5.0, meterRegistry.get("mirror.scenario.requests").tag("scenario", "retry").functionCounter().count());
+    }
+
+    /** Die Bodies aus dem README, ohne {@code statusCode} und {@code waitMs} auf oberster Ebene. */
+    @Test
+    void testServeReadmeSequenceExamples() throws Exception {
+        register("retry-readme", "{\"sequence\":{\"steps\":[{\"statusCode\":503,\"times\":2},{\"statusCode\":200}],\"key\":\"HEADER\"}}");
+
+        for (String expectedStep : new String[] {"1", "1", "2", "2"}) {
+            mockMvc.perform(get("/mirror/s/retry-readme").header("X-Client-Id", "app-1"))
+                    .andExpect(status().is("1".equals(expectedStep) ? 503 : 200))
+                    .andExpect(header().string("X-Sequence-Step", expectedStep));
+        }
+        mockMvc.perform(get("/mirror/s/retry-readme").header("X-Client-Id", "app-2"))
+                .andExpect(status().isServiceUnavailable());
+
+        register("flaky-readme", "{\"sequence\":{\"steps\":[{\"statusCode\":200,\"times\":4},{\"statusCode\":500}],\"mode\":\"CYCLE\"}}");
+
+        int[] expected = {200, 200, 200, 200, 500, 200};
+        for (int status : expected) {
+            mockMvc.perform(get("/mirror/s/flaky-readme"))
+                    .andExpect(status().is(status));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.wlanboy.mirrorservice.controller;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Stellt in {@code @WebMvcTest}-Slices eine einfache {@link MeterRegistry} bereit.
+ */
+@TestConfiguration
+class TestMetricsConfiguration {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,98 @@
+package com.wlanboy.mirrorservice.dns;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingLoaderTest {
+
+    private static final int CALLERS = 50;
+
+    private final AtomicInteger resolverCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private InetAddress[] blockingLoad(String hostname) throws UnknownHostException {
+        resolverCalls.incrementAndGet();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hostname.endsWith(".invalid")) {
+            throw new UnknownHostException(hostname);
+        }
+        return new InetAddress[]{InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, 1})};
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneResolverCall() throws Exception {
+        CoalescingLoader loader = new CoalescingLoader(this::blockingLoad);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<InetAddress[]>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> loader.load("Example.com")));
+            }
+            awaitCoalesced(loader, CALLERS - 1);
+            release.countDown();
+
+            for (Future<InetAddress[]> result : results) {
+                assertEquals("10.0.0.1", result.get(5, TimeUnit.SECONDS)[0].getHostAddress());
+            }
+        }
+
+        assertEquals(1, resolverCalls.get());
+        assertEquals(1, loader.calls());
+        assertEquals(CALLERS - 1, loader.coalesced());
+        assertEquals(0, loader.inFlight());
+    }
+
+    @Test
+    void testFailureIsSharedWithWaiters() throws Exception {
+        CoalescingLoader loader = new CoalescingLoader(this::blockingLoad);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<InetAddress[]> first = executor.submit(() -> loader.load("unknown.invalid"));
+            Future<InetAddress[]> second = executor.submit(() -> loader.load("unknown.invalid"));
+            awaitCoalesced(loader, 1);
+            release.countDown();
+
+            for (Future<InetAddress[]> result : List.of(first, second)) {
+                var e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(UnknownHostException.class, e.getCause());
+            }
+        }
+        assertEquals(1, resolverCalls.get());
+    }
+
+    @Test
+    void testSequentialLookupsAreNotCoalesced() throws Exception {
+        release.countDown();
+        CoalescingLoader loader = new CoalescingLoader(this::blockingLoad);
+
+        loader.load("example.com");
+        loader.load("example.com");
+
+        assertEquals(2, resolverCalls.get());
+        assertEquals(0, loader.coalesced());
+    }
+
+    private static void awaitCoalesced(CoalescingLoader loader, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (loader.coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.wlanboy.mirrorservice.dns;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnsCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+    private volatile boolean failing;
+
+    private DnsCache cache(int maxSize, boolean refreshAhead) {
+        var properties = new DnsCacheProperties(true, maxSize, Duration.ofSeconds(30), Duration.ofSeconds(5), refreshAhead, 0.8);
+        return new DnsCache(this::load, properties, refreshTasks::add, clock::get);
+    }
+
+    private InetAddress[] load(String hostname) throws UnknownHostException {
+        loads.incrementAndGet();
+        if (hostname.endsWith(".timeout")) {
+            throw new DnsTimeoutException(hostname);
+        }
+        if (failing || hostname.endsWith(".invalid")) {
+            throw new UnknownHostException(hostname);
+        }
+        return new InetAddress[]{InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, (byte) loads.get()})};
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    // ---------------------------------------------------------
+    // Positive TTL
+    // ---------------------------------------------------------
+
+    @Test
+    void testHitWithinTtl() throws Exception {
+        DnsCache cache = cache(10, false);
+
+        cache.getAllByName("example.com");
+        advance(Duration.ofSeconds(29));
+        cache.getAllByName("EXAMPLE.com");
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void testReloadAfterTtl() throws Exception {
+        DnsCache cache = cache(10, false);
+
+        cache.getAllByName("example.com");
+        advance(Duration.ofSeconds(30));
+        InetAddress[] addresses = cache.getAllByName("example.com");
+
+        assertEquals(2, loads.get());
+        assertEquals("10.0.0.2", addresses[0].getHostAddress());
+    }
+
+    // ---------------------------------------------------------
+    // Negative TTL
+    // ---------------------------------------------------------
+
+    @Test
+    void testNegativeCaching() {
+        DnsCache cache = cache(10, false);
+
+        assertThrows(UnknownHostException.class, () -> cache.getAllByName("unknown.invalid"));
+        assertThrows(UnknownHostException.class, () -> cache.getAllByName("unknown.invalid"));
+        assertEquals(1, loads.get());
+
+        advance(Duration.ofSeconds(5));
+        assertThrows(UnknownHostException.class, () -> cache.getAllByName("unknown.invalid"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testTimeoutIsNotCached() {
+        DnsCache cache = cache(10, false);
+
+        assertThrows(DnsTimeoutException.class, () -> cache.getAllByName("slow.timeout"));
+        assertThrows(DnsTimeoutException.class, () -> cache.getAllByName("slow.timeout"));
+
+        assertEquals(2, loads.get(), "Ein Timeout ist kein negatives Ergebnis");
+        assertEquals(0, cache.size());
+    }
+
+    // ---------------------------------------------------------
+    // LRU-Verdrängung
+    // ---------------------------------------------------------
+
+    @Test
+    void testLruEviction() throws Exception {
+        DnsCache cache = cache(2, false);
+
+        cache.getAllByName("a.example");
+        cache.getAllByName("b.example");
+        cache.getAllByName("a.example");
+        cache.getAllByName("c.example");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+
+        cache.getAllByName("a.example");
+        assertEquals(3, loads.get(), "a.example wurde zuletzt benutzt und darf nicht verdrängt sein");
+        cache.getAllByName("b.example");
+        assertEquals(4, loads.get());
+    }
+
+    // ---------------------------------------------------------
+    // Refresh-Ahead
+    // ---------------------------------------------------------
+
+    @Test
+    void testRefreshAhead() throws Exception {
+        DnsCache cache = cache(10, true);
+
+        cache.getAllByName("example.com");
+        advance(Duration.ofSeconds(25));
+        InetAddress[] stale = cache.getAllByName("example.com");
+        cache.getAllByName("example.com");
+
+        assertEquals("10.0.0.1", stale[0].getHostAddress());
+        assertEquals(1, refreshTasks.size(), "Nur ein Refresh pro Eintrag");
+
+        refreshTasks.getFirst().run();
+        assertEquals(1, cache.refreshes());
+        assertEquals("10.0.0.2", cache.getAllByName("example.com")[0].getHostAddress());
+    }
+
+    @Test
+    void testFailedRefreshKeepsPositiveEntry() throws Exception {
+        DnsCache cache = cache(10, true);
+
+        cache.getAllByName("example.com");
+        advance(Duration.ofSeconds(25));
+        cache.getAllByName("example.com");
+        failing = true;
+        refreshTasks.removeFirst().run();
+
+        assertEquals(0, cache.refreshes());
+        assertEquals("10.0.0.1", cache.getAllByName("example.com")[0].getHostAddress(),
+            "Ein fehlgeschlagener Refresh darf keinen negativen Eintrag cachen");
+        assertEquals(1, refreshTasks.size(), "Nach dem Fehler wird der Refresh erneut versucht");
+
+        failing = false;
+        refreshTasks.removeFirst().run();
+        assertEquals(1, cache.refreshes());
+        assertEquals("10.0.0.3", cache.getAllByName("example.com")[0].getHostAddress());
+
+        failing = true;
+        advance(Duration.ofSeconds(30));
+        assertThrows(UnknownHostException.class, () -> cache.getAllByName("example.com"));
+        assertThrows(UnknownHostException.class, () -> cache.getAllByName("example.com"));
+        assertEquals(4, loads.get(), "Nach Ablauf wird das negative Ergebnis im Vordergrund gecacht");
+    }
+}
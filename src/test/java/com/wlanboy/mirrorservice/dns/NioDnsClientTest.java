@@ -0,0 +1,174 @@
+package com.wlanboy.mirrorservice.dns;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioDnsClientTest {
+
+    private StubDnsServer server;
+    private NioDnsClient client;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private NioDnsClient client(Duration timeout, int attempts, List<String> searchDomains) {
+        return client(timeout, attempts, searchDomains, 64);
+    }
+
+    private NioDnsClient client(Duration timeout, int attempts, List<String> searchDomains, int maxInFlight) {
+        var properties = new NioDnsProperties(true, List.of(server.address()), searchDomains, 1, timeout, attempts, true, maxInFlight);
+        client = new NioDnsClient(properties);
+        return client;
+    }
+
+    private static List<String> hostAddresses(InetAddress[] addresses) {
+        return Arrays.stream(addresses).map(InetAddress::getHostAddress).toList();
+    }
+
+    // ---------------------------------------------------------
+    // A / AAAA
+    // ---------------------------------------------------------
+
+    @Test
+    void testResolvesIpv4AndIpv6() throws Exception {
+        server = new StubDnsServer().add("example.com", "93.184.216.34", "2606:2800:21f:cb07:6820:80da:af6b:8b2c");
+
+        InetAddress[] addresses = client(Duration.ofSeconds(1), 1, List.of()).load("Example.com");
+
+        assertEquals(List.of("93.184.216.34", "2606:2800:21f:cb07:6820:80da:af6b:8b2c"), hostAddresses(addresses));
+        assertEquals("Example.com", addresses[0].getHostName());
+    }
+
+    @Test
+    void testNxDomain() throws Exception {
+        server = new StubDnsServer();
+
+        NioDnsClient dns = client(Duration.ofSeconds(1), 1, List.of());
+
+        UnknownHostException e = assertThrows(UnknownHostException.class, () -> dns.load("unknown.example"));
+        assertFalse(e instanceof DnsTimeoutException, "NXDOMAIN ist kein Timeout");
+        assertEquals(2, server.udpQueries(), "NXDOMAIN darf nicht wiederholt werden");
+    }
+
+    @Test
+    void testLiteralsNeedNoQuery() throws Exception {
+        server = new StubDnsServer();
+
+        InetAddress[] addresses = client(Duration.ofSeconds(1), 1, List.of()).load("10.1.2.3");
+
+        assertEquals(List.of("10.1.2.3"), hostAddresses(addresses));
+        assertEquals(0, server.udpQueries());
+    }
+
+    // ---------------------------------------------------------
+    // Retries, Timeouts, TCP-Fallback
+    // ---------------------------------------------------------
+
+    @Test
+    void testRetryAfterLostPacket() throws Exception {
+        server = new StubDnsServer().add("example.com", "93.184.216.34").dropNextUdp(1);
+
+        NioDnsClient dns = client(Duration.ofMillis(200), 2, List.of());
+
+        assertEquals(List.of("93.184.216.34"), hostAddresses(dns.load("example.com")));
+        assertEquals(1, dns.retries());
+    }
+
+    @Test
+    void testTimeoutAfterAllAttempts() throws Exception {
+        server = new StubDnsServer().add("example.com", "93.184.216.34").dropNextUdp(100);
+
+        NioDnsClient dns = client(Duration.ofMillis(100), 2, List.of());
+
+        long start = System.nanoTime();
+        assertThrows(DnsTimeoutException.class, () -> dns.load("example.com"));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(4, dns.timeouts(), "2 Versuche für A und AAAA");
+    }
+
+    @Test
+    void testTcpFallbackOnTruncation() throws Exception {
+        server = new StubDnsServer().add("big.example", "10.0.0.1", "10.0.0.2").truncateUdp("big.example");
+
+        NioDnsClient dns = client(Duration.ofSeconds(1), 1, List.of());
+
+        assertEquals(List.of("10.0.0.1", "10.0.0.2"), hostAddresses(dns.load("big.example")));
+        assertEquals(2, server.tcpQueries());
+    }
+
+    // ---------------------------------------------------------
+    // Search-Domains
+    // ---------------------------------------------------------
+
+    @Test
+    void testSearchDomainsForShortNames() throws Exception {
+        server = new StubDnsServer().add("mirror.svc.cluster.local", "10.96.0.10");
+
+        NioDnsClient dns = client(Duration.ofSeconds(1), 1, List.of("default.svc.cluster.local", "svc.cluster.local"));
+
+        assertEquals(List.of("10.96.0.10"), hostAddresses(dns.load("mirror")));
+        assertEquals(List.of("mirror.default.svc.cluster.local", "mirror.svc.cluster.local", "mirror"), dns.candidates("mirror"));
+        assertEquals(List.of("example.com"), dns.candidates("example.com."));
+    }
+
+    // ---------------------------------------------------------
+    // Viele parallele Anfragen auf einem I/O-Thread
+    // ---------------------------------------------------------
+
+    @Test
+    void testQueriesBeyondInFlightLimitWait() throws Exception {
+        server = new StubDnsServer().dropNextUdp(100);
+
+        NioDnsClient dns = client(Duration.ofMillis(300), 1, List.of(), 2);
+
+        List<CompletableFuture<InetAddress[]>> futures = List.of(dns.resolve("a.example"), dns.resolve("b.example"));
+        Thread.sleep(100);
+        assertEquals(2, server.udpQueries(), "A und AAAA für a.example belegen beide Plätze");
+
+        for (CompletableFuture<InetAddress[]> future : futures) {
+            var e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DnsTimeoutException.class, e.getCause());
+        }
+        assertEquals(4, server.udpQueries());
+    }
+
+    @Test
+    void testThousandConcurrentLookups() throws Exception {
+        server = new StubDnsServer();
+        for (int i = 0; i < 1000; i++) {
+            server.add("host" + i + ".example", "10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        // 2000 Anfragen, davon höchstens 64 gleichzeitig unterwegs
+        NioDnsClient dns = client(Duration.ofSeconds(2), 3, List.of());
+
+        List<CompletableFuture<InetAddress[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(dns.resolve("host" + i + ".example"));
+        }
+        for (int i = 0; i < 1000; i++) {
+            InetAddress[] addresses = futures.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals("10.0." + (i / 256) + "." + (i % 256), addresses[0].getHostAddress());
+        }
+        assertEquals(0, dns.timeouts(), "Mit begrenzten Anfragen darf kein Paket verloren gehen");
+    }
+}
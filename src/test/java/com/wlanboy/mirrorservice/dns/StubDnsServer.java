@@ -0,0 +1,171 @@
+package com.wlanboy.mirrorservice.dns;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eingebetteter DNS-Server für Tests: beantwortet A/AAAA-Anfragen per UDP und TCP
+ * aus einer festen Tabelle auf 127.0.0.1.
+ */
+class StubDnsServer implements AutoCloseable {
+
+    private final Map<String, List<InetAddress>> records = new ConcurrentHashMap<>();
+    private final Set<String> truncated = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger dropUdp = new AtomicInteger();
+    private final AtomicInteger udpQueries = new AtomicInteger();
+    private final AtomicInteger tcpQueries = new AtomicInteger();
+
+    private final DatagramSocket udp;
+    private final ServerSocket tcp;
+    private volatile boolean running = true;
+
+    StubDnsServer() throws IOException {
+        DatagramSocket datagramSocket = null;
+        ServerSocket serverSocket = null;
+        for (int attempt = 0; serverSocket == null; attempt++) {
+            datagramSocket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            datagramSocket.setReceiveBufferSize(1 << 20);
+            try {
+                serverSocket = new ServerSocket(datagramSocket.getLocalPort(), 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                datagramSocket.close();
+                if (attempt > 10) {
+                    throw e;
+                }
+            }
+        }
+        this.udp = datagramSocket;
+        this.tcp = serverSocket;
+        Thread.ofPlatform().daemon().name("stub-dns-udp").start(this::serveUdp);
+        Thread.ofPlatform().daemon().name("stub-dns-tcp").start(this::serveTcp);
+    }
+
+    StubDnsServer add(String name, String... addresses) throws IOException {
+        List<InetAddress> parsed = new java.util.ArrayList<>();
+        for (String address : addresses) {
+            parsed.add(InetAddress.getByName(address));
+        }
+        records.put(name, parsed);
+        return this;
+    }
+
+    StubDnsServer truncateUdp(String name) {
+        truncated.add(name);
+        return this;
+    }
+
+    StubDnsServer dropNextUdp(int count) {
+        dropUdp.set(count);
+        return this;
+    }
+
+    String address() {
+        return "127.0.0.1:" + udp.getLocalPort();
+    }
+
+    int udpQueries() {
+        return udpQueries.get();
+    }
+
+    int tcpQueries() {
+        return tcpQueries.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        udp.close();
+        tcp.close();
+    }
+
+    private void serveUdp() {
+        byte[] buffer = new byte[512];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                udp.receive(packet);
+                udpQueries.incrementAndGet();
+                if (dropUdp.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    continue;
+                }
+                byte[] answer = answer(ByteBuffer.wrap(buffer, 0, packet.getLength()), true);
+                udp.send(new DatagramPacket(answer, answer.length, packet.getSocketAddress()));
+            } catch (IOException e) {
+                // Socket geschlossen
+            }
+        }
+    }
+
+    private void serveTcp() {
+        while (running) {
+            try (Socket socket = tcp.accept()) {
+                tcpQueries.incrementAndGet();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                byte[] query = new byte[in.readUnsignedShort()];
+                in.readFully(query);
+                byte[] answer = answer(ByteBuffer.wrap(query), false);
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeShort(answer.length);
+                out.write(answer);
+                out.flush();
+            } catch (IOException e) {
+                // Socket geschlossen
+            }
+        }
+    }
+
+    private byte[] answer(ByteBuffer query, boolean udpTransport) {
+        int id = query.getShort() & 0xFFFF;
+        query.position(12);
+        StringBuilder name = new StringBuilder();
+        for (int length = query.get(); length > 0; length = query.get()) {
+            byte[] label = new byte[length];
+            query.get(label);
+            name.append(name.isEmpty() ? "" : ".").append(new String(label, StandardCharsets.US_ASCII));
+        }
+        int type = query.getShort() & 0xFFFF;
+        query.getShort();
+        int questionEnd = query.position();
+
+        List<InetAddress> known = records.get(name.toString());
+        boolean truncate = udpTransport && truncated.contains(name.toString());
+        List<InetAddress> matching = known == null || truncate ? List.of() : known.stream()
+            .filter(a -> a.getAddress().length == (type == DnsMessage.TYPE_A ? 4 : 16))
+            .toList();
+
+        ByteBuffer response = ByteBuffer.allocate(questionEnd + matching.size() * 28);
+        response.putShort((short) id);
+        int flags = 0x8180 | (known == null ? DnsMessage.RCODE_NXDOMAIN : 0) | (truncate ? 0x0200 : 0);
+        response.putShort((short) flags);
+        response.putShort((short) 1);
+        response.putShort((short) matching.size());
+        response.putShort((short) 0);
+        response.putShort((short) 0);
+        response.put(query.array(), query.arrayOffset() + 12, questionEnd - 12);
+        for (InetAddress address : matching) {
+            response.putShort((short) 0xC00C);
+            response.putShort((short) type);
+            response.putShort((short) DnsMessage.CLASS_IN);
+            response.putInt(60);
+            response.putShort((short) address.getAddress().length);
+            response.put(address.getAddress());
+        }
+        byte[] bytes = new byte[response.position()];
+        response.flip().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package com.wlanboy.mirrorservice.echo;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EchoMetadataTest {
+
+    private static String render(EchoMetadata metadata, EchoMetadata.Format format, long contentLength) {
+        return StandardCharsets.UTF_8.decode(metadata.render(format, contentLength)).toString();
+    }
+
+    private static EchoMetadata sample() {
+        return new EchoMetadata("POST", "/mirror/echo/json?x=1", "HTTP/1.1", "127.0.0.1:40000")
+            .header("Host", "localhost")
+            .header("X-Trace", "a")
+            .header("X-Trace", "b");
+    }
+
+    // ---------------------------------------------------------
+    // Formate
+    // ---------------------------------------------------------
+
+    @Test
+    void testNoneIsEmpty() {
+        assertEquals(0, sample().render(EchoMetadata.Format.NONE, 10).remaining());
+    }
+
+    @Test
+    void testHeaderBlock() {
+        assertEquals("POST /mirror/echo/json?x=1 HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "X-Trace: a\r\n"
+            + "X-Trace: b\r\n"
+            + "\r\n", render(sample(), EchoMetadata.Format.HEADERS, 10));
+    }
+
+    @Test
+    void testJsonLine() {
+        assertEquals("{\"method\":\"POST\",\"target\":\"/mirror/echo/json?x=1\",\"protocol\":\"HTTP/1.1\","
+            + "\"remoteAddress\":\"127.0.0.1:40000\",\"contentLength\":10,"
+            + "\"headers\":{\"Host\":[\"localhost\"],\"X-Trace\":[\"a\",\"b\"]}}\n",
+            render(sample(), EchoMetadata.Format.JSON, 10));
+    }
+
+    @Test
+    void testJsonEscapesAndUnknownLength() {
+        EchoMetadata metadata = new EchoMetadata("GET", "/mirror/echo/json", "HTTP/1.1", null)
+            .header("X-Quote", "say \"hi\"\\\u0001");
+
+        String json = render(metadata, EchoMetadata.Format.JSON, -1);
+
+        assertTrue(json.contains("\"remoteAddress\":null,\"contentLength\":null"));
+        assertTrue(json.contains("\"X-Quote\":[\"say \\\"hi\\\"\\\\\\u0001\"]"));
+    }
+
+    @Test
+    void testRenderedBlockIsReadOnly() {
+        assertTrue(sample().render(EchoMetadata.Format.HEADERS, 0).isReadOnly());
+    }
+
+    // ---------------------------------------------------------
+    // Format und Content-Type
+    // ---------------------------------------------------------
+
+    @Test
+    void testParseFormat() {
+        assertEquals(EchoMetadata.Format.NONE, EchoMetadata.Format.parse(null));
+        assertEquals(EchoMetadata.Format.HEADERS, EchoMetadata.Format.parse("headers"));
+        assertEquals(EchoMetadata.Format.JSON, EchoMetadata.Format.parse("JSON"));
+        assertThrows(IllegalArgumentException.class, () -> EchoMetadata.Format.parse("xml"));
+    }
+
+    @Test
+    void testContentType() {
+        assertEquals("text/csv", EchoMetadata.contentType(EchoMetadata.Format.NONE, "text/csv"));
+        assertEquals("application/octet-stream", EchoMetadata.contentType(EchoMetadata.Format.NONE, null));
+        assertEquals("message/http", EchoMetadata.contentType(EchoMetadata.Format.HEADERS, "text/csv"));
+        assertEquals("application/octet-stream", EchoMetadata.contentType(EchoMetadata.Format.JSON, "text/csv"));
+    }
+}
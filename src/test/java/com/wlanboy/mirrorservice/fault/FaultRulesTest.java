@@ -0,0 +1,97 @@
+package com.wlanboy.mirrorservice.fault;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.FaultRule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FaultRulesTest {
+
+    private static final Function<String, String> NO_HEADERS = name -> null;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FaultRules rules = new FaultRules(meterRegistry);
+
+    private static FaultRule rule(String id, String method, String pathPrefix, Map<String, String> headers, double rate) {
+        return new FaultRule(id, method, pathPrefix, headers, FaultRule.Type.ERROR, rate, null, null, null);
+    }
+
+    @Test
+    void testNoRulesSelectsNothing() {
+        assertNull(rules.select("GET", "/mirror", NO_HEADERS));
+    }
+
+    @Test
+    void testMatchesMethodPathPrefixAndHeaders() {
+        rules.replace(List.of(rule("orders", "post", "/mirror/s/orders", Map.of("X-Chaos", "on", "X-Trace", "*"), 1.0)));
+        Function<String, String> headers = Map.of("X-Chaos", "on", "X-Trace", "abc")::get;
+
+        assertEquals("orders", rules.select("POST", "/mirror/s/orders/42", headers).id());
+        assertNull(rules.select("GET", "/mirror/s/orders/42", headers));
+        assertNull(rules.select("POST", "/mirror/s/users", headers));
+        assertNull(rules.select("POST", "/mirror/s/orders", Map.of("X-Chaos", "off", "X-Trace", "abc")::get));
+        assertNull(rules.select("POST", "/mirror/s/orders", Map.of("X-Chaos", "on")::get));
+    }
+
+    @Test
+    void testRuleWithoutMethodMatchesEveryMethod() {
+        rules.replace(List.of(rule("any", null, null, null, 1.0)));
+
+        assertEquals("any", rules.select("GET", "/mirror", NO_HEADERS).id());
+        assertEquals("any", rules.select("PROPFIND", "/mirror/x", NO_HEADERS).id());
+        assertNull(rules.select("GET", "/dns/localhost", NO_HEADERS));
+    }
+
+    @Test
+    void testFirstFiringRuleWins() {
+        rules.replace(List.of(
+            rule("never", null, null, null, 0.0),
+            rule("first", "GET", null, null, 1.0),
+            rule("second", null, null, null, 1.0)));
+
+        assertEquals("first", rules.select("GET", "/mirror", NO_HEADERS).id());
+        assertEquals("second", rules.select("POST", "/mirror", NO_HEADERS).id());
+        assertEquals(0, rules.rules().get(0).hits());
+    }
+
+    @Test
+    void testHitsSurviveReplaceForSameId() {
+        rules.replace(List.of(rule("dropped", "DELETE", null, null, 1.0), rule("kept", null, null, null, 1.0)));
+        rules.select("GET", "/mirror", NO_HEADERS);
+        rules.select("GET", "/mirror", NO_HEADERS);
+        rules.select("DELETE", "/mirror/x", NO_HEADERS);
+
+        rules.replace(List.of(rule("kept", "GET", null, null, 1.0)));
+
+        assertEquals(2, rules.rules().get(0).hits());
+        assertEquals(2.0, meterRegistry.get("mirror.fault.hits").tag("rule", "kept").functionCounter().count());
+        assertNull(meterRegistry.find("mirror.fault.hits").tag("rule", "dropped").functionCounter());
+        assertEquals(1.0, meterRegistry.get("mirror.faults").gauge().value());
+    }
+
+    @Test
+    void testDuplicateIdsAreRejected() {
+        rules.replace(List.of(rule("a", null, null, null, 1.0)));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> rules.replace(List.of(rule("b", null, null, null, 1.0), rule("b", "GET", null, null, 1.0))));
+        assertEquals("a", rules.select("GET", "/mirror", NO_HEADERS).id());
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> rule("bad id", null, null, null, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> rule("rate", null, null, null, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> rule("path", null, "mirror", null, 1.0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new FaultRule("latency", null, null, null, FaultRule.Type.LATENCY, null, null, null, null));
+    }
+}
@@ -0,0 +1,42 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void testClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=10-19", 100);
+        assertEquals(new ByteRange(10, 19), range);
+        assertEquals(10, range.length());
+        assertEquals("bytes 10-19/100", range.contentRange(100));
+    }
+
+    @Test
+    void testOpenAndSuffixRanges() {
+        assertEquals(new ByteRange(90, 99), ByteRange.parse("bytes=90-", 100));
+        assertEquals(new ByteRange(80, 99), ByteRange.parse("bytes=-20", 100));
+        assertEquals(new ByteRange(0, 99), ByteRange.parse("bytes=-500", 100));
+        assertEquals(new ByteRange(50, 99), ByteRange.parse("bytes=50-1000", 100), "Ende wird auf die Dateigröße gekürzt");
+    }
+
+    @Test
+    void testUnsatisfiable() {
+        ByteRange range = ByteRange.parse("bytes=100-", 100);
+        assertFalse(range.satisfiable());
+        assertEquals("bytes */100", range.contentRange(100));
+        assertFalse(ByteRange.parse("bytes=-0", 100).satisfiable());
+        assertFalse(ByteRange.parse("bytes=-5", 0).satisfiable());
+    }
+
+    @Test
+    void testIgnoredHeaders() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-5", 100));
+        assertNull(ByteRange.parse("bytes=0-5,10-15", 100), "Mehrfachbereiche liefern die ganze Datei");
+        assertNull(ByteRange.parse("bytes=9-5", 100));
+        assertNull(ByteRange.parse("bytes=abc", 100));
+    }
+}
@@ -0,0 +1,146 @@
+package com.wlanboy.mirrorservice.fixture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixtureStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private FixtureStore store(int segmentSize) {
+        return new FixtureStore(new FixtureProperties(directory, Duration.ofSeconds(2)), segmentSize, clock::get);
+    }
+
+    private Path write(String name, String content, Instant modified) throws Exception {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+
+    private static String read(FixtureBody body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = body.nextChunk()) != null) {
+            assertTrue(chunk.isReadOnly());
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            out.writeBytes(bytes);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------
+    // Mapping
+    // ---------------------------------------------------------
+
+    @Test
+    void testMapsFileAcrossSegments() throws Exception {
+        write("data/numbers.txt", "0123456789abcdefghij", Instant.parse("2026-01-01T00:00:00Z"));
+        FixtureStore store = store(8);
+
+        Fixture fixture = store.get("data/numbers.txt");
+
+        assertEquals(20, fixture.size());
+        assertEquals("text/plain;charset=UTF-8", fixture.contentType());
+        assertEquals(8, fixture.slice(0, 100).remaining(), "Slice endet an der Segmentgrenze");
+        assertEquals("0123456789abcdefghij", read(new FixtureBody(fixture, null)));
+        assertEquals("6789abcdefg", read(new FixtureBody(fixture, new ByteRange(6, 16))));
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        write("empty.bin", "", Instant.parse("2026-01-01T00:00:00Z"));
+
+        Fixture fixture = store(8).get("empty.bin");
+
+        assertEquals(0, fixture.size());
+        assertNull(new FixtureBody(fixture, null).nextChunk());
+    }
+
+    @Test
+    void testMissingFile() {
+        assertNull(store(8).get("missing.json"));
+    }
+
+    @Test
+    void testRejectsPathsOutsideDirectory() {
+        FixtureStore store = store(8);
+        assertThrows(IllegalArgumentException.class, () -> store.get("../secret"));
+        assertThrows(IllegalArgumentException.class, () -> store.get("a/../../secret"));
+        assertThrows(IllegalArgumentException.class, () -> store.get(" "));
+    }
+
+    // ---------------------------------------------------------
+    // Reload
+    // ---------------------------------------------------------
+
+    @Test
+    void testReloadAfterChange() throws Exception {
+        Path file = write("upstream.json", "{\"v\":1}", Instant.parse("2026-01-01T00:00:00Z"));
+        FixtureStore store = store(8);
+        Fixture first = store.get("upstream.json");
+
+        Files.writeString(file, "{\"v\":22}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-01-01T00:01:00Z")));
+
+        assertSame(first, store.get("upstream.json"), "Innerhalb des Prüfintervalls kein stat");
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        Fixture second = store.get("upstream.json");
+
+        assertNotSame(first, second);
+        assertEquals("{\"v\":22}", read(new FixtureBody(second, null)));
+        assertEquals(2, store.loads());
+    }
+
+    @Test
+    void testUnchangedFileIsNotRemapped() throws Exception {
+        write("upstream.json", "{}", Instant.parse("2026-01-01T00:00:00Z"));
+        FixtureStore store = store(8);
+        Fixture first = store.get("upstream.json");
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertSame(first, store.get("upstream.json"));
+        assertEquals(1, store.loads());
+    }
+
+    @Test
+    void testDeletedFileIsDropped() throws Exception {
+        Path file = write("gone.json", "{}", Instant.parse("2026-01-01T00:00:00Z"));
+        FixtureStore store = store(8);
+        assertNotNull(store.get("gone.json"));
+
+        Files.delete(file);
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertNull(store.get("gone.json"));
+    }
+
+    // ---------------------------------------------------------
+    // Content-Type
+    // ---------------------------------------------------------
+
+    @Test
+    void testContentTypeByExtension() {
+        assertEquals("application/json", FixtureStore.contentType("a/b.JSON"));
+        assertEquals("application/x-ndjson", FixtureStore.contentType("events.ndjson"));
+        assertEquals("application/octet-stream", FixtureStore.contentType("dump"));
+    }
+}
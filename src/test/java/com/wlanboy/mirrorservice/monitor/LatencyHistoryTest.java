@@ -0,0 +1,83 @@
+package com.wlanboy.mirrorservice.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistoryTest {
+
+    @Test
+    void testEmptyHistory() {
+        LatencyHistory.Stats stats = new LatencyHistory(16).stats(0);
+
+        assertEquals(0, stats.samples());
+        assertEquals(-1, stats.p50Us());
+        assertFalse(stats.lastSuccess());
+    }
+
+    @Test
+    void testPercentilesNearestRank() {
+        LatencyHistory history = new LatencyHistory(128);
+        for (int i = 1; i <= 100; i++) {
+            history.recordSuccess(1_000 + i, i * 10L);
+        }
+
+        LatencyHistory.Stats stats = history.stats(0);
+
+        assertEquals(100, stats.samples());
+        assertEquals(1.0, stats.availability());
+        assertEquals(500, stats.p50Us());
+        assertEquals(950, stats.p95Us());
+        assertEquals(990, stats.p99Us());
+        assertEquals(1000, stats.lastLatencyUs());
+        assertEquals(1_100, stats.lastEpochSecond());
+    }
+
+    @Test
+    void testFailuresCountAgainstAvailabilityOnly() {
+        LatencyHistory history = new LatencyHistory(16);
+        history.recordSuccess(10, 200);
+        history.recordFailure(11);
+        history.recordSuccess(12, 100);
+        history.recordFailure(13);
+
+        LatencyHistory.Stats stats = history.stats(0);
+
+        assertEquals(4, stats.samples());
+        assertEquals(2, stats.successes());
+        assertEquals(0.5, stats.availability());
+        assertEquals(100, stats.p50Us());
+        assertEquals(200, stats.p99Us());
+        assertFalse(stats.lastSuccess());
+        assertEquals(-1, stats.lastLatencyUs());
+    }
+
+    @Test
+    void testWindowExcludesOlderSamples() {
+        LatencyHistory history = new LatencyHistory(16);
+        history.recordFailure(100);
+        history.recordFailure(200);
+        history.recordSuccess(300, 50);
+        history.recordSuccess(400, 70);
+
+        LatencyHistory.Stats stats = history.stats(300);
+
+        assertEquals(2, stats.samples());
+        assertEquals(1.0, stats.availability());
+        assertEquals(70, stats.p99Us());
+    }
+
+    @Test
+    void testRingBufferOverwritesOldestSamples() {
+        LatencyHistory history = new LatencyHistory(4);
+        for (int i = 0; i < 10; i++) {
+            history.recordSuccess(i, i);
+        }
+
+        LatencyHistory.Stats stats = history.stats(0);
+
+        assertEquals(4, stats.samples());
+        assertEquals(7, stats.p50Us());
+        assertEquals(9, stats.lastLatencyUs());
+    }
+}
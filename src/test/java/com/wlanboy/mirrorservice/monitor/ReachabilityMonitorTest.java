@@ -0,0 +1,82 @@
+package com.wlanboy.mirrorservice.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.DnsResolver;
+import com.wlanboy.mirrorservice.net.TcpConnectProber;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReachabilityMonitorTest {
+
+    private final DnsResolver dnsResolver = mock(DnsResolver.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private ReachabilityMonitor monitor(MonitorProperties.Target... targets) {
+        var properties = new MonitorProperties(true, Duration.ofSeconds(30), Duration.ofSeconds(1), 64,
+            Duration.ofMinutes(15), List.of(targets));
+        return new ReachabilityMonitor(properties, dnsResolver, registry, clock);
+    }
+
+    @Test
+    void testProbeRecordsHistoryAndGauges() throws Exception {
+        InetAddress addr = InetAddress.getByName("192.168.100.1");
+        when(dnsResolver.getAllByName("192.168.100.1")).thenReturn(new InetAddress[]{addr});
+        when(dnsResolver.probeTcp(any(), eq(new int[]{22}), eq(1000))).thenReturn(CompletableFuture.completedFuture(List.of(
+            new TcpConnectProber.ConnectResult(addr, 22, true, 2_000_000, null))));
+        when(dnsResolver.getByName("unknown.example")).thenThrow(new UnknownHostException("unknown.example"));
+
+        ReachabilityMonitor monitor = monitor(
+            new MonitorProperties.Target("gateway", "192.168.100.1", "tcp", List.of(22)),
+            new MonitorProperties.Target(null, "unknown.example", "icmp", List.of()));
+        monitor.probeAll();
+        monitor.probeAll();
+
+        var gateway = monitor.status("gateway", Duration.ofMinutes(1)).orElseThrow().stats();
+        assertEquals(2, gateway.samples());
+        assertEquals(2000, gateway.p50Us());
+        assertTrue(gateway.lastSuccess());
+
+        var unknown = monitor.status("unknown.example", Duration.ofMinutes(1)).orElseThrow().stats();
+        assertEquals(0.0, unknown.availability());
+        assertFalse(unknown.lastSuccess());
+
+        assertEquals(1.0, registry.get("monitor.up").tag("target", "gateway").gauge().value());
+        assertEquals(0.0, registry.get("monitor.availability").tag("target", "unknown.example").gauge().value());
+        assertEquals(0.002, registry.get("monitor.latency").tag("target", "gateway").tag("quantile", "0.99").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void testUnknownTarget() {
+        assertTrue(monitor().status("missing", Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void testTcpTargetWithoutPortsIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> monitor(new MonitorProperties.Target("web", "example.com", "tcp", List.of())));
+    }
+
+    @Test
+    void testDuplicateTargetIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> monitor(
+            new MonitorProperties.Target(null, "example.com", "icmp", List.of()),
+            new MonitorProperties.Target("example.com", "example.org", "icmp", List.of())));
+    }
+}
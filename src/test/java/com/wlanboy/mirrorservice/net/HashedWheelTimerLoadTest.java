@@ -0,0 +1,87 @@
+package com.wlanboy.mirrorservice.net;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Misst den Speicher, den der Timer pro wartender Verzögerung belegt, und wie
+ * viele Timer-Einträge damit in einen 256-MB-Heap passen.
+ * Nur mit {@code -Dloadtest=true} aktiv, z.B.:
+ * <pre>
+ * mvn test -Dtest=HashedWheelTimerLoadTest -Dloadtest=true -DargLine=-Xmx256m
+ * </pre>
+ * Jeder Eintrag hält wie ein wartender Mirror-Request einen Task mit einer
+ * Referenz auf ein Antwortobjekt, aber weder Servlet-Kontext noch Verbindung;
+ * das Ergebnis ist also der Timer-Anteil, keine Kapazität für wartende Requests
+ * (die misst {@code ConnectionFootprintTest}). Die Messwerte landen als
+ * Report-Einträge im Surefire-Bericht; aus ihnen stammt
+ * {@code MirrorDelayScheduler.BYTES_PER_PENDING_TIMEOUT}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class HashedWheelTimerLoadTest {
+
+    private static final long HEAP_BUDGET = 256L * 1024 * 1024;
+
+    @Test
+    void testTimerEntriesPerHeap(TestReporter reporter) throws Exception {
+        int count = Integer.getInteger("loadtest.pending", 1_000_000);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        LongAdder fired = new LongAdder();
+
+        try (HashedWheelTimer timer = new HashedWheelTimer("wheel-load", Duration.ofMillis(10), 512, null)) {
+            long before = usedHeapAfterGc(memory);
+            long start = System.nanoTime();
+            HashedWheelTimer.Timeout[] handles = new HashedWheelTimer.Timeout[count];
+            for (int i = 0; i < count; i++) {
+                Object response = new Object();
+                handles[i] = timer.newTimeout(() -> {
+                    if (response != null) {
+                        fired.increment();
+                    }
+                }, 30, TimeUnit.SECONDS);
+            }
+            long insertNanos = System.nanoTime() - start;
+            // Der Timer übernimmt höchstens 100.000 neue Einträge pro Tick; danach sind die Queue-Knoten frei
+            Thread.sleep((count / 100_000 + 5) * 10L);
+            long after = usedHeapAfterGc(memory);
+            long handleArray = 16L + 4L * count;
+            double bytesPerPending = (double) (after - before - handleArray) / count;
+
+            long entriesPerBudget = (long) (HEAP_BUDGET / bytesPerPending);
+            reporter.publishEntry(Map.of(
+                "pending", Long.toString(timer.pending()),
+                "insertNanosPerOp", String.format(Locale.ROOT, "%.1f", (double) insertNanos / count),
+                "timerBytesPerEntry", String.format(Locale.ROOT, "%.1f", bytesPerPending),
+                "timerEntriesPer256MB", Long.toString(entriesPerBudget)));
+
+            assertEquals(count, timer.pending());
+            assertTrue(bytesPerPending < 256, "Mehr als 256 Bytes pro Timer-Eintrag: " + bytesPerPending);
+            assertTrue(entriesPerBudget >= count,
+                "Nur " + entriesPerBudget + " Timer-Einträge passen in 256 MB (" + bytesPerPending + " Bytes pro Eintrag)");
+            assertEquals(0, fired.sum());
+            for (HashedWheelTimer.Timeout handle : handles) {
+                handle.cancel();
+            }
+            assertEquals(0, timer.pending());
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
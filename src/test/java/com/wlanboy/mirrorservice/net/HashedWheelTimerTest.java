@@ -0,0 +1,80 @@
+package com.wlanboy.mirrorservice.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+
+    private final AtomicLong maxDriftNanos = new AtomicLong();
+    private final HashedWheelTimer timer = new HashedWheelTimer("wheel-test", Duration.ofMillis(5), 8,
+        drift -> maxDriftNanos.accumulateAndGet(drift, Math::max));
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    void testFiresAfterDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.newTimeout(fired::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 50, "Zu früh ausgelöst: " + elapsedMs + "ms");
+        assertEquals(0, timer.pending());
+    }
+
+    @Test
+    void testDelayLongerThanOneRotation() throws Exception {
+        // 8 Slots * 5ms = 40ms pro Umdrehung
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        timer.newTimeout(() -> { order.add(3); fired.countDown(); }, 130, TimeUnit.MILLISECONDS);
+        timer.newTimeout(() -> { order.add(1); fired.countDown(); }, 10, TimeUnit.MILLISECONDS);
+        timer.newTimeout(() -> { order.add(2); fired.countDown(); }, 45, TimeUnit.MILLISECONDS);
+
+        assertEquals(3, timer.pending());
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), order);
+        assertTrue(maxDriftNanos.get() < TimeUnit.MILLISECONDS.toNanos(100), "Drift zu groß: " + maxDriftNanos.get());
+    }
+
+    @Test
+    void testCancelledTimeoutDoesNotFire() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        timer.newTimeout(later::countDown, 60, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(1, timer.pending());
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testManyConcurrentTimeouts() throws Exception {
+        int count = 10_000;
+        CountDownLatch fired = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            timer.newTimeout(fired::countDown, i % 100, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertEquals(0, timer.pending());
+    }
+}
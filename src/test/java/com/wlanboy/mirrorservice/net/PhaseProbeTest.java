@@ -0,0 +1,92 @@
+package com.wlanboy.mirrorservice.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseProbeTest {
+
+    private final InetAddress loopback = InetAddress.getLoopbackAddress();
+    private final PhaseProbe probe = new PhaseProbe(hostname -> {
+        if (hostname.endsWith(".invalid")) {
+            throw new UnknownHostException(hostname);
+        }
+        return new InetAddress[]{loopback};
+    });
+
+    @Test
+    void testConnectAndFirstByte() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, loopback)) {
+            Thread.ofVirtual().start(() -> {
+                try (Socket socket = server.accept()) {
+                    InputStream in = socket.getInputStream();
+                    while (in.read() != '\n') {
+                        // Request-Zeile lesen, danach antworten
+                    }
+                    Thread.sleep(20);
+                    OutputStream out = socket.getOutputStream();
+                    out.write("HTTP/1.1 204 No Content\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                } catch (Exception ignored) {
+                    // Test beendet
+                }
+            });
+
+            PhaseProbe.Result result = probe.probe(new PhaseProbe.Request("example.test", server.getLocalPort(), false, "/", 1000));
+
+            assertTrue(result.successful(), () -> "Fehler: " + result.error());
+            assertTrue(result.dnsNanos() >= 0);
+            assertTrue(result.connectNanos() > 0);
+            assertEquals(-1, result.tlsNanos());
+            assertTrue(result.firstByteNanos() >= 20_000_000, "Server wartet 20ms vor der Antwort");
+            assertEquals(204, result.httpStatus());
+        }
+    }
+
+    @Test
+    void testConnectRefusedReportsFailedPhase() throws Exception {
+        int closedPort;
+        try (ServerSocket unused = new ServerSocket(0, 1, loopback)) {
+            closedPort = unused.getLocalPort();
+        }
+
+        PhaseProbe.Result result = probe.probe(new PhaseProbe.Request("example.test", closedPort, true, null, 1000));
+
+        assertFalse(result.successful());
+        assertEquals(PhaseProbe.Phase.CONNECT, result.failedPhase());
+        assertEquals(-1, result.connectNanos());
+        assertNotNull(result.error());
+    }
+
+    @Test
+    void testTlsHandshakeFailureAgainstPlainServer() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, loopback)) {
+            Thread.ofVirtual().start(() -> {
+                try (Socket socket = server.accept()) {
+                    socket.getOutputStream().write("not tls\r\n".getBytes(StandardCharsets.US_ASCII));
+                } catch (Exception ignored) {
+                    // Test beendet
+                }
+            });
+
+            PhaseProbe.Result result = probe.probe(new PhaseProbe.Request("example.test", server.getLocalPort(), true, null, 1000));
+
+            assertEquals(PhaseProbe.Phase.TLS, result.failedPhase());
+            assertTrue(result.connectNanos() > 0);
+        }
+    }
+
+    @Test
+    void testUnknownHost() {
+        assertThrows(UnknownHostException.class,
+            () -> probe.probe(new PhaseProbe.Request("unknown.invalid", 443, true, null, 1000)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.wlanboy.mirrorservice.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpConnectProberTest {
+
+    private final TcpConnectProber prober = new TcpConnectProber();
+
+    @AfterEach
+    void tearDown() {
+        prober.close();
+    }
+
+    @Test
+    void testOpenAndClosedPorts() throws Exception {
+        InetAddress loopback = InetAddress.getByName("127.0.0.1");
+        int closedPort;
+        try (ServerSocket unused = new ServerSocket(0, 1, loopback)) {
+            closedPort = unused.getLocalPort();
+        }
+
+        try (ServerSocket open = new ServerSocket(0, 50, loopback)) {
+            List<TcpConnectProber.ConnectResult> results = prober
+                .probe(new InetAddress[]{loopback}, new int[]{open.getLocalPort(), closedPort}, Duration.ofSeconds(1))
+                .get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, results.size());
+
+            var connected = results.get(0);
+            assertEquals(open.getLocalPort(), connected.port());
+            assertTrue(connected.connected());
+            assertTrue(connected.connectNanos() > 0);
+            assertNull(connected.error());
+
+            var refused = results.get(1);
+            assertEquals(closedPort, refused.port());
+            assertFalse(refused.connected());
+            assertNotNull(refused.error());
+        }
+    }
+
+    @Test
+    void testAllAddressPortCombinationsInOrder() throws Exception {
+        InetAddress first = InetAddress.getByName("127.0.0.1");
+        InetAddress second = InetAddress.getByName("127.0.0.2");
+
+        try (ServerSocket a = new ServerSocket(0, 50, InetAddress.getByName("0.0.0.0"));
+             ServerSocket b = new ServerSocket(0, 50, InetAddress.getByName("0.0.0.0"))) {
+            List<TcpConnectProber.ConnectResult> results = prober
+                .probe(new InetAddress[]{first, second}, new int[]{a.getLocalPort(), b.getLocalPort()}, Duration.ofSeconds(1))
+                .get(5, TimeUnit.SECONDS);
+
+            assertEquals(4, results.size());
+            assertEquals(first, results.get(0).address());
+            assertEquals(b.getLocalPort(), results.get(1).port());
+            assertEquals(second, results.get(2).address());
+            assertTrue(results.stream().allMatch(TcpConnectProber.ConnectResult::connected));
+        }
+    }
+
+    @Test
+    void testNothingToProbe() throws Exception {
+        assertEquals(List.of(), prober.probe(new InetAddress[0], new int[]{80}, Duration.ofSeconds(1)).get(1, TimeUnit.SECONDS));
+    }
+}
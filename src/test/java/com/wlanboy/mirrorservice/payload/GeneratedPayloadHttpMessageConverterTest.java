@@ -0,0 +1,27 @@
+package com.wlanboy.mirrorservice.payload;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.PayloadSpec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Servlet-spezifischer Teil von {@link GeneratedPayloadTest}; das Profil
+ * {@code netty} schließt den Converter und damit diesen Test aus.
+ */
+class GeneratedPayloadHttpMessageConverterTest {
+
+    @Test
+    void testWriteToPlainOutputStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeneratedPayloadHttpMessageConverter.writeTo(
+            GeneratedPayload.of(new PayloadSpec(100_000, PayloadSpec.Pattern.TEXT, "xy", 1000)), out);
+
+        assertEquals(100_000, out.size());
+        assertEquals("xyxy", out.toString(StandardCharsets.UTF_8).substring(0, 4));
+    }
+}
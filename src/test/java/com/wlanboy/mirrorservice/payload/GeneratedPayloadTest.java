@@ -0,0 +1,121 @@
+package com.wlanboy.mirrorservice.payload;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.PayloadSpec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedPayloadTest {
+
+    private static byte[] drain(GeneratedPayload payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = payload.nextChunk()) != null) {
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static long count(GeneratedPayload payload) {
+        long total = 0;
+        ByteBuffer chunk;
+        while ((chunk = payload.nextChunk()) != null) {
+            assertTrue(chunk.isReadOnly(), "Slices müssen schreibgeschützt sein");
+            total += chunk.remaining();
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------
+    // Größe und Muster
+    // ---------------------------------------------------------
+
+    @Test
+    void testExactSizeAcrossBlockBoundaries() {
+        long size = 3L * PatternBlocks.BLOCK_SIZE + 17;
+        for (PayloadSpec.Pattern pattern : PayloadSpec.Pattern.values()) {
+            GeneratedPayload payload = GeneratedPayload.of(new PayloadSpec(size, pattern, null, null));
+            assertEquals(size, count(payload), pattern.name());
+        }
+    }
+
+    @Test
+    void testZeroLength() {
+        assertNull(GeneratedPayload.of(new PayloadSpec(0, null, null, null)).nextChunk());
+    }
+
+    @Test
+    void testZerosSharesOneDirectBlock() {
+        GeneratedPayload payload = GeneratedPayload.of(new PayloadSpec(2L * PatternBlocks.BLOCK_SIZE, PayloadSpec.Pattern.ZEROS, null, null));
+        ByteBuffer first = payload.nextChunk();
+        ByteBuffer second = payload.nextChunk();
+
+        assertTrue(first.isDirect());
+        assertEquals(PatternBlocks.BLOCK_SIZE, first.remaining());
+        assertEquals(0, first.get(12345));
+        assertEquals(PatternBlocks.zeros().capacity(), second.capacity(), "Beide Slices teilen denselben Block");
+    }
+
+    @Test
+    void testRepeatingTextIsSeamless() {
+        String text = "abc-";
+        long size = PatternBlocks.BLOCK_SIZE + 10;
+        byte[] body = drain(GeneratedPayload.of(new PayloadSpec(size, PayloadSpec.Pattern.TEXT, text, null)));
+
+        assertEquals(size, body.length);
+        byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < body.length; i++) {
+            assertEquals(pattern[i % pattern.length], body[i], "Byte " + i);
+        }
+    }
+
+    @Test
+    void testJsonArrayIsValidForAllSmallSizes() {
+        for (int size = 2; size < 200; size++) {
+            String json = new String(drain(GeneratedPayload.of(new PayloadSpec(size, PayloadSpec.Pattern.JSON_ARRAY, null, null))),
+                StandardCharsets.US_ASCII);
+            assertEquals(size, json.length());
+            assertTrue(json.startsWith("[") && json.endsWith("]"), json);
+            String inner = json.substring(1, json.length() - 1).strip();
+            if (!inner.isEmpty()) {
+                for (String element : inner.split(",(?=\\{)")) {
+                    assertEquals(new String(PatternBlocks.JSON_ELEMENT, StandardCharsets.US_ASCII), element, json);
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Chunks
+    // ---------------------------------------------------------
+
+    @Test
+    void testChunkSizeLimitsSlices() {
+        GeneratedPayload payload = GeneratedPayload.of(new PayloadSpec(10_000, PayloadSpec.Pattern.RANDOM, null, 4096));
+        assertTrue(payload.chunked());
+        assertEquals(4096, payload.nextChunk().remaining());
+        assertEquals(4096, payload.nextChunk().remaining());
+        assertEquals(1808, payload.nextChunk().remaining());
+        assertNull(payload.nextChunk());
+    }
+
+    // ---------------------------------------------------------
+    // Validierung
+    // ---------------------------------------------------------
+
+    @Test
+    void testInvalidSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> new PayloadSpec(-1, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadSpec(PayloadSpec.MAX_SIZE_BYTES + 1, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadSpec(1, PayloadSpec.Pattern.JSON_ARRAY, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadSpec(10, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadSpec(10, PayloadSpec.Pattern.TEXT, "x".repeat(1025), null));
+    }
+}
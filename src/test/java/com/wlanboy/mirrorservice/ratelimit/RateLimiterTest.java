@@ -0,0 +1,160 @@
+package com.wlanboy.mirrorservice.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.RateLimitSpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final RateLimiter limiter = new RateLimiter(new RateLimitProperties(3, Duration.ofSeconds(10)), now::get);
+
+    private static RateLimitClient client(String address, Map<String, String> headers) {
+        return new RateLimitClient() {
+            @Override
+            public String address() {
+                return address;
+            }
+
+            @Override
+            public String header(String name) {
+                return headers.get(name);
+            }
+        };
+    }
+
+    private static final RateLimitClient ALICE = client("10.0.0.1", Map.of());
+    private static final RateLimitClient BOB = client("10.0.0.2", Map.of());
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    void testBurstThenRejectWithRetryAfter() {
+        RateLimitSpec spec = new RateLimitSpec(3, 1000L, null, null, null);
+
+        RateLimitDecision first = limiter.acquire(spec, ALICE, null);
+        assertTrue(first.allowed());
+        assertEquals(2, first.remaining());
+        assertTrue(limiter.acquire(spec, ALICE, null).allowed());
+        RateLimitDecision last = limiter.acquire(spec, ALICE, null);
+        assertTrue(last.allowed());
+        assertEquals(0, last.remaining());
+
+        RateLimitDecision rejected = limiter.acquire(spec, ALICE, null);
+        assertFalse(rejected.allowed());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000) / 3, rejected.retryAfterNanos());
+
+        Map<String, String> headers = new HashMap<>();
+        rejected.forEachHeader(headers::put);
+        assertEquals(Map.of("RateLimit-Limit", "3", "RateLimit-Remaining", "0", "RateLimit-Reset", "1",
+            "RateLimit-Policy", "3;w=1", "Retry-After", "1"), headers);
+
+        assertTrue(limiter.acquire(spec, BOB, null).allowed());
+    }
+
+    @Test
+    void testTokensRefillContinuously() {
+        RateLimitSpec spec = new RateLimitSpec(2, 1000L, null, null, null);
+        limiter.acquire(spec, ALICE, null);
+        limiter.acquire(spec, ALICE, null);
+        assertFalse(limiter.acquire(spec, ALICE, null).allowed());
+
+        advanceMs(499);
+        assertFalse(limiter.acquire(spec, ALICE, null).allowed());
+        advanceMs(1);
+        assertTrue(limiter.acquire(spec, ALICE, null).allowed());
+        assertFalse(limiter.acquire(spec, ALICE, null).allowed());
+
+        advanceMs(5000);
+        assertEquals(1, limiter.acquire(spec, ALICE, null).remaining());
+    }
+
+    @Test
+    void testKeySources() {
+        RateLimitSpec byHeader = new RateLimitSpec(1, 1000L, RateLimitSpec.Key.HEADER, "X-Api-Key", "header");
+        assertTrue(limiter.acquire(byHeader, client("10.0.0.1", Map.of("X-Api-Key", "a")), null).allowed());
+        assertFalse(limiter.acquire(byHeader, client("10.0.0.2", Map.of("X-Api-Key", "a")), null).allowed());
+        assertTrue(limiter.acquire(byHeader, client("10.0.0.2", Map.of("X-Api-Key", "b")), null).allowed());
+
+        RateLimitSpec byScenario = new RateLimitSpec(1, 1000L, RateLimitSpec.Key.SCENARIO, null, "scenario");
+        assertTrue(limiter.acquire(byScenario, ALICE, "orders").allowed());
+        assertFalse(limiter.acquire(byScenario, BOB, "orders").allowed());
+    }
+
+    @Test
+    void testSweepEvictsOnlyFullBuckets() {
+        RateLimitSpec spec = new RateLimitSpec(2, 1000L, null, null, null);
+        limiter.acquire(spec, ALICE, null);
+        limiter.acquire(spec, ALICE, null);
+        limiter.acquire(spec, BOB, null);
+
+        advanceMs(600);
+        limiter.sweep();
+        assertEquals(1, limiter.keys());
+
+        advanceMs(400);
+        limiter.sweep();
+        assertEquals(0, limiter.keys());
+        assertEquals(1, limiter.acquire(spec, ALICE, null).remaining());
+    }
+
+    @Test
+    void testKeysBeyondMaxAreNotTracked() {
+        RateLimitSpec spec = new RateLimitSpec(1, 1000L, null, null, null);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(spec, client("10.0.1." + i, Map.of()), null);
+        }
+        RateLimitClient overflow = client("10.0.2.1", Map.of());
+
+        assertTrue(limiter.acquire(spec, overflow, null).allowed());
+        assertTrue(limiter.acquire(spec, overflow, null).allowed());
+        assertEquals(3, limiter.keys());
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsLimit() throws Exception {
+        RateLimitSpec spec = new RateLimitSpec(1000, 60_000L, null, null, null);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (limiter.acquire(spec, ALICE, null).allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(1000, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
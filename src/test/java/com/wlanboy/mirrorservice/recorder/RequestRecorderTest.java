@@ -0,0 +1,180 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestRecorderTest {
+
+    private static RequestRecorder recorder(int capacity, int maxBodyBytes) {
+        return new RequestRecorder(new RecorderProperties(true, capacity, maxBodyBytes, List.of("Authorization"), List.of("/mirror", "/resolve")));
+    }
+
+    private static void record(RequestRecorder recorder, String method, String path, int status, String body) {
+        RequestCapture capture = recorder.begin(method, path, null);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        capture.body(bytes, 0, bytes.length);
+        recorder.finish(capture, status);
+    }
+
+    @Test
+    void testRecordsRequestInJsonlShape() {
+        RequestRecorder recorder = recorder(8, 64);
+        RequestCapture capture = recorder.begin("POST", "/mirror", "statusCode=503");
+        capture.header("Content-Type", "application/json");
+        capture.header("X-Multi", "a");
+        capture.header("X-Multi", "b");
+        capture.header("authorization", "Bearer secret");
+        capture.body(ByteBuffer.wrap("{\"statusCode\"".getBytes(StandardCharsets.UTF_8)));
+        capture.body(':');
+        capture.body("503}".getBytes(StandardCharsets.UTF_8), 0, 4);
+        recorder.finish(capture, 503);
+
+        List<RecordedRequest> recorded = recorder.recordings().toList();
+        assertEquals(1, recorded.size());
+        RecordedRequest request = recorded.get(0);
+        assertEquals("req-0", request.requestId());
+        assertEquals("POST /mirror?statusCode=503 -> 503", request.title());
+        assertEquals("{\"statusCode\":503}", request.body());
+        assertEquals(503, request.status());
+        assertEquals("a, b", request.headers().get("X-Multi"));
+        assertEquals(RequestCapture.REDACTED, request.headers().get("authorization"));
+        assertEquals(18, request.bodySize());
+        assertFalse(request.bodyTruncated());
+        assertTrue(request.durationMs() >= 0);
+    }
+
+    @Test
+    void testBodyPrefixIsCapped() {
+        RequestRecorder recorder = recorder(8, 4);
+        record(recorder, "PUT", "/mirror", 200, "abcdefgh");
+
+        RecordedRequest request = recorder.recordings().findFirst().orElseThrow();
+        assertEquals("abcd", request.body());
+        assertEquals(8, request.bodySize());
+        assertTrue(request.bodyTruncated());
+    }
+
+    @Test
+    void testBodyBufferGrowsWithBody() {
+        RequestRecorder recorder = recorder(8, 64 * 1024);
+        RequestCapture small = recorder.begin("POST", "/mirror", null);
+        small.body("{}".getBytes(StandardCharsets.UTF_8), 0, 2);
+        assertEquals(RequestCapture.INITIAL_BODY_BYTES, small.body.length, "A small body must not allocate max-body-bytes");
+
+        RequestCapture large = recorder.begin("POST", "/mirror", null);
+        byte[] chunk = new byte[1000];
+        for (int i = 0; i < 100; i++) {
+            Arrays.fill(chunk, (byte) ('a' + i % 26));
+            large.body(chunk, 0, chunk.length);
+        }
+        assertEquals(64 * 1024, large.body.length);
+        recorder.finish(large, 200);
+
+        RecordedRequest request = recorder.recordings().findFirst().orElseThrow();
+        assertEquals(64 * 1024, request.body().length());
+        assertEquals('a' + 65 % 26, request.body().charAt(65 * 1000));
+        assertEquals(100_000, request.bodySize());
+        assertTrue(request.bodyTruncated());
+    }
+
+    @Test
+    void testRingKeepsLatestAndClearHidesOlder() {
+        RequestRecorder recorder = recorder(3, 16);
+        assertEquals(4, recorder.capacity(), "Capacity should be rounded up to a power of two");
+        for (int i = 0; i < 6; i++) {
+            record(recorder, "GET", "/mirror/" + i, 200, "");
+        }
+
+        assertEquals(List.of("/mirror/2", "/mirror/3", "/mirror/4", "/mirror/5"),
+            recorder.recordings().map(RecordedRequest::path).toList());
+
+        recorder.clear();
+        assertEquals(0, recorder.recordings().count());
+        record(recorder, "GET", "/mirror/6", 200, "");
+        assertEquals(List.of("req-6"), recorder.recordings().map(RecordedRequest::requestId).toList());
+    }
+
+    @Test
+    void testFilterByPathStatusAndTime() {
+        RequestRecorder recorder = recorder(16, 16);
+        record(recorder, "GET", "/mirror/s/retry", 503, "");
+        record(recorder, "GET", "/mirror/s/retry", 200, "");
+        record(recorder, "POST", "/mirror", 502, "");
+
+        assertEquals(1, recorder.recordings().filter(RecordingFilter.of("/mirror/s/", "5xx", null, null)).count());
+        assertEquals(1, recorder.recordings().filter(RecordingFilter.of(null, "502", null, null)).count());
+        assertEquals(3, recorder.recordings().filter(RecordingFilter.ALL).count());
+
+        Instant now = Instant.now();
+        assertEquals(3, recorder.recordings().filter(RecordingFilter.of(null, null, now.minusSeconds(60), null)).count());
+        assertEquals(0, recorder.recordings().filter(RecordingFilter.of(null, null, null, now.minusSeconds(60))).count());
+
+        assertThrows(IllegalArgumentException.class, () -> RecordingFilter.of(null, "teapot", null, null));
+        assertThrows(IllegalArgumentException.class, () -> RecordingFilter.of(null, null, now, now.minusSeconds(1)));
+    }
+
+    @Test
+    void testConcurrentWritersLoseNothingWithinCapacity() throws Exception {
+        RequestRecorder recorder = recorder(1 << 14, 16);
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String path = "/mirror/t" + t;
+                writers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        record(recorder, "POST", path, 200, "body-" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, recorder.dropped());
+        assertEquals(threads * perThread, recorder.recordings().count());
+        assertEquals(perThread, recorder.recordings().filter(RecordingFilter.of("/mirror/t3", null, null, null)).count());
+    }
+
+    @Test
+    void testInvalidPropertiesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> recorder(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> recorder(16, -1));
+    }
+
+    @Test
+    void testRecordsConfiguredPathsButNotExport() {
+        RequestRecorder recorder = recorder(8, 16);
+        assertTrue(recorder.records("/mirror"));
+        assertTrue(recorder.records("/mirror/s/checkout"));
+        assertTrue(recorder.records("/resolve"));
+        assertFalse(recorder.records("/ping"));
+        assertFalse(recorder.records("/actuator/health"));
+        assertFalse(recorder.records(RequestRecorder.EXPORT_PATH));
+        assertFalse(recorder.records(RequestRecorder.EXPORT_PATH + "/log"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.wlanboy.mirrorservice.recorder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.wlanboy.mirrorservice.controller.RecordedRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+
+    private static RequestRecorder recorder(int maxBodyBytes) {
+        return new RequestRecorder(new RecorderProperties(true, 64, maxBodyBytes, List.of("Authorization"), List.of("/mirror", "/resolve")));
+    }
+
+    private TrafficLog log(RequestRecorder recorder, DataSize maxTotalSize) {
+        return new TrafficLog(new TrafficLogProperties(true, directory, DataSize.ofKilobytes(64), Duration.ofMinutes(1),
+            maxTotalSize, Duration.ofMinutes(10), Duration.ofSeconds(1)), recorder, clock::get);
+    }
+
+    private static void record(RequestRecorder recorder, String method, String path, int status, String body) {
+        RequestCapture capture = recorder.begin(method, path, null);
+        capture.header("Authorization", "Bearer secret");
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        capture.body(bytes, 0, bytes.length);
+        recorder.finish(capture, status);
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    void testAppendsAndScansRecords() {
+        RequestRecorder recorder = recorder(64);
+        TrafficLog log = log(recorder, DataSize.ofMegabytes(1));
+        record(recorder, "POST", "/mirror", 503, "{\"statusCode\":503}");
+        record(recorder, "GET", "/resolve", 200, "");
+
+        log.flush(true);
+
+        List<RecordedRequest> scanned = log.scan(null, null).toList();
+        assertEquals(2, scanned.size());
+        RecordedRequest first = scanned.get(0);
+        assertTrue(first.requestId().startsWith("log-0-"));
+        assertEquals("POST /mirror -> 503", first.title());
+        assertEquals("{\"statusCode\":503}", first.body());
+        assertEquals(RequestCapture.REDACTED, first.headers().get("Authorization"));
+        assertEquals(recorder.get(0).startedAt(), first.startedAt());
+        assertEquals("/resolve", scanned.get(1).path());
+        assertEquals(2, log.written());
+        assertEquals(0, log.lost());
+    }
+
+    @Test
+    void testFlushWritesSequencesObservedByPreviousRun() {
+        RequestRecorder recorder = recorder(64);
+        TrafficLog log = log(recorder, DataSize.ofMegabytes(1));
+        record(recorder, "GET", "/mirror", 200, "");
+
+        log.flush();
+        assertEquals(0, log.written(), "A sequence is written one run after it was observed");
+
+        log.flush();
+        assertEquals(1, log.written());
+        assertEquals(1, log.scan(null, null).count());
+    }
+
+    @Test
+    void testRotatesFullSegmentsAndDeletesOldestBeyondTotalSize() throws Exception {
+        RequestRecorder recorder = recorder(16 * 1024);
+        TrafficLog log = log(recorder, DataSize.ofKilobytes(128));
+        String body = "x".repeat(16 * 1024);
+        for (int i = 0; i < 20; i++) {
+            record(recorder, "PUT", "/mirror/" + i, 200, body);
+        }
+
+        log.flush(true);
+
+        assertEquals(20, log.written());
+        assertTrue(log.deleted() > 0);
+        assertTrue(log.size() <= 128 * 1024);
+        assertEquals(log.segments(), segmentFiles().size());
+        List<String> paths = log.scan(null, null).map(RecordedRequest::path).toList();
+        assertFalse(paths.isEmpty());
+        assertEquals("/mirror/19", paths.get(paths.size() - 1));
+        int first = 20 - paths.size();
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals("/mirror/" + (first + i), paths.get(i), "Records should stay in write order across segments");
+        }
+    }
+
+    @Test
+    void testRotatesByAgeAndDeletesExpiredSegments() throws Exception {
+        RequestRecorder recorder = recorder(64);
+        TrafficLog log = log(recorder, DataSize.ofMegabytes(1));
+        record(recorder, "GET", "/mirror", 200, "");
+        log.flush(true);
+        log.flush();
+        assertEquals(1, log.segments(), "A young segment stays active");
+
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        log.flush();
+        assertEquals(2, log.segments());
+
+        log.flush();
+        assertEquals(2, log.segments(), "An empty active segment is not rotated");
+
+        clock.addAndGet(Duration.ofMinutes(20).toMillis());
+        log.flush();
+        assertEquals(1, log.segments());
+        assertEquals(1, log.deleted());
+        assertEquals(1, segmentFiles().size());
+        assertEquals(0, log.scan(null, null).count());
+    }
+
+    @Test
+    void testScanByTimeRangeSkipsSegmentsOutsideRange() throws Exception {
+        RequestRecorder recorder = recorder(64);
+        TrafficLog log = log(recorder, DataSize.ofMegabytes(1));
+        record(recorder, "GET", "/mirror/early", 200, "");
+        log.flush(true);
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        log.flush();
+        Thread.sleep(5);
+        Instant boundary = Instant.now();
+        Thread.sleep(5);
+        record(recorder, "GET", "/mirror/late", 200, "");
+        log.flush(true);
+
+        assertEquals(List.of("/mirror/late"), log.scan(boundary, null).map(RecordedRequest::path).toList());
+        assertEquals(List.of("/mirror/early"), log.scan(null, boundary).map(RecordedRequest::path).toList());
+        assertEquals(0, log.scan(boundary.plusSeconds(3600), null).count());
+
+        TrafficLogSegment.Header sealed = TrafficLogSegment.readHeader(segmentFiles().get(0));
+        assertEquals(1, sealed.records());
+        assertFalse(sealed.overlaps(boundary.toEpochMilli(), Long.MAX_VALUE), "The early segment is skipped by its header");
+    }
+
+    @Test
+    void testReopenKeepsSegmentsAndStopsAtCorruptRecord() throws Exception {
+        RequestRecorder recorder = recorder(64);
+        TrafficLog log = log(recorder, DataSize.ofMegabytes(1));
+        record(recorder, "GET", "/mirror/a", 200, "first");
+        record(recorder, "GET", "/mirror/b", 200, "second");
+        log.flush(true);
+
+        TrafficLog reopened = log(recorder, DataSize.ofMegabytes(1));
+        assertEquals(2, reopened.segments());
+        assertEquals(2, reopened.scan(null, null).count());
+
+        Path first = segmentFiles().get(0);
+        TrafficLogSegment.Header header = TrafficLogSegment.readHeader(first);
+        try (FileChannel channel = FileChannel.open(first, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), header.used() - 1);
+        }
+        assertEquals(List.of("/mirror/a"), reopened.scan(null, null).map(RecordedRequest::path).toList());
+    }
+
+    @Test
+    void testInvalidSegmentSizeIsRejected() {
+        RequestRecorder recorder = recorder(64);
+        assertThrows(IllegalArgumentException.class, () -> new TrafficLog(new TrafficLogProperties(true, directory,
+            DataSize.ofBytes(1024), Duration.ofMinutes(1), DataSize.ofMegabytes(1), Duration.ofMinutes(10), Duration.ofSeconds(1)),
+            recorder, clock::get));
+    }
+}
@@ -0,0 +1,173 @@
+package com.wlanboy.mirrorservice.sequence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.SequenceSpec;
+import com.wlanboy.mirrorservice.controller.SequenceStep;
+import com.wlanboy.mirrorservice.ratelimit.RateLimitClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceCursorsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SequenceCursors cursors = new SequenceCursors(new SequenceProperties(3, Duration.ofSeconds(10)), now::get);
+
+    private static RateLimitClient client(String address, Map<String, String> headers) {
+        return new RateLimitClient() {
+            @Override
+            public String address() {
+                return address;
+            }
+
+            @Override
+            public String header(String name) {
+                return headers.get(name);
+            }
+        };
+    }
+
+    private static final RateLimitClient ALICE = client("10.0.0.1", Map.of());
+    private static final RateLimitClient BOB = client("10.0.0.2", Map.of());
+
+    /** 503, 503, 200 und danach beim letzten Schritt bleiben. */
+    private static SequenceSpec retry(Long ttlMs) {
+        return new SequenceSpec(List.of(new SequenceStep(503, null, null, 2), new SequenceStep(200, null, null, null)),
+            null, null, null, ttlMs, "retry");
+    }
+
+    /** Jeder fünfte Aufruf schlägt fehl. */
+    private static SequenceSpec everyFifth() {
+        return new SequenceSpec(List.of(new SequenceStep(200, null, null, 4), new SequenceStep(500, null, null, null)),
+            SequenceSpec.Mode.CYCLE, null, null, null, "every-fifth");
+    }
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    void testHoldLastStaysOnFinalStep() {
+        SequenceSpec spec = retry(null);
+
+        assertEquals(0, cursors.next(spec, ALICE, null));
+        assertEquals(0, cursors.next(spec, ALICE, null));
+        assertEquals(1, cursors.next(spec, ALICE, null));
+        assertEquals(1, cursors.next(spec, ALICE, null));
+        assertEquals(1, cursors.next(spec, ALICE, null));
+
+        assertEquals(0, cursors.next(spec, BOB, null), "Other client should start at the first step");
+    }
+
+    @Test
+    void testCycleRestartsAfterLastStep() {
+        SequenceSpec spec = everyFifth();
+        int[] expected = {0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+
+        for (int step : expected) {
+            assertEquals(step, cursors.next(spec, ALICE, null));
+        }
+    }
+
+    @Test
+    void testHeaderKeyFallsBackToAddressAndScenarioSeparatesCursors() {
+        SequenceSpec spec = new SequenceSpec(retry(null).steps(), null, SequenceSpec.Key.HEADER, "X-Caller", null, "retry");
+        RateLimitClient first = client("10.0.0.9", Map.of("X-Caller", "a"));
+        RateLimitClient second = client("10.0.0.9", Map.of("X-Caller", "b"));
+
+        assertEquals(0, cursors.next(spec, first, null));
+        assertEquals(0, cursors.next(spec, first, null));
+        assertEquals(1, cursors.next(spec, first, null));
+        assertEquals(0, cursors.next(spec, second, null));
+        assertEquals(0, cursors.next(spec, client("10.0.0.9", Map.of()), null));
+        assertEquals(0, cursors.next(spec, first, "other-scenario"));
+    }
+
+    @Test
+    void testIdleCursorExpiresAndIsSwept() {
+        SequenceSpec spec = retry(1000L);
+
+        cursors.next(spec, ALICE, null);
+        cursors.next(spec, ALICE, null);
+        advanceMs(999);
+        assertEquals(1, cursors.next(spec, ALICE, null), "Cursor should still be alive within its TTL");
+
+        advanceMs(1001);
+        assertEquals(0, cursors.next(spec, ALICE, null), "Expired cursor should restart the sequence");
+
+        cursors.next(spec, BOB, null);
+        advanceMs(500);
+        cursors.sweep();
+        assertEquals(2, cursors.keys());
+        advanceMs(600);
+        cursors.sweep();
+        assertEquals(0, cursors.keys());
+        assertEquals(0, cursors.next(spec, ALICE, null));
+    }
+
+    @Test
+    void testKeysBeyondLimitGetFirstStep() {
+        SequenceSpec spec = retry(null);
+        for (int i = 0; i < 3; i++) {
+            cursors.next(spec, client("10.0.1." + i, Map.of()), null);
+        }
+
+        RateLimitClient overflow = client("10.0.2.1", Map.of());
+        assertEquals(0, cursors.next(spec, overflow, null));
+        assertEquals(0, cursors.next(spec, overflow, null));
+        assertEquals(0, cursors.next(spec, overflow, null));
+        assertEquals(3, cursors.keys());
+    }
+
+    @Test
+    void testConcurrentCallsOnSameKeyKeepTheRatio() throws Exception {
+        SequenceSpec spec = everyFifth();
+        int threads = 8;
+        int callsPerThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> failures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                failures.add(pool.submit(() -> {
+                    start.await();
+                    int failed = 0;
+                    for (int i = 0; i < callsPerThread; i++) {
+                        failed += cursors.next(spec, ALICE, null);
+                    }
+                    return failed;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> failure : failures) {
+                total += failure.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(threads * callsPerThread / 5, total, "Exactly every fifth call should fail");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSpecValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new SequenceSpec(List.of(), null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceStep(99, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceStep(200, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceSpec(
+            Collections.nCopies(11, new SequenceStep(200, null, null, SequenceStep.MAX_TIMES)), null, null, null, null, null));
+        assertEquals(5, everyFifth().length());
+    }
+}
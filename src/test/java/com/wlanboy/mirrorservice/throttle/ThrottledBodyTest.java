@@ -0,0 +1,150 @@
+package com.wlanboy.mirrorservice.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import com.wlanboy.mirrorservice.controller.ThrottleSpec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThrottledBodyTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ThrottledStreams streams = new ThrottledStreams(null, registry);
+
+    private ThrottledBody body(ThrottleSpec spec, int length) {
+        ByteBuffer[] source = {ByteBuffer.allocate(length)};
+        return streams.open(spec, () -> {
+            ByteBuffer next = source[0];
+            source[0] = null;
+            return next;
+        }, length, clock::get, new Random(42));
+    }
+
+    private void advanceMs(long ms) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private static int send(ThrottledBody body) {
+        ByteBuffer chunk = body.nextChunk();
+        int size = chunk.remaining();
+        body.sent(size);
+        return size;
+    }
+
+    // ---------------------------------------------------------
+    // Rate und Time-to-first-Byte
+    // ---------------------------------------------------------
+
+    @Test
+    void testDefaultChunkIsOneTwentiethOfRate() {
+        assertEquals(50, new ThrottleSpec(1000, null, null, null, null, null).chunkSize().intValue());
+        assertEquals(1, new ThrottleSpec(10, null, null, null, null, null).chunkSize().intValue());
+        assertEquals(ThrottleSpec.DEFAULT_MAX_CHUNK_SIZE, new ThrottleSpec(100_000_000, null, null, null, null, null).chunkSize().intValue());
+    }
+
+    @Test
+    void testFirstByteThenPacedByRate() {
+        ThrottledBody body = body(new ThrottleSpec(1000, 500, null, null, null, 100), 300);
+        body.start();
+
+        assertEquals(500, body.delayMsUntilNext());
+        advanceMs(500);
+        assertEquals(0, body.delayMsUntilNext());
+        assertEquals(100, send(body));
+
+        assertEquals(100, body.delayMsUntilNext(), "100 Bytes bei 1000 B/s");
+        advanceMs(130);
+        send(body);
+        assertEquals(70, body.delayMsUntilNext(), "Verspätung wird gegenüber der Soll-Zeitachse aufgeholt");
+    }
+
+    @Test
+    void testCompletesWithExactLength() {
+        ThrottledBody body = body(new ThrottleSpec(1_000_000, null, null, null, null, 64), 1000);
+        body.start();
+        int total = 0;
+        ByteBuffer chunk;
+        while ((chunk = body.nextChunk()) != null) {
+            assertTrue(chunk.remaining() <= 64);
+            total += chunk.remaining();
+            body.sent(chunk.remaining());
+        }
+        assertEquals(1000, total);
+        assertEquals(1000, body.sentBytes());
+    }
+
+    // ---------------------------------------------------------
+    // Stillstand und Jitter
+    // ---------------------------------------------------------
+
+    @Test
+    void testStallAfterBytesThenResume() {
+        ThrottledBody body = body(new ThrottleSpec(1000, null, null, 150L, 2000, 100), 400);
+        body.start();
+
+        assertEquals(100, send(body));
+        advanceMs(100);
+        assertEquals(50, send(body), "Chunk endet an der Stillstandsgrenze");
+
+        assertEquals(50 + 2000, body.delayMsUntilNext(), "Rest der Rate plus Stillstand");
+        advanceMs(50 + 2000);
+        assertEquals(100, send(body));
+        assertEquals(100, body.delayMsUntilNext(), "Nach dem Stillstand wieder mit voller Rate");
+        assertEquals(1.0, registry.get("mirror.throttle.stalls").functionCounter().count(), 0.0);
+    }
+
+    @Test
+    void testJitterStaysWithinBounds() {
+        ThrottledBody body = body(new ThrottleSpec(1000, null, 40, null, null, 10), 10_000);
+        body.start();
+        for (int i = 0; i < 200; i++) {
+            send(body);
+            long delay = body.delayMsUntilNext();
+            assertTrue(delay >= 10 && delay <= 50, "Verzögerung " + delay + " außerhalb von 10..50 ms");
+            advanceMs(10);
+        }
+    }
+
+    // ---------------------------------------------------------
+    // Metriken
+    // ---------------------------------------------------------
+
+    @Test
+    void testMetricsPerStream() {
+        ThrottledBody body = body(new ThrottleSpec(1000, null, null, null, null, 500), 1000);
+        body.start();
+        assertEquals(1.0, registry.get("mirror.throttle.active").gauge().value(), 0.0);
+
+        send(body);
+        advanceMs(500);
+        send(body);
+        advanceMs(500);
+        assertNull(body.nextChunk());
+        body.finish(true);
+        body.finish(true);
+
+        assertEquals(0.0, registry.get("mirror.throttle.active").gauge().value(), 0.0);
+        assertEquals(1000.0, registry.get("mirror.throttle.bytes").functionCounter().count(), 0.0);
+        var summary = registry.get("mirror.throttle.throughput").tag("outcome", "completed").summary();
+        assertEquals(1, summary.count());
+        assertEquals(1000, summary.totalAmount(), 1.0);
+    }
+
+    @Test
+    void testInvalidSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> new ThrottleSpec(0, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new ThrottleSpec(10, -1, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new ThrottleSpec(10, null, null, -1L, 100, null));
+        assertThrows(IllegalArgumentException.class, () -> new ThrottleSpec(10, null, null, null, ThrottleSpec.MAX_STALL_MS + 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new ThrottleSpec(10, null, null, null, null, 0));
+    }
+}